@@ -1,18 +1,134 @@
 
+-- Muss vor der ersten Tabelle stehen; sonst wirkt es erst nach einem VACUUM (siehe DatenbankWartung)
+PRAGMA auto_vacuum = INCREMENTAL;
+
 CREATE TABLE abkuerzungen (
   abk_id     INTEGER PRIMARY KEY,
-  abkuerzung TEXT    NOT NULL
+  abkuerzung TEXT    NOT NULL,
+  aenderung  INTEGER NOT NULL DEFAULT 0,
+  abk_schluessel TEXT NOT NULL DEFAULT ''
 );
 
-CREATE INDEX abkuerzung_index_1 ON abkuerzungen(abkuerzung);
+-- Schluessel: ohne Satzzeichen und diakritische Zeichen, in Grossbuchstaben (siehe AbkNormalisierer)
+CREATE UNIQUE INDEX abkuerzung_index_schluessel ON abkuerzungen(abk_schluessel);
 
 
 CREATE TABLE bedeutungen (
   bedeutung_id INTEGER PRIMARY KEY,
   bedeutung    TEXT    NOT NULL   ,  
   abkuerzung   INTEGER            ,
+  aenderung    INTEGER NOT NULL DEFAULT 0,
+  treffer      INTEGER NOT NULL DEFAULT 0,
+  kategorie    INTEGER NOT NULL DEFAULT 0,
 
   FOREIGN KEY (abkuerzung) REFERENCES abkuerzungen(abk_id)
 );
 
-CREATE INDEX bedeutungen_index_1 ON bedeutungen(abkuerzung);
+CREATE INDEX bedeutungen_index_abk_bedeutung ON bedeutungen(abkuerzung, bedeutung);
+
+CREATE INDEX bedeutungen_index_aenderung ON bedeutungen(aenderung);
+
+-- Bedeutungen einer Abkuerzung nach Haeufigkeit der Auswahl, dann nach Text (ohne Sortier-Schritt)
+CREATE INDEX bedeutungen_index_abk_treffer ON bedeutungen(abkuerzung, treffer DESC, bedeutung);
+
+-- Wie oben, aber fuer die Suche mit Kategorie-Filter (Kategorie als zweite Gleichheits-Bedingung)
+CREATE INDEX bedeutungen_index_abk_kategorie ON bedeutungen(abkuerzung, kategorie, treffer DESC, bedeutung);
+
+
+-- Kategorie 0 ("Allgemein") ist der Default fuer bedeutungen.kategorie
+CREATE TABLE kategorien (
+  kategorie_id INTEGER PRIMARY KEY,
+  name         TEXT    NOT NULL UNIQUE
+);
+
+INSERT INTO kategorien (kategorie_id, name) VALUES
+  ( 0, 'Allgemein' ), ( 1, 'IT' ), ( 2, 'Sport' ), ( 3, 'Raumfahrt' ), ( 4, 'Team-Jargon' );
+
+
+CREATE VIRTUAL TABLE bedeutungen_fts USING fts4 ( content="bedeutungen", bedeutung, tokenize=unicode61 );
+
+CREATE TRIGGER bedeutungen_fts_nach_insert AFTER INSERT ON bedeutungen BEGIN
+  INSERT INTO bedeutungen_fts (docid, bedeutung) VALUES ( new.bedeutung_id, new.bedeutung );
+END;
+
+CREATE TRIGGER bedeutungen_fts_vor_update BEFORE UPDATE OF bedeutung ON bedeutungen BEGIN
+  DELETE FROM bedeutungen_fts WHERE docid = old.bedeutung_id;
+END;
+
+CREATE TRIGGER bedeutungen_fts_nach_update AFTER UPDATE OF bedeutung ON bedeutungen BEGIN
+  INSERT INTO bedeutungen_fts (docid, bedeutung) VALUES ( new.bedeutung_id, new.bedeutung );
+END;
+
+CREATE TRIGGER bedeutungen_fts_vor_delete BEFORE DELETE ON bedeutungen BEGIN
+  DELETE FROM bedeutungen_fts WHERE docid = old.bedeutung_id;
+END;
+
+
+CREATE TABLE metadaten (
+  schluessel TEXT    PRIMARY KEY,
+  wert       INTEGER NOT NULL
+);
+
+INSERT INTO metadaten (schluessel, wert) VALUES ( 'aenderung', 0 );
+
+
+CREATE TABLE geloeschte_bedeutungen (
+  bedeutung_id INTEGER PRIMARY KEY,
+  abkuerzung   TEXT               ,
+  bedeutung    TEXT    NOT NULL   ,
+  aenderung    INTEGER NOT NULL
+);
+
+CREATE INDEX geloeschte_bedeutungen_index_aenderung ON geloeschte_bedeutungen(aenderung);
+
+-- Import und Zusammenfuehren setzen aenderung selbst (einmal pro Transaktion), die Trigger nur fuer aenderung = 0
+CREATE TRIGGER abkuerzungen_aenderung_nach_insert AFTER INSERT ON abkuerzungen WHEN new.aenderung = 0 BEGIN
+  UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung';
+  UPDATE abkuerzungen SET aenderung = ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )
+    WHERE abk_id = new.abk_id;
+END;
+
+CREATE TRIGGER abkuerzungen_aenderung_nach_update AFTER UPDATE OF abkuerzung ON abkuerzungen BEGIN
+  UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung';
+  UPDATE abkuerzungen SET aenderung = ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )
+    WHERE abk_id = new.abk_id;
+  UPDATE bedeutungen SET aenderung = ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )
+    WHERE abkuerzung = new.abk_id;
+END;
+
+CREATE TRIGGER bedeutungen_aenderung_nach_insert AFTER INSERT ON bedeutungen WHEN new.aenderung = 0 BEGIN
+  UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung';
+  UPDATE bedeutungen SET aenderung = ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )
+    WHERE bedeutung_id = new.bedeutung_id;
+END;
+
+CREATE TRIGGER bedeutungen_geloescht_nach_insert AFTER INSERT ON bedeutungen BEGIN
+  DELETE FROM geloeschte_bedeutungen WHERE bedeutung_id = new.bedeutung_id;
+END;
+
+CREATE TRIGGER bedeutungen_aenderung_nach_update AFTER UPDATE OF abkuerzung, bedeutung, kategorie ON bedeutungen BEGIN
+  UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung';
+  UPDATE bedeutungen SET aenderung = ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )
+    WHERE bedeutung_id = new.bedeutung_id;
+END;
+
+CREATE TRIGGER bedeutungen_aenderung_nach_delete AFTER DELETE ON bedeutungen BEGIN
+  UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung';
+  INSERT OR REPLACE INTO geloeschte_bedeutungen (bedeutung_id, abkuerzung, bedeutung, aenderung)
+    VALUES ( old.bedeutung_id,
+             ( SELECT abkuerzung FROM abkuerzungen WHERE abk_id = old.abkuerzung ),
+             old.bedeutung,
+             ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' ) );
+END;
+
+
+-- Ein Eintrag pro Lauf von DatenbankWartung, ergebnis ist "ok", "abgebrochen" oder die Meldung
+CREATE TABLE wartung_protokoll (
+  wartung_id         INTEGER PRIMARY KEY,
+  beginn             INTEGER NOT NULL,
+  dauer_ms           INTEGER NOT NULL,
+  groesse_vorher     INTEGER NOT NULL,
+  groesse_nachher    INTEGER NOT NULL,
+  seiten_freigegeben INTEGER NOT NULL,
+  ergebnis           TEXT    NOT NULL
+);
@@ -1,13 +1,14 @@
 
-INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES ( 1, 'ADB' );
-INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES ( 2, 'KSC' );
-INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES ( 3, 'HCI' );
+INSERT INTO abkuerzungen (abk_id, abkuerzung, abk_schluessel) VALUES ( 1, 'ADB', 'ADB' );
+INSERT INTO abkuerzungen (abk_id, abkuerzung, abk_schluessel) VALUES ( 2, 'KSC', 'KSC' );
+INSERT INTO abkuerzungen (abk_id, abkuerzung, abk_schluessel) VALUES ( 3, 'HCI', 'HCI' );
 
 
-INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES ( 1, 'Android Debug Bridge' );
+-- Kategorien siehe Tabelle "kategorien": 1 = IT, 2 = Sport, 3 = Raumfahrt
+INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( 1, 'Android Debug Bridge', 1 );
 
-INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES ( 2, 'Karlsruher Sport-Club' );
-INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES ( 2, 'Kennedy Space Center'  );
+INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( 2, 'Karlsruher Sport-Club', 2 );
+INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( 2, 'Kennedy Space Center' , 3 );
 
-INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES ( 3, 'Human-Computer Interaction' );
-INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES ( 3, 'Hash Collision Index'       );
+INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( 3, 'Human-Computer Interaction', 1 );
+INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( 3, 'Hash Collision Index'      , 1 );
@@ -1,5 +1,5 @@
 
-INSERT INTO abkuerzungen (abkuerzung) VALUES ('ARM');
+INSERT INTO abkuerzungen (abkuerzung, abk_schluessel) VALUES ('ARM', 'ARM');
 
 
 -- Mit dem folgenden Insert-Statement kann die erste oder eine weitere Bedeutung 
@@ -7,4 +7,4 @@ INSERT INTO abkuerzungen (abkuerzung) VALUES ('ARM');
 INSERT INTO bedeutungen (abkuerzung, bedeutung) 
             SELECT abk_id, 'Advanced RISC Machines' 
               FROM abkuerzungen 
-             WHERE abkuerzung='ARM';
+             WHERE abk_schluessel='ARM';
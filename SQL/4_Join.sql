@@ -10,5 +10,14 @@ SELECT abkuerzungen.abkuerzung, bedeutung
 SELECT abkuerzungen.abkuerzung, bedeutung 
     FROM abkuerzungen, bedeutungen
     WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung
-      AND abkuerzungen.abkuerzung="KSC"
-    ORDER BY abkuerzungen.abkuerzung ASC, bedeutung ASC;
+      AND abkuerzungen.abk_schluessel="KSC"
+    ORDER BY bedeutungen.treffer DESC, bedeutung ASC;
+
+
+-- Wie oben, aber nur Bedeutungen der Kategorien "Sport" und "Raumfahrt" (Index bedeutungen_index_abk_kategorie)
+SELECT abkuerzungen.abkuerzung, bedeutung 
+    FROM abkuerzungen, bedeutungen
+    WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung
+      AND abkuerzungen.abk_schluessel="KSC"
+      AND bedeutungen.kategorie IN ( 2, 3 )
+    ORDER BY bedeutungen.treffer DESC, bedeutung ASC;
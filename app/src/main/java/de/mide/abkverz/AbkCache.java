@@ -0,0 +1,275 @@
+package de.mide.abkverz;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * LRU-Cache für die Ergebnisse von {@link DatenbankManager#sucheNachAbk(String)}, Schlüssel
+ * ist der Schlüssel der Abkürzung ({@link AbkNormalisierer#schluessel(String)}). Auch "nicht gefunden" wird gespeichert (als Array
+ * der Länge 0), damit wiederholte Suchen nach unbekannten Abkürzungen ebenfalls nicht
+ * auf die Datenbank zugreifen.
+ * <br><br>
+ *
+ * Der Cache ist durch einen geschätzten Speicherbedarf begrenzt (siehe
+ * {@link #setMaxBytes(long)}); wird er überschritten, dann werden die am längsten nicht
+ * mehr gesuchten Einträge verdrängt.
+ * <br><br>
+ *
+ * Nach jeder Änderung an einer Abkürzung muss ihr Eintrag mit {@link #entfernen(String)}
+ * ungültig gemacht werden. Damit ein gleichzeitig laufender Lese-Zugriff danach kein
+ * veraltetes Ergebnis ablegt, merkt sich der Leser vor dem Datenbank-Zugriff mit
+ * {@link #getStand()} den Stand des Caches und übergibt ihn an
+ * {@link #ablegen(String, String[], long)}.
+ * <br><br>
+ *
+ * Alle Methoden sind thread-safe.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkCache {
+
+    /** Default für den maximalen geschätzten Speicherbedarf aller Einträge. */
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024;
+
+    /** Geschätzter Speicherbedarf eines Eintrags ohne die Strings (Map-Eintrag, Array-Kopf). */
+    protected static final int BYTES_PRO_EINTRAG = 80;
+
+    /** Geschätzter Speicherbedarf eines Strings ohne die Zeichen. */
+    protected static final int BYTES_PRO_STRING = 40;
+
+    /** Gecachtes Ergebnis für Abkürzungen ohne Bedeutung. */
+    protected static final String[] KEINE_BEDEUTUNGEN = new String[ 0 ];
+
+
+    /** Einträge in der Reihenfolge des letzten Zugriffs, ältester zuerst. */
+    protected final LinkedHashMap<String,String[]> _eintraege = new LinkedHashMap<>( 64, 0.75f, true );
+
+    /** Maximaler geschätzter Speicherbedarf aller Einträge. */
+    protected long _maxBytes = DEFAULT_MAX_BYTES;
+
+    /** Aktueller geschätzter Speicherbedarf aller Einträge. */
+    protected long _bytes = 0;
+
+    /** Wird bei jedem Ungültig-Machen erhöht, siehe {@link #getStand()}. */
+    protected long _stand = 0;
+
+    /** Anzahl der Suchen, die aus dem Cache beantwortet wurden. */
+    protected long _anzahlTreffer = 0;
+
+    /** Anzahl der Suchen, für die kein Eintrag im Cache war. */
+    protected long _anzahlFehlschlaege = 0;
+
+    /** Anzahl der Einträge, die wegen Speicher-Obergrenze verdrängt wurden. */
+    protected long _anzahlVerdraengungen = 0;
+
+
+    /**
+     * Sucht eine Abkürzung im Cache.
+     *
+     * @param abk  Schlüssel der Abkürzung.
+     *
+     * @return  Kopie der gecachten Bedeutungen (Länge 0 für "nicht gefunden"), oder
+     *          {@code null}, wenn die Abkürzung nicht im Cache ist.
+     */
+    public synchronized String[] hole( String abk ) {
+
+        String[] bedeutungen = _eintraege.get( abk );
+        if ( bedeutungen == null ) {
+
+            _anzahlFehlschlaege++;
+            return null;
+        }
+
+        _anzahlTreffer++;
+        return bedeutungen.length == 0 ? bedeutungen : bedeutungen.clone();
+    }
+
+
+    /**
+     * Liefert den aktuellen Stand des Caches; muss vor dem Datenbank-Zugriff abgefragt
+     * werden, dessen Ergebnis mit {@link #ablegen(String, String[], long)} gecacht wird.
+     *
+     * @return  Stand, ändert sich bei jedem Ungültig-Machen.
+     */
+    public synchronized long getStand() {
+
+        return _stand;
+    }
+
+
+    /**
+     * Legt das Ergebnis einer Suche im Cache ab, sofern seit {@code stand} kein Eintrag
+     * ungültig gemacht wurde (sonst könnte das Ergebnis schon veraltet sein).
+     *
+     * @param abk  Schlüssel der Abkürzung.
+     *
+     * @param bedeutungen  Gefundene Bedeutungen, Länge 0 für "nicht gefunden"; der Cache
+     *                     speichert eine Kopie.
+     *
+     * @param stand  Wert von {@link #getStand()} vor dem Datenbank-Zugriff.
+     */
+    public synchronized void ablegen( String abk, String[] bedeutungen, long stand ) {
+
+        if ( stand != _stand ) {
+
+            return;
+        }
+
+        String[] kopie   = bedeutungen.length == 0 ? KEINE_BEDEUTUNGEN : bedeutungen.clone();
+        long     groesse = schaetzeBytes( abk, kopie );
+        if ( groesse > _maxBytes ) {
+
+            return; // würde den ganzen Cache verdrängen
+        }
+
+        String[] alt = _eintraege.put( abk, kopie );
+        if ( alt != null ) {
+
+            _bytes -= schaetzeBytes( abk, alt );
+        }
+        _bytes += groesse;
+
+        verdraengen();
+    }
+
+
+    /**
+     * Macht den Eintrag einer Abkürzung ungültig, z.B. nachdem eine Bedeutung eingefügt wurde.
+     *
+     * @param abk  Schlüssel der Abkürzung.
+     */
+    public synchronized void entfernen( String abk ) {
+
+        _stand++;
+
+        String[] alt = _eintraege.remove( abk );
+        if ( alt != null ) {
+
+            _bytes -= schaetzeBytes( abk, alt );
+        }
+    }
+
+
+    /**
+     * Entfernt alle Einträge, z.B. nach einem Import oder bei Speichermangel.
+     */
+    public synchronized void leeren() {
+
+        _stand++;
+        _eintraege.clear();
+        _bytes = 0;
+    }
+
+
+    /**
+     * Setzt den maximalen geschätzten Speicherbedarf aller Einträge; zu viele Einträge
+     * werden sofort verdrängt.
+     *
+     * @param maxBytes  Obergrenze in Bytes, 0 schaltet den Cache ab.
+     */
+    public synchronized void setMaxBytes( long maxBytes ) {
+
+        if ( maxBytes < 0 ) {
+
+            throw new IllegalArgumentException( "Obergrenze darf nicht negativ sein: " + maxBytes );
+        }
+
+        _maxBytes = maxBytes;
+        verdraengen();
+    }
+
+
+    /**
+     * Verdrängt die ältesten Einträge, bis die Obergrenze eingehalten wird.
+     */
+    protected void verdraengen() {
+
+        Iterator<Map.Entry<String,String[]>> iterator = _eintraege.entrySet().iterator();
+        while ( _bytes > _maxBytes && iterator.hasNext() ) {
+
+            Map.Entry<String,String[]> aeltester = iterator.next();
+            _bytes -= schaetzeBytes( aeltester.getKey(), aeltester.getValue() );
+            iterator.remove();
+            _anzahlVerdraengungen++;
+        }
+    }
+
+
+    /**
+     * Schätzt den Speicherbedarf eines Eintrags (2 Bytes pro Zeichen plus Objekt-Köpfe).
+     *
+     * @param abk  Schlüssel.
+     *
+     * @param bedeutungen  Wert.
+     *
+     * @return  Geschätzter Speicherbedarf in Bytes.
+     */
+    protected static long schaetzeBytes( String abk, String[] bedeutungen ) {
+
+        long bytes = BYTES_PRO_EINTRAG + BYTES_PRO_STRING + 2L * abk.length() + 4L * bedeutungen.length;
+        for ( String bedeutung: bedeutungen ) {
+
+            bytes += BYTES_PRO_STRING + 2L * bedeutung.length();
+        }
+        return bytes;
+    }
+
+
+    /**
+     * Getter für Anzahl der Einträge.
+     *
+     * @return  Anzahl der gecachten Abkürzungen.
+     */
+    public synchronized int getAnzahlEintraege() {
+
+        return _eintraege.size();
+    }
+
+
+    /**
+     * Getter für geschätzten Speicherbedarf.
+     *
+     * @return  Geschätzter Speicherbedarf aller Einträge in Bytes.
+     */
+    public synchronized long getBytes() {
+
+        return _bytes;
+    }
+
+
+    /**
+     * Getter für Anzahl der Cache-Treffer.
+     *
+     * @return  Anzahl der Suchen, die aus dem Cache beantwortet wurden.
+     */
+    public synchronized long getAnzahlTreffer() {
+
+        return _anzahlTreffer;
+    }
+
+
+    /**
+     * Getter für Anzahl der Cache-Fehlschläge.
+     *
+     * @return  Anzahl der Suchen, für die kein Eintrag im Cache war.
+     */
+    public synchronized long getAnzahlFehlschlaege() {
+
+        return _anzahlFehlschlaege;
+    }
+
+
+    /**
+     * Getter für Anzahl der Verdrängungen.
+     *
+     * @return  Anzahl der Einträge, die wegen der Obergrenze entfernt wurden.
+     */
+    public synchronized long getAnzahlVerdraengungen() {
+
+        return _anzahlVerdraengungen;
+    }
+
+};
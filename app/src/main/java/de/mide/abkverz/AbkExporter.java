@@ -0,0 +1,483 @@
+package de.mide.abkverz;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Export aller oder nur der seit dem letzten Export geänderten Bedeutungen aus der
+ * Datenbank des {@link DatenbankManager} als JSON Lines oder CSV, z.B. für eine Sicherung.
+ * <br><br>
+ *
+ * Ab Schema-Version 4 setzen Trigger bei jeder Änderung die Spalte {@code aenderung}
+ * auf den nächsten Wert des Zählers in Tabelle {@code metadaten}; gelöschte Bedeutungen
+ * werden in Tabelle {@code geloeschte_bedeutungen} vermerkt. Ein inkrementeller Export
+ * ({@link #exportiereInkrementell(OutputStream)}) liest über den Index
+ * {@code bedeutungen_index_aenderung} nur die Zeilen mit höherem Stand als beim letzten
+ * Export; die Dauer hängt also nur von der Anzahl der Änderungen ab.
+ * <br><br>
+ *
+ * Eine Zeile pro Bedeutung, bei JSON Lines z.B.:
+ * <pre>
+ *   {"id":12,"abk":"KSC","bedeutung":"Karlsruher Sport-Club","kategorie":2,"aenderung":34}
+ *   {"id":13,"abk":"KSC","bedeutung":"Kennedy Space Center","aenderung":40,"geloescht":true}
+ * </pre>
+ * Bei CSV stehen Abkürzung, Bedeutung und Kategorie in den ersten drei Spalten, eine
+ * vollständige CSV-Datei kann also mit {@link AbkImporter} samt Kategorien wieder
+ * importiert werden. Ab Schema-Version 9 setzt auch eine geänderte Kategorie den
+ * Änderungs-Stand, sie ist also im nächsten inkrementellen Export enthalten.
+ * <br><br>
+ *
+ * Die Zeilen werden seitenweise ({@link #setSeitenGroesse(int)}) in der Reihenfolge des
+ * Änderungs-Stands gelesen (Keyset-Paginierung) und sofort geschrieben, der Speicherbedarf
+ * hängt also nicht von der Größe der Datenbank ab. Die Schreib-Sperre wird nicht gehalten;
+ * was während des Exports geändert wird, bekommt einen höheren Stand als
+ * {@link #exportiere(OutputStream, long)} zurückgibt und ist im nächsten Export enthalten.
+ * <br><br>
+ *
+ * Der Export greift auf die Datenbank zu und sollte deshalb nicht auf dem UI-Thread
+ * ausgeführt werden, siehe {@link DatenbankAuftraege}.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkExporter implements IGlobalConstants {
+
+    /** Ausgabe-Formate. */
+    public enum Format {
+
+        /** Ein JSON-Objekt pro Zeile. */
+        JSON_LINES,
+
+        /** Komma-getrennt, Texte in doppelten Anführungszeichen. */
+        CSV
+    }
+
+    /** Stand für {@link #exportiere(OutputStream, long)}, um alle Bedeutungen zu exportieren. */
+    public static final long ALLES = -1;
+
+    /** Default-Wert für Anzahl der Zeilen, die auf einmal gelesen werden. */
+    public static final int DEFAULT_SEITEN_GROESSE = 1_000;
+
+    /** Kopfzeile für CSV; beginnt mit {@code #}, wird also von {@link AbkImporter} übersprungen. */
+    public static final String CSV_KOPFZEILE = "# abkuerzung,bedeutung,kategorie,bedeutung_id,aenderung,geloescht";
+
+    /** Query für einen Wert aus Tabelle {@code metadaten}. */
+    protected static final String SQL_METADATEN =
+            "SELECT wert FROM metadaten WHERE schluessel = ?";
+
+    /** Statement zum Setzen eines Werts in Tabelle {@code metadaten}. */
+    protected static final String SQL_METADATEN_SETZEN =
+            "INSERT OR REPLACE INTO metadaten (schluessel, wert) VALUES ( ?, ? )";
+
+    /** Schlüssel in {@code metadaten} für den Zähler, den die Trigger erhöhen. */
+    protected static final String SCHLUESSEL_AENDERUNG = "aenderung";
+
+    /** Schlüssel in {@code metadaten} für den Stand des letzten inkrementellen Exports. */
+    protected static final String SCHLUESSEL_EXPORT_STAND = "export_stand";
+
+    /**
+     * Query für eine Seite geänderter Bedeutungen: {@code ?1}/{@code ?2} = Stand/ID der
+     * letzten Zeile der vorherigen Seite, {@code ?3} = höchster Stand, {@code ?4} = Seitengröße.
+     * Sortiert nach Stand und ID, das ist die Reihenfolge im Index {@code bedeutungen_index_aenderung}.
+     */
+    protected static final String SQL_GEAENDERTE_BEDEUTUNGEN =
+            "SELECT bedeutungen.bedeutung_id, abkuerzungen.abkuerzung, " +
+            "       bedeutungen.bedeutung, bedeutungen.aenderung, bedeutungen.kategorie " +
+            "  FROM bedeutungen, abkuerzungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND bedeutungen.aenderung >= CAST(?1 AS INTEGER) " +
+            "    AND ( bedeutungen.aenderung > CAST(?1 AS INTEGER) " +
+            "          OR bedeutungen.bedeutung_id > CAST(?2 AS INTEGER) ) " +
+            "    AND bedeutungen.aenderung <= CAST(?3 AS INTEGER) " +
+            "  ORDER BY bedeutungen.aenderung ASC, bedeutungen.bedeutung_id ASC " +
+            "  LIMIT CAST(?4 AS INTEGER)";
+
+    /** Wie {@link #SQL_GEAENDERTE_BEDEUTUNGEN}, aber für gelöschte Bedeutungen (ohne Kategorie). */
+    protected static final String SQL_GELOESCHTE_BEDEUTUNGEN =
+            "SELECT bedeutung_id, abkuerzung, bedeutung, aenderung, NULL AS kategorie " +
+            "  FROM geloeschte_bedeutungen " +
+            "  WHERE aenderung >= CAST(?1 AS INTEGER) " +
+            "    AND ( aenderung > CAST(?1 AS INTEGER) OR bedeutung_id > CAST(?2 AS INTEGER) ) " +
+            "    AND aenderung <= CAST(?3 AS INTEGER) " +
+            "  ORDER BY aenderung ASC, bedeutung_id ASC " +
+            "  LIMIT CAST(?4 AS INTEGER)";
+
+
+    /** Datenbank-Manager, aus dessen Datenbank exportiert wird. */
+    protected final DatenbankManager _datenbankManager;
+
+    /** Ausgabe-Format. */
+    protected Format _format = Format.JSON_LINES;
+
+    /** Anzahl der Zeilen, die auf einmal gelesen werden. */
+    protected int _seitenGroesse = DEFAULT_SEITEN_GROESSE;
+
+    /** Anzahl der beim letzten Export geschriebenen Zeilen. */
+    protected long _anzahlZeilen = 0;
+
+
+    /**
+     * Konstruktor.
+     *
+     * @param datenbankManager  Datenbank-Manager, aus dessen Datenbank exportiert werden soll.
+     */
+    public AbkExporter( DatenbankManager datenbankManager ) {
+
+        _datenbankManager = datenbankManager;
+    }
+
+
+    /**
+     * Setter für Ausgabe-Format.
+     *
+     * @param format  z.B. {@link Format#CSV}.
+     */
+    public void setFormat( Format format ) {
+
+        _format = format;
+    }
+
+
+    /**
+     * Setter für Anzahl der Zeilen, die auf einmal gelesen werden.
+     *
+     * @param seitenGroesse  Anzahl der Zeilen, muss mindestens 1 sein.
+     */
+    public void setSeitenGroesse( int seitenGroesse ) {
+
+        if ( seitenGroesse < 1 ) {
+
+            throw new IllegalArgumentException( "Seitengröße muss mindestens 1 sein: " + seitenGroesse );
+        }
+        _seitenGroesse = seitenGroesse;
+    }
+
+
+    /**
+     * Getter für Anzahl der exportierten Zeilen.
+     *
+     * @return  Anzahl der beim letzten Export geschriebenen Zeilen (inkl. gelöschter Bedeutungen).
+     */
+    public long getAnzahlZeilen() {
+
+        return _anzahlZeilen;
+    }
+
+
+    /**
+     * Exportiert nur die Bedeutungen, die seit dem letzten Aufruf dieser Methode geändert
+     * wurden (beim ersten Aufruf alle); der neue Stand wird erst nach erfolgreichem
+     * Schreiben gespeichert. Der Stream wird nicht geschlossen.
+     *
+     * @param outputStream  Ziel, z.B. eine neue Datei pro Sicherung.
+     *
+     * @return  Stand des Exports, siehe {@link #exportiere(OutputStream, long)}.
+     *
+     * @throws IOException  Fehler beim Schreiben.
+     *
+     * @throws SQLException  Fehler beim Lesen aus der Datenbank.
+     */
+    public long exportiereInkrementell( OutputStream outputStream ) throws IOException, SQLException {
+
+        SQLiteDatabase db = _datenbankManager.getWritableDatabase();
+
+        long seit = _datenbankManager.getStatementCache().abfrageLong( db, SQL_METADATEN, ALLES,
+                                                                       SCHLUESSEL_EXPORT_STAND );
+        long bis  = exportiere( outputStream, seit );
+
+        ReentrantLock schreibSperre = _datenbankManager.getSchreibSperre();
+        schreibSperre.lock();
+        try {
+
+            _datenbankManager.getStatementCache().insert( db, SQL_METADATEN_SETZEN,
+                                                          SCHLUESSEL_EXPORT_STAND, bis );
+        }
+        finally {
+
+            schreibSperre.unlock();
+        }
+
+        return bis;
+    }
+
+
+    /**
+     * Exportiert alle Bedeutungen, die nach Stand {@code seit} geändert wurden, und die nach
+     * Stand {@code seit} gelöschten Bedeutungen. Der Stream wird nicht geschlossen.
+     *
+     * @param outputStream  Ziel, Zeichensatz UTF-8.
+     *
+     * @param seit  Rückgabewert eines früheren Exports, oder {@link #ALLES}.
+     *
+     * @return  Stand des Exports: Alle Änderungen bis zu diesem Stand sind enthalten; für
+     *          den nächsten inkrementellen Export als {@code seit} übergeben.
+     *
+     * @throws IOException  Fehler beim Schreiben.
+     *
+     * @throws SQLException  Fehler beim Lesen aus der Datenbank.
+     */
+    public long exportiere( OutputStream outputStream, long seit ) throws IOException, SQLException {
+
+        DbMetriken     metriken = _datenbankManager.getMetriken();
+        long           start    = metriken.start();
+        SQLiteDatabase db       = _datenbankManager.getReadableDatabase();
+
+        _anzahlZeilen = 0;
+
+        long bis;
+        try {
+
+            bis = _datenbankManager.getStatementCache().abfrageLong( db, SQL_METADATEN, 0,
+                                                                     SCHLUESSEL_AENDERUNG );
+
+            Writer writer = new BufferedWriter( new OutputStreamWriter( outputStream, StandardCharsets.UTF_8 ),
+                                                64 * 1024 );
+            if ( _format == Format.CSV ) {
+
+                writer.write( CSV_KOPFZEILE );
+                writer.write( '\n' );
+            }
+
+            exportiereSeitenweise( db, writer, SQL_GEAENDERTE_BEDEUTUNGEN, seit, bis, false );
+            if ( seit != ALLES ) { // im vollständigen Export interessieren Löschungen nicht
+
+                exportiereSeitenweise( db, writer, SQL_GELOESCHTE_BEDEUTUNGEN, seit, bis, true );
+            }
+
+            writer.flush();
+        }
+        catch ( SQLException ex ) {
+
+            metriken.fehler( DbMetriken.Operation.EXPORT );
+            throw ex;
+        }
+
+        metriken.ende( DbMetriken.Operation.EXPORT, start, _anzahlZeilen, null );
+
+        Log.i( TAG4LOGGING, "Export abgeschlossen: " + _anzahlZeilen + " Zeilen, Stand " +
+                seit + " bis " + bis + "." );
+
+        return bis;
+    }
+
+
+    /**
+     * Liest die Zeilen einer Query seitenweise und schreibt sie.
+     *
+     * @param db  Datenbank.
+     *
+     * @param writer  Ziel.
+     *
+     * @param sql  {@link #SQL_GEAENDERTE_BEDEUTUNGEN} oder {@link #SQL_GELOESCHTE_BEDEUTUNGEN}.
+     *
+     * @param seit  Nur Zeilen mit höherem Stand.
+     *
+     * @param bis  Nur Zeilen mit höchstens diesem Stand.
+     *
+     * @param geloescht  {@code true}, wenn die Zeilen gelöschte Bedeutungen sind.
+     */
+    protected void exportiereSeitenweise( SQLiteDatabase db, Writer writer, String sql,
+                                          long seit, long bis, boolean geloescht )
+            throws IOException, SQLException {
+
+        long          letzterStand = seit;
+        long          letzteId     = Long.MAX_VALUE; // beim ersten Mal nur "aenderung > seit"
+        int           gelesen      = 0;
+        StringBuilder zeile        = new StringBuilder( 256 );
+
+        do {
+
+            gelesen = 0;
+
+            Cursor cursor = db.rawQuery( sql,
+                    new String[]{ Long.toString( letzterStand ), Long.toString( letzteId ),
+                                  Long.toString( bis ), Integer.toString( _seitenGroesse ) } );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    long   id        = cursor.getLong  ( 0 );
+                    String abk       = cursor.getString( 1 );
+                    String bedeutung = cursor.getString( 2 );
+                    letzterStand     = cursor.getLong  ( 3 );
+                    int    kategorie = cursor.getInt   ( 4 );
+                    letzteId         = id;
+
+                    zeile.setLength( 0 );
+                    if ( _format == Format.CSV ) {
+
+                        csvZeile( zeile, abk, bedeutung, kategorie, id, letzterStand, geloescht );
+
+                    } else {
+
+                        jsonZeile( zeile, abk, bedeutung, kategorie, id, letzterStand, geloescht );
+                    }
+                    zeile.append( '\n' );
+                    writer.append( zeile );
+
+                    gelesen++;
+                    _anzahlZeilen++;
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+
+        } while ( gelesen == _seitenGroesse );
+    }
+
+
+    /**
+     * Hängt eine Zeile im Format JSON Lines (ohne Zeilenumbruch) an.
+     *
+     * @param sb  Ziel.
+     *
+     * @param abk  Abkürzung, darf bei gelöschten Bedeutungen {@code null} sein.
+     *
+     * @param bedeutung  Bedeutung.
+     *
+     * @param kategorie  ID der Kategorie; wird bei gelöschten Bedeutungen nicht geschrieben.
+     *
+     * @param id  Wert von {@code bedeutung_id}.
+     *
+     * @param aenderung  Änderungs-Stand.
+     *
+     * @param geloescht  {@code true} für eine gelöschte Bedeutung.
+     */
+    protected static void jsonZeile( StringBuilder sb, String abk, String bedeutung, int kategorie,
+                                     long id, long aenderung, boolean geloescht ) {
+
+        sb.append( "{\"id\":" ).append( id ).append( ",\"abk\":" );
+        jsonString( sb, abk );
+        sb.append( ",\"bedeutung\":" );
+        jsonString( sb, bedeutung );
+        if ( !geloescht ) {
+
+            sb.append( ",\"kategorie\":" ).append( kategorie );
+        }
+        sb.append( ",\"aenderung\":" ).append( aenderung );
+        if ( geloescht ) {
+
+            sb.append( ",\"geloescht\":true" );
+        }
+        sb.append( '}' );
+    }
+
+
+    /**
+     * Hängt einen String als JSON-String (oder {@code null}) an.
+     *
+     * @param sb  Ziel.
+     *
+     * @param text  Text, darf {@code null} sein.
+     */
+    protected static void jsonString( StringBuilder sb, String text ) {
+
+        if ( text == null ) {
+
+            sb.append( "null" );
+            return;
+        }
+
+        sb.append( '"' );
+        for ( int i = 0; i < text.length(); i++ ) {
+
+            char c = text.charAt( i );
+            if ( c == '"' || c == '\\' ) {
+
+                sb.append( '\\' ).append( c );
+
+            } else if ( c == '\n' ) {
+
+                sb.append( "\\n" );
+
+            } else if ( c < 0x20 ) {
+
+                sb.append( String.format( "\\u%04x", (int) c ) );
+
+            } else {
+
+                sb.append( c );
+            }
+        }
+        sb.append( '"' );
+    }
+
+
+    /**
+     * Hängt eine CSV-Zeile (ohne Zeilenumbruch) an; Reihenfolge der Spalten wie in
+     * {@link #CSV_KOPFZEILE}.
+     *
+     * @param sb  Ziel.
+     *
+     * @param abk  Abkürzung, darf bei gelöschten Bedeutungen {@code null} sein.
+     *
+     * @param bedeutung  Bedeutung.
+     *
+     * @param kategorie  ID der Kategorie; bleibt bei gelöschten Bedeutungen leer.
+     *
+     * @param id  Wert von {@code bedeutung_id}.
+     *
+     * @param aenderung  Änderungs-Stand.
+     *
+     * @param geloescht  {@code true} für eine gelöschte Bedeutung.
+     */
+    protected static void csvZeile( StringBuilder sb, String abk, String bedeutung, int kategorie,
+                                    long id, long aenderung, boolean geloescht ) {
+
+        csvString( sb, abk == null ? "" : abk );
+        sb.append( ',' );
+        csvString( sb, bedeutung );
+        sb.append( ',' );
+        if ( !geloescht ) {
+
+            sb.append( kategorie );
+        }
+        sb.append( ',' ).append( id ).append( ',' ).append( aenderung ).append( ',' )
+          .append( geloescht ? '1' : '0' );
+    }
+
+
+    /**
+     * Hängt einen Text in doppelten Anführungszeichen an, {@code "} wird verdoppelt;
+     * Zeilenumbrüche werden durch Leerzeichen ersetzt, weil {@link AbkImporter} zeilenweise liest.
+     *
+     * @param sb  Ziel.
+     *
+     * @param text  Text.
+     */
+    protected static void csvString( StringBuilder sb, String text ) {
+
+        sb.append( '"' );
+        for ( int i = 0; i < text.length(); i++ ) {
+
+            char c = text.charAt( i );
+            if ( c == '"' ) {
+
+                sb.append( "\"\"" );
+
+            } else if ( c == '\n' || c == '\r' ) {
+
+                sb.append( ' ' );
+
+            } else {
+
+                sb.append( c );
+            }
+        }
+        sb.append( '"' );
+    }
+
+};
@@ -0,0 +1,583 @@
+package de.mide.abkverz;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Import von großen Abkürzungs-Verzeichnissen (CSV oder TSV) in die Datenbank des
+ * {@link DatenbankManager}.
+ * <br><br>
+ *
+ * Jede Zeile der Datei enthält eine Abkürzung und eine Bedeutung, getrennt durch das
+ * Trennzeichen (Tabulator für TSV, Komma oder Semikolon für CSV); optional folgt als
+ * dritte Spalte die ID der Kategorie (wie von {@link AbkExporter} geschrieben). Fehlt sie
+ * oder ist sie keine bekannte Kategorie, dann kommt die Bedeutung nach "Allgemein"; weitere
+ * Spalten werden ignoriert. Bei CSV können die Felder in doppelte Anführungszeichen
+ * eingeschlossen werden, {@code ""} steht dann für ein Anführungszeichen. Leere Zeilen
+ * und Zeilen, die mit {@code #} beginnen, werden übersprungen.
+ * <br><br>
+ *
+ * Damit auch Dateien mit hunderttausenden Zeilen schnell importiert werden:
+ * <ul>
+ *   <li>die Datei wird zeilenweise gelesen, also nie komplett in den Speicher geladen;</li>
+ *   <li>es werden für den ganzen Import nur drei Prepared Statements erzeugt;</li>
+ *   <li>es wird nicht jede Zeile einzeln committet, sondern immer {@link #setBatchGroesse(int)}
+ *       Zeilen in einer Transaktion;</li>
+ *   <li>die Zeilen eines Batches werden erst gelesen und zerlegt und dann in einem Rutsch
+ *       eingefügt, Schreib-Sperre und Transaktion werden also nie während des Lesens der
+ *       Datei gehalten;</li>
+ *   <li>alle Zeilen eines Batches bekommen denselben Änderungs-Stand, der Zähler in
+ *       {@code metadaten} wird also nur einmal pro Batch statt von den Triggern für jede
+ *       Zeile geschrieben;</li>
+ *   <li>die IDs der zuletzt verwendeten Abkürzungen werden in einer größenbeschränkten
+ *       Map gehalten, sodass für wiederholte Abkürzungen keine Abfrage nötig ist.</li>
+ * </ul>
+ * Tritt beim Import ein Fehler auf, dann wird nur der aktuelle Batch zurückgerollt;
+ * die bis dahin committeten Batches bleiben in der Datenbank.
+ * <br><br>
+ *
+ * Der Import greift auf die Datenbank zu und sollte deshalb nicht auf dem UI-Thread
+ * ausgeführt werden, siehe {@link DatenbankAuftraege}.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkImporter implements IGlobalConstants {
+
+    /** Trennzeichen für TSV-Dateien. */
+    public static final char TRENNZEICHEN_TSV = '\t';
+
+    /** Trennzeichen für CSV-Dateien. */
+    public static final char TRENNZEICHEN_CSV = ',';
+
+    /** Default-Wert für Anzahl der Zeilen pro Transaktion. */
+    public static final int DEFAULT_BATCH_GROESSE = 5_000;
+
+    /** Default-Wert für maximale Anzahl der Abkürzungen im Cache für die Duplikat-Erkennung. */
+    public static final int DEFAULT_MAX_CACHE_EINTRAEGE = 10_000;
+
+
+    /** Datenbank-Manager, in dessen Datenbank importiert wird. */
+    protected final DatenbankManager _datenbankManager;
+
+    /** Trennzeichen zwischen Abkürzung und Bedeutung. */
+    protected char _trennzeichen = TRENNZEICHEN_TSV;
+
+    /** Anzahl der Zeilen pro Transaktion. */
+    protected int _batchGroesse = DEFAULT_BATCH_GROESSE;
+
+    /** Maximale Anzahl der Einträge in {@link #_abkIdCache}. */
+    protected int _maxCacheEintraege = DEFAULT_MAX_CACHE_EINTRAEGE;
+
+    /**
+     * Schlüssel der zuletzt verwendeten Abkürzungen mit ihrer {@code abk_id}; ist als LRU-Cache mit
+     * maximal {@link #_maxCacheEintraege} Einträgen realisiert.
+     */
+    protected Map<String,Long> _abkIdCache = null;
+
+    /** Prepared Statement, um die ID einer schon vorhandenen Abkürzung abzufragen. */
+    protected SQLiteStatement _statementAbkId = null;
+
+    /** Prepared Statement, um eine neue Abkürzung einzufügen. */
+    protected SQLiteStatement _statementInsertAbk = null;
+
+    /** Prepared Statement, um eine Bedeutung mit Kategorie zur ID einer Abkürzung einzufügen. */
+    protected SQLiteStatement _statementInsertBedeutung = null;
+
+    /** Änderungs-Stand für alle Zeilen des aktuellen Batches. */
+    protected long _aenderung = 0;
+
+    /** IDs der Kategorien in der Datenbank, werden zu Beginn des Imports gelesen. */
+    protected Set<Integer> _kategorien = null;
+
+
+    /**
+     * Konstruktor, die Datenbank wird erst in {@link #importiere(InputStream, IImportFortschritt)}
+     * geöffnet.
+     *
+     * @param datenbankManager  Datenbank-Manager, in dessen Datenbank importiert werden soll.
+     */
+    public AbkImporter( DatenbankManager datenbankManager ) {
+
+        _datenbankManager = datenbankManager;
+    }
+
+
+    /**
+     * Setter für Trennzeichen zwischen Abkürzung und Bedeutung.
+     *
+     * @param trennzeichen  z.B. {@link #TRENNZEICHEN_TSV} oder {@link #TRENNZEICHEN_CSV}.
+     */
+    public void setTrennzeichen( char trennzeichen ) {
+
+        _trennzeichen = trennzeichen;
+    }
+
+
+    /**
+     * Setter für Anzahl der Zeilen pro Transaktion.
+     *
+     * @param batchGroesse  Anzahl der Zeilen, muss mindestens 1 sein.
+     */
+    public void setBatchGroesse( int batchGroesse ) {
+
+        if ( batchGroesse < 1 ) {
+
+            throw new IllegalArgumentException( "Batch-Größe muss mindestens 1 sein: " + batchGroesse );
+        }
+        _batchGroesse = batchGroesse;
+    }
+
+
+    /**
+     * Setter für maximale Anzahl der Abkürzungen im Cache für die Duplikat-Erkennung.
+     *
+     * @param maxCacheEintraege  Maximale Anzahl, muss mindestens 1 sein.
+     */
+    public void setMaxCacheEintraege( int maxCacheEintraege ) {
+
+        if ( maxCacheEintraege < 1 ) {
+
+            throw new IllegalArgumentException( "Cache-Größe muss mindestens 1 sein: " + maxCacheEintraege );
+        }
+        _maxCacheEintraege = maxCacheEintraege;
+    }
+
+
+    /**
+     * Importiert alle Zeilen aus dem Stream (Zeichensatz UTF-8). Der Stream wird nicht
+     * geschlossen.
+     *
+     * @param inputStream  Inhalt der zu importierenden Datei.
+     *
+     * @param fortschritt  Rückruf nach jedem Batch, darf {@code null} sein.
+     *
+     * @return  Anzahl der eingefügten Bedeutungen.
+     *
+     * @throws IOException  Fehler beim Lesen des Streams.
+     *
+     * @throws SQLException  Fehler beim Schreiben in die Datenbank.
+     */
+    public long importiere( InputStream inputStream, IImportFortschritt fortschritt )
+            throws IOException, SQLException {
+
+        ZaehlenderInputStream zaehlStream = new ZaehlenderInputStream( inputStream );
+        BufferedReader        reader      =
+                new BufferedReader( new InputStreamReader( zaehlStream, StandardCharsets.UTF_8 ) );
+
+        SQLiteDatabase db = _datenbankManager.getWritableDatabase();
+        _kategorien = _datenbankManager.holeKategorien().keySet();
+        statementsVorbereiten( db );
+
+        final int maxCacheEintraege = _maxCacheEintraege;
+        _abkIdCache = new LinkedHashMap<String,Long>( 16, 0.75f, true ) {
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String,Long> eldest ) {
+
+                return size() > maxCacheEintraege;
+            }
+        };
+
+        long           zeilenGelesen         = 0;
+        long           bedeutungenEingefuegt = 0;
+        int            zeilenFehlerhaft      = 0;
+        String         zeile                 = null;
+        List<String[]> batch                 = new ArrayList<>( Math.min( _batchGroesse, 1_000 ) );
+
+        DbMetriken metriken = _datenbankManager.getMetriken();
+        long       start    = metriken.start();
+        try {
+
+            while ( ( zeile = reader.readLine() ) != null ) {
+
+                zeilenGelesen++;
+
+                String[] felder = zerlegeZeile( zeile );
+                if ( felder == null ) {
+
+                    continue; // Leer- oder Kommentarzeile
+                }
+                if ( AbkNormalisierer.schluessel( felder[ 0 ] ).isEmpty() || felder[ 1 ].isEmpty() ) {
+
+                    zeilenFehlerhaft++;
+                    continue;
+                }
+
+                batch.add( felder );
+                if ( batch.size() >= _batchGroesse ) {
+
+                    schreibeBatch( db, batch );
+                    bedeutungenEingefuegt += batch.size();
+                    batch.clear();
+
+                    if ( fortschritt != null ) {
+
+                        fortschritt.onFortschritt( zeilenGelesen, bedeutungenEingefuegt,
+                                                   zaehlStream.getAnzahlBytes() );
+                    }
+                }
+            }
+
+            if ( !batch.isEmpty() ) {
+
+                schreibeBatch( db, batch );
+                bedeutungenEingefuegt += batch.size();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            metriken.fehler( DbMetriken.Operation.IMPORT );
+            throw ex;
+        }
+        finally {
+
+            statementsSchliessen();
+            _abkIdCache = null;
+            _kategorien = null;
+
+            // Der In-Memory-Index wird beim nächsten Suchen neu geladen
+            _datenbankManager.abkIndexVerwerfen();
+        }
+
+        metriken.ende( DbMetriken.Operation.IMPORT, start, bedeutungenEingefuegt, null );
+
+        if ( fortschritt != null ) {
+
+            fortschritt.onFortschritt( zeilenGelesen, bedeutungenEingefuegt,
+                                       zaehlStream.getAnzahlBytes() );
+        }
+
+        Log.i( TAG4LOGGING, "Import abgeschlossen: " + bedeutungenEingefuegt +
+                " Bedeutungen aus " + zeilenGelesen + " Zeilen eingefügt, " +
+                zeilenFehlerhaft + " fehlerhafte Zeilen übersprungen." );
+
+        return bedeutungenEingefuegt;
+    }
+
+
+    /**
+     * Fügt die schon gelesenen Zeilen eines Batches in einer Transaktion ein. Die
+     * Schreib-Sperre wird nur für die Dauer dieser Transaktion gehalten, damit Einfügungen
+     * aus der UI zwischen zwei Batches drankommen; Suchen laufen dank WAL ohnehin weiter.
+     * Bei einem Fehler wird der Batch zurückgerollt.
+     *
+     * @param db  Datenbank, in die importiert wird.
+     *
+     * @param batch  Zerlegte Zeilen mit Abkürzung, Bedeutung und Kategorie, siehe
+     *               {@link #zerlegeZeile(String)}.
+     */
+    protected void schreibeBatch( SQLiteDatabase db, List<String[]> batch ) throws SQLException {
+
+        ReentrantLock schreibSperre = _datenbankManager.getSchreibSperre();
+        schreibSperre.lock();
+        try {
+
+            db.beginTransactionNonExclusive();
+            try {
+
+                _aenderung = DatenbankManager.naechsteAenderung( db, "main" );
+
+                for ( String[] felder : batch ) {
+
+                    long abkId = holeOderErzeugeAbkId( felder[ 0 ] );
+
+                    _statementInsertBedeutung.bindLong  ( 1, abkId                       );
+                    _statementInsertBedeutung.bindString( 2, felder[ 1 ]                 );
+                    _statementInsertBedeutung.bindLong  ( 3, kategorieId( felder[ 2 ] ) );
+                    _statementInsertBedeutung.bindLong  ( 4, _aenderung                  );
+                    _statementInsertBedeutung.executeInsert();
+                }
+
+                db.setTransactionSuccessful();
+            }
+            finally {
+
+                db.endTransaction();
+            }
+        }
+        finally {
+
+            schreibSperre.unlock();
+        }
+    }
+
+
+    /**
+     * Liefert die ID der Abkürzung; falls die Abkürzung noch nicht in der Datenbank
+     * steht, dann wird sie eingefügt.
+     *
+     * @param abk  Abkürzung aus der Import-Datei; eine schon vorhandene Abkürzung mit
+     *             gleichem Schlüssel ({@link AbkNormalisierer#schluessel(String)}) wird verwendet.
+     *
+     * @return  Wert von {@code abk_id} für die Abkürzung.
+     */
+    protected long holeOderErzeugeAbkId( String abk ) throws SQLException {
+
+        String schluessel = AbkNormalisierer.schluessel( abk );
+
+        Long abkId = _abkIdCache.get( schluessel );
+        if ( abkId != null ) {
+
+            return abkId;
+        }
+
+        long id = -1;
+        try {
+
+            _statementAbkId.bindString( 1, schluessel );
+            id = _statementAbkId.simpleQueryForLong();
+        }
+        catch ( SQLiteDoneException ex ) { // Abkürzung noch nicht vorhanden
+
+            abk = AbkNormalisierer.anzeige( abk );
+            _statementInsertAbk.bindString( 1, abk        );
+            _statementInsertAbk.bindString( 2, schluessel );
+            _statementInsertAbk.bindLong  ( 3, _aenderung );
+            id = _statementInsertAbk.executeInsert();
+            if ( id == -1 ) {
+
+                throw new SQLException( "Einfügen der neuen Abkürzung '" + abk +
+                        "' ist fehlgeschlagen." );
+            }
+        }
+
+        _abkIdCache.put( schluessel, id );
+
+        return id;
+    }
+
+
+    /**
+     * Liefert die ID der Kategorie aus der dritten Spalte einer Zeile.
+     *
+     * @param feld  Dritte Spalte, ggf. leer.
+     *
+     * @return  ID einer Kategorie aus {@link #_kategorien}, sonst
+     *          {@link DatenbankManager#KATEGORIE_ALLGEMEIN}.
+     */
+    protected int kategorieId( String feld ) {
+
+        if ( feld.isEmpty() ) {
+
+            return DatenbankManager.KATEGORIE_ALLGEMEIN;
+        }
+
+        try {
+
+            int id = Integer.parseInt( feld );
+            if ( _kategorien.contains( id ) ) {
+
+                return id;
+            }
+        }
+        catch ( NumberFormatException ex ) {
+
+            // keine ID, z.B. eine Anmerkung in einer von Hand geschriebenen Datei
+        }
+
+        return DatenbankManager.KATEGORIE_ALLGEMEIN;
+    }
+
+
+    /**
+     * Zerlegt eine Zeile der Import-Datei in Abkürzung, Bedeutung und Kategorie.
+     *
+     * @param zeile  Zeile ohne Zeilenumbruch.
+     *
+     * @return  Array mit Abkürzung, Bedeutung und Kategorie (jeweils ohne führende und
+     *          abschließende Leerzeichen, ggf. leer), oder {@code null} für Leer- und
+     *          Kommentarzeilen.
+     */
+    protected String[] zerlegeZeile( String zeile ) {
+
+        if ( zeile.trim().isEmpty() || zeile.startsWith( "#" ) ) {
+
+            return null;
+        }
+
+        String[] ergebnis = new String[]{ "", "", "" };
+
+        if ( _trennzeichen == TRENNZEICHEN_TSV ) {
+
+            int von = 0;
+            for ( int feldNr = 0; feldNr < ergebnis.length; feldNr++ ) {
+
+                int pos = zeile.indexOf( _trennzeichen, von );
+                if ( pos < 0 ) {
+
+                    ergebnis[ feldNr ] = zeile.substring( von ).trim();
+                    break;
+                }
+                ergebnis[ feldNr ] = zeile.substring( von, pos ).trim();
+                von = pos + 1;
+            }
+            return ergebnis;
+        }
+
+        // *** CSV mit optionalen Anführungszeichen ***
+        StringBuilder feld          = new StringBuilder();
+        int           feldNr        = 0;
+        boolean       inAnfuehrung  = false;
+
+        for ( int i = 0; i < zeile.length() && feldNr < ergebnis.length; i++ ) {
+
+            char zeichen = zeile.charAt( i );
+
+            if ( inAnfuehrung ) {
+
+                if ( zeichen == '"' && i + 1 < zeile.length() && zeile.charAt( i + 1 ) == '"' ) {
+
+                    feld.append( '"' );
+                    i++;
+
+                } else if ( zeichen == '"' ) {
+
+                    inAnfuehrung = false;
+
+                } else {
+
+                    feld.append( zeichen );
+                }
+
+            } else if ( zeichen == '"' && feld.toString().trim().isEmpty() ) {
+
+                inAnfuehrung = true;
+                feld.setLength( 0 );
+
+            } else if ( zeichen == _trennzeichen ) {
+
+                ergebnis[ feldNr ] = feld.toString().trim();
+                feld.setLength( 0 );
+                feldNr++;
+
+            } else {
+
+                feld.append( zeichen );
+            }
+        }
+
+        if ( feldNr < ergebnis.length ) {
+
+            ergebnis[ feldNr ] = feld.toString().trim();
+        }
+
+        return ergebnis;
+    }
+
+
+    /**
+     * Erzeugt die Prepared Statements für den Import.
+     *
+     * @param db  Datenbank, in die importiert wird.
+     */
+    protected void statementsVorbereiten( SQLiteDatabase db ) throws SQLException {
+
+        _statementAbkId =
+                db.compileStatement( "SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ?" );
+
+        _statementInsertAbk =
+                db.compileStatement( "INSERT INTO abkuerzungen (abkuerzung, abk_schluessel, aenderung) VALUES ( ?, ?, ? )" );
+
+        _statementInsertBedeutung =
+                db.compileStatement( "INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie, aenderung) " +
+                                     "VALUES ( ?, ?, ?, ? )" );
+    }
+
+
+    /**
+     * Gibt die Prepared Statements nach dem Import wieder frei.
+     */
+    protected void statementsSchliessen() {
+
+        if ( _statementAbkId != null ) {
+
+            _statementAbkId.close();
+            _statementAbkId = null;
+        }
+        if ( _statementInsertAbk != null ) {
+
+            _statementInsertAbk.close();
+            _statementInsertAbk = null;
+        }
+        if ( _statementInsertBedeutung != null ) {
+
+            _statementInsertBedeutung.close();
+            _statementInsertBedeutung = null;
+        }
+    }
+
+
+    /**
+     * Stream, der die Anzahl der gelesenen Bytes für die Fortschrittsanzeige mitzählt.
+     */
+    protected static class ZaehlenderInputStream extends FilterInputStream {
+
+        /** Anzahl der bisher gelesenen Bytes. */
+        protected long _anzahlBytes = 0;
+
+
+        /**
+         * Konstruktor.
+         *
+         * @param in  Stream, aus dem gelesen wird.
+         */
+        protected ZaehlenderInputStream( InputStream in ) {
+
+            super( in );
+        }
+
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+            if ( b >= 0 ) {
+
+                _anzahlBytes++;
+            }
+            return b;
+        }
+
+
+        @Override
+        public int read( byte[] puffer, int offset, int laenge ) throws IOException {
+
+            int anzahl = super.read( puffer, offset, laenge );
+            if ( anzahl > 0 ) {
+
+                _anzahlBytes += anzahl;
+            }
+            return anzahl;
+        }
+
+
+        /**
+         * Getter für Anzahl der gelesenen Bytes.
+         *
+         * @return  Anzahl der bisher gelesenen Bytes.
+         */
+        public long getAnzahlBytes() {
+
+            return _anzahlBytes;
+        }
+    }
+
+};
@@ -0,0 +1,474 @@
+package de.mide.abkverz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * Kompakter In-Memory-Index über alle Abkürzungen mit ihren Bedeutungen, damit
+ * eine exakte Suche ohne SQLite-Zugriff (Cursor, Join) beantwortet werden kann.
+ * <br><br>
+ *
+ * Die Abkürzungen stehen aufsteigend sortiert in einem Array, sodass eine Suche
+ * eine binäre Suche ist. Zu jeder Abkürzung gibt es ein Array mit den Bedeutungen
+ * (in der Reihenfolge, in der sie geladen wurden; {@link DatenbankManager} lädt sie nach
+ * Häufigkeit der Auswahl und dann nach Text); pro Eintrag werden also keine weiteren
+ * Hilfs-Objekte angelegt.
+ * <br><br>
+ *
+ * Der Index ist für überwiegend lesende Zugriffe gedacht: Ein Bedeutungs-Array wird
+ * nach dem Anlegen nie mehr verändert, beim Ersetzen wird stattdessen ein neues Array
+ * eingetragen. Alle öffentlichen Methoden außer {@link #anhaengen(String, String)} sind
+ * thread-sicher, gleichzeitige Suchen blockieren sich dabei nicht gegenseitig.
+ * <br><br>
+ *
+ * Neben der exakten Suche unterstützt der Index auch die inkrementelle Suche
+ * (Präfix und Editier-Distanz 1), siehe {@link #sucheTreffer(String, int, boolean, long)};
+ * auch hierfür wird der Index nie vollständig durchlaufen.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkIndex {
+
+    /** Leeres Array als Ergebnis, wenn eine Abkürzung nicht gefunden wurde. */
+    protected static final String[] KEINE_BEDEUTUNGEN = new String[]{};
+
+    /** Initiale Kapazität der beiden Arrays. */
+    protected static final int INITIALE_KAPAZITAET = 64;
+
+
+    /** Aufsteigend sortierte Abkürzungen; nur die ersten {@link #_anzahl} Elemente sind belegt. */
+    protected String[] _abkuerzungen = new String[ INITIALE_KAPAZITAET ];
+
+    /** Bedeutungen zur Abkürzung mit dem gleichen Array-Index in {@link #_abkuerzungen}. */
+    protected String[][] _bedeutungen = new String[ INITIALE_KAPAZITAET ][];
+
+    /** Anzahl der belegten Elemente in {@link #_abkuerzungen} und {@link #_bedeutungen}. */
+    protected int _anzahl = 0;
+
+    /** Wird beim Laden auf {@code false} gesetzt, wenn die Eingabe nicht sortiert war. */
+    protected boolean _istSortiert = true;
+
+    /**
+     * Beim Laden die Bedeutungen der zuletzt angehängten Abkürzung; sie werden erst beim
+     * Wechsel der Abkürzung bzw. in {@link #ladenAbschliessen()} in ein Array kopiert.
+     */
+    protected final ArrayList<String> _ladePuffer = new ArrayList<>();
+
+    /**
+     * Alle Zeichen, die in mindestens einer Abkürzung vorkommen; nur mit diesen Zeichen
+     * werden bei der Ähnlichkeitssuche Kandidaten erzeugt.
+     */
+    protected BitSet _zeichen = new BitSet();
+
+    /**
+     * Lese-/Schreib-Sperre: beliebig viele Threads dürfen gleichzeitig suchen, Änderungen
+     * am Index sind exklusiv.
+     */
+    protected final ReentrantReadWriteLock _sperre = new ReentrantReadWriteLock();
+
+
+    /**
+     * Anzahl der Abkürzungen im Index.
+     *
+     * @return  Anzahl der unterschiedlichen Abkürzungen.
+     */
+    public int getAnzahlAbkuerzungen() {
+
+        _sperre.readLock().lock();
+        try {
+
+            return _anzahl;
+        }
+        finally {
+
+            _sperre.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Hängt beim Laden des Index eine Zeile aus der Datenbank an. Die Zeilen sollten
+     * nach Abkürzung sortiert übergeben werden, dann ist das Laden linear; andernfalls
+     * wird in {@link #ladenAbschliessen()} nachsortiert. Die Bedeutungen einer Abkürzung
+     * bleiben in der übergebenen Reihenfolge (außer beim Nachsortieren).
+     * <br><br>
+     *
+     * Nicht thread-sicher: darf nur von dem Thread aufgerufen werden, der den Index
+     * befüllt, solange noch kein anderer Thread den Index sieht; die Sperre wird erst in
+     * {@link #ladenAbschliessen()} genommen.
+     *
+     * @param abk  Schlüssel der Abkürzung, siehe {@link AbkNormalisierer}.
+     *
+     * @param bedeutung  Eine Bedeutung der Abkürzung.
+     */
+    public void anhaengen( String abk, String bedeutung ) {
+
+        if ( _anzahl > 0 && _abkuerzungen[ _anzahl - 1 ].equals( abk ) ) {
+
+            _ladePuffer.add( bedeutung );
+            return;
+        }
+
+        ladePufferUebernehmen();
+        zeichenMerken( abk );
+
+        if ( _anzahl > 0 && _abkuerzungen[ _anzahl - 1 ].compareTo( abk ) > 0 ) {
+
+            _istSortiert = false;
+        }
+
+        kapazitaetSicherstellen( _anzahl + 1 );
+        _abkuerzungen[ _anzahl ] = abk;
+        _anzahl++;
+        _ladePuffer.add( bedeutung );
+    }
+
+
+    /**
+     * Kopiert die beim Laden gesammelten Bedeutungen der zuletzt angehängten Abkürzung
+     * in ihr Bedeutungs-Array und leert den Puffer.
+     */
+    protected void ladePufferUebernehmen() {
+
+        if ( _ladePuffer.isEmpty() ) {
+
+            return;
+        }
+
+        _bedeutungen[ _anzahl - 1 ] = _ladePuffer.toArray( new String[ 0 ] );
+        _ladePuffer.clear();
+    }
+
+
+    /**
+     * Schließt das Laden des Index ab; erst danach darf der Index anderen Threads
+     * zum Suchen übergeben werden.
+     */
+    public void ladenAbschliessen() {
+
+        _sperre.writeLock().lock();
+        try {
+
+            ladePufferUebernehmen();
+            _ladePuffer.trimToSize();
+
+            if ( !_istSortiert ) {
+
+                nachsortieren();
+                _istSortiert = true;
+            }
+        }
+        finally {
+
+            _sperre.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Exakte Suche nach einer Abkürzung per binärer Suche.
+     *
+     * @param abk  Schlüssel der Abkürzung, siehe {@link AbkNormalisierer}.
+     *
+     * @return  Bedeutungen der Abkürzung in der geladenen Reihenfolge; Array der Länge 0,
+     *          wenn nichts gefunden, aber nicht {@code null}.
+     */
+    public String[] suche( String abk ) {
+
+        _sperre.readLock().lock();
+        try {
+
+            int position = Arrays.binarySearch( _abkuerzungen, 0, _anzahl, abk );
+            if ( position < 0 ) {
+
+                return KEINE_BEDEUTUNGEN;
+            }
+
+            return _bedeutungen[ position ].clone();
+        }
+        finally {
+
+            _sperre.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Ersetzt alle Bedeutungen einer Abkürzung, z.B. nachdem sich durch neue Bedeutungen
+     * oder geschriebene Zähler ihre Reihenfolge in der Datenbank geändert hat. Ist die
+     * Abkürzung noch nicht im Index, dann wird sie an der richtigen Stelle eingefügt.
+     *
+     * @param abk  Schlüssel der Abkürzung, siehe {@link AbkNormalisierer}.
+     *
+     * @param bedeutungen  Alle Bedeutungen der Abkürzung in der Reihenfolge für die Suche;
+     *                     bei Länge 0 wird die Abkürzung nicht neu eingefügt.
+     */
+    public void ersetzen( String abk, String[] bedeutungen ) {
+
+        _sperre.writeLock().lock();
+        try {
+
+            int position = Arrays.binarySearch( _abkuerzungen, 0, _anzahl, abk );
+            if ( position >= 0 ) {
+
+                _bedeutungen[ position ] = bedeutungen.clone();
+                return;
+            }
+
+            if ( bedeutungen.length == 0 ) {
+
+                return;
+            }
+
+            int einfuegePos = -position - 1;
+            kapazitaetSicherstellen( _anzahl + 1 );
+            zeichenMerken( abk );
+
+            System.arraycopy( _abkuerzungen, einfuegePos, _abkuerzungen, einfuegePos + 1, _anzahl - einfuegePos );
+            System.arraycopy( _bedeutungen , einfuegePos, _bedeutungen , einfuegePos + 1, _anzahl - einfuegePos );
+
+            _abkuerzungen[ einfuegePos ] = abk;
+            _bedeutungen [ einfuegePos ] = bedeutungen.clone();
+            _anzahl++;
+        }
+        finally {
+
+            _sperre.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Inkrementelle Suche für die Eingabe während des Tippens. Die Treffer sind nach
+     * {@link AbkTreffer.Art} und innerhalb einer Art alphabetisch sortiert:
+     * <ol>
+     *   <li>Abkürzung, die genau der Eingabe entspricht;</li>
+     *   <li>Abkürzungen, die mit der Eingabe beginnen (ein zusammenhängender Bereich
+     *       im sortierten Array, Kosten also nur abhängig von {@code maxTreffer});</li>
+     *   <li>optional Abkürzungen mit Editier-Distanz 1 (Löschen, Vertauschen, Ersetzen
+     *       oder Einfügen eines Zeichens); jeder Kandidat ist eine binäre Suche.</li>
+     * </ol>
+     * Ist das Zeitbudget aufgebraucht, dann wird die Ähnlichkeitssuche abgebrochen und
+     * die bis dahin gefundenen Treffer zurückgegeben.
+     *
+     * @param eingabe  Bisherige Eingabe (schon normalisiert wie ein Schlüssel), darf nicht leer sein.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer.
+     *
+     * @param mitAehnlichen  {@code true}, wenn auch nach Abkürzungen mit Editier-Distanz 1
+     *                       gesucht werden soll.
+     *
+     * @param budgetNanos  Zeitbudget für die Suche in Nanosekunden.
+     *
+     * @return  Liste der Treffer, höchstens {@code maxTreffer} Elemente; nicht {@code null}.
+     */
+    public List<AbkTreffer> sucheTreffer( String eingabe, int maxTreffer,
+                                                       boolean mitAehnlichen, long budgetNanos ) {
+
+        _sperre.readLock().lock();
+        try {
+
+            final long frist = System.nanoTime() + budgetNanos;
+
+            List<AbkTreffer> ergebnis = new ArrayList<>( maxTreffer );
+
+            // *** Exakter Treffer und Präfix-Treffer: zusammenhängender Bereich ab erster Position >= eingabe ***
+            int position = Arrays.binarySearch( _abkuerzungen, 0, _anzahl, eingabe );
+            if ( position < 0 ) {
+
+                position = -position - 1;
+            }
+
+            for ( int i = position; i < _anzahl && ergebnis.size() < maxTreffer; i++ ) {
+
+                String abk = _abkuerzungen[ i ];
+                if ( !abk.startsWith( eingabe ) ) {
+
+                    break;
+                }
+
+                AbkTreffer.Art art = abk.length() == eingabe.length() ? AbkTreffer.Art.EXAKT
+                                                                      : AbkTreffer.Art.PRAEFIX;
+                ergebnis.add( new AbkTreffer( abk, _bedeutungen[ i ], art ) );
+            }
+
+            if ( !mitAehnlichen || ergebnis.size() >= maxTreffer ) {
+
+                return ergebnis;
+            }
+
+            // *** Ähnliche Abkürzungen (Editier-Distanz 1), die nicht schon Präfix-Treffer sind ***
+            TreeSet<String> aehnliche = new TreeSet<>();
+            StringBuilder   sb        = new StringBuilder( eingabe.length() + 1 );
+            final int       laenge    = eingabe.length();
+
+            for ( int i = 0; i < laenge && System.nanoTime() < frist; i++ ) {
+
+                // Löschen des Zeichens an Position i
+                sb.setLength( 0 );
+                sb.append( eingabe, 0, i ).append( eingabe, i + 1, laenge );
+                kandidatPruefen( sb.toString(), eingabe, aehnliche );
+
+                // Vertauschen der Zeichen an Position i und i+1
+                if ( i + 1 < laenge && eingabe.charAt( i ) != eingabe.charAt( i + 1 ) ) {
+
+                    sb.setLength( 0 );
+                    sb.append( eingabe );
+                    sb.setCharAt( i    , eingabe.charAt( i + 1 ) );
+                    sb.setCharAt( i + 1, eingabe.charAt( i     ) );
+                    kandidatPruefen( sb.toString(), eingabe, aehnliche );
+                }
+
+                // Ersetzen des Zeichens an Position i
+                for ( int z = _zeichen.nextSetBit( 0 ); z >= 0; z = _zeichen.nextSetBit( z + 1 ) ) {
+
+                    if ( z == eingabe.charAt( i ) ) {
+
+                        continue;
+                    }
+                    sb.setLength( 0 );
+                    sb.append( eingabe );
+                    sb.setCharAt( i, (char) z );
+                    kandidatPruefen( sb.toString(), eingabe, aehnliche );
+                }
+            }
+
+            // Einfügen eines Zeichens an Position i (am Ende wäre es ein Präfix-Treffer)
+            for ( int i = 0; i < laenge && System.nanoTime() < frist; i++ ) {
+
+                for ( int z = _zeichen.nextSetBit( 0 ); z >= 0; z = _zeichen.nextSetBit( z + 1 ) ) {
+
+                    sb.setLength( 0 );
+                    sb.append( eingabe, 0, i ).append( (char) z ).append( eingabe, i, laenge );
+                    kandidatPruefen( sb.toString(), eingabe, aehnliche );
+                }
+            }
+
+            for ( String abk: aehnliche ) {
+
+                if ( ergebnis.size() >= maxTreffer ) {
+
+                    break;
+                }
+                int pos = Arrays.binarySearch( _abkuerzungen, 0, _anzahl, abk );
+                ergebnis.add( new AbkTreffer( abk, _bedeutungen[ pos ], AbkTreffer.Art.AEHNLICH ) );
+            }
+
+            return ergebnis;
+        }
+        finally {
+
+            _sperre.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Merkt sich einen Kandidaten der Ähnlichkeitssuche, wenn er als Abkürzung im Index
+     * steht und nicht schon als Präfix-Treffer gefunden wurde.
+     *
+     * @param kandidat  Abkürzung mit Editier-Distanz 1 zur Eingabe.
+     *
+     * @param eingabe  Eingabe des Nutzers.
+     *
+     * @param gefunden  Menge, in die ein gefundener Kandidat eingefügt wird.
+     */
+    protected void kandidatPruefen( String kandidat, String eingabe, TreeSet<String> gefunden ) {
+
+        if ( kandidat.isEmpty() || kandidat.startsWith( eingabe ) ) {
+
+            return;
+        }
+
+        if ( Arrays.binarySearch( _abkuerzungen, 0, _anzahl, kandidat ) >= 0 ) {
+
+            gefunden.add( kandidat );
+        }
+    }
+
+
+    /**
+     * Merkt sich alle Zeichen der Abkürzung für die Ähnlichkeitssuche.
+     *
+     * @param abk  Neue Abkürzung im Index.
+     */
+    protected void zeichenMerken( String abk ) {
+
+        for ( int i = 0; i < abk.length(); i++ ) {
+
+            _zeichen.set( abk.charAt( i ) );
+        }
+    }
+
+
+    /**
+     * Vergrößert bei Bedarf die beiden Arrays (Verdopplung der Kapazität).
+     *
+     * @param mindestKapazitaet  Benötigte Anzahl an Elementen.
+     */
+    protected void kapazitaetSicherstellen( int mindestKapazitaet ) {
+
+        if ( mindestKapazitaet <= _abkuerzungen.length ) {
+
+            return;
+        }
+
+        int neueKapazitaet = Math.max( mindestKapazitaet, _abkuerzungen.length * 2 );
+
+        _abkuerzungen = Arrays.copyOf( _abkuerzungen, neueKapazitaet );
+        _bedeutungen  = Arrays.copyOf( _bedeutungen , neueKapazitaet );
+    }
+
+
+    /**
+     * Sortiert die beiden Arrays nach Abkürzung, falls die Zeilen beim Laden nicht in
+     * sortierter Reihenfolge kamen. Mehrfach vorkommende Abkürzungen werden dabei
+     * zusammengefasst.
+     */
+    protected void nachsortieren() {
+
+        Integer[] reihenfolge = new Integer[ _anzahl ];
+        for ( int i = 0; i < _anzahl; i++ ) {
+
+            reihenfolge[ i ] = i;
+        }
+
+        final String[] abks = _abkuerzungen;
+        Arrays.sort( reihenfolge, Comparator.comparing( i -> abks[ i ] ) );
+
+        String[]   neueAbks        = new String[ _abkuerzungen.length ];
+        String[][] neueBedeutungen = new String[ _abkuerzungen.length ][];
+        int        neueAnzahl      = 0;
+
+        for ( int i: reihenfolge ) {
+
+            if ( neueAnzahl > 0 && neueAbks[ neueAnzahl - 1 ].equals( _abkuerzungen[ i ] ) ) {
+
+                String[] vorher  = neueBedeutungen[ neueAnzahl - 1 ];
+                String[] weitere = _bedeutungen[ i ];
+                String[] beide   = Arrays.copyOf( vorher, vorher.length + weitere.length );
+                System.arraycopy( weitere, 0, beide, vorher.length, weitere.length );
+                Arrays.sort( beide );
+                neueBedeutungen[ neueAnzahl - 1 ] = beide;
+
+            } else {
+
+                neueAbks       [ neueAnzahl ] = _abkuerzungen[ i ];
+                neueBedeutungen[ neueAnzahl ] = _bedeutungen [ i ];
+                neueAnzahl++;
+            }
+        }
+
+        _abkuerzungen = neueAbks;
+        _bedeutungen  = neueBedeutungen;
+        _anzahl       = neueAnzahl;
+    }
+
+};
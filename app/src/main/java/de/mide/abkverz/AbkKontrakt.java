@@ -0,0 +1,122 @@
+package de.mide.abkverz;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import java.util.Collection;
+
+
+/**
+ * Konstanten für den Zugriff anderer Apps auf den {@link AbkProvider}; diese Klasse kann in
+ * die anderen Apps kopiert werden. Die aufrufende App muss mit dem gleichen Schlüssel
+ * signiert sein und die Berechtigung {@link #BERECHTIGUNG_LESEN} anfordern.
+ * <br><br>
+ *
+ * Beispiel (Spalten nur Bedeutung, häufigste zuerst):
+ * <pre>
+ *     Cursor cursor = getContentResolver().query( AbkKontrakt.abkUri( "KSC" ),
+ *                                                 new String[]{ AbkKontrakt.SPALTE_BEDEUTUNG },
+ *                                                 null, null, null );
+ * </pre>
+ * <br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public final class AbkKontrakt {
+
+    /** Authority des Providers, siehe {@code AndroidManifest.xml}. */
+    public static final String AUTHORITY = "de.mide.abkverz.provider";
+
+    /** Berechtigung (Schutzstufe "signature"), die für Abfragen nötig ist. */
+    public static final String BERECHTIGUNG_LESEN = "de.mide.abkverz.permission.ABKUERZUNGEN_LESEN";
+
+    /** Basis aller URIs des Providers. */
+    public static final Uri BASIS_URI = Uri.parse( "content://" + AUTHORITY );
+
+    /** Pfad für die exakte Suche: {@code abk/<Abkürzung>}. */
+    public static final String PFAD_ABK = "abk";
+
+    /** Pfad für die Suche nach Präfix: {@code praefix/<Anfang>?limit=<Anzahl>}. */
+    public static final String PFAD_PRAEFIX = "praefix";
+
+    /** Pfad für die Suche nach vielen Abkürzungen: {@code abks?abk=<A1>&abk=<A2>...}. */
+    public static final String PFAD_ABKS = "abks";
+
+    /** Parameter für die Abkürzungen bei {@link #PFAD_ABKS}, einmal pro Abkürzung. */
+    public static final String PARAMETER_ABK = "abk";
+
+    /** Parameter für die maximale Anzahl der Zeilen bei {@link #PFAD_PRAEFIX}. */
+    public static final String PARAMETER_LIMIT = "limit";
+
+    /** Spalte: ID der Bedeutung. */
+    public static final String SPALTE_ID = "_id";
+
+    /** Spalte: Abkürzung in der Schreibweise, in der sie angelegt wurde. */
+    public static final String SPALTE_ABKUERZUNG = "abkuerzung";
+
+    /** Spalte: Schlüssel der Abkürzung (Großbuchstaben und Ziffern), unter dem gesucht wird. */
+    public static final String SPALTE_SCHLUESSEL = "schluessel";
+
+    /** Spalte: Bedeutung. */
+    public static final String SPALTE_BEDEUTUNG = "bedeutung";
+
+    /** Spalte: Wie oft die Bedeutung in der App ausgewählt wurde. */
+    public static final String SPALTE_TREFFER = "treffer";
+
+    /** MIME-Typ aller Ergebnisse: Liste von Bedeutungen. */
+    public static final String MIME_TYP = ContentResolver.CURSOR_DIR_BASE_TYPE + "/vnd.de.mide.abkverz.bedeutung";
+
+
+    /** Keine Objekte, nur Konstanten. */
+    private AbkKontrakt() {}
+
+
+    /**
+     * URI für die Bedeutungen einer Abkürzung, häufigste zuerst.
+     *
+     * @param abk  Abkürzung in beliebiger Schreibweise.
+     *
+     * @return  URI für {@link android.content.ContentResolver#query}.
+     */
+    public static Uri abkUri( String abk ) {
+
+        return BASIS_URI.buildUpon().appendPath( PFAD_ABK ).appendPath( abk ).build();
+    }
+
+
+    /**
+     * URI für die Bedeutungen aller Abkürzungen, die mit {@code praefix} anfangen;
+     * sortiert nach Schlüssel, dann häufigste Bedeutung zuerst.
+     *
+     * @param praefix  Anfang der Abkürzung in beliebiger Schreibweise.
+     *
+     * @param limit  Maximale Anzahl der Zeilen (Bedeutungen).
+     *
+     * @return  URI für {@link android.content.ContentResolver#query}.
+     */
+    public static Uri praefixUri( String praefix, int limit ) {
+
+        return BASIS_URI.buildUpon().appendPath( PFAD_PRAEFIX ).appendPath( praefix )
+                        .appendQueryParameter( PARAMETER_LIMIT, Integer.toString( limit ) ).build();
+    }
+
+
+    /**
+     * URI für die Bedeutungen vieler Abkürzungen mit einer Abfrage; sortiert nach Schlüssel,
+     * dann häufigste Bedeutung zuerst.
+     *
+     * @param abks  Abkürzungen in beliebiger Schreibweise.
+     *
+     * @return  URI für {@link android.content.ContentResolver#query}.
+     */
+    public static Uri abksUri( Collection<String> abks ) {
+
+        Uri.Builder builder = BASIS_URI.buildUpon().appendPath( PFAD_ABKS );
+        for ( String abk: abks ) {
+
+            builder.appendQueryParameter( PARAMETER_ABK, abk );
+        }
+        return builder.build();
+    }
+
+};
@@ -0,0 +1,72 @@
+package de.mide.abkverz;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+
+/**
+ * Erzeugt aus einer Abkürzung den Schlüssel, unter dem sie gespeichert und gesucht wird
+ * (Spalte {@code abkuerzungen.abk_schluessel}). Schreibweisen, die sich nur in Groß-/
+ * Kleinschreibung, Satzzeichen oder diakritischen Zeichen unterscheiden, haben den
+ * gleichen Schlüssel, z.B. "K.S.C.", "ksc" und "KSC".
+ * <br><br>
+ *
+ * Der Schlüssel hängt nicht von der Sprach-Einstellung des Geräts ab (sonst würde z.B.
+ * "i" mit türkischer Einstellung zu "İ" und die Abkürzung nicht mehr gefunden). Er wird
+ * nur beim Schreiben berechnet und in der Datenbank gespeichert; wird die Berechnung
+ * geändert, dann müssen alle gespeicherten Schlüssel mit einer neuen Migration in
+ * {@link DatenbankMigrationen} neu berechnet werden.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkNormalisierer {
+
+    /**
+     * Berechnet den Schlüssel einer Abkürzung:
+     * <ol>
+     *   <li>Unicode-Normalisierung NFKD: zerlegt z.B. "Ä" in "A" und ein kombinierendes
+     *       Trema, "ﬁ" in "fi" und Vollbreiten-Zeichen in normale Zeichen;</li>
+     *   <li>nur Buchstaben und Ziffern bleiben, also keine diakritischen Zeichen,
+     *       Satzzeichen und Leerzeichen;</li>
+     *   <li>Großbuchstaben ohne Sprach-Einstellung ({@link Locale#ROOT}).</li>
+     * </ol>
+     *
+     * @param abk  Abkürzung in beliebiger Schreibweise.
+     *
+     * @return  Schlüssel; leer, wenn die Abkürzung keine Buchstaben und Ziffern enthält.
+     */
+    public static String schluessel( String abk ) {
+
+        String        zerlegt = Normalizer.normalize( abk, Normalizer.Form.NFKD );
+        StringBuilder sb      = new StringBuilder( zerlegt.length() );
+
+        for ( int i = 0; i < zerlegt.length(); ) {
+
+            int zeichen = zerlegt.codePointAt( i );
+            if ( Character.isLetterOrDigit( zeichen ) ) {
+
+                sb.appendCodePoint( zeichen );
+            }
+            i += Character.charCount( zeichen );
+        }
+
+        return sb.toString().toUpperCase( Locale.ROOT );
+    }
+
+
+    /**
+     * Schreibweise einer Abkürzung für die Anzeige (Spalte {@code abkuerzungen.abkuerzung}):
+     * ohne Leerzeichen am Anfang und Ende, in Großbuchstaben ohne Sprach-Einstellung;
+     * Satzzeichen und diakritische Zeichen bleiben erhalten.
+     *
+     * @param abk  Abkürzung wie eingegeben.
+     *
+     * @return  Abkürzung für die Anzeige, z.B. "K.S.C." für "k.s.c. ".
+     */
+    public static String anzeige( String abk ) {
+
+        return abk.trim().toUpperCase( Locale.ROOT );
+    }
+
+};
@@ -0,0 +1,411 @@
+package de.mide.abkverz;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.database.MergeCursor;
+import android.database.SQLException;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Stellt die Suche nach Abkürzungen anderen Apps zur Verfügung, damit nicht jede App eine
+ * eigene Kopie der Datenbank mitbringen muss. URIs und Spalten sind in {@link AbkKontrakt}
+ * beschrieben; der Zugriff ist nur lesend und nur für Apps mit gleicher Signatur möglich.
+ * <br><br>
+ *
+ * Geliefert wird direkt der Cursor der SQLite-Abfrage: Die Zeilen werden erst beim Lesen
+ * (in anderen Prozessen fensterweise über ein {@code CursorWindow}) aus der Datenbank
+ * geholt und nicht vorher in ein Array kopiert. Es werden nur die Spalten der Projektion
+ * abgefragt; alle Abfragen laufen ohne zusätzliche Sortierung über die Indexe
+ * {@code abkuerzung_index_schluessel} und {@code bedeutungen_index_abk_treffer}.
+ * <br><br>
+ *
+ * Die Datenbank wird über {@link DatenbankManager#getInstanz(android.content.Context)}
+ * erst bei der ersten Abfrage geöffnet; {@link #onCreate()} verzögert den Start der App also
+ * nicht. {@code query()} wird vom System auf Binder-Threads aufgerufen, auch parallel.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkProvider extends ContentProvider {
+
+    /** Code von {@link UriMatcher} für {@link AbkKontrakt#PFAD_ABK}. */
+    protected static final int URI_ABK = 1;
+
+    /** Code von {@link UriMatcher} für {@link AbkKontrakt#PFAD_PRAEFIX}. */
+    protected static final int URI_PRAEFIX = 2;
+
+    /** Code von {@link UriMatcher} für {@link AbkKontrakt#PFAD_ABKS}. */
+    protected static final int URI_ABKS = 3;
+
+    /** Maximale Anzahl der Zeilen bei Suche nach Präfix, wenn kein Limit angegeben ist. */
+    protected static final int PRAEFIX_STANDARD_LIMIT = 100;
+
+    /** Obergrenze für das Limit bei Suche nach Präfix. */
+    protected static final int PRAEFIX_MAX_LIMIT = 1000;
+
+    /** Spalten des Ergebnisses (Name aus {@link AbkKontrakt}) auf ihren SQL-Ausdruck. */
+    protected static final Map<String,String> SPALTEN = erzeugeSpalten();
+
+    /** FROM- und WHERE-Teil aller Abfragen, danach folgt die Bedingung für den Schlüssel. */
+    protected static final String SQL_VON =
+            " FROM abkuerzungen, bedeutungen " +
+            " WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung ";
+
+    /** Bedingung und Sortierung für {@link #URI_ABK}. */
+    protected static final String SQL_ABK =
+            "   AND abkuerzungen.abk_schluessel = ? " +
+            " ORDER BY bedeutungen.treffer DESC, bedeutungen.bedeutung ASC";
+
+    /** Bedingung (Bereich im Index), Sortierung und Limit für {@link #URI_PRAEFIX}. */
+    protected static final String SQL_PRAEFIX =
+            "   AND abkuerzungen.abk_schluessel >= ? AND abkuerzungen.abk_schluessel < ? " +
+            " ORDER BY abkuerzungen.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutungen.bedeutung ASC " +
+            " LIMIT ?";
+
+    /**
+     * Wie {@link #SQL_PRAEFIX}, aber ohne obere Grenze, wenn {@link #praefixEnde(String)}
+     * keine liefert.
+     */
+    protected static final String SQL_PRAEFIX_OFFEN =
+            "   AND abkuerzungen.abk_schluessel >= ? " +
+            " ORDER BY abkuerzungen.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutungen.bedeutung ASC " +
+            " LIMIT ?";
+
+    /** Anfang der Bedingung für {@link #URI_ABKS}, danach folgen die Platzhalter der IN-Liste. */
+    protected static final String SQL_ABKS_ANFANG =
+            "   AND abkuerzungen.abk_schluessel IN ( ";
+
+    /** Ende der Bedingung und Sortierung für {@link #URI_ABKS}. */
+    protected static final String SQL_ABKS_ENDE =
+            " ) ORDER BY abkuerzungen.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutungen.bedeutung ASC";
+
+
+    /** Ordnet die URIs aus {@link AbkKontrakt} den Codes {@code URI_...} zu. */
+    protected UriMatcher _uriMatcher = null;
+
+
+    /**
+     * Erzeugt die Zuordnung der Spalten auf SQL-Ausdrücke, in der Reihenfolge der Spalten
+     * ohne Projektion.
+     *
+     * @return  Unveränderliche Map.
+     */
+    protected static Map<String,String> erzeugeSpalten() {
+
+        Map<String,String> spalten = new LinkedHashMap<>();
+        spalten.put( AbkKontrakt.SPALTE_ID,         "bedeutungen.bedeutung_id"    );
+        spalten.put( AbkKontrakt.SPALTE_ABKUERZUNG, "abkuerzungen.abkuerzung"     );
+        spalten.put( AbkKontrakt.SPALTE_SCHLUESSEL, "abkuerzungen.abk_schluessel" );
+        spalten.put( AbkKontrakt.SPALTE_BEDEUTUNG,  "bedeutungen.bedeutung"       );
+        spalten.put( AbkKontrakt.SPALTE_TREFFER,    "bedeutungen.treffer"         );
+        return Collections.unmodifiableMap( spalten );
+    }
+
+
+    /**
+     * Lifecycle-Methode, wird beim Start des App-Prozesses auf dem UI-Thread aufgerufen;
+     * öffnet die Datenbank deshalb noch nicht.
+     *
+     * @return  Immer {@code true}.
+     */
+    @Override
+    public boolean onCreate() {
+
+        _uriMatcher = new UriMatcher( UriMatcher.NO_MATCH );
+        _uriMatcher.addURI( AbkKontrakt.AUTHORITY, AbkKontrakt.PFAD_ABK     + "/*", URI_ABK     );
+        _uriMatcher.addURI( AbkKontrakt.AUTHORITY, AbkKontrakt.PFAD_PRAEFIX + "/*", URI_PRAEFIX );
+        _uriMatcher.addURI( AbkKontrakt.AUTHORITY, AbkKontrakt.PFAD_ABKS,           URI_ABKS    );
+
+        return true;
+    }
+
+
+    /**
+     * Sucht Bedeutungen, siehe {@link AbkKontrakt}. Auswahl und Sortierung sind durch die URI
+     * festgelegt.
+     *
+     * @param uri  URI aus {@link AbkKontrakt}.
+     *
+     * @param projektion  Spalten aus {@link AbkKontrakt}; {@code null} für alle.
+     *
+     * @param auswahl  Muss {@code null} sein.
+     *
+     * @param auswahlArgumente  Werden nicht verwendet.
+     *
+     * @param sortierung  Muss {@code null} sein.
+     *
+     * @return  Cursor mit den Bedeutungen; ohne Zeilen, wenn nichts gefunden wurde.
+     *
+     * @throws IllegalArgumentException  Unbekannte URI oder Spalte, Auswahl oder Sortierung
+     *                                   angegeben, oder Abkürzung ohne Buchstaben und Ziffern.
+     */
+    @Override
+    public Cursor query( Uri uri, String[] projektion, String auswahl, String[] auswahlArgumente,
+                         String sortierung ) throws SQLException {
+
+        if ( auswahl != null || sortierung != null ) {
+
+            throw new IllegalArgumentException( "Auswahl und Sortierung werden nicht unterstützt: " + uri );
+        }
+
+        String select = "SELECT " + spalten( projektion ) + SQL_VON;
+
+        switch ( _uriMatcher.match( uri ) ) {
+
+            case URI_ABK:
+                return abfrage( select + SQL_ABK, schluessel( uri.getLastPathSegment() ) );
+
+            case URI_PRAEFIX:
+                String praefix = schluessel( uri.getLastPathSegment() );
+                String ende    = praefixEnde( praefix );
+                String limit   = Integer.toString( limit( uri ) );
+                if ( ende == null ) {
+
+                    return abfrage( select + SQL_PRAEFIX_OFFEN, praefix, limit );
+                }
+                return abfrage( select + SQL_PRAEFIX, praefix, ende, limit );
+
+            case URI_ABKS:
+                return sucheAbks( select, uri.getQueryParameters( AbkKontrakt.PARAMETER_ABK ) );
+
+            default:
+                throw new IllegalArgumentException( "Unbekannte URI: " + uri );
+        }
+    }
+
+
+    /**
+     * Sucht die Bedeutungen vieler Abkürzungen, mit einer Abfrage pro
+     * {@link DatenbankManager#MAX_IN_PARAMETER} Abkürzungen; die Cursor der Abfragen werden
+     * ggf. zu einem zusammengefasst.
+     *
+     * @param select  SELECT-, FROM- und WHERE-Teil der Abfrage.
+     *
+     * @param abks  Abkürzungen in beliebiger Schreibweise; solche ohne Buchstaben und
+     *              Ziffern werden übersprungen.
+     *
+     * @return  Cursor mit den Bedeutungen aller Abkürzungen.
+     */
+    protected Cursor sucheAbks( String select, List<String> abks ) throws SQLException {
+
+        LinkedHashSet<String> eindeutig = new LinkedHashSet<>();
+        for ( String abk: abks ) {
+
+            abk = AbkNormalisierer.schluessel( abk );
+            if ( !abk.isEmpty() ) {
+
+                eindeutig.add( abk );
+            }
+        }
+        if ( eindeutig.isEmpty() ) {
+
+            throw new IllegalArgumentException( "Keine Abkürzung angegeben." );
+        }
+
+        List<String> liste   = new ArrayList<>( eindeutig );
+        List<Cursor> cursors = new ArrayList<>();
+        for ( int i = 0; i < liste.size(); i += DatenbankManager.MAX_IN_PARAMETER ) {
+
+            List<String>  teil = liste.subList( i, Math.min( i + DatenbankManager.MAX_IN_PARAMETER, liste.size() ) );
+            StringBuilder sql  = new StringBuilder( select ).append( SQL_ABKS_ANFANG );
+            for ( int j = 0; j < teil.size(); j++ ) {
+
+                sql.append( j == 0 ? "?" : ",?" );
+            }
+            sql.append( SQL_ABKS_ENDE );
+
+            cursors.add( abfrage( sql.toString(), teil.toArray( new String[ 0 ] ) ) );
+        }
+
+        return cursors.size() == 1 ? cursors.get( 0 ) : new MergeCursor( cursors.toArray( new Cursor[ 0 ] ) );
+    }
+
+
+    /**
+     * Führt eine Abfrage aus; die Zeilen werden erst beim Lesen des Cursors geholt.
+     *
+     * @param sql  Abfrage.
+     *
+     * @param parameter  Werte für die Platzhalter.
+     *
+     * @return  Cursor der Abfrage.
+     */
+    protected Cursor abfrage( String sql, String... parameter ) throws SQLException {
+
+        return DatenbankManager.getInstanz( getContext() ).getReadableDatabase().rawQuery( sql, parameter );
+    }
+
+
+    /**
+     * Baut die Spalten-Liste der Abfrage aus der Projektion.
+     *
+     * @param projektion  Spalten aus {@link AbkKontrakt}; {@code null} oder leer für alle.
+     *
+     * @return  Liste von SQL-Ausdrücken mit Spalten-Namen, z.B. {@code "bedeutungen.bedeutung AS bedeutung"}.
+     *
+     * @throws IllegalArgumentException  Unbekannte Spalte.
+     */
+    protected static String spalten( String[] projektion ) {
+
+        if ( projektion == null || projektion.length == 0 ) {
+
+            projektion = SPALTEN.keySet().toArray( new String[ 0 ] );
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for ( String spalte: projektion ) {
+
+            String ausdruck = SPALTEN.get( spalte );
+            if ( ausdruck == null ) {
+
+                throw new IllegalArgumentException( "Unbekannte Spalte: " + spalte );
+            }
+            if ( sb.length() > 0 ) {
+
+                sb.append( ", " );
+            }
+            sb.append( ausdruck ).append( " AS " ).append( spalte );
+        }
+        return sb.toString();
+    }
+
+
+    /**
+     * Berechnet den Schlüssel einer Abkürzung aus der URI.
+     *
+     * @param abk  Letztes Segment der URI.
+     *
+     * @return  Schlüssel, siehe {@link AbkNormalisierer#schluessel(String)}.
+     *
+     * @throws IllegalArgumentException  Abkürzung fehlt oder hat keine Buchstaben und Ziffern.
+     */
+    protected static String schluessel( String abk ) {
+
+        String schluessel = abk == null ? "" : AbkNormalisierer.schluessel( abk );
+        if ( schluessel.isEmpty() ) {
+
+            throw new IllegalArgumentException( "Abkürzung ohne Buchstaben und Ziffern: " + abk );
+        }
+        return schluessel;
+    }
+
+
+    /**
+     * Kleinster String, der größer ist als alle Strings mit dem Präfix: das letzte Zeichen
+     * wird um eins erhöht. SQLite vergleicht Texte nach Code-Points (Bytes in UTF-8), die
+     * Rechnung erfolgt deshalb auch auf Code-Points und nicht auf {@code char}s. Auf U+D7FF
+     * folgt U+E000, denn die Surrogates dazwischen sind keine Zeichen; ein U+10FFFF am Ende
+     * lässt sich nicht erhöhen, es wird weggelassen und stattdessen das Zeichen davor erhöht.
+     *
+     * @param praefix  Präfix, nicht leer.
+     *
+     * @return  Obere Grenze (exklusiv) für den Bereich im Index, oder {@code null}, wenn das
+     *          Präfix nur aus U+10FFFF besteht und es keine obere Grenze gibt.
+     */
+    protected static String praefixEnde( String praefix ) {
+
+        int ende = praefix.length();
+        while ( ende > 0 ) {
+
+            int letzter = praefix.codePointBefore( ende );
+            ende -= Character.charCount( letzter );
+
+            if ( letzter < Character.MAX_CODE_POINT ) {
+
+                int naechster = letzter == Character.MIN_SURROGATE - 1 ? Character.MAX_SURROGATE + 1
+                                                                       : letzter + 1;
+                return new StringBuilder( praefix.substring( 0, ende ) )
+                        .appendCodePoint( naechster )
+                        .toString();
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Liest das Limit aus der URI.
+     *
+     * @param uri  URI für die Suche nach Präfix.
+     *
+     * @return  Limit, höchstens {@link #PRAEFIX_MAX_LIMIT}.
+     *
+     * @throws IllegalArgumentException  Limit ist keine positive Zahl.
+     */
+    protected static int limit( Uri uri ) {
+
+        String parameter = uri.getQueryParameter( AbkKontrakt.PARAMETER_LIMIT );
+        if ( parameter == null ) {
+
+            return PRAEFIX_STANDARD_LIMIT;
+        }
+
+        try {
+
+            int limit = Integer.parseInt( parameter );
+            if ( limit > 0 ) {
+
+                return Math.min( limit, PRAEFIX_MAX_LIMIT );
+            }
+        }
+        catch ( NumberFormatException ex ) {
+            // wie ungültiger Wert
+        }
+        throw new IllegalArgumentException( "Ungültiges Limit: " + parameter );
+    }
+
+
+    /**
+     * Liefert den MIME-Typ der Ergebnisse.
+     *
+     * @param uri  URI aus {@link AbkKontrakt}.
+     *
+     * @return  {@link AbkKontrakt#MIME_TYP}, oder {@code null} bei unbekannter URI.
+     */
+    @Override
+    public String getType( Uri uri ) {
+
+        return _uriMatcher.match( uri ) == UriMatcher.NO_MATCH ? null : AbkKontrakt.MIME_TYP;
+    }
+
+
+    /**
+     * Wird nicht unterstützt, Einträge werden nur in der App angelegt.
+     */
+    @Override
+    public Uri insert( Uri uri, ContentValues werte ) {
+
+        throw new UnsupportedOperationException( "Nur lesender Zugriff." );
+    }
+
+
+    /**
+     * Wird nicht unterstützt.
+     */
+    @Override
+    public int delete( Uri uri, String auswahl, String[] auswahlArgumente ) {
+
+        throw new UnsupportedOperationException( "Nur lesender Zugriff." );
+    }
+
+
+    /**
+     * Wird nicht unterstützt.
+     */
+    @Override
+    public int update( Uri uri, ContentValues werte, String auswahl, String[] auswahlArgumente ) {
+
+        throw new UnsupportedOperationException( "Nur lesender Zugriff." );
+    }
+
+};
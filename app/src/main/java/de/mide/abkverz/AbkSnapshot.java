@@ -0,0 +1,293 @@
+package de.mide.abkverz;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Nur lesbarer Schnappschuss aller Abkürzungen mit Bedeutungen in einer Binär-Datei,
+ * die per {@link FileChannel#map(FileChannel.MapMode, long, long)} in den Speicher
+ * eingeblendet wird. Beim Öffnen wird nichts geparst und für die Einträge werden keine
+ * Objekte angelegt; die Suche liest per Binärsuche direkt aus der Datei, die nur
+ * benötigten Seiten lädt das Betriebssystem nach. Geschrieben wird die Datei mit
+ * {@link AbkSnapshotSchreiber}.
+ * <br><br>
+ *
+ * Aufbau der Datei (alle Zahlen Big-Endian):
+ * <pre>
+ *   Kopf (32 Bytes): MAGIC, VERSION, Anzahl Abkürzungen, Anzahl Bedeutungen (je int),
+ *                    höchste enthaltene bedeutung_id (long), Start und Länge des
+ *                    String-Pools (je int)
+ *   Abkürzungs-Tabelle: pro Schlüssel (sortiert nach UTF-8-Bytes) Offset im Pool und
+ *                       Index der ersten Bedeutung (je int), plus ein Abschluss-Eintrag
+ *   Bedeutungs-Tabelle: pro Bedeutung Offset im Pool (int)
+ *   String-Pool:        Länge (unsigned short) und UTF-8-Bytes; gleiche Bedeutungen
+ *                       werden nur einmal gespeichert
+ * </pre>
+ *
+ * Die Bedeutungen mit höherer ID als {@link #getHoechsteBedeutungId()} sind erst nach
+ * dem Schreiben des Schnappschusses in die Datenbank gekommen und müssen dort gesucht
+ * werden, siehe {@link DatenbankManager#sucheNachAbk(String)}.
+ * <br><br>
+ *
+ * Alle Methoden sind thread-safe.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkSnapshot {
+
+    /** Kennung am Anfang der Datei ("ABKS"). */
+    public static final int MAGIC = 0x41424B53;
+
+    /**
+     * Version des Datei-Formats; ab Version 2 enthält die Datei die Schlüssel der Abkürzungen
+     * ({@link AbkNormalisierer#schluessel(String)}), ältere Dateien werden nicht mehr gelesen.
+     */
+    public static final int VERSION = 2;
+
+    /** Größe des Kopfs in Bytes. */
+    protected static final int KOPF_BYTES = 32;
+
+    /** Größe eines Eintrags in der Abkürzungs-Tabelle in Bytes. */
+    protected static final int ABK_EINTRAG_BYTES = 8;
+
+    /** Größe eines Eintrags in der Bedeutungs-Tabelle in Bytes. */
+    protected static final int BEDEUTUNG_EINTRAG_BYTES = 4;
+
+
+    /** Eingeblendete Datei; wird nur mit absoluten Methoden gelesen (thread-safe). */
+    protected final ByteBuffer _puffer;
+
+    /** Anzahl der Abkürzungen. */
+    protected final int _anzahlAbk;
+
+    /** Anzahl der Bedeutungen. */
+    protected final int _anzahlBedeutungen;
+
+    /** Höchste {@code bedeutung_id}, die im Schnappschuss enthalten ist. */
+    protected final long _hoechsteBedeutungId;
+
+    /** Start der Bedeutungs-Tabelle in der Datei. */
+    protected final int _bedeutungenStart;
+
+    /** Start des String-Pools in der Datei. */
+    protected final int _poolStart;
+
+
+    /**
+     * Blendet eine Schnappschuss-Datei ein und prüft den Kopf.
+     *
+     * @param datei  Mit {@link AbkSnapshotSchreiber} geschriebene Datei.
+     *
+     * @return  Schnappschuss zum Suchen.
+     *
+     * @throws IOException  Datei kann nicht gelesen werden oder hat falsches Format.
+     */
+    public static AbkSnapshot oeffnen( File datei ) throws IOException {
+
+        try ( RandomAccessFile raf = new RandomAccessFile( datei, "r" );
+              FileChannel channel  = raf.getChannel() ) {
+
+            // Die Einblendung bleibt auch nach dem Schließen des Channels gültig
+            MappedByteBuffer puffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            return new AbkSnapshot( puffer );
+        }
+    }
+
+
+    /**
+     * Konstruktor, prüft den Kopf.
+     *
+     * @param puffer  Inhalt einer Schnappschuss-Datei.
+     *
+     * @throws IOException  Falsches Format.
+     */
+    protected AbkSnapshot( ByteBuffer puffer ) throws IOException {
+
+        if ( puffer.capacity() < KOPF_BYTES || puffer.getInt( 0 ) != MAGIC ) {
+
+            throw new IOException( "Keine Schnappschuss-Datei." );
+        }
+        if ( puffer.getInt( 4 ) != VERSION ) {
+
+            throw new IOException( "Nicht unterstützte Version der Schnappschuss-Datei: " + puffer.getInt( 4 ) );
+        }
+
+        _puffer              = puffer;
+        _anzahlAbk           = puffer.getInt( 8 );
+        _anzahlBedeutungen   = puffer.getInt( 12 );
+        _hoechsteBedeutungId = puffer.getLong( 16 );
+        _poolStart           = puffer.getInt( 24 );
+        _bedeutungenStart    = KOPF_BYTES + ( _anzahlAbk + 1 ) * ABK_EINTRAG_BYTES;
+
+        long erwarteteGroesse = (long) _poolStart + puffer.getInt( 28 );
+        if ( _anzahlAbk < 0 || _anzahlBedeutungen < 0 ||
+             _poolStart != _bedeutungenStart + (long) _anzahlBedeutungen * BEDEUTUNG_EINTRAG_BYTES ||
+             erwarteteGroesse != puffer.capacity() ) {
+
+            throw new IOException( "Schnappschuss-Datei ist beschädigt." );
+        }
+    }
+
+
+    /**
+     * Sucht die Bedeutungen einer Abkürzung.
+     *
+     * @param abk  Schlüssel der Abkürzung.
+     *
+     * @return  Sortierte Bedeutungen, Länge 0 wenn die Abkürzung nicht enthalten ist.
+     */
+    public String[] suche( String abk ) {
+
+        int position = binaerSuche( abk.getBytes( StandardCharsets.UTF_8 ) );
+        if ( position < 0 ) {
+
+            return new String[]{};
+        }
+
+        int erste  = ersteBedeutung( position );
+        int anzahl = ersteBedeutung( position + 1 ) - erste;
+
+        String[] bedeutungen = new String[ anzahl ];
+        for ( int i = 0; i < anzahl; i++ ) {
+
+            int offset = _puffer.getInt( _bedeutungenStart + ( erste + i ) * BEDEUTUNG_EINTRAG_BYTES );
+            bedeutungen[ i ] = leseString( offset );
+        }
+        return bedeutungen;
+    }
+
+
+    /**
+     * Binärsuche in der Abkürzungs-Tabelle, vergleicht direkt mit den Bytes im Pool.
+     *
+     * @param schluessel  Abkürzung als UTF-8.
+     *
+     * @return  Index der Abkürzung, oder -1.
+     */
+    protected int binaerSuche( byte[] schluessel ) {
+
+        int links  = 0;
+        int rechts = _anzahlAbk - 1;
+        while ( links <= rechts ) {
+
+            int mitte     = ( links + rechts ) >>> 1;
+            int vergleich = vergleiche( _puffer.getInt( KOPF_BYTES + mitte * ABK_EINTRAG_BYTES ), schluessel );
+            if ( vergleich < 0 ) {
+
+                links = mitte + 1;
+
+            } else if ( vergleich > 0 ) {
+
+                rechts = mitte - 1;
+
+            } else {
+
+                return mitte;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Vergleicht einen String im Pool mit einem Schlüssel; Reihenfolge wie bei
+     * {@link AbkSnapshotSchreiber#vergleicheUtf8(byte[], byte[])}.
+     *
+     * @param offset  Offset des Strings im Pool.
+     *
+     * @param schluessel  UTF-8-Bytes.
+     *
+     * @return  Negativ, 0 oder positiv wie bei {@link Comparable#compareTo(Object)}.
+     */
+    protected int vergleiche( int offset, byte[] schluessel ) {
+
+        int start  = _poolStart + offset;
+        int laenge = _puffer.getShort( start ) & 0xFFFF;
+        int min    = Math.min( laenge, schluessel.length );
+
+        for ( int i = 0; i < min; i++ ) {
+
+            int unterschied = ( _puffer.get( start + 2 + i ) & 0xFF ) - ( schluessel[ i ] & 0xFF );
+            if ( unterschied != 0 ) {
+
+                return unterschied;
+            }
+        }
+        return laenge - schluessel.length;
+    }
+
+
+    /**
+     * Liest einen String aus dem Pool.
+     *
+     * @param offset  Offset des Strings im Pool.
+     *
+     * @return  Dekodierter String.
+     */
+    protected String leseString( int offset ) {
+
+        int    start  = _poolStart + offset;
+        byte[] bytes  = new byte[ _puffer.getShort( start ) & 0xFFFF ];
+
+        ByteBuffer kopie = _puffer.duplicate(); // eigene Position, damit thread-safe
+        kopie.position( start + 2 );
+        kopie.get( bytes );
+
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+
+    /**
+     * Index der ersten Bedeutung einer Abkürzung in der Bedeutungs-Tabelle.
+     *
+     * @param abkIndex  Index der Abkürzung, {@code _anzahlAbk} für den Abschluss-Eintrag.
+     *
+     * @return  Index in der Bedeutungs-Tabelle.
+     */
+    protected int ersteBedeutung( int abkIndex ) {
+
+        return _puffer.getInt( KOPF_BYTES + abkIndex * ABK_EINTRAG_BYTES + 4 );
+    }
+
+
+    /**
+     * Getter für Anzahl der Abkürzungen.
+     *
+     * @return  Anzahl der Abkürzungen im Schnappschuss.
+     */
+    public int getAnzahlAbkuerzungen() {
+
+        return _anzahlAbk;
+    }
+
+
+    /**
+     * Getter für Anzahl der Bedeutungen.
+     *
+     * @return  Anzahl der Bedeutungen im Schnappschuss.
+     */
+    public int getAnzahlBedeutungen() {
+
+        return _anzahlBedeutungen;
+    }
+
+
+    /**
+     * Getter für die höchste enthaltene Bedeutungs-ID.
+     *
+     * @return  Höchste {@code bedeutung_id} im Schnappschuss; Bedeutungen mit höherer ID
+     *          sind nur in der Datenbank.
+     */
+    public long getHoechsteBedeutungId() {
+
+        return _hoechsteBedeutungId;
+    }
+
+};
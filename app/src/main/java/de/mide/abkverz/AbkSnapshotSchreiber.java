@@ -0,0 +1,249 @@
+package de.mide.abkverz;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Schreibt eine Datei für {@link AbkSnapshot}. Die Einträge müssen wie bei
+ * {@link AbkIndex#anhaengen(String, String)} nach Abkürzung sortiert übergeben werden,
+ * die Bedeutungen einer Abkürzung direkt hintereinander.
+ * <br><br>
+ *
+ * Verwendung:
+ * <pre>
+ *     AbkSnapshotSchreiber schreiber = new AbkSnapshotSchreiber();
+ *     schreiber.anhaengen( "ADB", "Android Debug Bridge" );
+ *     ...
+ *     schreiber.schreiben( datei, hoechsteBedeutungId );
+ * </pre>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkSnapshotSchreiber {
+
+    /** Maximale Länge eines Strings in UTF-8-Bytes (Länge wird als unsigned short gespeichert). */
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+
+
+    /** String-Pool, wird am Ende der Datei geschrieben. */
+    protected final ByteArrayOutputStream _pool = new ByteArrayOutputStream( 64 * 1024 );
+
+    /** Offsets der schon im Pool gespeicherten Bedeutungen, für gleiche Bedeutungen. */
+    protected final Map<String,Integer> _poolOffsets = new HashMap<>();
+
+    /** Pro Abkürzung: Offset im Pool und Index der ersten Bedeutung. */
+    protected int[] _abkTabelle = new int[ 2 * 1024 ];
+
+    /** Pro Bedeutung: Offset im Pool. */
+    protected int[] _bedeutungTabelle = new int[ 4 * 1024 ];
+
+    /** Anzahl der bisher angehängten Abkürzungen. */
+    protected int _anzahlAbk = 0;
+
+    /** Anzahl der bisher angehängten Bedeutungen. */
+    protected int _anzahlBedeutungen = 0;
+
+    /** Zuletzt angehängte Abkürzung als UTF-8, zum Prüfen der Sortierung. */
+    protected byte[] _letzteAbk = null;
+
+
+    /**
+     * Hängt eine Bedeutung an.
+     *
+     * @param abk  Schlüssel der Abkürzung; nicht kleiner als der vorherige.
+     *
+     * @param bedeutung  Bedeutung.
+     *
+     * @throws IllegalArgumentException  Abkürzung nicht sortiert oder String zu lang.
+     */
+    public void anhaengen( String abk, String bedeutung ) {
+
+        byte[] abkBytes = abk.getBytes( StandardCharsets.UTF_8 );
+
+        int vergleich = _letzteAbk == null ? 1 : vergleicheUtf8( abkBytes, _letzteAbk );
+        if ( vergleich < 0 ) {
+
+            throw new IllegalArgumentException( "Abkürzungen sind nicht sortiert: " + abk );
+        }
+        if ( vergleich > 0 ) {
+
+            if ( 2 * _anzahlAbk + 2 > _abkTabelle.length ) {
+
+                _abkTabelle = Arrays.copyOf( _abkTabelle, 2 * _abkTabelle.length );
+            }
+            _abkTabelle[ 2 * _anzahlAbk     ] = schreibeInPool( abkBytes );
+            _abkTabelle[ 2 * _anzahlAbk + 1 ] = _anzahlBedeutungen;
+            _anzahlAbk++;
+            _letzteAbk = abkBytes;
+        }
+
+        Integer offset = _poolOffsets.get( bedeutung );
+        if ( offset == null ) {
+
+            offset = schreibeInPool( bedeutung.getBytes( StandardCharsets.UTF_8 ) );
+            _poolOffsets.put( bedeutung, offset );
+        }
+
+        if ( _anzahlBedeutungen == _bedeutungTabelle.length ) {
+
+            _bedeutungTabelle = Arrays.copyOf( _bedeutungTabelle, 2 * _bedeutungTabelle.length );
+        }
+        _bedeutungTabelle[ _anzahlBedeutungen++ ] = offset;
+    }
+
+
+    /**
+     * Hängt einen String an den Pool an.
+     *
+     * @param bytes  UTF-8-Bytes.
+     *
+     * @return  Offset im Pool.
+     */
+    protected int schreibeInPool( byte[] bytes ) {
+
+        if ( bytes.length > MAX_STRING_BYTES ) {
+
+            throw new IllegalArgumentException( "String zu lang für Schnappschuss: " + bytes.length + " Bytes" );
+        }
+
+        int offset = _pool.size();
+        _pool.write( bytes.length >>> 8 );
+        _pool.write( bytes.length );
+        _pool.write( bytes, 0, bytes.length );
+        return offset;
+    }
+
+
+    /**
+     * Schreibt die Datei.
+     *
+     * @param datei  Zieldatei, wird überschrieben.
+     *
+     * @param hoechsteBedeutungId  Höchste {@code bedeutung_id} der angehängten Bedeutungen.
+     *
+     * @throws IOException  Fehler beim Schreiben.
+     */
+    public void schreiben( File datei, long hoechsteBedeutungId ) throws IOException {
+
+        int poolStart = AbkSnapshot.KOPF_BYTES +
+                        ( _anzahlAbk + 1 ) * AbkSnapshot.ABK_EINTRAG_BYTES +
+                        _anzahlBedeutungen * AbkSnapshot.BEDEUTUNG_EINTRAG_BYTES;
+
+        try ( DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream( new FileOutputStream( datei ), 64 * 1024 ) ) ) {
+
+            out.writeInt ( AbkSnapshot.MAGIC    );
+            out.writeInt ( AbkSnapshot.VERSION  );
+            out.writeInt ( _anzahlAbk           );
+            out.writeInt ( _anzahlBedeutungen   );
+            out.writeLong( hoechsteBedeutungId  );
+            out.writeInt ( poolStart            );
+            out.writeInt ( _pool.size()         );
+
+            for ( int i = 0; i < 2 * _anzahlAbk; i++ ) {
+
+                out.writeInt( _abkTabelle[ i ] );
+            }
+            out.writeInt( 0 );                  // Abschluss-Eintrag: kein String,
+            out.writeInt( _anzahlBedeutungen ); // aber Ende der letzten Bedeutungen
+
+            for ( int i = 0; i < _anzahlBedeutungen; i++ ) {
+
+                out.writeInt( _bedeutungTabelle[ i ] );
+            }
+
+            _pool.writeTo( out );
+        }
+    }
+
+
+    /**
+     * Vergleicht zwei UTF-8-Strings Byte für Byte (ohne Vorzeichen); das entspricht der
+     * Sortierung von SQLite ({@code BINARY}) und der Reihenfolge der Unicode-Codepoints.
+     *
+     * @param a  Erster String.
+     *
+     * @param b  Zweiter String.
+     *
+     * @return  Negativ, 0 oder positiv wie bei {@link Comparable#compareTo(Object)}.
+     */
+    public static int vergleicheUtf8( byte[] a, byte[] b ) {
+
+        int min = Math.min( a.length, b.length );
+        for ( int i = 0; i < min; i++ ) {
+
+            int unterschied = ( a[ i ] & 0xFF ) - ( b[ i ] & 0xFF );
+            if ( unterschied != 0 ) {
+
+                return unterschied;
+            }
+        }
+        return a.length - b.length;
+    }
+
+
+    /**
+     * Vergleicht zwei Strings in derselben Reihenfolge wie {@link #vergleicheUtf8(byte[], byte[])},
+     * aber ohne sie zu kodieren. {@link String#compareTo(String)} vergleicht UTF-16-Einheiten
+     * und sortiert damit Zeichen ab U+10000 (Surrogates U+D800..U+DFFF) vor U+E000..U+FFFF, in
+     * UTF-8 und bei SQLite stehen sie dahinter; unterscheiden sich zwei Einheiten in diesem
+     * Bereich, dann werden sie deshalb vor dem Vergleich entsprechend verschoben.
+     *
+     * @param a  Erster String.
+     *
+     * @param b  Zweiter String.
+     *
+     * @return  Negativ, 0 oder positiv wie bei {@link Comparable#compareTo(Object)}.
+     */
+    public static int vergleicheCodePoints( String a, String b ) {
+
+        int min = Math.min( a.length(), b.length() );
+        for ( int i = 0; i < min; i++ ) {
+
+            int zeichenA = a.charAt( i );
+            int zeichenB = b.charAt( i );
+            if ( zeichenA != zeichenB ) {
+
+                if ( zeichenA >= Character.MIN_SURROGATE && zeichenB >= Character.MIN_SURROGATE ) {
+
+                    zeichenA = zeichenA > Character.MAX_SURROGATE ? zeichenA - 0x800 : zeichenA + 0x2000;
+                    zeichenB = zeichenB > Character.MAX_SURROGATE ? zeichenB - 0x800 : zeichenB + 0x2000;
+                }
+                return zeichenA - zeichenB;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+
+    /**
+     * Getter für Anzahl der Abkürzungen.
+     *
+     * @return  Anzahl der bisher angehängten Abkürzungen.
+     */
+    public int getAnzahlAbkuerzungen() {
+
+        return _anzahlAbk;
+    }
+
+
+    /**
+     * Getter für Anzahl der Bedeutungen.
+     *
+     * @return  Anzahl der bisher angehängten Bedeutungen.
+     */
+    public int getAnzahlBedeutungen() {
+
+        return _anzahlBedeutungen;
+    }
+
+};
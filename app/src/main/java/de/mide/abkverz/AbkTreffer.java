@@ -0,0 +1,102 @@
+package de.mide.abkverz;
+
+
+/**
+ * Ein Treffer der inkrementellen Suche (siehe {@link DatenbankManager#sucheTreffer(String, int, boolean)}):
+ * Abkürzung mit allen Bedeutungen und der Art, wie die Abkürzung zur Eingabe passt.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class AbkTreffer {
+
+    /**
+     * Art des Treffers; die Reihenfolge der Konstanten ist zugleich die Rangfolge
+     * in der Ergebnisliste.
+     */
+    public enum Art {
+
+        /** Abkürzung stimmt genau mit der Eingabe überein. */
+        EXAKT,
+
+        /** Abkürzung beginnt mit der Eingabe. */
+        PRAEFIX,
+
+        /** Abkürzung hat Editier-Distanz 1 zur Eingabe (Tippfehler). */
+        AEHNLICH
+    }
+
+
+    /** Gefundene Abkürzung. */
+    protected final String _abkuerzung;
+
+    /** Alle Bedeutungen der gefundenen Abkürzung. */
+    protected final String[] _bedeutungen;
+
+    /** Art des Treffers. */
+    protected final Art _art;
+
+
+    /**
+     * Konstruktor für einen Treffer.
+     *
+     * @param abkuerzung  Gefundene Abkürzung.
+     *
+     * @param bedeutungen  Bedeutungen der Abkürzung.
+     *
+     * @param art  Wie die Abkürzung zur Eingabe passt.
+     */
+    public AbkTreffer( String abkuerzung, String[] bedeutungen, Art art ) {
+
+        _abkuerzung  = abkuerzung;
+        _bedeutungen = bedeutungen;
+        _art         = art;
+    }
+
+
+    /**
+     * Getter für gefundene Abkürzung.
+     *
+     * @return  Schlüssel der Abkürzung, siehe {@link AbkNormalisierer}.
+     */
+    public String getAbkuerzung() {
+
+        return _abkuerzung;
+    }
+
+
+    /**
+     * Getter für Bedeutungen.
+     *
+     * @return  Bedeutungen der Abkürzung in aufsteigender Reihenfolge; das Array wird
+     *          mit dem {@link AbkIndex} geteilt und darf nicht verändert werden.
+     */
+    public String[] getBedeutungen() {
+
+        return _bedeutungen;
+    }
+
+
+    /**
+     * Getter für Art des Treffers.
+     *
+     * @return  Art, wie die Abkürzung zur Eingabe passt.
+     */
+    public Art getArt() {
+
+        return _art;
+    }
+
+
+    /**
+     * String-Repräsentation für Debug-Ausgaben.
+     *
+     * @return  Abkürzung und Art des Treffers.
+     */
+    @Override
+    public String toString() {
+
+        return _abkuerzung + " (" + _art + ")";
+    }
+
+};
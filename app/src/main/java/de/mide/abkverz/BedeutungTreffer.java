@@ -0,0 +1,84 @@
+package de.mide.abkverz;
+
+
+/**
+ * Ein Treffer der Rückwärts-Suche (siehe {@link DatenbankManager#sucheNachBedeutung(String, int)}):
+ * Bedeutung, in der die gesuchten Wörter vorkommen, mit zugehöriger Abkürzung und Rang.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class BedeutungTreffer {
+
+    /** Abkürzung, zu der die gefundene Bedeutung gehört. */
+    protected final String _abkuerzung;
+
+    /** Gefundene Bedeutung. */
+    protected final String _bedeutung;
+
+    /** Rang des Treffers, größer ist besser. */
+    protected final double _rang;
+
+
+    /**
+     * Konstruktor für einen Treffer.
+     *
+     * @param abkuerzung  Abkürzung, zu der die Bedeutung gehört.
+     *
+     * @param bedeutung  Gefundene Bedeutung.
+     *
+     * @param rang  Rang des Treffers, siehe {@link VolltextSuche#berechneRang(byte[])}.
+     */
+    public BedeutungTreffer( String abkuerzung, String bedeutung, double rang ) {
+
+        _abkuerzung = abkuerzung;
+        _bedeutung  = bedeutung;
+        _rang       = rang;
+    }
+
+
+    /**
+     * Getter für Abkürzung.
+     *
+     * @return  Abkürzung in Großbuchstaben.
+     */
+    public String getAbkuerzung() {
+
+        return _abkuerzung;
+    }
+
+
+    /**
+     * Getter für gefundene Bedeutung.
+     *
+     * @return  Bedeutung, in der die gesuchten Wörter vorkommen.
+     */
+    public String getBedeutung() {
+
+        return _bedeutung;
+    }
+
+
+    /**
+     * Getter für Rang.
+     *
+     * @return  Rang des Treffers, größer ist besser.
+     */
+    public double getRang() {
+
+        return _rang;
+    }
+
+
+    /**
+     * String-Darstellung für Log-Ausgaben.
+     *
+     * @return  Abkürzung und Bedeutung.
+     */
+    @Override
+    public String toString() {
+
+        return _abkuerzung + ": " + _bedeutung;
+    }
+
+};
@@ -0,0 +1,153 @@
+package de.mide.abkverz;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Eine Seite mit Bedeutungen einer Abkürzung, siehe
+ * {@link DatenbankManager#sucheBedeutungenSeite(String, BedeutungenSeite, int)}.
+ * <br><br>
+ *
+ * Die Bedeutungen sind nach Häufigkeit der Auswahl (absteigend), Text und ID sortiert.
+ * Für die nächste Seite merkt sich die Seite ihren letzten Eintrag (Keyset-Paginierung):
+ * Die nächste Seite beginnt direkt hinter diesem Eintrag im Index, ohne die vorherigen
+ * Seiten noch einmal zu lesen, und Einfügungen zwischen zwei Seiten verschieben keine
+ * Einträge. Auch der Kategorie-Filter der ersten Seite gilt für alle weiteren Seiten.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class BedeutungenSeite {
+
+    /** Abkürzung, deren Bedeutungen diese Seite enthält (Schlüssel). */
+    protected final String _abkuerzung;
+
+    /** IDs der Kategorien, auf die die Suche beschränkt ist; leer für alle Kategorien. */
+    protected final Set<Integer> _kategorien;
+
+    /** Bedeutungen auf dieser Seite, häufigste zuerst. */
+    protected final List<String> _bedeutungen;
+
+    /** Zähler der letzten Bedeutung auf dieser Seite, Startpunkt für die nächste Seite. */
+    protected final long _letzteTreffer;
+
+    /** Text der letzten Bedeutung auf dieser Seite, Startpunkt für die nächste Seite. */
+    protected final String _letzteBedeutung;
+
+    /** ID der letzten Bedeutung auf dieser Seite, unterscheidet gleiche Texte. */
+    protected final long _letzteId;
+
+    /** {@code true}, wenn es nach dieser Seite noch weitere Bedeutungen gibt. */
+    protected final boolean _hatWeitere;
+
+
+    /**
+     * Konstruktor für eine Seite.
+     *
+     * @param abkuerzung  Schlüssel der Abkürzung.
+     *
+     * @param kategorien  IDs der Kategorien des Filters, leer für alle Kategorien.
+     *
+     * @param bedeutungen  Bedeutungen auf dieser Seite.
+     *
+     * @param letzteTreffer  Zähler der letzten Bedeutung, {@link Long#MAX_VALUE} bei leerer Seite.
+     *
+     * @param letzteBedeutung  Text der letzten Bedeutung, {@code ""} bei leerer Seite.
+     *
+     * @param letzteId  ID der letzten Bedeutung, -1 bei leerer Seite.
+     *
+     * @param hatWeitere  {@code true}, wenn es noch weitere Bedeutungen gibt.
+     */
+    public BedeutungenSeite( String abkuerzung, Set<Integer> kategorien, List<String> bedeutungen,
+                             long letzteTreffer, String letzteBedeutung, long letzteId,
+                             boolean hatWeitere ) {
+
+        _abkuerzung      = abkuerzung;
+        _kategorien      = Collections.unmodifiableSet( kategorien );
+        _bedeutungen     = Collections.unmodifiableList( bedeutungen );
+        _letzteTreffer   = letzteTreffer;
+        _letzteBedeutung = letzteBedeutung;
+        _letzteId        = letzteId;
+        _hatWeitere      = hatWeitere;
+    }
+
+
+    /**
+     * Getter für Abkürzung.
+     *
+     * @return  Schlüssel der Abkürzung.
+     */
+    public String getAbkuerzung() {
+
+        return _abkuerzung;
+    }
+
+
+    /**
+     * Getter für den Kategorie-Filter, mit dem die Seite geladen wurde.
+     *
+     * @return  Nicht veränderbare Menge der Kategorie-IDs; leer, wenn nicht gefiltert wurde.
+     */
+    public Set<Integer> getKategorien() {
+
+        return _kategorien;
+    }
+
+
+    /**
+     * Getter für Bedeutungen auf dieser Seite.
+     *
+     * @return  Nicht veränderbare Liste, häufigste Bedeutung zuerst; leer, wenn nichts gefunden.
+     */
+    public List<String> getBedeutungen() {
+
+        return _bedeutungen;
+    }
+
+
+    /**
+     * Getter für Zähler der letzten Bedeutung (Schlüssel für die nächste Seite).
+     *
+     * @return  Wie oft die letzte Bedeutung auf dieser Seite ausgewählt wurde.
+     */
+    public long getLetzteTreffer() {
+
+        return _letzteTreffer;
+    }
+
+
+    /**
+     * Getter für Text der letzten Bedeutung (Schlüssel für die nächste Seite).
+     *
+     * @return  Text der letzten Bedeutung auf dieser Seite.
+     */
+    public String getLetzteBedeutung() {
+
+        return _letzteBedeutung;
+    }
+
+
+    /**
+     * Getter für ID der letzten Bedeutung (Schlüssel für die nächste Seite).
+     *
+     * @return  ID der letzten Bedeutung auf dieser Seite.
+     */
+    public long getLetzteId() {
+
+        return _letzteId;
+    }
+
+
+    /**
+     * Gibt an, ob es nach dieser Seite weitere Bedeutungen gibt.
+     *
+     * @return  {@code true}, wenn eine weitere Seite geladen werden kann.
+     */
+    public boolean hatWeitere() {
+
+        return _hatWeitere;
+    }
+
+};
@@ -0,0 +1,327 @@
+package de.mide.abkverz;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Führt Zugriffe auf den {@link DatenbankManager} auf einem Hintergrund-Thread aus,
+ * damit der UI-Thread nie auf die Datenbank warten muss (Ruckeln, ANR).
+ * <br><br>
+ *
+ * Alle Objekte dieser Klasse teilen sich einen Thread-Pool mit begrenzter Anzahl an
+ * Threads und begrenzter Warteschlange. Das Ergebnis eines Auftrags wird über
+ * {@link IDatenbankRueckruf} auf dem Main-Looper zugestellt.
+ * <br><br>
+ *
+ * Wartungsarbeiten (Vorwärmen, Laden des {@link AbkIndex}, Schreiben der Treffer-Zähler)
+ * laufen auf einem eigenen Thread ({@link #WARTUNG_EXECUTOR}, siehe {@link #starteWartung(Callable,
+ * IDatenbankRueckruf)}), damit sie nie die Threads für Suchen des Nutzers belegen. Ein
+ * abgebrochener Auftrag löst sein {@link CancellationSignal} aus; reicht die Aufgabe
+ * ({@link IDatenbankAufgabe}) es an {@code rawQuery()} weiter, dann endet auch eine
+ * gerade laufende Query.
+ * <br><br>
+ *
+ * Jede Activity sollte ein eigenes Objekt dieser Klasse verwenden und in ihrer
+ * {@code onDestroy()}-Methode {@link #alleAbbrechen()} aufrufen; danach wird kein
+ * Rückruf mehr an die (zerstörte) Activity zugestellt.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class DatenbankAuftraege implements IGlobalConstants {
+
+    /** Maximale Anzahl der Threads für Datenbank-Zugriffe des Nutzers (Suchen, Einfügen). */
+    protected static final int ANZAHL_THREADS = 2;
+
+    /** Anzahl der Threads für Wartungsarbeiten; sie laufen nacheinander. */
+    protected static final int ANZAHL_THREADS_WARTUNG = 1;
+
+    /** Maximale Anzahl der Aufträge, die auf einen freien Thread warten können. */
+    protected static final int MAX_WARTENDE_AUFTRAEGE = 64;
+
+    /** Gemeinsamer Thread-Pool für alle Objekte dieser Klasse. */
+    protected static final ThreadPoolExecutor EXECUTOR = erzeugeExecutor( "abkverz-db-", ANZAHL_THREADS );
+
+    /**
+     * Thread-Pool für Wartungsarbeiten, getrennt von {@link #EXECUTOR}; wird auch direkt vom
+     * {@link DatenbankManager} verwendet.
+     */
+    protected static final ThreadPoolExecutor WARTUNG_EXECUTOR =
+            erzeugeExecutor( "abkverz-wartung-", ANZAHL_THREADS_WARTUNG );
+
+
+    /** Handler für Zustellung der Ergebnisse auf dem UI-Thread. */
+    protected final Handler _mainHandler = new Handler( Looper.getMainLooper() );
+
+    /** Noch nicht abgeschlossene Aufträge, damit sie abgebrochen werden können. */
+    protected final Set<Future<?>> _offeneAuftraege = ConcurrentHashMap.newKeySet();
+
+    /** Wird von {@link #alleAbbrechen()} gesetzt; danach werden keine Aufträge mehr angenommen. */
+    protected volatile boolean _istBeendet = false;
+
+
+    /**
+     * Erzeugt einen gemeinsamen Thread-Pool. Die Threads laufen mit Hintergrund-Priorität
+     * und werden beendet, wenn sie 30 Sekunden lang keinen Auftrag hatten.
+     *
+     * @param namensPraefix  Anfang der Thread-Namen, danach folgt eine laufende Nummer.
+     *
+     * @param anzahlThreads  Maximale Anzahl der Threads.
+     *
+     * @return  Neuer Thread-Pool.
+     */
+    protected static ThreadPoolExecutor erzeugeExecutor( String namensPraefix, int anzahlThreads ) {
+
+        final AtomicInteger threadNummer = new AtomicInteger( 1 );
+
+        ThreadFactory threadFactory = runnable -> {
+
+            Runnable mitPrioritaet = () -> {
+
+                Process.setThreadPriority( Process.THREAD_PRIORITY_BACKGROUND );
+                runnable.run();
+            };
+            return new Thread( mitPrioritaet, namensPraefix + threadNummer.getAndIncrement() );
+        };
+
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor( anzahlThreads, anzahlThreads,
+                                        30, TimeUnit.SECONDS,
+                                        new ArrayBlockingQueue<>( MAX_WARTENDE_AUFTRAEGE ),
+                                        threadFactory );
+        executor.allowCoreThreadTimeOut( true );
+
+        return executor;
+    }
+
+
+    /**
+     * Startet einen Auftrag auf einem Hintergrund-Thread.
+     *
+     * @param aufgabe  Auszuführender Datenbank-Zugriff.
+     *
+     * @param rueckruf  Bekommt das Ergebnis oder die Exception auf dem UI-Thread.
+     *
+     * @return  Future, mit dem der Auftrag abgebrochen werden kann; nach dem Abbrechen
+     *          wird {@code rueckruf} nicht mehr aufgerufen.
+     */
+    public <T> Future<T> starte( Callable<T> aufgabe, IDatenbankRueckruf<T> rueckruf ) {
+
+        return starte( EXECUTOR, abbruch -> aufgabe.call(), rueckruf );
+    }
+
+
+    /**
+     * Startet einen abbrechbaren Auftrag auf einem Hintergrund-Thread, z.B. eine Suche, die
+     * von der nächsten Eingabe überholt werden kann.
+     *
+     * @param aufgabe  Auszuführender Datenbank-Zugriff; bekommt das Abbruch-Signal des Auftrags.
+     *
+     * @param rueckruf  Bekommt das Ergebnis oder die Exception auf dem UI-Thread.
+     *
+     * @return  Future, mit dem der Auftrag (und seine laufende Query) abgebrochen werden kann;
+     *          nach dem Abbrechen wird {@code rueckruf} nicht mehr aufgerufen.
+     */
+    public <T> Future<T> starte( IDatenbankAufgabe<T> aufgabe, IDatenbankRueckruf<T> rueckruf ) {
+
+        return starte( EXECUTOR, aufgabe, rueckruf );
+    }
+
+
+    /**
+     * Startet eine Wartungsarbeit auf dem Thread von {@link #WARTUNG_EXECUTOR}, also ohne
+     * einen Thread für Suchen zu belegen.
+     *
+     * @param aufgabe  Auszuführende Arbeit.
+     *
+     * @param rueckruf  Bekommt das Ergebnis oder die Exception auf dem UI-Thread.
+     *
+     * @return  Future, mit dem der Auftrag abgebrochen werden kann.
+     */
+    public <T> Future<T> starteWartung( Callable<T> aufgabe, IDatenbankRueckruf<T> rueckruf ) {
+
+        return starte( WARTUNG_EXECUTOR, abbruch -> aufgabe.call(), rueckruf );
+    }
+
+
+    /**
+     * Startet einen Auftrag auf dem übergebenen Thread-Pool.
+     *
+     * @param executor  {@link #EXECUTOR} oder {@link #WARTUNG_EXECUTOR}.
+     *
+     * @param aufgabe  Auszuführender Datenbank-Zugriff.
+     *
+     * @param rueckruf  Bekommt das Ergebnis oder die Exception auf dem UI-Thread.
+     *
+     * @return  Future des Auftrags.
+     */
+    protected <T> Future<T> starte( ThreadPoolExecutor executor, IDatenbankAufgabe<T> aufgabe,
+                                    IDatenbankRueckruf<T> rueckruf ) {
+
+        Auftrag<T> auftrag = new Auftrag<>( aufgabe, rueckruf, new CancellationSignal() );
+
+        if ( _istBeendet ) {
+
+            auftrag.cancel( false );
+            return auftrag;
+        }
+
+        _offeneAuftraege.add( auftrag );
+        try {
+
+            executor.execute( auftrag );
+        }
+        catch ( RejectedExecutionException ex ) {
+
+            _offeneAuftraege.remove( auftrag );
+            Log.w( TAG4LOGGING, "Datenbank-Auftrag abgelehnt, Warteschlange ist voll." );
+            _mainHandler.post( () -> rueckruf.onFehler( ex ) );
+        }
+
+        return auftrag;
+    }
+
+
+    /**
+     * Bricht alle noch nicht abgeschlossenen Aufträge ab und nimmt keine neuen Aufträge
+     * mehr an; sollte in {@code onDestroy()} der Activity aufgerufen werden.
+     */
+    public void alleAbbrechen() {
+
+        _istBeendet = true;
+
+        for ( Future<?> auftrag: _offeneAuftraege ) {
+
+            auftrag.cancel( false );
+        }
+        _offeneAuftraege.clear();
+
+        _mainHandler.removeCallbacksAndMessages( null );
+    }
+
+
+    /**
+     * Auftrag, der nach Abschluss das Ergebnis auf dem UI-Thread an den Rückruf zustellt.
+     */
+    protected class Auftrag<T> extends FutureTask<T> {
+
+        /** Empfänger für Ergebnis oder Exception. */
+        protected final IDatenbankRueckruf<T> _rueckruf;
+
+        /** Wird von {@link #cancel(boolean)} ausgelöst und beendet eine laufende Query. */
+        protected final CancellationSignal _abbruch;
+
+        /**
+         * Wird von {@link #cancel(boolean)} gesetzt, auch wenn der Auftrag da schon
+         * abgeschlossen, das Ergebnis aber noch nicht zugestellt war.
+         */
+        protected volatile boolean _istVerworfen = false;
+
+
+        /**
+         * Konstruktor für einen neuen Auftrag.
+         *
+         * @param aufgabe  Auszuführender Datenbank-Zugriff.
+         *
+         * @param rueckruf  Empfänger für Ergebnis oder Exception.
+         *
+         * @param abbruch  Abbruch-Signal, das an {@code aufgabe} übergeben wird.
+         */
+        protected Auftrag( IDatenbankAufgabe<T> aufgabe, IDatenbankRueckruf<T> rueckruf,
+                           CancellationSignal abbruch ) {
+
+            super( () -> aufgabe.ausfuehren( abbruch ) );
+            _rueckruf = rueckruf;
+            _abbruch  = abbruch;
+        }
+
+
+        /**
+         * Bricht den Auftrag ab; ein schon vorliegendes Ergebnis wird nicht mehr zugestellt.
+         * Eine gerade laufende Query, die das Abbruch-Signal bekommen hat, wird beendet.
+         *
+         * @param mayInterruptIfRunning  {@code true}, wenn ein laufender Thread unterbrochen
+         *                               werden soll.
+         *
+         * @return  {@code false}, wenn der Auftrag schon abgeschlossen war.
+         */
+        @Override
+        public boolean cancel( boolean mayInterruptIfRunning ) {
+
+            _istVerworfen = true;
+            boolean abgebrochen = super.cancel( mayInterruptIfRunning );
+            if ( abgebrochen ) {
+
+                _abbruch.cancel();
+            }
+            return abgebrochen;
+        }
+
+
+        /**
+         * Wird auf dem Hintergrund-Thread aufgerufen, wenn der Auftrag abgeschlossen
+         * oder abgebrochen wurde.
+         */
+        @Override
+        protected void done() {
+
+            _offeneAuftraege.remove( this );
+
+            if ( isCancelled() ) {
+
+                return;
+            }
+
+            _mainHandler.post( this::zustellen );
+        }
+
+
+        /**
+         * Stellt Ergebnis oder Exception auf dem UI-Thread zu, sofern der Auftrag
+         * inzwischen nicht abgebrochen wurde.
+         */
+        protected void zustellen() {
+
+            if ( _istBeendet || _istVerworfen ) {
+
+                return;
+            }
+
+            T ergebnis = null;
+            try {
+
+                ergebnis = get();
+            }
+            catch ( ExecutionException ex ) {
+
+                Throwable ursache = ex.getCause();
+                _rueckruf.onFehler( ursache instanceof Exception ? (Exception) ursache : ex );
+                return;
+            }
+            catch ( Exception ex ) { // InterruptedException, CancellationException
+
+                return;
+            }
+
+            _rueckruf.onErgebnis( ergebnis );
+        }
+    }
+
+};
@@ -1,14 +1,40 @@
 package de.mide.abkverz;
 
-import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.util.Log;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
 
 /**
  * In dieser Klasse kapseln wir alle Datenbank-Zugriffe.
@@ -18,6 +44,56 @@ import android.util.Log;
  * Es wird davon ausgegangen, dass alle Abkürzungen nur aus Großbuchstaben
  * <br><br>
  *
+ * Ab Schema-Version 5 wird jede Abkürzung zusätzlich unter ihrem Schlüssel aus
+ * {@link AbkNormalisierer#schluessel(String)} gespeichert (Spalte {@code abk_schluessel}
+ * mit eindeutigem Index); alle Suchen und Einfügungen laufen über diesen Schlüssel,
+ * "K.S.C." und "ksc" sind also dieselbe Abkürzung. Auch {@link AbkCache},
+ * {@link AbkIndex} und {@link AbkSnapshot} verwenden den Schlüssel.
+ * <br><br>
+ *
+ * Für die exakte Suche nach einer Abkürzung wird beim ersten Aufruf von
+ * {@link #sucheNachAbk(String)} einmal der {@link AbkIndex} aus der Datenbank geladen;
+ * alle weiteren Suchen werden ohne Datenbank-Zugriff aus diesem Index beantwortet.
+ * Die Insert-Methoden halten den Index aktuell.
+ * <br><br>
+ *
+ * Die Bedeutungen einer Abkürzung werden ab Schema-Version 6 nach Häufigkeit der Auswahl
+ * geliefert, dann alphabetisch (Spalte {@code treffer}, Index {@code bedeutungen_index_abk_treffer}
+ * liefert genau diese Reihenfolge). Eine Auswahl wird mit {@link #bedeutungGewaehlt(String, String)}
+ * nur im {@link TrefferZaehler} gezählt; {@link #schreibeTreffer()} schreibt die Zähler
+ * später gesammelt im Hintergrund.
+ * <br><br>
+ *
+ * Gibt es einen mit {@link #exportiereSnapshot()} geschriebenen {@link AbkSnapshot}, dann
+ * wird die exakte Suche bis zum Laden des Index aus dieser eingeblendeten Datei beantwortet;
+ * in der Datenbank werden dann nur noch die danach eingefügten Bedeutungen gesucht. Werden
+ * Bedeutungen gelöscht (z.B. von {@link SyncAbgleich}), dann muss der Schnappschuss mit
+ * {@link #snapshotVerwerfen()} verworfen werden.
+ * <br><br>
+ *
+ * Für die Rückwärts-Suche ({@link #sucheNachBedeutung(String, int)}) gibt es ab
+ * Schema-Version 3 den Volltext-Index {@code bedeutungen_fts}; er wird von Triggern
+ * aktuell gehalten, die Insert-Methoden müssen sich also nicht darum kümmern.
+ * <br><br>
+ *
+ * Alle SQL-Anweisungen sind Konstanten mit Platzhaltern, die Werte werden nur gebunden.
+ * Die Anweisungen werden über den {@link StatementCache} bzw. (Queries mit Cursor) den
+ * Statement-Cache der Verbindung nur einmal kompiliert.
+ * <br><br>
+ *
+ * Alle Methoden, die auf die Datenbank zugreifen, sollten nicht auf dem UI-Thread
+ * aufgerufen werden, sondern über {@link DatenbankAuftraege}. Damit schon die erste
+ * Suche nicht auf das Öffnen (beim ersten Start: Anlegen) der Datenbank warten muss,
+ * ruft {@link MainActivity} nach dem ersten Frame {@link #vorwaermen()} im Hintergrund auf.
+ * <br><br>
+ *
+ * Für die ganze App gibt es nur ein Objekt dieser Klasse, siehe {@link #getInstanz(Context)};
+ * es lebt so lange wie der App-Prozess und wird deshalb nie geschlossen. Die Datenbank
+ * wird im Write-Ahead-Logging-Modus (WAL) geöffnet: Mehrere Threads können gleichzeitig
+ * lesen, auch während ein anderer Thread schreibt (z.B. ein Import mit {@link AbkImporter}).
+ * Schreibende Zugriffe werden über {@link #getSchreibSperre()} serialisiert.
+ * <br><br>
+ *
  * Pfad der Datenbank-Datei auf dem Android-Gerät/Emulator:
  * <pre>
  *     /data/data/de.mide.abkverz/databases/abkverz.db
@@ -35,207 +111,2634 @@ import android.util.Log;
  *
  * This project is licensed under the terms of the BSD 3-Clause License.
  */
-public class DatenbankManager extends SQLiteOpenHelper implements IGlobalConstants {
+public class DatenbankManager extends SQLiteOpenHelper
+        implements IGlobalConstants, ComponentCallbacks2 {
+
+    /** Name der Datenbank-Datei. */
+    public static final String DB_DATEINAME = "abkverz.db";
+
+    /**
+     * Aktuelle Versions-Nummer des Datenbank-Schemas; muss erhöht werden, wenn in
+     * {@link DatenbankMigrationen} ein neuer Schritt hinzugefügt wird.
+     */
+    public static final int DB_VERSION = 10;
 
     /**
-     * Prepared Statement, um eine in der DB bisher noch nicht bekannt Abkürzung
-     * samt Bedeutung einzufügen.
+     * Query zum Laden des {@link AbkIndex}: alle Abkürzungen (Schlüssel) mit ihren Bedeutungen,
+     * häufigste Bedeutung zuerst. Liest ab Schema-Version 6 nur die Indexe
+     * {@code abkuerzung_index_schluessel} und {@code bedeutungen_index_abk_treffer}, ohne
+     * zusätzliche Sortierung.
      */
-    protected SQLiteStatement _statementInsertNeuAbk = null;
+    protected static final String SQL_INDEX_LADEN =
+            "SELECT abkuerzungen.abk_schluessel, bedeutung " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "  ORDER BY abkuerzungen.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutung ASC";
 
     /**
-     * Prepared Statement, um zu einer bereits in der DB eingetragenen
-     * Abkürzung die erste oder eine weitere Bedeutung einzutragen.
+     * Anfang der Query für {@link #sucheTrefferInDb(String, int, CancellationSignal)}, solange der {@link AbkIndex}
+     * noch nicht geladen ist: die ersten Abkürzungen (höchstens Platzhalter 2) ab dem Präfix
+     * (Platzhalter 1) als Bereich im Index {@code abkuerzung_index_schluessel}, danach ihre
+     * Bedeutungen wie im Index. Es folgt optional die obere Grenze des Bereichs (Platzhalter 3)
+     * und dann {@link #SQL_PRAEFIX_TREFFER_ENDE}.
      */
-    protected SQLiteStatement _statementInsertBedeutung = null;
+    protected static final String SQL_PRAEFIX_TREFFER_ANFANG =
+            "SELECT abks.abk_schluessel, bedeutung " +
+            "  FROM ( SELECT abk_id, abk_schluessel FROM abkuerzungen " +
+            "          WHERE abk_schluessel >= ?1 ";
+
+    /** Obere Grenze des Bereichs für {@link #SQL_PRAEFIX_TREFFER_ANFANG}. */
+    protected static final String SQL_PRAEFIX_TREFFER_BIS =
+            "            AND abk_schluessel < ?3 ";
 
+    /** Ende der Query für {@link #SQL_PRAEFIX_TREFFER_ANFANG}; Abkürzungen ohne Bedeutung zählen nicht. */
+    protected static final String SQL_PRAEFIX_TREFFER_ENDE =
+            "            AND EXISTS ( SELECT 1 FROM bedeutungen WHERE bedeutungen.abkuerzung = abk_id ) " +
+            "          ORDER BY abk_schluessel ASC LIMIT ?2 ) AS abks, bedeutungen " +
+            "  WHERE abks.abk_id = bedeutungen.abkuerzung " +
+            "  ORDER BY abks.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutung ASC";
 
     /**
-     * Konstruktor, ruft den Super-Konstruktor auf und erzeugt die Prepared Statements.
-     *
-     * @param context  Selbstreferenz auf Activity, die dieses Objekt erzeugt hat
+     * Query für die Bedeutungen einer Abkürzung direkt aus der Datenbank, siehe
+     * {@link #sucheNachAbkInDb(String)}: häufigste zuerst, dann nach Text, in der
+     * Reihenfolge des Index {@code bedeutungen_index_abk_treffer} (also ohne Sortierung).
+     * Die Bedeutungen werden mit {@link #leseBedeutungen(String, String...)} zeilenweise
+     * gelesen; das ORDER BY steht deshalb in der äußersten Query und gilt garantiert.
      */
-    public DatenbankManager(Context context) {
+    protected static final String SQL_BEDEUTUNGEN_ZU_ABK =
+            "SELECT bedeutung FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ? " +
+            "  ORDER BY bedeutungen.treffer DESC, bedeutung ASC";
 
-        super( context,
-                "abkverz.db",  // Name der DB-Datei
-                null,          // Default-CursorFactory verwenden
-                1 );           // Versions-Nummer des Datenbank-Schemas
+    /**
+     * Anfang der Query für {@link #sucheNachAbk(String, Set)}: wie {@link #SQL_BEDEUTUNGEN_ZU_ABK},
+     * aber nur Bedeutungen der gewählten Kategorien; danach folgen die Platzhalter der
+     * IN-Liste und {@link #SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ENDE}. Bei einer Kategorie liest
+     * die Query nur den Bereich von Abkürzung und Kategorie im Index
+     * {@code bedeutungen_index_abk_kategorie}, schon in der Reihenfolge der Anzeige.
+     */
+    protected static final String SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ANFANG =
+            "SELECT bedeutung FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ? " +
+            "    AND bedeutungen.kategorie IN ( ";
 
+    /** Ende der Query für {@link #sucheNachAbk(String, Set)}. */
+    protected static final String SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ENDE =
+            " ) ORDER BY bedeutungen.treffer DESC, bedeutung ASC";
 
-        // Prepared Statements erzeugen
-        SQLiteDatabase db = getReadableDatabase();
+    /** Query für {@link #holeKategorien()}: alle Kategorien, sortiert nach ID. */
+    protected static final String SQL_KATEGORIEN =
+            "SELECT kategorie_id, name FROM kategorien ORDER BY kategorie_id ASC";
 
-        _statementInsertNeuAbk =
-                db.compileStatement(
-                        "INSERT INTO abkuerzungen (abkuerzung) VALUES ( ? )" // "?" = Platzhalter
-                );
+    /** ID der Kategorie "Allgemein", Default für neue Bedeutungen ohne Kategorie. */
+    public static final int KATEGORIE_ALLGEMEIN = 0;
 
-        _statementInsertBedeutung =
-                db.compileStatement(
-                        "INSERT INTO bedeutungen (abkuerzung, bedeutung) " +
-                                "  SELECT abk_id, ? FROM abkuerzungen WHERE abkuerzung=?"
-                );
-    }
+    /**
+     * Wie {@link #SQL_BEDEUTUNGEN_ZU_ABK}, aber nur die Bedeutungen, die nach dem Schreiben
+     * des {@link AbkSnapshot} eingefügt wurden (zweiter Platzhalter = höchste ID im Schnappschuss);
+     * wie der Schnappschuss alphabetisch sortiert.
+     */
+    protected static final String SQL_NACHTRAEGE_ZU_ABK =
+            "SELECT bedeutung FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ? " +
+            "    AND bedeutungen.bedeutung_id > ? " +
+            "  ORDER BY bedeutung ASC";
 
+    /**
+     * Wie {@link #SQL_BEDEUTUNGEN_ZU_ABK}, aber nur die Bedeutungen, die schon mindestens
+     * einmal ausgewählt wurden; für die Reihenfolge der Suche im {@link AbkSnapshot}, der
+     * selbst keine Zähler enthält. Liest nur den Anfang des Bereichs der Abkürzung im Index
+     * {@code bedeutungen_index_abk_treffer}.
+     */
+    protected static final String SQL_GEWAEHLTE_ZU_ABK =
+            "SELECT bedeutung FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ? " +
+            "    AND bedeutungen.treffer > 0 " +
+            "  ORDER BY bedeutungen.treffer DESC, bedeutung ASC";
 
     /**
-     * Abstrakte Methode aus {@link android.database.sqlite.SQLiteOpenHelper}, muss also
-     * überschrieben werden damit die vorliegende Klasse nicht auch wieder abstrakt ist.
-     *
-     * Legt mit "CREATE TABLE" und "CREATE INDEX" das Datenbankschema an, wenn noch
-     * nicht verhanden (z.B. beim ersten Start der App nach Installation).
+     * Query für {@link #exportiereSnapshot()}: alle Abkürzungen mit Bedeutungen und ID,
+     * alphabetisch sortiert (die Reihenfolge nach Häufigkeit kommt bei der Suche aus
+     * {@link #SQL_GEWAEHLTE_ZU_ABK}).
      */
-    @Override
-    public void onCreate(SQLiteDatabase db) {
+    protected static final String SQL_SNAPSHOT_EXPORT =
+            "SELECT abkuerzungen.abk_schluessel, bedeutung, bedeutung_id " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "  ORDER BY abkuerzungen.abk_schluessel ASC, bedeutung ASC";
 
-        try {
+    /**
+     * Anfang der Query für {@link #sucheNachAbks(Collection)}; danach folgen die Platzhalter
+     * der IN-Liste und {@link #SQL_BEDEUTUNGEN_ZU_ABKS_ENDE}. Jede Abkürzung der Liste wird
+     * über den Index {@code abkuerzung_index_schluessel} gesucht, ihre Bedeutungen über
+     * {@code bedeutungen_index_abk_treffer}.
+     */
+    protected static final String SQL_BEDEUTUNGEN_ZU_ABKS_ANFANG =
+            "SELECT abkuerzungen.abk_schluessel, bedeutung " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel IN ( ";
 
-            db.execSQL( "CREATE TABLE abkuerzungen ( "               +
-                    "abk_id     INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                    "abkuerzung TEXT NOT NULL ) "
-            );
-            db.execSQL( "CREATE INDEX abkuerzung_index_1 ON abkuerzungen(abkuerzung)" );
+    /** Ende der Query für {@link #sucheNachAbks(Collection)}. */
+    protected static final String SQL_BEDEUTUNGEN_ZU_ABKS_ENDE =
+            " ) ORDER BY abkuerzungen.abk_schluessel ASC, bedeutungen.treffer DESC, bedeutung ASC";
 
-            db.execSQL( "CREATE TABLE bedeutungen (                         " +
-                    "bedeutung_id INTEGER PRIMARY KEY,                      " +
-                    "bedeutung    TEXT NOT NULL,                            " +
-                    "abkuerzung   INTEGER,                                  " +
-                    "FOREIGN KEY (abkuerzung) REFERENCES abkuerzungen(abk_id) ) "
-            );
-            db.execSQL( "CREATE INDEX bedeutungen_index_1 ON abkuerzungen(abkuerzung)" );
+    /**
+     * Maximale Anzahl der Platzhalter in der IN-Liste von {@link #sucheNachAbks(Collection)}
+     * (SQLite erlaubt bis Version 3.32 höchstens 999); muss eine Zweierpotenz sein.
+     */
+    protected static final int MAX_IN_PARAMETER = 512;
 
-            Log.i(TAG4LOGGING, "Datenbankschema angelegt.");
+    /** Endung der Datei für den {@link AbkSnapshot}, wird an den Namen der DB-Datei angehängt. */
+    public static final String SNAPSHOT_ENDUNG = ".snapshot";
 
-            // Wir fügen noch ein paar Beispiel-Daten in die neuen Tabellen ein
-            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 1,'ADB')" );
-            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 2,'KSC')" );
-            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 3,'HCI')" );
+    /**
+     * Name der temporären Kopie der anderen Datenbank bei {@link #zusammenfuehren(File)},
+     * im Cache-Verzeichnis der App.
+     */
+    protected static final String ZUSAMMENFUEHREN_DATEINAME = "zusammenfuehren.db";
 
-            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 1, 'Android Debug Bridge'      )" );
-            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 2, 'Karlsruher Sport-Club'     )" );
-            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 2, 'Kennedy Space Center'      )" );
-            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 3, 'Human-Computer Interaction')" );
-            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 3, 'Hash Collision Index'      )" );
+    /**
+     * Statement für {@link #zusammenfuehren(File)}: fügt alle Abkürzungen der anderen
+     * Datenbank ({@code main}) ein, deren Schlüssel es in der eigenen ({@code lokal}) noch
+     * nicht gibt; die übrigen verwirft der Index {@code abkuerzung_index_schluessel}.
+     * Platzhalter: Änderungs-Stand ({@link #naechsteAenderung(SQLiteDatabase, String)}).
+     */
+    protected static final String SQL_ZUSAMMENFUEHREN_ABKUERZUNGEN =
+            "INSERT OR IGNORE INTO lokal.abkuerzungen (abkuerzung, abk_schluessel, aenderung) " +
+            "  SELECT abkuerzung, abk_schluessel, ? FROM main.abkuerzungen";
 
-            Log.v( TAG4LOGGING, "Beispiel-Datensätze eingefügt." );
+    /** Temporäre Tabelle für {@link #zusammenfuehren(File)}: alte {@code abk_id} auf neue. */
+    protected static final String SQL_ZUSAMMENFUEHREN_ZUORDNUNG_ANLEGEN =
+            "CREATE TEMP TABLE abk_zuordnung ( " +
+            "    fremd_id INTEGER PRIMARY KEY, " +
+            "    lokal_id INTEGER NOT NULL )";
 
-        } catch (SQLException ex) {
+    /**
+     * Statement für {@link #zusammenfuehren(File)}: ordnet jeder Abkürzung der anderen
+     * Datenbank die ID der Abkürzung mit gleichem Schlüssel in der eigenen zu (eine
+     * Index-Suche pro Abkürzung).
+     */
+    protected static final String SQL_ZUSAMMENFUEHREN_ZUORDNUNG =
+            "INSERT INTO temp.abk_zuordnung (fremd_id, lokal_id) " +
+            "  SELECT fremd.abk_id, lokal.abk_id " +
+            "    FROM main.abkuerzungen AS fremd, lokal.abkuerzungen AS lokal " +
+            "   WHERE lokal.abk_schluessel = fremd.abk_schluessel";
 
-            Log.e( TAG4LOGGING, "Exception beim Anlegen von DB-Schema aufgetreten: " + ex );
-        }
+    /**
+     * Statement für {@link #zusammenfuehren(File)}: fügt alle Bedeutungen der anderen
+     * Datenbank mit der zugeordneten Abkürzungs-ID ein, außer denen, die die Abkürzung
+     * schon hat (Index {@code bedeutungen_index_abk_bedeutung}); doppelte Bedeutungen in der
+     * anderen Datenbank werden nur einmal eingefügt (mit der kleinsten ihrer Kategorien).
+     * Platzhalter: Änderungs-Stand wie bei {@link #SQL_ZUSAMMENFUEHREN_ABKUERZUNGEN}.
+     */
+    protected static final String SQL_ZUSAMMENFUEHREN_BEDEUTUNGEN =
+            "INSERT INTO lokal.bedeutungen (abkuerzung, bedeutung, kategorie, aenderung) " +
+            "  SELECT zuordnung.lokal_id, fremd.bedeutung, MIN(fremd.kategorie), ? " +
+            "    FROM main.bedeutungen AS fremd, temp.abk_zuordnung AS zuordnung " +
+            "   WHERE zuordnung.fremd_id = fremd.abkuerzung " +
+            "     AND NOT EXISTS ( SELECT 1 FROM lokal.bedeutungen AS vorhanden " +
+            "                       WHERE vorhanden.abkuerzung = zuordnung.lokal_id " +
+            "                         AND vorhanden.bedeutung  = fremd.bedeutung ) " +
+            "   GROUP BY zuordnung.lokal_id, fremd.bedeutung";
+
+    /** Statement, um eine in der DB bisher noch nicht bekannte Abkürzung mit Schlüssel einzufügen. */
+    protected static final String SQL_INSERT_NEU_ABK =
+            "INSERT INTO abkuerzungen (abkuerzung, abk_schluessel) VALUES ( ?, ? )"; // "?" = Platzhalter
+
+    /**
+     * Statement, um zu einer bereits in der DB eingetragenen Abkürzung die erste oder
+     * eine weitere Bedeutung einzutragen.
+     */
+    protected static final String SQL_INSERT_BEDEUTUNG =
+            "INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) " +
+            "  SELECT abk_id, ?, ? FROM abkuerzungen WHERE abk_schluessel=?";
+
+    /**
+     * Query für eine Seite von Bedeutungen einer Abkürzung (Keyset-Paginierung):
+     * {@code ?1} = Schlüssel der Abkürzung, {@code ?2}/{@code ?3}/{@code ?4} = Zähler/Text/ID
+     * der letzten Bedeutung der vorherigen Seite, {@code ?5} = Seitengröße. Sortiert nach
+     * Zähler (absteigend), Text und ID; das ist genau die Reihenfolge im Index
+     * {@code bedeutungen_index_abk_treffer} (die ID steckt als Row-ID in jedem Index-Eintrag).
+     * Der erste Teil liest den Rest der Bedeutungen mit gleichem Zähler, der zweite alle mit
+     * kleinerem Zähler; SQLite springt in beiden Teilen direkt an den Startpunkt und fügt
+     * die Teile ohne Sortierung zusammen ("MERGE (UNION ALL)").
+     */
+    protected static final String SQL_BEDEUTUNGEN_SEITE =
+            "SELECT bedeutungen.bedeutung, bedeutungen.bedeutung_id, bedeutungen.treffer " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ?1 " +
+            "    AND bedeutungen.treffer = CAST(?2 AS INTEGER) " +
+            "    AND bedeutungen.bedeutung >= ?3 " +
+            "    AND ( bedeutungen.bedeutung > ?3 OR bedeutungen.bedeutung_id > CAST(?4 AS INTEGER) ) " +
+            "UNION ALL " +
+            "SELECT bedeutungen.bedeutung, bedeutungen.bedeutung_id, bedeutungen.treffer " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ?1 " +
+            "    AND bedeutungen.treffer < CAST(?2 AS INTEGER) " +
+            "  ORDER BY treffer DESC, bedeutung ASC, bedeutung_id ASC " +
+            "  LIMIT CAST(?5 AS INTEGER)";
+
+    /**
+     * Wie {@link #SQL_BEDEUTUNGEN_SEITE}, aber nur Bedeutungen der Kategorie {@code ?6}; die
+     * Teile lesen dann Bereiche im Index {@code bedeutungen_index_abk_kategorie}, der nach
+     * Abkürzung und Kategorie dieselbe Reihenfolge hat. Für mehrere Kategorien wird die Query
+     * pro Kategorie (mit eigenem Platzhalter) wiederholt, siehe
+     * {@link #sucheBedeutungenSeite(String, Set, BedeutungenSeite, int)}.
+     */
+    protected static final String SQL_BEDEUTUNGEN_SEITE_KATEGORIE =
+            "SELECT bedeutungen.bedeutung, bedeutungen.bedeutung_id, bedeutungen.treffer " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ?1 " +
+            "    AND bedeutungen.kategorie = CAST(?6 AS INTEGER) " +
+            "    AND bedeutungen.treffer = CAST(?2 AS INTEGER) " +
+            "    AND bedeutungen.bedeutung >= ?3 " +
+            "    AND ( bedeutungen.bedeutung > ?3 OR bedeutungen.bedeutung_id > CAST(?4 AS INTEGER) ) " +
+            "UNION ALL " +
+            "SELECT bedeutungen.bedeutung, bedeutungen.bedeutung_id, bedeutungen.treffer " +
+            "  FROM abkuerzungen, bedeutungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND abkuerzungen.abk_schluessel = ?1 " +
+            "    AND bedeutungen.kategorie = CAST(?6 AS INTEGER) " +
+            "    AND bedeutungen.treffer < CAST(?2 AS INTEGER) " +
+            "  ORDER BY treffer DESC, bedeutung ASC, bedeutung_id ASC " +
+            "  LIMIT CAST(?5 AS INTEGER)";
+
+    /** Maximale Seitengröße für {@link #sucheBedeutungenSeite(String, BedeutungenSeite, int)}. */
+    public static final int MAX_SEITEN_GROESSE = 500;
+
+    /**
+     * Maximale Anzahl der passenden Bedeutungen, die {@link #sucheNachBedeutung(String, int)}
+     * liest und bewertet. Begrenzt Laufzeit und Anzahl der Joins bei sehr unspezifischer
+     * Eingabe (z.B. ein einzelner Buchstabe als Präfix); gibt es mehr, dann wird nur unter
+     * den ersten (nach ID) der beste Treffer gesucht.
+     */
+    protected static final int MAX_VOLLTEXT_KANDIDATEN = 5_000;
+
+    /**
+     * Query für Rückwärts-Suche über den Volltext-Index {@code bedeutungen_fts}; liefert
+     * höchstens {@code ?2} passende Bedeutungen mit Abkürzung und {@code matchinfo()} für
+     * die Berechnung des Rangs in {@link VolltextSuche}.
+     */
+    protected static final String SQL_SUCHE_BEDEUTUNGEN_VOLLTEXT =
+            "SELECT abkuerzungen.abkuerzung, bedeutungen.bedeutung, " +
+            "       matchinfo(bedeutungen_fts, '" + VolltextSuche.MATCHINFO_FORMAT + "') " +
+            "  FROM bedeutungen_fts, bedeutungen, abkuerzungen " +
+            "  WHERE bedeutungen_fts MATCH ?1 " +
+            "    AND bedeutungen.bedeutung_id = bedeutungen_fts.docid " +
+            "    AND abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "  LIMIT CAST(?2 AS INTEGER)";
+
+    /**
+     * Statement für {@link #fuegeBedeutungHinzu(String, String, boolean)}: Fügt die Abkürzung
+     * nur ein, wenn es ihren Schlüssel noch nicht gibt (wegen Index {@code abkuerzung_index_schluessel}).
+     */
+    protected static final String SQL_INSERT_ABK_FALLS_NEU =
+            "INSERT OR IGNORE INTO abkuerzungen (abkuerzung, abk_schluessel) VALUES ( ?, ? )";
+
+    /** Query für ID einer Abkürzung; liest nur Index {@code abkuerzung_index_schluessel}. */
+    protected static final String SQL_ABK_ID =
+            "SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ?";
+
+    /**
+     * Query, ob es eine Bedeutung zu einer Abkürzungs-ID schon gibt; liest nur Index
+     * {@code bedeutungen_index_abk_bedeutung}.
+     */
+    protected static final String SQL_BEDEUTUNG_VORHANDEN =
+            "SELECT EXISTS ( SELECT 1 FROM bedeutungen WHERE abkuerzung = ? AND bedeutung = ? )";
+
+    /** Statement, um eine Bedeutung zu einer Abkürzungs-ID einzufügen. */
+    protected static final String SQL_INSERT_BEDEUTUNG_ZU_ID =
+            "INSERT INTO bedeutungen (abkuerzung, bedeutung, kategorie) VALUES ( ?, ?, ? )";
+
+    /**
+     * Statement für {@link #schreibeTreffer()}: erhöht den Zähler einer Bedeutung
+     * (Platzhalter: Anzahl, Schlüssel der Abkürzung, Bedeutung); sucht über die Indexe
+     * {@code abkuerzung_index_schluessel} und {@code bedeutungen_index_abk_bedeutung}.
+     */
+    protected static final String SQL_TREFFER_ERHOEHEN =
+            "UPDATE bedeutungen SET treffer = treffer + ? " +
+            "  WHERE abkuerzung = ( SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ? ) " +
+            "    AND bedeutung = ?";
+
+    /**
+     * Verzögerung, nach der die mit {@link #bedeutungGewaehlt(String, String)} gezählten
+     * Auswahlen geschrieben werden; weitere Auswahlen in dieser Zeit kommen in dieselbe
+     * Transaktion.
+     */
+    public static final long TREFFER_SCHREIBEN_NACH_MILLIS = 30_000L;
+
+    /** Ab so vielen gezählten Auswahlen wird sofort geschrieben, ohne die Verzögerung abzuwarten. */
+    public static final int TREFFER_SOFORT_SCHREIBEN_AB = 100;
+
+    /**
+     * Zeitbudget für eine inkrementelle Suche mit {@link #sucheTreffer(String, int, boolean)},
+     * damit jeder Tastendruck auch bei sehr vielen Abkürzungen schnell beantwortet wird.
+     */
+    public static final long SUCHE_ZEITBUDGET_NANOS = 5_000_000L; // 5 ms
+
+    /**
+     * Statements, die von {@link #vorwaermen()} schon vor der ersten Verwendung kompiliert
+     * werden: exakte Suche ohne Index und Einfügen über {@link #fuegeBedeutungHinzu(String, String, boolean)}.
+     */
+    protected static final String[] SQL_VORWAERMEN = {
+
+        SQL_BEDEUTUNGEN_ZU_ABK,
+        SQL_INSERT_ABK_FALLS_NEU,
+        SQL_ABK_ID,
+        SQL_BEDEUTUNG_VORHANDEN,
+        SQL_INSERT_BEDEUTUNG_ZU_ID
+    };
+
+    /** Ergebnis von {@link #fuegeBedeutungHinzu(String, String, boolean)}. */
+    public enum EinfuegeErgebnis {
+
+        /** Abkürzung war noch nicht in der Datenbank, wurde mit der Bedeutung eingefügt. */
+        NEUE_ABKUERZUNG,
+
+        /** Abkürzung war schon in der Datenbank, Bedeutung wurde hinzugefügt. */
+        NEUE_BEDEUTUNG,
+
+        /** Abkürzung hatte diese Bedeutung schon, es wurde nichts eingefügt. */
+        SCHON_VORHANDEN
     }
 
+    /** Einziges Objekt dieser Klasse für die App, siehe {@link #getInstanz(Context)}. */
+    protected static DatenbankManager sInstanz = null;
 
     /**
-     * Zweite abstrakte Methode aus {@link android.database.sqlite.SQLiteOpenHelper},
-     * lassen wir aber leer. In dieser Methode könnte man z.B. für eine neue Version
-     * der App zu einer bestehenden Tabelle neue Spalte hinzufügen, oder ganz neue
-     * Tabellen für ganz neue Funktionen.
-     *
-     * @param db  Referenz auf Datenbank-Objekt.
+     * Kompilierte Statements für alle konstanten SQL-Texte dieser Klasse; die Statements
+     * werden beim ersten Aufruf erzeugt und danach wiederverwendet.
+     */
+    protected final StatementCache _statementCache = new StatementCache();
+
+    /** Wird gesetzt, sobald {@link #vorwaermen()} erfolgreich war. */
+    protected final AtomicBoolean _vorgewaermt = new AtomicBoolean( false );
+
+    /** Wird gesetzt, sobald das Laden des {@link AbkIndex} im Hintergrund gestartet wurde. */
+    protected final AtomicBoolean _abkIndexLadenGestartet = new AtomicBoolean( false );
+
+    /**
+     * In-Memory-Index über alle Abkürzungen, wird beim ersten Suchen geladen; ist
+     * {@code null}, solange der Index (noch) nicht geladen ist.
+     */
+    protected volatile AbkIndex _abkIndex = null;
+
+    /**
+     * Schlüssel der Abkürzungen, die sich geändert haben, während {@link #ladeAbkIndex()}
+     * ohne Schreib-Sperre einen neuen Index befüllt; {@code null}, solange kein Index geladen
+     * wird. Wird nur unter der Schreib-Sperre befüllt und gelesen; {@link #abkIndexVerwerfen()}
+     * setzt es (ohne Sperre) auf {@code null}, damit ein laufendes Laden nicht veröffentlicht wird.
+     */
+    protected volatile Set<String> _abkIndexGeaendert = null;
+
+    /**
+     * Wird von {@link #close()} gesetzt; danach öffnet {@link #abkIndexBefuellen(AbkIndex)}
+     * die Datenbank nicht wieder, ein noch laufendes Laden im Hintergrund endet also.
+     */
+    protected volatile boolean _istGeschlossen = false;
+
+    /**
+     * LRU-Cache für die Ergebnisse von {@link #sucheNachAbk(String)}; wird von den
+     * Insert-Methoden für die geänderte Abkürzung ungültig gemacht.
+     */
+    protected final AbkCache _abkCache = new AbkCache();
+
+    /**
+     * Sperre für alle schreibenden Zugriffe: Es schreibt immer nur ein Thread, lesende
+     * Zugriffe (Suchen) werden davon nicht blockiert.
+     */
+    protected final ReentrantLock _schreibSperre = new ReentrantLock();
+
+    /** Context für das Verzeichnis der Schnappschuss-Datei. */
+    protected final Context _context;
+
+    /** Name der DB-Datei, {@code null} für In-Memory-Datenbank. */
+    protected final String _dateiName;
+
+    /** Wird gesetzt, sobald einmal nach der Schnappschuss-Datei gesucht wurde. */
+    protected final AtomicBoolean _snapshotGeprueft = new AtomicBoolean( false );
+
+    /** Eingeblendeter Schnappschuss; {@code null}, wenn es (noch) keinen gibt. */
+    protected volatile AbkSnapshot _snapshot = null;
+
+    /** Sperre für Einblenden und Verwerfen des Schnappschusses. */
+    protected final Object _snapshotSperre = new Object();
+
+    /** Laufzeiten, Zeilen und Fehler aller Datenbank-Operationen, siehe {@link #schreibeBericht(PrintWriter)}. */
+    protected final DbMetriken _metriken = new DbMetriken();
+
+    /** Noch nicht geschriebene Auswahlen von Bedeutungen, siehe {@link #bedeutungGewaehlt(String, String)}. */
+    protected final TrefferZaehler _trefferZaehler = new TrefferZaehler();
+
+    /** Handler für das verzögerte Schreiben der Zähler. */
+    protected final Handler _mainHandler = new Handler( Looper.getMainLooper() );
+
+    /** Startet {@link #schreibeTreffer()} im Hintergrund, wird über {@link #_mainHandler} verzögert. */
+    protected final Runnable _trefferSchreiben = this::trefferImHintergrundSchreiben;
+
+
+    /**
+     * Liefert das einzige Objekt dieser Klasse für die App; beim ersten Aufruf wird es
+     * erzeugt. Die Datenbank wird erst beim ersten Zugriff geöffnet (und beim ersten
+     * Start der App angelegt), die Prepared Statements erst bei ihrer ersten Verwendung
+     * erzeugt; die Methode kann also ohne Bedenken auf dem UI-Thread aufgerufen werden.
      *
-     * @param oldVersion  Alte Version des Datenbank-Schemas.
+     * @param context  Beliebiger Context, z.B. die aufrufende Activity; es wird nur der
+     *                 Application-Context gespeichert.
      *
-     * @param newVersion  Neue Version des Datenbank-Schemas, auf hergestellt werden soll.
+     * @return  Datenbank-Manager für die ganze App.
      */
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    public static synchronized DatenbankManager getInstanz(Context context) {
+
+        if ( sInstanz == null ) {
 
-        Log.w( TAG4LOGGING, "Leere Implementierung der onUpdate()-Methode in DatenbankManager aufgerufen." );
+            Context appContext = context.getApplicationContext();
+
+            sInstanz = new DatenbankManager( appContext, DB_DATEINAME );
+            appContext.registerComponentCallbacks( sInstanz );
+        }
+
+        return sInstanz;
     }
 
 
     /**
-     * Such nach Bedeutungen für die als Argument {@code abk} übergebene Abkürzung.
+     * Konstruktor für eine andere Datenbank-Datei, z.B. für Tests.
      *
-     * @param abk  Die Abkürzung, nach der gesucht werden soll; darf nicht leer sein
-     *             und darf keine Leerzeichen enthalten.
+     * @param context  Selbstreferenz auf Activity, die dieses Objekt erzeugt hat
      *
-     * @return  Array der gefundenen Bedeutungen; ist Array der Länge 0, wenn nichts
-     *          gefunden, aber nicht {@code null}.
+     * @param dateiName  Name der DB-Datei; {@code null} für eine reine In-Memory-Datenbank.
      */
-    @SuppressLint("DefaultLocale")
-    public String[] sucheNachAbk(String abk) throws SQLException {
+    DatenbankManager(Context context, String dateiName) {
 
-        abk = abk.toUpperCase();
+        super( context,
+                dateiName,     // Name der DB-Datei
+                null,          // Default-CursorFactory verwenden
+                DB_VERSION );  // Versions-Nummer des Datenbank-Schemas
 
-        SQLiteDatabase db = getReadableDatabase();
-        Cursor cursor = db.rawQuery( "SELECT bedeutung " +
-                        "  FROM abkuerzungen, bedeutungen " +
-                        "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
-                        "   AND abkuerzungen.abkuerzung = '" + abk + "'" +
-                        "  ORDER BY abkuerzungen.abkuerzung ASC, bedeutung ASC",
-                null ); // die "selectionArgs" brauchen wir hier nicht
+        _context   = context;
+        _dateiName = dateiName;
+
+        // Leser blockieren Schreiber nicht und umgekehrt; mehrere Lese-Verbindungen
+        setWriteAheadLoggingEnabled( true );
+    }
 
-        // Ergebnis der Query auswerten
-        int anzahlErgebnisZeilen = cursor.getCount();
-        if (anzahlErgebnisZeilen == 0) {
 
-            cursor.close();
-            return new String[]{};
+    /**
+     * Öffnet die Datenbank (beim ersten Start der App mit Anlegen des Schemas und der
+     * Beispiel-Daten, nach einem Update mit Migration), kompiliert die Statements aus
+     * {@link #SQL_VORWAERMEN} und blendet den {@link AbkSnapshot} ein, falls es einen gibt.
+     * Ohne diesen Aufruf passiert all das bei der ersten Verwendung; er soll also nur
+     * Wartezeit der ersten Suche vorwegnehmen und wird nach dem ersten Frame auf einem
+     * Hintergrund-Thread aufgerufen. Weitere Aufrufe kehren sofort zurück.
+     */
+    public void vorwaermen() throws SQLException {
+
+        if ( _vorgewaermt.get() ) {
+
+            return;
         }
 
-        String[] resultStrings = new String[ anzahlErgebnisZeilen ];
-        int counter = 0;
-        for ( cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext() ) {
+        Trace.beginSection( "DatenbankManager.vorwaermen" );
+        try {
+
+            SQLiteDatabase db = getWritableDatabase();
+            for ( String sql: SQL_VORWAERMEN ) {
 
-            resultStrings[ counter ] = cursor.getString(0);
-            counter++;
+                _statementCache.vorbereiten( db, sql );
+            }
+            holeSnapshot();
+
+            _vorgewaermt.set( true );
         }
+        finally {
 
-        cursor.close();
+            Trace.endSection();
+        }
 
-        return resultStrings;
+        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.DB_BEREIT );
     }
 
 
     /**
-     * Bedeutung für bisher in der Datenbank noch nicht vorhandene Abkürzung
-     * hinzufügen.
+     * Wird beim Öffnen der Datenbank vor {@link #onCreate(SQLiteDatabase)} bzw.
+     * {@link #onUpgrade(SQLiteDatabase, int, int)} aufgerufen. Vergrößert den Cache für
+     * Prepared Statements der Verbindung, damit auch die per Cursor ausgeführten
+     * (konstanten) Queries nur einmal geparst werden.
+     * <br><br>
      *
-     * @param abkString  Die neue Abkürzung, darf nicht leer sein.
+     * Eine neue Datei wird gleich auf inkrementelles Auto-Vacuum eingestellt, so dass
+     * {@link DatenbankWartung} sie nie mit einem vollständigen {@code VACUUM} umstellen
+     * muss. Das geht nur, solange die Datei noch keine Tabelle enthält; weil die Verbindung
+     * beim Öffnen schon auf Write-Ahead-Logging umgestellt hat (und dafür die erste Seite
+     * geschrieben), wirkt die Einstellung aber erst nach einem {@code VACUUM}, das bei der
+     * leeren Datei nichts kostet.
      *
-     * @param bedeutung  Die neue Bedeutung, darf nicht leer sein.
+     * @param db  Referenz auf Datenbank-Objekt.
      */
-    public void insertGanzNeueAbk( String abkString, String bedeutung ) throws SQLException {
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+
+        db.setMaxSqlCacheSize( SQLiteDatabase.MAX_SQL_CACHE_SIZE );
+
+        if ( db.getVersion() == 0 &&
+             DatenbankWartung.autoVacuum( db ) != DatenbankWartung.AUTO_VACUUM_INKREMENTELL ) {
+
+            // Wie in DatenbankWartung#vacuum(): Die Einstellung in einer Transaktion, damit
+            // sie auf der Haupt-Verbindung landet, auf der danach auch VACUUM läuft
+            db.beginTransaction();
+            try {
+
+                db.execSQL( "PRAGMA auto_vacuum = INCREMENTAL" );
+                db.setTransactionSuccessful();
+            }
+            finally {
 
-        abkString = abkString.toUpperCase();
+                db.endTransaction();
+            }
+            db.execSQL( "VACUUM" );
+        }
+    }
+
+
+    /**
+     * Schließt alle kompilierten Statements und danach die Datenbank.
+     */
+    @Override
+    public synchronized void close() {
+
+        _istGeschlossen    = true;
+        _abkIndexGeaendert = null;
+        _statementCache.schliessen();
+        super.close();
+    }
+
+
+    /**
+     * Methode aus Interface {@link ComponentCallbacks2}: Gibt bei Speichermangel
+     * Speicher frei. Der {@link AbkIndex} wird erst verworfen, wenn die App im Hintergrund
+     * ist und das System dringend Speicher braucht; er wird beim nächsten Suchen neu geladen.
+     * Sobald die App nicht mehr sichtbar ist, werden außerdem die gezählten Auswahlen
+     * geschrieben, denn danach kann der Prozess jederzeit beendet werden.
+     *
+     * @param level  Dringlichkeit, z.B. {@link #TRIM_MEMORY_COMPLETE}.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+
+        if ( level >= TRIM_MEMORY_UI_HIDDEN && _trefferZaehler.getAnzahl() > 0 ) {
 
-        _statementInsertNeuAbk.bindString(1, abkString ); // Wert für Platzhalter "?"
+            _mainHandler.removeCallbacks( _trefferSchreiben );
+            trefferImHintergrundSchreiben();
+        }
+
+        SQLiteDatabase.releaseMemory();
 
-        long idOfNewRow = _statementInsertNeuAbk.executeInsert();
-        if (idOfNewRow == -1) {
+        if ( level >= TRIM_MEMORY_MODERATE ) {
 
-            throw new SQLException( "Einfügen der neuen Abkürzung '" + abkString +
-                    "' ist fehlgeschlagen." );
+            abkIndexVerwerfen();
+            Log.i( TAG4LOGGING, "Abkürzungs-Index wegen Speichermangel verworfen (level=" + level + ")." );
         }
+    }
+
+
+    /**
+     * Methode aus Interface {@link android.content.ComponentCallbacks}, wird nicht benötigt.
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {}
 
-        insertBedeutung( abkString, bedeutung );
+
+    /**
+     * Methode aus Interface {@link android.content.ComponentCallbacks}, entspricht
+     * {@link #onTrimMemory(int)} mit höchster Dringlichkeit.
+     */
+    @Override
+    public void onLowMemory() {
+
+        onTrimMemory( TRIM_MEMORY_COMPLETE );
     }
 
 
     /**
-     * Fügt für eine bereits in der Datenbank stehende Abkürzung die erste oder eine weitere
-     * Bedeutung hinzu.
+     * Getter für die Sperre, über die alle schreibenden Zugriffe serialisiert werden;
+     * z.B. hält {@link AbkImporter} sie jeweils für die Dauer eines Batches.
      *
-     * @param abkString  Abkürzung, muss schon in Datenbank gespeichert sein.
+     * @return  Sperre für schreibende Zugriffe.
+     */
+    public ReentrantLock getSchreibSperre() {
+
+        return _schreibSperre;
+    }
+
+
+    /**
+     * Getter für den Ergebnis-Cache, z.B. um die Obergrenze für den Speicherbedarf zu
+     * setzen oder die Zähler auszulesen.
      *
-     * @param bedeutung  Die erste oder eine weitere Bedeutung für diese Abkürzung.
+     * @return  Cache für die Ergebnisse von {@link #sucheNachAbk(String)}.
      */
-    public void insertBedeutung( String abkString, String bedeutung ) throws SQLException {
+    public AbkCache getAbkCache() {
+
+        return _abkCache;
+    }
+
+
+    /**
+     * Getter für den Statement-Cache, z.B. um dessen Treffer-Zähler auszulesen.
+     *
+     * @return  Cache mit allen kompilierten Statements.
+     */
+    public StatementCache getStatementCache() {
+
+        return _statementCache;
+    }
+
+
+    /**
+     * Getter für die Messwerte der Datenbank-Operationen.
+     *
+     * @return  Metriken, z.B. um die Messung abzuschalten oder die Schwelle für langsame
+     *          Operationen zu ändern.
+     */
+    public DbMetriken getMetriken() {
+
+        return _metriken;
+    }
 
-        abkString = abkString.toUpperCase();
 
-        _statementInsertBedeutung.bindString( 1, bedeutung );
-        _statementInsertBedeutung.bindString( 2, abkString );
+    /**
+     * Schreibt die Zähler der Caches und den Bericht von {@link DbMetriken} (inkl. Query-Plan
+     * der langsamen Operationen) als Text, z.B. für {@code adb shell dumpsys activity}.
+     *
+     * @param writer  Ziel für den Bericht.
+     */
+    public void schreibeBericht( PrintWriter writer ) {
+
+        writer.println( "Statement-Cache: " + _statementCache.getAnzahlTreffer() + " Treffer, " +
+                        _statementCache.getAnzahlFehlschlaege() + " Fehlschläge" );
+
+        writer.println( "Abk-Cache: " + _abkCache.getAnzahlEintraege() + " Einträge, " +
+                        _abkCache.getBytes() + " Bytes, " +
+                        _abkCache.getAnzahlTreffer() + " Treffer, " +
+                        _abkCache.getAnzahlFehlschlaege() + " Fehlschläge, " +
+                        _abkCache.getAnzahlVerdraengungen() + " Verdrängungen" );
+
+        writer.println( "Abk-Index: " + ( _abkIndex != null ? "geladen" : "nicht geladen" ) );
+        writer.println( "Treffer-Zähler: " + _trefferZaehler.getAnzahl() + " Auswahlen nicht geschrieben" );
+        writer.println();
+
+        SQLiteDatabase db = null;
+        try {
+
+            db = getReadableDatabase();
+        }
+        catch ( SQLException ex ) {
+
+            writer.println( "Datenbank konnte nicht geöffnet werden: " + ex.getMessage() );
+        }
+
+        _metriken.bericht( writer, db );
+    }
+
+
+    /**
+     * Abstrakte Methode aus {@link android.database.sqlite.SQLiteOpenHelper}, muss also
+     * überschrieben werden damit die vorliegende Klasse nicht auch wieder abstrakt ist.
+     *
+     * Legt mit "CREATE TABLE" und "CREATE INDEX" das Datenbankschema an, wenn noch
+     * nicht verhanden (z.B. beim ersten Start der App nach Installation).
+     * Angelegt wird immer das Schema der Version 1, danach werden alle Schritte aus
+     * {@link DatenbankMigrationen} ausgeführt.
+     *
+     * @throws SQLException  Schema konnte nicht angelegt werden; die Transaktion wird
+     *                       zurückgerollt, die Datei bleibt also ohne Version.
+     */
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+
+        try {
+
+            db.execSQL( "CREATE TABLE abkuerzungen ( "               +
+                    "abk_id     INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "abkuerzung TEXT NOT NULL ) "
+            );
+            db.execSQL( "CREATE INDEX abkuerzung_index_1 ON abkuerzungen(abkuerzung)" );
+
+            db.execSQL( "CREATE TABLE bedeutungen (                         " +
+                    "bedeutung_id INTEGER PRIMARY KEY,                      " +
+                    "bedeutung    TEXT NOT NULL,                            " +
+                    "abkuerzung   INTEGER,                                  " +
+                    "FOREIGN KEY (abkuerzung) REFERENCES abkuerzungen(abk_id) ) "
+            );
+            db.execSQL( "CREATE INDEX bedeutungen_index_1 ON abkuerzungen(abkuerzung)" );
+
+            Log.i(TAG4LOGGING, "Datenbankschema angelegt.");
+
+            // Wir fügen noch ein paar Beispiel-Daten in die neuen Tabellen ein
+            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 1,'ADB')" );
+            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 2,'KSC')" );
+            db.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES( 3,'HCI')" );
+
+            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 1, 'Android Debug Bridge'      )" );
+            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 2, 'Karlsruher Sport-Club'     )" );
+            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 2, 'Kennedy Space Center'      )" );
+            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 3, 'Human-Computer Interaction')" );
+            db.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES( 3, 'Hash Collision Index'      )" );
+
+            Log.v( TAG4LOGGING, "Beispiel-Datensätze eingefügt." );
+
+        } catch (SQLException ex) {
+
+            // Weiterwerfen, sonst committet SQLiteOpenHelper eine Datei ohne Schema mit Version DB_VERSION
+            Log.e( TAG4LOGGING, "Exception beim Anlegen von DB-Schema aufgetreten: " + ex );
+            throw ex;
+        }
+
+        DatenbankMigrationen.migriere( db, 1, DB_VERSION );
+    }
+
+
+    /**
+     * Zweite abstrakte Methode aus {@link android.database.sqlite.SQLiteOpenHelper},
+     * wird aufgerufen, wenn eine Datenbank mit älterer Schema-Version geöffnet wird
+     * (z.B. nach einem Update der App). Führt die noch fehlenden Schritte aus
+     * {@link DatenbankMigrationen} aus; {@link android.database.sqlite.SQLiteOpenHelper}
+     * ruft diese Methode in einer Transaktion auf.
+     *
+     * @param db  Referenz auf Datenbank-Objekt.
+     *
+     * @param oldVersion  Alte Version des Datenbank-Schemas.
+     *
+     * @param newVersion  Neue Version des Datenbank-Schemas, auf hergestellt werden soll.
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+
+        Log.i( TAG4LOGGING, "Datenbankschema wird von Version " + oldVersion +
+                " auf Version " + newVersion + " migriert." );
+
+        DatenbankMigrationen.migriere( db, oldVersion, newVersion );
+    }
+
+
+    /**
+     * Such nach Bedeutungen für die als Argument {@code abk} übergebene Abkürzung.
+     * Wiederholte Suchen werden aus dem {@link AbkCache} beantwortet, sonst aus dem
+     * {@link AbkIndex}. Ist dieser noch nicht geladen, dann wird die Suche aus dem
+     * {@link AbkSnapshot} beantwortet, falls es einen gibt; sonst wird das Laden des Index
+     * im Hintergrund gestartet und die Suche bis dahin mit {@link #sucheNachAbkInDb(String)}
+     * beantwortet.
+     *
+     * @param abk  Die Abkürzung, nach der gesucht werden soll, in beliebiger Schreibweise
+     *             (siehe {@link AbkNormalisierer#schluessel(String)}); darf nicht leer sein.
+     *
+     * @return  Array der gefundenen Bedeutungen; ist Array der Länge 0, wenn nichts
+     *          gefunden, aber nicht {@code null}.
+     */
+    public String[] sucheNachAbk(String abk) throws SQLException {
+
+        abk = AbkNormalisierer.schluessel( abk );
+
+        long start = _metriken.start();
+
+        String[] bedeutungen = _abkCache.hole( abk );
+        if ( bedeutungen != null ) {
+
+            _metriken.ende( DbMetriken.Operation.SUCHE_ABK, start, bedeutungen.length, abk );
+            return bedeutungen;
+        }
+
+        long cacheStand = _abkCache.getStand();
+
+        AbkIndex abkIndex = _abkIndex;
+        if ( abkIndex != null ) {
+
+            bedeutungen = abkIndex.suche( abk );
+
+        } else {
+
+            AbkSnapshot snapshot = holeSnapshot();
+            if ( snapshot != null ) {
+
+                bedeutungen = sucheNachAbkInSnapshot( snapshot, abk );
+
+            } else {
+
+                abkIndexImHintergrundLaden();
+                bedeutungen = sucheNachAbkInDb( abk );
+            }
+        }
+
+        _abkCache.ablegen( abk, bedeutungen, cacheStand );
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_ABK, start, bedeutungen.length, abk );
+        return bedeutungen;
+    }
+
+
+    /**
+     * Sucht nach den Bedeutungen einer Abkürzung, die zu einer der Kategorien gehören.
+     * Ohne Filter ({@code null} oder leer) wie {@link #sucheNachAbk(String)}; sonst direkt
+     * in der Datenbank, denn {@link AbkCache} und {@link AbkIndex} kennen keine Kategorien.
+     * Die IN-Liste wird wie bei {@link #sucheNachAbksInDb(List, Map)} auf eine Zweierpotenz
+     * aufgefüllt, damit es nur wenige verschiedene SQL-Texte im Statement-Cache der
+     * Verbindung gibt (siehe {@link #onConfigure(SQLiteDatabase)}).
+     *
+     * @param abk  Die Abkürzung, nach der gesucht werden soll, in beliebiger Schreibweise.
+     *
+     * @param kategorien  IDs der Kategorien (siehe {@link #holeKategorien()}), oder
+     *                    {@code null} für alle.
+     *
+     * @return  Array der gefundenen Bedeutungen, häufigste zuerst; ist Array der Länge 0,
+     *          wenn nichts gefunden, aber nicht {@code null}.
+     */
+    public String[] sucheNachAbk( String abk, Set<Integer> kategorien ) throws SQLException {
+
+        if ( kategorien == null || kategorien.isEmpty() ) {
+
+            return sucheNachAbk( abk );
+        }
+
+        abk = AbkNormalisierer.schluessel( abk );
+
+        List<Integer> ids = new ArrayList<>( new TreeSet<>( kategorien ) );
+
+        int anzahlParameter = Integer.highestOneBit( ids.size() );
+        if ( anzahlParameter < ids.size() ) {
+
+            anzahlParameter *= 2;
+        }
+
+        StringBuilder sql       = new StringBuilder( SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ANFANG );
+        String[]      parameter = new String[ anzahlParameter + 1 ];
+        parameter[ 0 ] = abk;
+        for ( int i = 0; i < anzahlParameter; i++ ) {
+
+            sql.append( i == 0 ? "?" : ",?" );
+            parameter[ i + 1 ] = ids.get( Math.min( i, ids.size() - 1 ) ).toString();
+        }
+        sql.append( SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ENDE );
+
+        long     start       = _metriken.start();
+        String[] bedeutungen = null;
+        try {
+
+            bedeutungen = leseBedeutungen( sql.toString(), parameter );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SUCHE_ABK_KATEGORIEN );
+            throw ex;
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_ABK_KATEGORIEN, start, bedeutungen.length, abk );
+        return bedeutungen;
+    }
+
+
+    /**
+     * Liefert alle Kategorien, nach denen {@link #sucheNachAbk(String, Set)} filtern kann.
+     *
+     * @return  Map von ID auf Name der Kategorie, sortiert nach ID.
+     */
+    public Map<Integer,String> holeKategorien() throws SQLException {
+
+        Map<Integer,String> kategorien = new LinkedHashMap<>();
+
+        Cursor cursor = getReadableDatabase().rawQuery( SQL_KATEGORIEN, null );
+        try {
+
+            while ( cursor.moveToNext() ) {
+
+                kategorien.put( cursor.getInt( 0 ), cursor.getString( 1 ) );
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+
+        return kategorien;
+    }
+
+
+    /**
+     * Sucht die Bedeutungen einer Abkürzung direkt in der Datenbank, ohne den
+     * {@link AbkIndex}. Der SQL-Text ist konstant und die Abkürzung wird nur an den
+     * Platzhalter gebunden; das Statement wird deshalb nur beim ersten Aufruf
+     * geparst und geplant (Statement-Cache der Verbindung, siehe {@link #onConfigure(SQLiteDatabase)}).
+     *
+     * @param abk  Schlüssel der Abkürzung, nach der gesucht werden soll.
+     *
+     * @return  Array der gefundenen Bedeutungen; ist Array der Länge 0, wenn nichts
+     *          gefunden, aber nicht {@code null}.
+     */
+    public String[] sucheNachAbkInDb( String abk ) throws SQLException {
+
+        long     start       = _metriken.start();
+        String[] bedeutungen = null;
+        try {
+
+            bedeutungen = leseBedeutungen( SQL_BEDEUTUNGEN_ZU_ABK, abk );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SUCHE_ABK_DB );
+            throw ex;
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_ABK_DB, start, bedeutungen.length, abk );
+        return bedeutungen;
+    }
+
+
+    /**
+     * Führt eine Query aus, deren erste Spalte Bedeutungen enthält, und liest alle Zeilen
+     * über einen Cursor in der Reihenfolge der Query.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @param parameter  Werte für die Platzhalter.
+     *
+     * @return  Bedeutungen, Array der Länge 0 wenn die Query keine Zeile liefert.
+     */
+    protected String[] leseBedeutungen( String sql, String... parameter ) throws SQLException {
+
+        Cursor cursor = getReadableDatabase().rawQuery( sql, parameter );
+        try {
+
+            // Ohne getCount(), das SQLite die ganze Ergebnismenge vorab durchlaufen lässt
+            List<String> bedeutungen = new ArrayList<>();
+            while ( cursor.moveToNext() ) {
+
+                bedeutungen.add( cursor.getString( 0 ) );
+            }
+            return bedeutungen.toArray( new String[ 0 ] );
+        }
+        finally {
+
+            cursor.close();
+        }
+    }
+
+
+    /**
+     * Wie {@link #sucheNachAbks(Collection, CancellationSignal)}, aber nicht abbrechbar.
+     *
+     * @param abks  Die Abkürzungen, nach denen gesucht werden soll.
+     *
+     * @return  Map vom Schlüssel der Abkürzung auf ihre Bedeutungen.
+     */
+    public Map<String,String[]> sucheNachAbks( Collection<String> abks ) throws SQLException {
+
+        return sucheNachAbks( abks, null );
+    }
+
+
+    /**
+     * Sucht die Bedeutungen vieler Abkürzungen auf einmal, z.B. für alle Wörter eines Texts.
+     * Doppelte Abkürzungen werden nur einmal gesucht. Was nicht im {@link AbkCache} ist,
+     * wird aus dem {@link AbkIndex} beantwortet, falls er geladen ist; sonst mit einer
+     * Query pro {@link #MAX_IN_PARAMETER} Abkürzungen statt einer Query pro Abkürzung.
+     *
+     * @param abks  Die Abkürzungen, nach denen gesucht werden soll; solche ohne Buchstaben
+     *              und Ziffern werden übersprungen.
+     *
+     * @param abbruch  Bricht eine laufende Query ab (siehe {@link IDatenbankAufgabe}), oder
+     *                 {@code null}.
+     *
+     * @return  Map vom Schlüssel der Abkürzung ({@link AbkNormalisierer#schluessel(String)},
+     *          Reihenfolge wie in {@code abks}) auf ihre Bedeutungen, häufigste zuerst;
+     *          Array der Länge 0, wenn nichts gefunden.
+     */
+    public Map<String,String[]> sucheNachAbks( Collection<String> abks, CancellationSignal abbruch )
+            throws SQLException {
+
+        long start = _metriken.start();
+
+        LinkedHashSet<String> eindeutig = new LinkedHashSet<>();
+        for ( String abk: abks ) {
+
+            abk = AbkNormalisierer.schluessel( abk );
+            if ( !abk.isEmpty() ) {
+
+                eindeutig.add( abk );
+            }
+        }
+
+        Map<String,String[]> ergebnis   = new LinkedHashMap<>();
+        List<String>         fehlend    = new ArrayList<>();
+        long                 cacheStand = _abkCache.getStand();
+        AbkIndex             abkIndex   = _abkIndex;
+
+        for ( String abk: eindeutig ) {
+
+            String[] bedeutungen = _abkCache.hole( abk );
+            if ( bedeutungen == null && abkIndex != null ) {
+
+                bedeutungen = abkIndex.suche( abk );
+                _abkCache.ablegen( abk, bedeutungen, cacheStand );
+            }
+
+            ergebnis.put( abk, bedeutungen ); // Platzhalter für Reihenfolge, falls null
+            if ( bedeutungen == null ) {
+
+                fehlend.add( abk );
+            }
+        }
+
+        if ( !fehlend.isEmpty() ) {
+
+            abkIndexImHintergrundLaden();
+            try {
+
+                for ( int i = 0; i < fehlend.size(); i += MAX_IN_PARAMETER ) {
+
+                    sucheNachAbksInDb( fehlend.subList( i, Math.min( i + MAX_IN_PARAMETER, fehlend.size() ) ),
+                                       ergebnis, abbruch );
+                }
+            }
+            catch ( SQLException ex ) {
+
+                _metriken.fehler( DbMetriken.Operation.SUCHE_ABKS );
+                throw ex;
+            }
+
+            for ( String abk: fehlend ) {
+
+                _abkCache.ablegen( abk, ergebnis.get( abk ), cacheStand );
+            }
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_ABKS, start, ergebnis.size(), null );
+        return ergebnis;
+    }
+
+
+    /**
+     * Sucht die Bedeutungen von höchstens {@link #MAX_IN_PARAMETER} Abkürzungen mit einer
+     * Query. Die Länge der IN-Liste wird auf eine Zweierpotenz aufgefüllt (mit der letzten
+     * Abkürzung), damit es nur wenige verschiedene SQL-Texte gibt und diese im Statement-Cache
+     * der Verbindung bleiben (siehe {@link #onConfigure(SQLiteDatabase)}).
+     *
+     * @param abks  Schlüssel der Abkürzungen, ohne Duplikate.
+     *
+     * @param ergebnis  Map, in die für jede Abkürzung die Bedeutungen eingetragen werden.
+     *
+     * @param abbruch  Bricht die Query ab, oder {@code null}.
+     */
+    protected void sucheNachAbksInDb( List<String> abks, Map<String,String[]> ergebnis,
+                                      CancellationSignal abbruch ) throws SQLException {
+
+        int anzahlParameter = Integer.highestOneBit( abks.size() );
+        if ( anzahlParameter < abks.size() ) {
+
+            anzahlParameter *= 2;
+        }
+
+        StringBuilder sql       = new StringBuilder( SQL_BEDEUTUNGEN_ZU_ABKS_ANFANG );
+        String[]      parameter = new String[ anzahlParameter ];
+        for ( int i = 0; i < anzahlParameter; i++ ) {
+
+            sql.append( i == 0 ? "?" : ",?" );
+            parameter[ i ] = abks.get( Math.min( i, abks.size() - 1 ) );
+        }
+        sql.append( SQL_BEDEUTUNGEN_ZU_ABKS_ENDE );
+
+        String       letzteAbk   = null;
+        List<String> bedeutungen = new ArrayList<>();
+
+        Cursor cursor = getReadableDatabase().rawQuery( sql.toString(), parameter, abbruch );
+        try {
+
+            while ( cursor.moveToNext() ) {
+
+                String abk = cursor.getString( 0 );
+                if ( !abk.equals( letzteAbk ) ) {
+
+                    if ( letzteAbk != null ) {
+
+                        ergebnis.put( letzteAbk, bedeutungen.toArray( new String[ 0 ] ) );
+                        bedeutungen.clear();
+                    }
+                    letzteAbk = abk;
+                }
+                bedeutungen.add( cursor.getString( 1 ) );
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+
+        if ( letzteAbk != null ) {
+
+            ergebnis.put( letzteAbk, bedeutungen.toArray( new String[ 0 ] ) );
+        }
+
+        for ( String abk: abks ) {
+
+            if ( ergebnis.get( abk ) == null ) {
+
+                ergebnis.put( abk, new String[]{} );
+            }
+        }
+    }
+
+
+    /**
+     * Sucht die Bedeutungen einer Abkürzung im {@link AbkSnapshot}; in der Datenbank
+     * werden nur noch die danach eingefügten Bedeutungen gesucht (über den Index
+     * {@code bedeutungen_index_abk_bedeutung}, also ohne Lesen der alten Bedeutungen)
+     * und die schon ausgewählten, die nach vorne kommen.
+     *
+     * @param snapshot  Eingeblendeter Schnappschuss.
+     *
+     * @param abk  Schlüssel der Abkürzung, nach der gesucht werden soll.
+     *
+     * @return  Array der gefundenen Bedeutungen in gleicher Reihenfolge wie bei
+     *          {@link #sucheNachAbkInDb(String)}, Länge 0 wenn nichts gefunden.
+     */
+    protected String[] sucheNachAbkInSnapshot( AbkSnapshot snapshot, String abk ) throws SQLException {
+
+        long     start       = _metriken.start();
+        String[] bedeutungen = snapshot.suche( abk );
+        String[] nachtraege  = null;
+        String[] gewaehlte   = null;
+        try {
+
+            nachtraege = leseBedeutungen( SQL_NACHTRAEGE_ZU_ABK,
+                                          abk, Long.toString( snapshot.getHoechsteBedeutungId() ) );
+            gewaehlte  = leseBedeutungen( SQL_GEWAEHLTE_ZU_ABK, abk );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SUCHE_SNAPSHOT );
+            throw ex;
+        }
+
+        if ( nachtraege.length > 0 ) {
+
+            bedeutungen = mischen( bedeutungen, nachtraege );
+        }
+        if ( gewaehlte.length > 0 ) {
+
+            bedeutungen = voranstellen( gewaehlte, bedeutungen );
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_SNAPSHOT, start, bedeutungen.length, abk );
+        return bedeutungen;
+    }
+
+
+    /**
+     * Mischt zwei sortierte Arrays zu einem sortierten Array; sortiert wie SQLite
+     * ({@code BINARY}), siehe {@link AbkSnapshotSchreiber#vergleicheCodePoints(String, String)}.
+     *
+     * @param a  Erstes sortiertes Array.
+     *
+     * @param b  Zweites sortiertes Array.
+     *
+     * @return  Neues Array mit allen Elementen.
+     */
+    protected static String[] mischen( String[] a, String[] b ) {
+
+        String[] ergebnis = new String[ a.length + b.length ];
+        int i = 0, j = 0, k = 0;
+        while ( i < a.length && j < b.length ) {
+
+            ergebnis[ k++ ] = AbkSnapshotSchreiber.vergleicheCodePoints( a[ i ], b[ j ] ) <= 0 ? a[ i++ ] : b[ j++ ];
+        }
+        while ( i < a.length ) {
+
+            ergebnis[ k++ ] = a[ i++ ];
+        }
+        while ( j < b.length ) {
+
+            ergebnis[ k++ ] = b[ j++ ];
+        }
+        return ergebnis;
+    }
+
+
+    /**
+     * Stellt die schon ausgewählten Bedeutungen vor alle anderen.
+     *
+     * @param vorne  Ausgewählte Bedeutungen, häufigste zuerst; alle sind in {@code alle} enthalten.
+     *
+     * @param alle  Alle Bedeutungen, sortiert.
+     *
+     * @return  Neues Array: {@code vorne}, danach die übrigen aus {@code alle} in ihrer Reihenfolge.
+     */
+    protected static String[] voranstellen( String[] vorne, String[] alle ) {
+
+        // Anzahl pro Bedeutung, damit bei Duplikaten nur so viele Vorkommen entfallen
+        Map<String,Integer> ueberspringen = new HashMap<>();
+        for ( String bedeutung: vorne ) {
+
+            ueberspringen.merge( bedeutung, 1, Integer::sum );
+        }
+
+        String[] ergebnis = Arrays.copyOf( vorne, vorne.length + alle.length );
+        int      k        = vorne.length;
+        for ( String bedeutung: alle ) {
+
+            Integer anzahl = ueberspringen.get( bedeutung );
+            if ( anzahl == null ) {
+
+                ergebnis[ k++ ] = bedeutung;
+
+            } else if ( anzahl == 1 ) {
+
+                ueberspringen.remove( bedeutung );
+
+            } else {
+
+                ueberspringen.put( bedeutung, anzahl - 1 );
+            }
+        }
+        return Arrays.copyOf( ergebnis, k );
+    }
+
+
+    /**
+     * Liefert den {@link AbkSnapshot}; beim ersten Aufruf wird die Datei eingeblendet,
+     * falls es sie gibt.
+     *
+     * @return  Schnappschuss oder {@code null}, wenn es keinen gibt (oder er gerade von
+     *          einem anderen Thread eingeblendet wird).
+     */
+    protected AbkSnapshot holeSnapshot() {
+
+        if ( _snapshotGeprueft.compareAndSet( false, true ) ) {
+
+            synchronized ( _snapshotSperre ) {
+
+                File datei = getSnapshotDatei();
+                if ( datei != null && datei.exists() ) {
+
+                    try {
+
+                        _snapshot = AbkSnapshot.oeffnen( datei );
+                        Log.i( TAG4LOGGING, "Schnappschuss mit " + _snapshot.getAnzahlAbkuerzungen() +
+                                " Abkürzungen eingeblendet." );
+                    }
+                    catch ( IOException ex ) {
+
+                        Log.w( TAG4LOGGING, "Schnappschuss kann nicht gelesen werden: " + ex );
+                    }
+                }
+            }
+        }
+
+        return _snapshot;
+    }
+
+
+    /**
+     * Verwirft den {@link AbkSnapshot} und löscht seine Datei. Muss aufgerufen werden, nachdem
+     * Bedeutungen gelöscht wurden: Der Schnappschuss ergänzt nur neue Bedeutungen (ID über
+     * {@link AbkSnapshot#getHoechsteBedeutungId()}) aus der Datenbank und würde gelöschte
+     * weiter liefern. Suchen, die ihn gerade lesen, lesen die eingeblendete Datei zu Ende;
+     * bis zum nächsten {@link #exportiereSnapshot()} wird aus dem {@link AbkIndex} gesucht.
+     */
+    protected void snapshotVerwerfen() {
+
+        synchronized ( _snapshotSperre ) {
+
+            _snapshotGeprueft.set( true );
+            _snapshot = null;
+
+            File datei = getSnapshotDatei();
+            if ( datei != null && datei.exists() && !datei.delete() ) {
+
+                Log.w( TAG4LOGGING, "Schnappschuss-Datei kann nicht gelöscht werden: " + datei );
+            }
+        }
+    }
+
+
+    /**
+     * Datei für den {@link AbkSnapshot} im Verzeichnis {@code files} der App.
+     *
+     * @return  Datei, oder {@code null} bei einer In-Memory-Datenbank.
+     */
+    protected File getSnapshotDatei() {
+
+        return _dateiName == null ? null : new File( _context.getFilesDir(), _dateiName + SNAPSHOT_ENDUNG );
+    }
+
+
+    /**
+     * Schreibt alle Abkürzungen mit Bedeutungen in eine neue Datei für den {@link AbkSnapshot}
+     * und blendet sie ein; lohnt sich nach dem Import großer, kaum veränderlicher
+     * Abkürzungs-Listen mit {@link AbkImporter}. Die Datei wird erst in eine temporäre
+     * Datei geschrieben und dann umbenannt, gleichzeitige Suchen lesen also immer eine
+     * vollständige Datei.
+     *
+     * @return  Der neue Schnappschuss.
+     *
+     * @throws IOException  Fehler beim Schreiben der Datei.
+     */
+    public AbkSnapshot exportiereSnapshot() throws SQLException, IOException {
+
+        File datei = getSnapshotDatei();
+        if ( datei == null ) {
+
+            throw new IOException( "Kein Schnappschuss für In-Memory-Datenbank möglich." );
+        }
+
+        AbkSnapshotSchreiber schreiber   = new AbkSnapshotSchreiber();
+        long                 hoechsteId  = 0;
+
+        // Schreib-Sperre, damit die höchste ID zu den gelesenen Bedeutungen passt, auch wenn
+        // der Cursor in mehreren Fenstern gelesen wird
+        _schreibSperre.lock();
+        try {
+
+            Cursor cursor = getReadableDatabase().rawQuery( SQL_SNAPSHOT_EXPORT, null );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    schreiber.anhaengen( cursor.getString(0), cursor.getString(1) );
+                    hoechsteId = Math.max( hoechsteId, cursor.getLong(2) );
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+
+        File temp = new File( datei.getPath() + ".tmp" );
+        schreiber.schreiben( temp, hoechsteId );
+
+        AbkSnapshot snapshot;
+        synchronized ( _snapshotSperre ) {
+
+            if ( !temp.renameTo( datei ) ) {
+
+                temp.delete();
+                throw new IOException( "Schnappschuss-Datei kann nicht umbenannt werden: " + datei );
+            }
+
+            snapshot = AbkSnapshot.oeffnen( datei );
+            _snapshot = snapshot;
+            _snapshotGeprueft.set( true );
+        }
+
+        Log.i( TAG4LOGGING, "Schnappschuss mit " + schreiber.getAnzahlAbkuerzungen() + " Abkürzungen und " +
+                schreiber.getAnzahlBedeutungen() + " Bedeutungen geschrieben (" + datei.length() + " Bytes)." );
+
+        return snapshot;
+    }
+
+
+    /**
+     * Führt eine andere Abkürzungs-Datenbank (z.B. die {@code abkverz.db} eines anderen
+     * Teams) mit der eigenen zusammen: Abkürzungen, deren Schlüssel es noch nicht gibt,
+     * und Bedeutungen, die ihre Abkürzung noch nicht hat, werden eingefügt. Statt jede
+     * Zeile einzeln über {@link #fuegeBedeutungHinzu(String, String, boolean)} einzufügen,
+     * läuft alles mit drei {@code INSERT ... SELECT} in einer einzigen Transaktion:
+     * <ol>
+     *   <li>die andere Datei wird in das Cache-Verzeichnis kopiert und dort, falls nötig,
+     *       mit {@link DatenbankMigrationen} auf die aktuelle Schema-Version gebracht (die
+     *       Original-Datei wird also nie verändert);</li>
+     *   <li>die Kopie wird geöffnet und die eigene Datenbank mit {@code ATTACH} als
+     *       {@code lokal} eingebunden (umgekehrt würde Android für die eigene Datenbank
+     *       das Write-Ahead-Logging abschalten);</li>
+     *   <li>neue Abkürzungen werden eingefügt, dann in einer temporären Tabelle die alten
+     *       IDs auf die eigenen abgebildet und damit die Bedeutungen eingefügt.</li>
+     * </ol>
+     * Die Trigger der eigenen Datenbank halten den Volltext-Index aktuell; alle eingefügten
+     * Zeilen bekommen denselben Änderungs-Stand, der Zähler wird also nur einmal erhöht.
+     * Während der Transaktion wird die Schreib-Sperre gehalten, Suchen laufen weiter.
+     * Danach wird der {@link AbkIndex} verworfen und beim nächsten Suchen neu geladen.
+     *
+     * @param datei  Datei der anderen Datenbank, wird nur gelesen.
+     *
+     * @return  Statistik der Zusammenführung.
+     *
+     * @throws IOException  Datei kann nicht gelesen werden, oder In-Memory-Datenbank.
+     *
+     * @throws SQLException  Datei ist keine Abkürzungs-Datenbank (unbekannte Schema-Version)
+     *                       oder Fehler beim Schreiben; es wurde dann nichts eingefügt.
+     */
+    public ZusammenfuehrErgebnis zusammenfuehren( File datei ) throws SQLException, IOException {
+
+        if ( _dateiName == null ) {
+
+            throw new IOException( "Zusammenführen mit In-Memory-Datenbank nicht möglich." );
+        }
+        if ( !datei.isFile() ) {
+
+            throw new IOException( "Datei nicht gefunden: " + datei );
+        }
+
+        long   startMillis = System.currentTimeMillis();
+        long   start       = _metriken.start();
+        String eigenerPfad = getWritableDatabase().getPath(); // ggf. eigene Migration zuerst
+        File   kopie       = new File( _context.getCacheDir(), ZUSAMMENFUEHREN_DATEINAME );
+
+        SQLiteDatabase.deleteDatabase( kopie );
+        kopiereDatei( datei, kopie );
+        File wal = new File( datei.getPath() + "-wal" ); // enthält evtl. committete Änderungen
+        if ( wal.isFile() ) {
+
+            kopiereDatei( wal, new File( kopie.getPath() + "-wal" ) );
+        }
+
+        SQLiteDatabase fremd = null;
+        long abkuerzungenGelesen = 0, abkuerzungenNeu = 0, bedeutungenGelesen = 0, bedeutungenNeu = 0;
+        try {
+
+            fremd = SQLiteDatabase.openDatabase( kopie.getPath(), null, SQLiteDatabase.OPEN_READWRITE );
+            fremdeDatenbankMigrieren( fremd );
+
+            abkuerzungenGelesen = anzahlZeilen( fremd, "abkuerzungen" );
+            bedeutungenGelesen  = anzahlZeilen( fremd, "bedeutungen"  );
+
+            _schreibSperre.lock();
+            try {
+
+                fremd.execSQL( "ATTACH DATABASE ? AS lokal", new Object[]{ eigenerPfad } );
+
+                fremd.beginTransaction();
+                try {
+
+                    long aenderung = naechsteAenderung( fremd, "lokal" );
+
+                    abkuerzungenNeu = ausfuehren( fremd, SQL_ZUSAMMENFUEHREN_ABKUERZUNGEN, aenderung );
+                    fremd.execSQL( SQL_ZUSAMMENFUEHREN_ZUORDNUNG_ANLEGEN );
+                    ausfuehren( fremd, SQL_ZUSAMMENFUEHREN_ZUORDNUNG );
+                    bedeutungenNeu  = ausfuehren( fremd, SQL_ZUSAMMENFUEHREN_BEDEUTUNGEN, aenderung );
+                    fremd.execSQL( "DROP TABLE temp.abk_zuordnung" );
+
+                    fremd.setTransactionSuccessful();
+                }
+                finally {
+
+                    fremd.endTransaction();
+                }
+
+                fremd.execSQL( "DETACH DATABASE lokal" );
+            }
+            finally {
+
+                abkIndexVerwerfen();
+                _schreibSperre.unlock();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.ZUSAMMENFUEHREN );
+            throw ex;
+        }
+        finally {
+
+            if ( fremd != null ) {
+
+                fremd.close();
+            }
+            SQLiteDatabase.deleteDatabase( kopie );
+        }
+
+        _metriken.ende( DbMetriken.Operation.ZUSAMMENFUEHREN, start, bedeutungenNeu, datei.getName() );
+
+        ZusammenfuehrErgebnis ergebnis =
+                new ZusammenfuehrErgebnis( abkuerzungenGelesen, abkuerzungenNeu,
+                                           bedeutungenGelesen, bedeutungenNeu,
+                                           System.currentTimeMillis() - startMillis );
+
+        Log.i( TAG4LOGGING, "Zusammenführung mit " + datei.getName() + ": " + ergebnis );
+
+        return ergebnis;
+    }
+
+
+    /**
+     * Bringt die Kopie der anderen Datenbank bei {@link #zusammenfuehren(File)} auf die
+     * aktuelle Schema-Version, damit die Statements für beide Datenbanken die gleichen
+     * Spalten (v.a. {@code abk_schluessel}) voraussetzen können.
+     *
+     * @param fremd  Geöffnete Kopie der anderen Datenbank.
+     *
+     * @throws SQLException  Datei hat keine oder eine neuere Schema-Version.
+     */
+    protected static void fremdeDatenbankMigrieren( SQLiteDatabase fremd ) throws SQLException {
+
+        int version = fremd.getVersion();
+        if ( version < 1 || version > DB_VERSION ) {
+
+            throw new SQLException( "Datei ist keine Abkürzungs-Datenbank mit bekannter " +
+                    "Schema-Version (Version " + version + ")." );
+        }
+        if ( version == DB_VERSION ) {
+
+            return;
+        }
+
+        fremd.beginTransaction();
+        try {
+
+            DatenbankMigrationen.migriere( fremd, version, DB_VERSION );
+            fremd.setVersion( DB_VERSION );
+            fremd.setTransactionSuccessful();
+        }
+        finally {
+
+            fremd.endTransaction();
+        }
+    }
+
+
+    /**
+     * Führt ein {@code INSERT}-Statement einmal aus.
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  Statement, ggf. mit Platzhaltern.
+     *
+     * @param werte  Werte für die Platzhalter.
+     *
+     * @return  Anzahl der eingefügten Zeilen.
+     */
+    protected static int ausfuehren( SQLiteDatabase db, String sql, long... werte ) throws SQLException {
+
+        SQLiteStatement statement = db.compileStatement( sql );
+        try {
+
+            for ( int i = 0; i < werte.length; i++ ) {
+
+                statement.bindLong( i + 1, werte[ i ] );
+            }
+            return statement.executeUpdateDelete();
+        }
+        finally {
+
+            statement.close();
+        }
+    }
+
+
+    /**
+     * Erhöht den Änderungs-Zähler in Tabelle {@code metadaten} um eins und liefert den neuen
+     * Stand. Für Massen-Einfügungen (Import, Zusammenführen): der Stand wird einmal pro
+     * Transaktion geholt und beim {@code INSERT} in Spalte {@code aenderung} gebunden, so
+     * dass die Trigger {@code ..._aenderung_nach_insert} (ab Schema-Version 10 nur noch
+     * für {@code aenderung = 0}) nicht für jede Zeile den Zähler schreiben.
+     *
+     * @param db  Datenbank, in der Transaktion der Einfügungen.
+     *
+     * @param schema  Name der Datenbank mit dem Zähler, z.B. {@code main}, oder
+     *                {@code lokal} bei {@link #zusammenfuehren(File)}.
+     *
+     * @return  Neuer Stand des Zählers, immer größer als 0.
+     */
+    protected static long naechsteAenderung( SQLiteDatabase db, String schema ) throws SQLException {
+
+        ausfuehren( db, "UPDATE " + schema + ".metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung'" );
+
+        SQLiteStatement statement =
+                db.compileStatement( "SELECT wert FROM " + schema + ".metadaten WHERE schluessel = 'aenderung'" );
+        try {
+
+            return statement.simpleQueryForLong();
+        }
+        finally {
+
+            statement.close();
+        }
+    }
+
+
+    /**
+     * Zählt die Zeilen einer Tabelle.
+     *
+     * @param db  Datenbank.
+     *
+     * @param tabelle  Name der Tabelle.
+     *
+     * @return  Anzahl der Zeilen.
+     */
+    protected static long anzahlZeilen( SQLiteDatabase db, String tabelle ) throws SQLException {
+
+        SQLiteStatement statement = db.compileStatement( "SELECT COUNT(*) FROM " + tabelle );
+        try {
+
+            return statement.simpleQueryForLong();
+        }
+        finally {
+
+            statement.close();
+        }
+    }
+
+
+    /**
+     * Kopiert eine Datei.
+     *
+     * @param quelle  Zu kopierende Datei.
+     *
+     * @param ziel  Neue Datei, wird ggf. überschrieben.
+     *
+     * @throws IOException  Fehler beim Lesen oder Schreiben.
+     */
+    protected static void kopiereDatei( File quelle, File ziel ) throws IOException {
+
+        try ( FileChannel ein = new FileInputStream( quelle ).getChannel();
+              FileChannel aus = new FileOutputStream( ziel ).getChannel() ) {
+
+            long groesse = ein.size();
+            for ( long position = 0; position < groesse; ) {
+
+                position += ein.transferTo( position, groesse - position, aus );
+            }
+        }
+    }
+
+
+    /**
+     * Wie {@link #sucheTreffer(String, int, boolean, CancellationSignal)}, aber nicht abbrechbar.
+     *
+     * @param eingabe  Bisherige Eingabe des Nutzers; darf nicht leer sein.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer.
+     *
+     * @param mitAehnlichen  {@code true}, wenn auch Abkürzungen mit einem Tippfehler gefunden
+     *                       werden sollen.
+     *
+     * @return  Treffer sortiert nach {@link AbkTreffer.Art}.
+     */
+    public List<AbkTreffer> sucheTreffer( String eingabe, int maxTreffer, boolean mitAehnlichen )
+            throws SQLException {
+
+        return sucheTreffer( eingabe, maxTreffer, mitAehnlichen, null );
+    }
+
+
+    /**
+     * Inkrementelle Suche ("Search-as-you-type"): liefert die besten Treffer für eine
+     * unvollständige oder vertippte Eingabe. Die Suche wird aus dem {@link AbkIndex}
+     * beantwortet und hält das Zeitbudget {@link #SUCHE_ZEITBUDGET_NANOS} ein.
+     * <br><br>
+     *
+     * Ist der Index noch nicht geladen, dann wird auf ihn nicht gewartet: das Laden wird im
+     * Hintergrund gestartet und die Eingabe mit {@link #sucheTrefferInDb(String, int, CancellationSignal)} nur
+     * als Präfix gesucht, ähnliche Abkürzungen gibt es bis dahin nicht.
+     *
+     * @param eingabe  Bisherige Eingabe des Nutzers; darf nicht leer sein.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer.
+     *
+     * @param mitAehnlichen  {@code true}, wenn auch Abkürzungen mit einem Tippfehler
+     *                       (Editier-Distanz 1) gefunden werden sollen.
+     *
+     * @param abbruch  Bricht eine laufende Query ab (siehe {@link IDatenbankAufgabe}), oder
+     *                 {@code null}.
+     *
+     * @return  Treffer sortiert nach {@link AbkTreffer.Art}; Liste ist leer, wenn nichts
+     *          gefunden, aber nicht {@code null}.
+     */
+    public List<AbkTreffer> sucheTreffer( String eingabe, int maxTreffer, boolean mitAehnlichen,
+                                          CancellationSignal abbruch ) throws SQLException {
+
+        eingabe = AbkNormalisierer.schluessel( eingabe );
+
+        AbkIndex abkIndex = _abkIndex;
+        if ( abkIndex == null ) {
+
+            abkIndexImHintergrundLaden();
+            return sucheTrefferInDb( eingabe, maxTreffer, abbruch );
+        }
+
+        long start = _metriken.start();
+        List<AbkTreffer> treffer =
+                abkIndex.sucheTreffer( eingabe, maxTreffer, mitAehnlichen, SUCHE_ZEITBUDGET_NANOS );
+        _metriken.ende( DbMetriken.Operation.SUCHE_TREFFER, start, treffer.size(), eingabe );
+
+        return treffer;
+    }
+
+
+    /**
+     * Inkrementelle Suche direkt in der Datenbank, solange der {@link AbkIndex} noch nicht
+     * geladen ist: liest nur die ersten {@code maxTreffer} Abkürzungen mit dem Präfix aus
+     * dem Index {@code abkuerzung_index_schluessel}, die Kosten hängen also nicht von der
+     * Größe der Datenbank ab.
+     *
+     * @param eingabe  Bisherige Eingabe, schon normalisiert wie ein Schlüssel.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer.
+     *
+     * @param abbruch  Bricht die Query ab, oder {@code null}.
+     *
+     * @return  Exakter Treffer und Präfix-Treffer in alphabetischer Reihenfolge; Liste ist
+     *          leer, wenn nichts gefunden, aber nicht {@code null}.
+     */
+    protected List<AbkTreffer> sucheTrefferInDb( String eingabe, int maxTreffer,
+                                                 CancellationSignal abbruch ) throws SQLException {
+
+        String   ende = AbkProvider.praefixEnde( eingabe );
+        String   sql;
+        String[] argumente;
+        if ( ende == null ) {
+
+            sql       = SQL_PRAEFIX_TREFFER_ANFANG + SQL_PRAEFIX_TREFFER_ENDE;
+            argumente = new String[]{ eingabe, Integer.toString( maxTreffer ) };
+
+        } else {
+
+            sql       = SQL_PRAEFIX_TREFFER_ANFANG + SQL_PRAEFIX_TREFFER_BIS + SQL_PRAEFIX_TREFFER_ENDE;
+            argumente = new String[]{ eingabe, Integer.toString( maxTreffer ), ende };
+        }
+
+        List<AbkTreffer> treffer     = new ArrayList<>( maxTreffer );
+        List<String>     bedeutungen = new ArrayList<>();
+        String           abk         = null;
+        long             start       = _metriken.start();
+
+        try {
+
+            Cursor cursor = getReadableDatabase().rawQuery( sql, argumente, abbruch );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    String schluessel = cursor.getString( 0 );
+                    if ( abk != null && !abk.equals( schluessel ) ) {
+
+                        treffer.add( praefixTreffer( abk, eingabe, bedeutungen ) );
+                        bedeutungen.clear();
+                    }
+                    abk = schluessel;
+                    bedeutungen.add( cursor.getString( 1 ) );
+                }
+                if ( abk != null ) {
+
+                    treffer.add( praefixTreffer( abk, eingabe, bedeutungen ) );
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SUCHE_TREFFER );
+            throw ex;
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_TREFFER, start, treffer.size(), eingabe );
+
+        return treffer;
+    }
+
+
+    /**
+     * Erzeugt einen Treffer für {@link #sucheTrefferInDb(String, int, CancellationSignal)}.
+     *
+     * @param abk  Gefundene Abkürzung (Schlüssel).
+     *
+     * @param eingabe  Eingabe des Nutzers.
+     *
+     * @param bedeutungen  Bedeutungen der Abkürzung in der Reihenfolge für die Suche.
+     *
+     * @return  Exakter Treffer oder Präfix-Treffer.
+     */
+    protected static AbkTreffer praefixTreffer( String abk, String eingabe, List<String> bedeutungen ) {
+
+        AbkTreffer.Art art = abk.equals( eingabe ) ? AbkTreffer.Art.EXAKT : AbkTreffer.Art.PRAEFIX;
+        return new AbkTreffer( abk, bedeutungen.toArray( new String[ 0 ] ), art );
+    }
+
+
+    /**
+     * Liefert eine Seite mit Bedeutungen einer Abkürzung, häufigste zuerst. Anders als
+     * {@link #sucheNachAbk(String)} werden nie mehr als {@code seitenGroesse} Bedeutungen
+     * gelesen, auch wenn die Abkürzung sehr viele Bedeutungen hat.
+     *
+     * @param abk  Die Abkürzung, nach der gesucht werden soll.
+     *
+     * @param vorherigeSeite  Zuletzt geladene Seite für diese Abkürzung, oder {@code null}
+     *                        für die erste Seite.
+     *
+     * @param seitenGroesse  Maximale Anzahl der Bedeutungen auf der Seite, 1 bis
+     *                       {@link #MAX_SEITEN_GROESSE}.
+     *
+     * @return  Seite mit Bedeutungen; leer, wenn es (keine weiteren) gibt.
+     */
+    public BedeutungenSeite sucheBedeutungenSeite( String abk, BedeutungenSeite vorherigeSeite,
+                                                   int seitenGroesse ) throws SQLException {
+
+        return sucheBedeutungenSeite( abk, null, vorherigeSeite, seitenGroesse, null );
+    }
+
+
+    /**
+     * Wie {@link #sucheBedeutungenSeite(String, BedeutungenSeite, int)}, aber nur mit den
+     * Bedeutungen der gewählten Kategorien. Pro Kategorie liest die Query höchstens eine
+     * Seite aus dem Index {@code bedeutungen_index_abk_kategorie}, SQLite sortiert also nie
+     * mehr als (Anzahl Kategorien) x (Seitengröße + 1) Zeilen.
+     *
+     * @param abk  Die Abkürzung, nach der gesucht werden soll.
+     *
+     * @param kategorien  IDs der Kategorien (siehe {@link #holeKategorien()}), oder
+     *                    {@code null} bzw. leer für alle; für Folgeseiten wird der Filter
+     *                    von {@code vorherigeSeite} übernommen.
+     *
+     * @param vorherigeSeite  Zuletzt geladene Seite für diese Abkürzung, oder {@code null}
+     *                        für die erste Seite.
+     *
+     * @param seitenGroesse  Maximale Anzahl der Bedeutungen auf der Seite, 1 bis
+     *                       {@link #MAX_SEITEN_GROESSE}.
+     *
+     * @param abbruch  Bricht eine laufende Query ab (siehe {@link IDatenbankAufgabe}), oder
+     *                 {@code null}.
+     *
+     * @return  Seite mit Bedeutungen; leer, wenn es (keine weiteren) gibt.
+     */
+    public BedeutungenSeite sucheBedeutungenSeite( String abk, Set<Integer> kategorien,
+                                                   BedeutungenSeite vorherigeSeite, int seitenGroesse,
+                                                   CancellationSignal abbruch ) throws SQLException {
+
+        if ( seitenGroesse < 1 || seitenGroesse > MAX_SEITEN_GROESSE ) {
+
+            throw new IllegalArgumentException( "Ungültige Seitengröße: " + seitenGroesse );
+        }
+
+        abk = AbkNormalisierer.schluessel( abk );
+
+        if ( vorherigeSeite != null ) {
+
+            kategorien = vorherigeSeite.getKategorien();
+        }
+        List<Integer> ids = kategorien == null ? new ArrayList<>()
+                                               : new ArrayList<>( new TreeSet<>( kategorien ) );
+
+        long   letzteTreffer   = vorherigeSeite == null ? Long.MAX_VALUE : vorherigeSeite.getLetzteTreffer();
+        String letzteBedeutung = vorherigeSeite == null ? "" : vorherigeSeite.getLetzteBedeutung();
+        long   letzteId        = vorherigeSeite == null ? -1 : vorherigeSeite.getLetzteId();
+
+        // Platzhalter ?1 bis ?5 wie in SQL_BEDEUTUNGEN_SEITE, ab ?6 die Kategorien
+        String[] parameter = new String[ 5 + ids.size() ];
+        parameter[ 0 ] = abk;
+        parameter[ 1 ] = Long.toString( letzteTreffer );
+        parameter[ 2 ] = letzteBedeutung;
+        parameter[ 3 ] = Long.toString( letzteId );
+        parameter[ 4 ] = Integer.toString( seitenGroesse + 1 ); // eine Zeile mehr, siehe unten
+
+        String sql;
+        if ( ids.isEmpty() ) {
+
+            sql = SQL_BEDEUTUNGEN_SEITE;
+
+        } else if ( ids.size() == 1 ) {
+
+            sql = SQL_BEDEUTUNGEN_SEITE_KATEGORIE;
+            parameter[ 5 ] = ids.get( 0 ).toString();
+
+        } else {
+
+            StringBuilder sb = new StringBuilder();
+            for ( int i = 0; i < ids.size(); i++ ) {
+
+                sb.append( i == 0 ? "" : " UNION ALL " )
+                  .append( "SELECT bedeutung, bedeutung_id, treffer FROM ( " )
+                  .append( SQL_BEDEUTUNGEN_SEITE_KATEGORIE.replace( "?6", "?" + ( 6 + i ) ) )
+                  .append( " )" );
+                parameter[ 5 + i ] = ids.get( i ).toString();
+            }
+            sb.append( " ORDER BY treffer DESC, bedeutung ASC, bedeutung_id ASC LIMIT CAST(?5 AS INTEGER)" );
+            sql = sb.toString();
+        }
+
+        List<String> bedeutungen = new ArrayList<>( seitenGroesse );
+        boolean      hatWeitere  = false;
+        long         start       = _metriken.start();
+
+        try {
+
+            // Eine Zeile mehr lesen, um zu wissen, ob es noch eine weitere Seite gibt
+            Cursor cursor = getReadableDatabase().rawQuery( sql, parameter, abbruch );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    if ( bedeutungen.size() == seitenGroesse ) {
+
+                        hatWeitere = true;
+                        break;
+                    }
+
+                    letzteBedeutung = cursor.getString( 0 );
+                    letzteId        = cursor.getLong( 1 );
+                    letzteTreffer   = cursor.getLong( 2 );
+                    bedeutungen.add( letzteBedeutung );
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SEITE );
+            throw ex;
+        }
+
+        _metriken.ende( DbMetriken.Operation.SEITE, start, bedeutungen.size(), abk );
+
+        return new BedeutungenSeite( abk, new TreeSet<>( ids ), bedeutungen,
+                                     letzteTreffer, letzteBedeutung, letzteId, hatWeitere );
+    }
+
+
+    /**
+     * Wie {@link #sucheNachBedeutung(String, int, CancellationSignal)}, aber nicht abbrechbar.
+     *
+     * @param eingabe  Gesuchte Wörter, z.B. {@code "Space"}.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer, mindestens 1.
+     *
+     * @return  Höchstens {@code maxTreffer} Treffer, bester Treffer zuerst.
+     */
+    public List<BedeutungTreffer> sucheNachBedeutung( String eingabe, int maxTreffer )
+            throws SQLException {
+
+        return sucheNachBedeutung( eingabe, maxTreffer, null );
+    }
+
+
+    /**
+     * Rückwärts-Suche: Sucht die Bedeutungen, in denen alle Wörter der Eingabe (als Präfix)
+     * vorkommen, über den Volltext-Index. Die Treffer werden nach Rang (BM25) sortiert,
+     * siehe {@link VolltextSuche}; bewertet werden höchstens {@link #MAX_VOLLTEXT_KANDIDATEN}
+     * passende Bedeutungen.
+     *
+     * @param eingabe  Gesuchte Wörter, z.B. {@code "Space"}.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer, mindestens 1.
+     *
+     * @param abbruch  Bricht eine laufende Query ab (siehe {@link IDatenbankAufgabe}), oder
+     *                 {@code null}.
+     *
+     * @return  Höchstens {@code maxTreffer} Treffer, bester Treffer zuerst; leere Liste,
+     *          wenn die Eingabe kein Wort enthält oder nichts gefunden wurde.
+     */
+    public List<BedeutungTreffer> sucheNachBedeutung( String eingabe, int maxTreffer,
+                                                      CancellationSignal abbruch ) throws SQLException {
+
+        VolltextSuche volltextSuche = new VolltextSuche( maxTreffer );
+
+        String matchAusdruck = VolltextSuche.erzeugeMatchAusdruck( eingabe );
+        if ( matchAusdruck == null ) {
+
+            return volltextSuche.getErgebnis();
+        }
+
+        long start  = _metriken.start();
+        long zeilen = 0;
+        try {
+
+            Cursor cursor = getReadableDatabase().rawQuery( SQL_SUCHE_BEDEUTUNGEN_VOLLTEXT,
+                    new String[]{ matchAusdruck, Integer.toString( MAX_VOLLTEXT_KANDIDATEN ) }, abbruch );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    volltextSuche.hinzufuegen( cursor.getString(0), cursor.getString(1), cursor.getBlob(2) );
+                    zeilen++;
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.SUCHE_BEDEUTUNG );
+            throw ex;
+        }
+
+        _metriken.ende( DbMetriken.Operation.SUCHE_BEDEUTUNG, start, zeilen, matchAusdruck );
+
+        return volltextSuche.getErgebnis();
+    }
+
+
+    /**
+     * Lädt alle Abkürzungen mit ihren Bedeutungen in einem einzigen Join in einen neuen
+     * {@link AbkIndex}, falls noch keiner geladen ist. Die Sortierung entspricht der von
+     * {@link #sucheNachAbk(String)} gelieferten Reihenfolge.
+     * <br><br>
+     *
+     * Geladen wird ohne Schreib-Sperre, Schreibzugriffe warten also nicht auf das Laden.
+     * Stattdessen merkt sich {@link #abkAktualisieren(String)} in {@link #_abkIndexGeaendert}
+     * die Abkürzungen, die sich währenddessen ändern; diese werden vor dem Veröffentlichen
+     * unter der Sperre neu gelesen (je eine Index-Suche). Wurde der Index während des Ladens
+     * verworfen, dann wird der neue Index nur an den Aufrufer zurückgegeben.
+     *
+     * @return  Geladener Index.
+     */
+    protected AbkIndex ladeAbkIndex() throws SQLException {
+
+        AbkIndex abkIndex = _abkIndex;
+        if ( abkIndex != null ) {
+
+            return abkIndex;
+        }
+
+        // Ab hier gemachte Änderungen werden gemerkt; vorher gemachte sieht das Laden
+        Set<String> geaendert = new HashSet<>();
+        _schreibSperre.lock();
+        try {
+
+            if ( _abkIndex != null ) {
+
+                return _abkIndex;
+            }
+            _abkIndexGeaendert = geaendert;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+
+        abkIndex = new AbkIndex();
+
+        long start  = _metriken.start();
+        long zeilen;
+        try {
+
+            zeilen = abkIndexBefuellen( abkIndex );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.INDEX_LADEN );
+            throw ex;
+        }
+
+        _schreibSperre.lock();
+        try {
+
+            if ( _abkIndexGeaendert != geaendert ) {
+
+                return abkIndex;
+            }
+
+            for ( String schluessel: geaendert ) {
+
+                abkIndex.ersetzen( schluessel, sucheNachAbkInDb( schluessel ) );
+            }
+            _abkIndex          = abkIndex;
+            _abkIndexGeaendert = null;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+
+        _metriken.ende( DbMetriken.Operation.INDEX_LADEN, start, zeilen, null );
+
+        Log.i( TAG4LOGGING, "Abkürzungs-Index mit " + abkIndex.getAnzahlAbkuerzungen() +
+                " Abkürzungen geladen, " + geaendert.size() + " währenddessen geändert." );
+
+        return abkIndex;
+    }
+
+
+    /**
+     * Liest alle Abkürzungen mit ihren Bedeutungen in den übergebenen, noch nicht
+     * veröffentlichten Index, siehe {@link #ladeAbkIndex()}.
+     *
+     * @param abkIndex  Neuer, leerer Index.
+     *
+     * @return  Anzahl der gelesenen Zeilen.
+     *
+     * @throws IllegalStateException  Datenbank wurde mit {@link #close()} geschlossen.
+     */
+    protected long abkIndexBefuellen( AbkIndex abkIndex ) throws SQLException {
+
+        long zeilen = 0;
+
+        SQLiteDatabase db;
+        synchronized ( this ) { // wie close()
+
+            if ( _istGeschlossen ) {
+
+                throw new IllegalStateException( "Datenbank wurde während des Ladens geschlossen." );
+            }
+            db = getReadableDatabase();
+        }
+
+        Cursor cursor = db.rawQuery( SQL_INDEX_LADEN,
+                null ); // die "selectionArgs" brauchen wir hier nicht
+        try {
+
+            while ( cursor.moveToNext() ) {
+
+                abkIndex.anhaengen( cursor.getString(0), cursor.getString(1) );
+                zeilen++;
+            }
+            abkIndex.ladenAbschliessen();
+        }
+        finally {
+
+            cursor.close();
+        }
+
+        return zeilen;
+    }
+
+
+    /**
+     * Startet das Laden des {@link AbkIndex} auf einem Hintergrund-Thread, sofern es
+     * nicht schon gestartet wurde.
+     */
+    protected void abkIndexImHintergrundLaden() {
+
+        if ( !_abkIndexLadenGestartet.compareAndSet( false, true ) ) {
+
+            return;
+        }
+
+        try {
+
+            DatenbankAuftraege.WARTUNG_EXECUTOR.execute( () -> {
+
+                try {
+
+                    ladeAbkIndex();
+                }
+                catch ( SQLException ex ) {
+
+                    Log.e( TAG4LOGGING, "Exception beim Laden des Abkürzungs-Index: " + ex );
+                    _abkIndexLadenGestartet.set( false );
+                }
+                catch ( IllegalStateException ex ) { // close() während des Ladens
+
+                    Log.i( TAG4LOGGING, "Laden des Abkürzungs-Index abgebrochen: " + ex.getMessage() );
+                    _abkIndexLadenGestartet.set( false );
+                }
+            } );
+        }
+        catch ( RejectedExecutionException ex ) {
+
+            _abkIndexLadenGestartet.set( false );
+        }
+    }
+
+
+    /**
+     * Verwirft den {@link AbkIndex} und leert den {@link AbkCache}, z.B. nach einem Import
+     * mit {@link AbkImporter}; der Index wird beim nächsten Suchen neu aus der Datenbank geladen.
+     */
+    protected void abkIndexVerwerfen() {
+
+        _abkIndex          = null;
+        _abkIndexGeaendert = null;
+        _abkIndexLadenGestartet.set( false );
+        _abkCache.leeren();
+    }
+
+
+    /**
+     * Bedeutung für bisher in der Datenbank noch nicht vorhandene Abkürzung
+     * hinzufügen.
+     *
+     * @param abkString  Die neue Abkürzung, muss mindestens einen Buchstaben oder eine
+     *                   Ziffer enthalten.
+     *
+     * @param bedeutung  Die neue Bedeutung, darf nicht leer sein.
+     */
+    public void insertGanzNeueAbk( String abkString, String bedeutung ) throws SQLException {
+
+        insertGanzNeueAbk( abkString, bedeutung, KATEGORIE_ALLGEMEIN );
+    }
+
+
+    /**
+     * Wie {@link #insertGanzNeueAbk(String, String)}, aber mit Kategorie der Bedeutung.
+     *
+     * @param abkString  Die neue Abkürzung.
+     *
+     * @param bedeutung  Die neue Bedeutung, darf nicht leer sein.
+     *
+     * @param kategorie  ID der Kategorie, siehe {@link #holeKategorien()}.
+     */
+    public void insertGanzNeueAbk( String abkString, String bedeutung, int kategorie )
+            throws SQLException {
+
+        String schluessel = schluesselZumEinfuegen( abkString );
+        abkString = AbkNormalisierer.anzeige( abkString );
+
+        SQLiteDatabase db    = getWritableDatabase();
+        long           start = _metriken.start();
+
+        _schreibSperre.lock();
+        try {
+
+            long idOfNewRow = _statementCache.insert( db, SQL_INSERT_NEU_ABK, abkString, schluessel );
+            if (idOfNewRow == -1) {
+
+                throw new SQLException( "Einfügen der neuen Abkürzung '" + abkString +
+                        "' ist fehlgeschlagen." );
+            }
+
+            _metriken.ende( DbMetriken.Operation.INSERT_ABK, start, 1, schluessel );
+
+            insertBedeutung( schluessel, bedeutung, kategorie );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.INSERT_ABK );
+            throw ex;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+    }
+
+
+    /**
+     * Fügt für eine bereits in der Datenbank stehende Abkürzung die erste oder eine weitere
+     * Bedeutung hinzu.
+     *
+     * @param abkString  Abkürzung (beliebige Schreibweise mit gleichem Schlüssel), muss
+     *                   schon in Datenbank gespeichert sein.
+     *
+     * @param bedeutung  Die erste oder eine weitere Bedeutung für diese Abkürzung.
+     */
+    public void insertBedeutung( String abkString, String bedeutung ) throws SQLException {
+
+        insertBedeutung( abkString, bedeutung, KATEGORIE_ALLGEMEIN );
+    }
+
+
+    /**
+     * Wie {@link #insertBedeutung(String, String)}, aber mit Kategorie der Bedeutung.
+     *
+     * @param abkString  Abkürzung, muss schon in Datenbank gespeichert sein.
+     *
+     * @param bedeutung  Die erste oder eine weitere Bedeutung für diese Abkürzung.
+     *
+     * @param kategorie  ID der Kategorie, siehe {@link #holeKategorien()}.
+     */
+    public void insertBedeutung( String abkString, String bedeutung, int kategorie )
+            throws SQLException {
+
+        String schluessel = schluesselZumEinfuegen( abkString );
+
+        SQLiteDatabase db    = getWritableDatabase();
+        long           start = _metriken.start();
+
+        // Schreib-Sperre, damit die neue Bedeutung entweder schon beim Laden des Index
+        // gelesen wird oder nach dem Laden eingefügt wird, aber nie beides
+        _schreibSperre.lock();
+        try {
+
+            long idOfNewRow = _statementCache.insert( db, SQL_INSERT_BEDEUTUNG, bedeutung, kategorie, schluessel );
+            if ( idOfNewRow == -1 ) {
+
+                throw new SQLException( "Einfügen der neuen Bedeutung '" + bedeutung +
+                        "' ist fehlgeschlagen." );
+            }
+
+            abkAktualisieren( schluessel );
+
+            _metriken.ende( DbMetriken.Operation.INSERT_BEDEUTUNG, start, 1, schluessel );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.INSERT_BEDEUTUNG );
+            throw ex;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+    }
+
+
+
+    /**
+     * Fügt eine Bedeutung zu einer Abkürzung hinzu; die Abkürzung wird angelegt, falls
+     * es sie noch nicht gibt. Alles geschieht in einer einzigen Transaktion, es ist also
+     * vorher keine Suche nach der Abkürzung nötig. Auch wenn zwei Threads gleichzeitig
+     * dieselbe neue Abkürzung einfügen, wird sie nur einmal angelegt.
+     *
+     * @param abkString  Die Abkürzung, muss mindestens einen Buchstaben oder eine Ziffer
+     *                   enthalten. Gibt es schon eine Abkürzung mit gleichem Schlüssel (z.B.
+     *                   "KSC" für "K.S.C."), dann wird die Bedeutung dort hinzugefügt.
+     *
+     * @param bedeutung  Die neue Bedeutung, darf nicht leer sein.
+     *
+     * @param duplikateUeberspringen  {@code true}, wenn die Bedeutung nicht eingefügt werden
+     *                                soll, falls die Abkürzung sie schon hat.
+     *
+     * @return  Was eingefügt wurde.
+     */
+    public EinfuegeErgebnis fuegeBedeutungHinzu( String abkString, String bedeutung,
+                                                 boolean duplikateUeberspringen )
+            throws SQLException {
+
+        return fuegeBedeutungHinzu( abkString, bedeutung, duplikateUeberspringen, KATEGORIE_ALLGEMEIN );
+    }
+
+
+    /**
+     * Wie {@link #fuegeBedeutungHinzu(String, String, boolean)}, aber mit Kategorie der
+     * Bedeutung. Hat die Abkürzung die Bedeutung schon (in irgendeiner Kategorie), dann
+     * bleibt deren Kategorie unverändert.
+     *
+     * @param abkString  Die Abkürzung.
+     *
+     * @param bedeutung  Die neue Bedeutung, darf nicht leer sein.
+     *
+     * @param duplikateUeberspringen  {@code true}, wenn die Bedeutung nicht eingefügt werden
+     *                                soll, falls die Abkürzung sie schon hat.
+     *
+     * @param kategorie  ID der Kategorie, siehe {@link #holeKategorien()}.
+     *
+     * @return  Was eingefügt wurde.
+     */
+    public EinfuegeErgebnis fuegeBedeutungHinzu( String abkString, String bedeutung,
+                                                 boolean duplikateUeberspringen, int kategorie )
+            throws SQLException {
+
+        String schluessel = schluesselZumEinfuegen( abkString );
+        abkString = AbkNormalisierer.anzeige( abkString );
+
+        SQLiteDatabase   db       = getWritableDatabase();
+        EinfuegeErgebnis ergebnis = null;
+        long             start    = _metriken.start();
+
+        _schreibSperre.lock();
+        try {
+
+            db.beginTransactionNonExclusive();
+            try {
+
+                long abkId = _statementCache.insert( db, SQL_INSERT_ABK_FALLS_NEU, abkString, schluessel );
+                if ( abkId == -1 ) { // Abkürzung gab es schon
+
+                    abkId = _statementCache.abfrageLong( db, SQL_ABK_ID, -1, schluessel );
+                    if ( abkId == -1 ) {
+
+                        throw new SQLException( "ID der Abkürzung '" + abkString +
+                                "' nicht gefunden." );
+                    }
+                    ergebnis = EinfuegeErgebnis.NEUE_BEDEUTUNG;
+
+                } else {
+
+                    ergebnis = EinfuegeErgebnis.NEUE_ABKUERZUNG;
+                }
+
+                if ( duplikateUeberspringen && ergebnis == EinfuegeErgebnis.NEUE_BEDEUTUNG &&
+                     _statementCache.abfrageLong( db, SQL_BEDEUTUNG_VORHANDEN, 0, abkId, bedeutung ) != 0 ) {
+
+                    _metriken.ende( DbMetriken.Operation.UPSERT, start, 0, schluessel );
+                    return EinfuegeErgebnis.SCHON_VORHANDEN;
+                }
+
+                long idOfNewRow = _statementCache.insert( db, SQL_INSERT_BEDEUTUNG_ZU_ID, abkId, bedeutung, kategorie );
+                if ( idOfNewRow == -1 ) {
+
+                    throw new SQLException( "Einfügen der neuen Bedeutung '" + bedeutung +
+                            "' ist fehlgeschlagen." );
+                }
+
+                db.setTransactionSuccessful();
+            }
+            finally {
+
+                db.endTransaction();
+            }
+
+            // Erst nach erfolgreichem Commit, noch unter der Schreib-Sperre
+            abkAktualisieren( schluessel );
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.UPSERT );
+            throw ex;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+
+        _metriken.ende( DbMetriken.Operation.UPSERT, start,
+                        ergebnis == EinfuegeErgebnis.NEUE_ABKUERZUNG ? 2 : 1, schluessel );
+
+        return ergebnis;
+    }
+
+
+    /**
+     * Macht nach einer Änderung an den Bedeutungen einer Abkürzung ihren Eintrag im
+     * {@link AbkCache} ungültig und liest sie für den {@link AbkIndex} neu aus der
+     * Datenbank (eine Index-Suche), denn durch neue Bedeutungen oder geänderte Zähler
+     * kann sich die Reihenfolge geändert haben. Muss nach dem Commit und unter der
+     * Schreib-Sperre aufgerufen werden.
+     * <br><br>
+     *
+     * Der Cache-Eintrag wird vor und nach dem Ersetzen im Index ungültig gemacht: Eine
+     * Suche, die dazwischen noch die alten Bedeutungen aus dem Index liest, kann sie zwar
+     * im Cache ablegen (ihr Stand ist noch aktuell), der zweite Aufruf entfernt sie aber
+     * wieder.
+     *
+     * @param schluessel  Schlüssel der geänderten Abkürzung.
+     */
+    protected void abkAktualisieren( String schluessel ) throws SQLException {
+
+        _abkCache.entfernen( schluessel );
+
+        Set<String> geaendert = _abkIndexGeaendert;
+        if ( geaendert != null ) {
+
+            geaendert.add( schluessel );
+        }
+
+        AbkIndex abkIndex = _abkIndex;
+        if ( abkIndex != null ) {
+
+            abkIndex.ersetzen( schluessel, sucheNachAbkInDb( schluessel ) );
+            _abkCache.entfernen( schluessel );
+        }
+    }
+
+
+    /**
+     * Zählt, dass der Nutzer eine Bedeutung einer Abkürzung ausgewählt hat; häufig
+     * ausgewählte Bedeutungen werden danach weiter vorne geliefert. Die Auswahl wird nur im
+     * {@link TrefferZaehler} gezählt, die Methode greift also nicht auf die Datenbank zu und
+     * kann auf dem UI-Thread aufgerufen werden. Geschrieben wird nach
+     * {@link #TREFFER_SCHREIBEN_NACH_MILLIS} (bzw. sofort ab {@link #TREFFER_SOFORT_SCHREIBEN_AB}
+     * Auswahlen) im Hintergrund mit {@link #schreibeTreffer()}.
+     *
+     * @param abk  Abkürzung in beliebiger Schreibweise.
+     *
+     * @param bedeutung  Ausgewählte Bedeutung.
+     */
+    public void bedeutungGewaehlt( String abk, String bedeutung ) {
+
+        abk = AbkNormalisierer.schluessel( abk );
+        if ( abk.isEmpty() ) {
+
+            return;
+        }
+
+        int anzahl = _trefferZaehler.zaehle( abk, bedeutung );
+        if ( anzahl == 1 ) {
+
+            _mainHandler.postDelayed( _trefferSchreiben, TREFFER_SCHREIBEN_NACH_MILLIS );
+
+        } else if ( anzahl == TREFFER_SOFORT_SCHREIBEN_AB ) {
+
+            _mainHandler.removeCallbacks( _trefferSchreiben );
+            trefferImHintergrundSchreiben();
+        }
+    }
+
+
+    /**
+     * Schreibt alle mit {@link #bedeutungGewaehlt(String, String)} gezählten Auswahlen in
+     * einer einzigen Transaktion in die Datenbank (Spalte {@code bedeutungen.treffer}) und
+     * aktualisiert danach die betroffenen Abkürzungen in {@link AbkCache} und {@link AbkIndex}.
+     * Schlägt das Schreiben fehl, dann bleiben die Zähler für den nächsten Aufruf im Puffer.
+     * Auswahlen von inzwischen gelöschten Bedeutungen werden verworfen.
+     *
+     * @return  Anzahl der geänderten Bedeutungen.
+     */
+    public int schreibeTreffer() throws SQLException {
+
+        Map<String,Map<String,Integer>> zaehler = _trefferZaehler.entnehmen();
+        if ( zaehler.isEmpty() ) {
+
+            return 0;
+        }
+
+        int  zeilen = 0;
+        long start  = _metriken.start();
+
+        _schreibSperre.lock();
+        try {
+
+            try {
+
+                SQLiteDatabase db = getWritableDatabase();
+                db.beginTransactionNonExclusive();
+                try {
+
+                    for ( Map.Entry<String,Map<String,Integer>> zuAbk: zaehler.entrySet() ) {
+
+                        for ( Map.Entry<String,Integer> eintrag: zuAbk.getValue().entrySet() ) {
+
+                            zeilen += _statementCache.updateDelete( db, SQL_TREFFER_ERHOEHEN,
+                                    eintrag.getValue(), zuAbk.getKey(), eintrag.getKey() );
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                }
+                finally {
+
+                    db.endTransaction();
+                }
+            }
+            catch ( SQLException ex ) {
+
+                _trefferZaehler.zurueckgeben( zaehler );
+                throw ex;
+            }
+
+            for ( String schluessel: zaehler.keySet() ) {
+
+                abkAktualisieren( schluessel );
+            }
+        }
+        catch ( SQLException ex ) {
+
+            _metriken.fehler( DbMetriken.Operation.TREFFER_SCHREIBEN );
+            throw ex;
+        }
+        finally {
+
+            _schreibSperre.unlock();
+        }
+
+        _metriken.ende( DbMetriken.Operation.TREFFER_SCHREIBEN, start, zeilen, null );
+        return zeilen;
+    }
+
+
+    /**
+     * Startet {@link #schreibeTreffer()} auf einem Hintergrund-Thread. Schlägt das Schreiben
+     * fehl oder ist die Warteschlange voll, dann wird es nach
+     * {@link #TREFFER_SCHREIBEN_NACH_MILLIS} noch einmal versucht.
+     */
+    protected void trefferImHintergrundSchreiben() {
+
+        try {
+
+            DatenbankAuftraege.WARTUNG_EXECUTOR.execute( () -> {
+
+                try {
+
+                    schreibeTreffer();
+                }
+                catch ( SQLException ex ) {
+
+                    Log.w( TAG4LOGGING, "Exception beim Schreiben der Treffer-Zähler: " + ex );
+                    _mainHandler.postDelayed( _trefferSchreiben, TREFFER_SCHREIBEN_NACH_MILLIS );
+                }
+            } );
+        }
+        catch ( RejectedExecutionException ex ) {
+
+            _mainHandler.postDelayed( _trefferSchreiben, TREFFER_SCHREIBEN_NACH_MILLIS );
+        }
+    }
+
+
+    /**
+     * Berechnet den Schlüssel einer einzufügenden Abkürzung.
+     *
+     * @param abkString  Abkürzung wie eingegeben.
+     *
+     * @return  Schlüssel aus {@link AbkNormalisierer#schluessel(String)}.
+     *
+     * @throws IllegalArgumentException  Abkürzung enthält keine Buchstaben und Ziffern.
+     */
+    protected static String schluesselZumEinfuegen( String abkString ) {
 
-        long idOfNewRow = _statementInsertBedeutung.executeInsert();
-        if ( idOfNewRow == -1 ) {
+        String schluessel = AbkNormalisierer.schluessel( abkString );
+        if ( schluessel.isEmpty() ) {
 
-            throw new SQLException( "Einfügen der neuen Bedeutung '" + bedeutung +
-                    "' ist fehlgeschlagen." );
+            throw new IllegalArgumentException( "Abkürzung '" + abkString +
+                    "' enthält keine Buchstaben oder Ziffern." );
         }
+        return schluessel;
     }
 
 };
@@ -0,0 +1,72 @@
+package de.mide.abkverz;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+
+/**
+ * Ein Schritt der Schema-Migration: überführt das Datenbank-Schema von der Version
+ * {@code getZielVersion() - 1} in die Version {@link #getZielVersion()}.
+ * Alle Schritte sind in {@link DatenbankMigrationen} in aufsteigender Reihenfolge
+ * registriert.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public abstract class DatenbankMigration {
+
+    /** Schema-Version, die nach Ausführung dieses Schritts erreicht ist. */
+    protected final int _zielVersion;
+
+    /** Kurze Beschreibung des Schritts für das Log. */
+    protected final String _beschreibung;
+
+
+    /**
+     * Konstruktor für einen Migrations-Schritt.
+     *
+     * @param zielVersion  Schema-Version nach Ausführung dieses Schritts.
+     *
+     * @param beschreibung  Kurze Beschreibung für das Log.
+     */
+    protected DatenbankMigration( int zielVersion, String beschreibung ) {
+
+        _zielVersion  = zielVersion;
+        _beschreibung = beschreibung;
+    }
+
+
+    /**
+     * Getter für Ziel-Version.
+     *
+     * @return  Schema-Version nach Ausführung dieses Schritts.
+     */
+    public int getZielVersion() {
+
+        return _zielVersion;
+    }
+
+
+    /**
+     * Getter für Beschreibung.
+     *
+     * @return  Kurze Beschreibung des Schritts.
+     */
+    public String getBeschreibung() {
+
+        return _beschreibung;
+    }
+
+
+    /**
+     * Führt den Migrations-Schritt aus. Die Methode wird von {@link DatenbankMigrationen}
+     * innerhalb einer Transaktion aufgerufen, muss sich also nicht selbst um eine
+     * Transaktion kümmern.
+     *
+     * @param db  Datenbank mit Schema-Version {@code getZielVersion() - 1}.
+     *
+     * @throws SQLException  Fehler bei der Migration, die Transaktion wird dann zurückgerollt.
+     */
+    public abstract void ausfuehren( SQLiteDatabase db ) throws SQLException;
+
+};
@@ -0,0 +1,436 @@
+package de.mide.abkverz;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Alle Schritte der Schema-Migration in aufsteigender Reihenfolge der Ziel-Version.
+ * <br><br>
+ *
+ * {@link DatenbankManager#onCreate(SQLiteDatabase)} legt immer das Schema der Version 1
+ * an und führt danach alle Schritte aus; {@link DatenbankManager#onUpgrade(SQLiteDatabase, int, int)}
+ * führt nur die Schritte nach der alten Version aus. Neue und aktualisierte Installationen
+ * haben damit garantiert das gleiche Schema.
+ * <br><br>
+ *
+ * Für eine neue Schema-Version wird am Ende von {@link #ALLE_MIGRATIONEN} ein neuer
+ * Schritt angehängt und {@link DatenbankManager#DB_VERSION} erhöht.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class DatenbankMigrationen implements IGlobalConstants {
+
+    /** Alle Migrations-Schritte, aufsteigend sortiert nach Ziel-Version. */
+    protected static final DatenbankMigration[] ALLE_MIGRATIONEN = {
+
+        new DatenbankMigration( 2, "Indexe korrigieren, doppelte Abkürzungen zusammenführen" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // Bedeutungen von doppelten Abkürzungen auf die Abkürzung mit kleinster ID umhängen
+                db.execSQL( "UPDATE bedeutungen SET abkuerzung = "                             +
+                            "   ( SELECT MIN(a2.abk_id) FROM abkuerzungen a1, abkuerzungen a2 "  +
+                            "      WHERE a1.abk_id = bedeutungen.abkuerzung "                    +
+                            "        AND a2.abkuerzung = a1.abkuerzung ) "                       +
+                            " WHERE abkuerzung NOT IN "                                          +
+                            "   ( SELECT MIN(abk_id) FROM abkuerzungen GROUP BY abkuerzung )" );
+
+                db.execSQL( "DELETE FROM abkuerzungen WHERE abk_id NOT IN "                     +
+                            "   ( SELECT MIN(abk_id) FROM abkuerzungen GROUP BY abkuerzung )" );
+
+                // Dadurch evtl. entstandene doppelte Bedeutungen entfernen
+                db.execSQL( "DELETE FROM bedeutungen WHERE bedeutung_id NOT IN "                +
+                            "   ( SELECT MIN(bedeutung_id) FROM bedeutungen "                    +
+                            "      GROUP BY abkuerzung, bedeutung )" );
+
+                // Index "bedeutungen_index_1" war versehentlich auf abkuerzungen(abkuerzung)
+                db.execSQL( "DROP INDEX IF EXISTS bedeutungen_index_1" );
+                db.execSQL( "DROP INDEX IF EXISTS abkuerzung_index_1"  );
+
+                db.execSQL( "CREATE UNIQUE INDEX abkuerzung_index_unique " +
+                            "    ON abkuerzungen(abkuerzung)" );
+
+                // Deckt Join-Bedingung und Sortierung nach Bedeutung ab (Index-only-Zugriff)
+                db.execSQL( "CREATE INDEX bedeutungen_index_abk_bedeutung " +
+                            "    ON bedeutungen(abkuerzung, bedeutung)" );
+            }
+        },
+
+        new DatenbankMigration( 3, "Volltext-Index für Rückwärts-Suche in Bedeutungen" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // FTS-Tabelle ohne eigene Kopie der Texte ("external content"),
+                // docid entspricht bedeutungen.bedeutung_id
+                db.execSQL( "CREATE VIRTUAL TABLE bedeutungen_fts USING fts4 ( " +
+                            "    content=\"bedeutungen\", bedeutung, tokenize=unicode61 )" );
+
+                // Trigger halten FTS-Index bei jeder Änderung an "bedeutungen" aktuell,
+                // Löschen muss vor der Änderung passieren (alter Text wird noch gebraucht)
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_nach_insert AFTER INSERT ON bedeutungen BEGIN " +
+                            "    INSERT INTO bedeutungen_fts (docid, bedeutung) "                        +
+                            "        VALUES ( new.bedeutung_id, new.bedeutung ); "                       +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_vor_update BEFORE UPDATE ON bedeutungen BEGIN " +
+                            "    DELETE FROM bedeutungen_fts WHERE docid = old.bedeutung_id; "            +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_nach_update AFTER UPDATE ON bedeutungen BEGIN " +
+                            "    INSERT INTO bedeutungen_fts (docid, bedeutung) "                        +
+                            "        VALUES ( new.bedeutung_id, new.bedeutung ); "                       +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_vor_delete BEFORE DELETE ON bedeutungen BEGIN " +
+                            "    DELETE FROM bedeutungen_fts WHERE docid = old.bedeutung_id; "            +
+                            "END" );
+
+                // Index für schon vorhandene Bedeutungen aufbauen
+                db.execSQL( "INSERT INTO bedeutungen_fts (bedeutungen_fts) VALUES ( 'rebuild' )" );
+            }
+        },
+
+        new DatenbankMigration( 4, "Änderungs-Zähler und gelöschte Bedeutungen für inkrementellen Export" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // Zähler, der bei jeder Änderung erhöht wird; "export_stand" setzt AbkExporter
+                db.execSQL( "CREATE TABLE metadaten ( "             +
+                            "    schluessel TEXT    PRIMARY KEY, "  +
+                            "    wert       INTEGER NOT NULL )" );
+                db.execSQL( "INSERT INTO metadaten (schluessel, wert) VALUES ( 'aenderung', 0 )" );
+
+                // Vorhandene Zeilen behalten Stand 0, sie sind in jedem vollständigen Export
+                db.execSQL( "ALTER TABLE abkuerzungen ADD COLUMN aenderung INTEGER NOT NULL DEFAULT 0" );
+                db.execSQL( "ALTER TABLE bedeutungen  ADD COLUMN aenderung INTEGER NOT NULL DEFAULT 0" );
+                db.execSQL( "CREATE INDEX bedeutungen_index_aenderung ON bedeutungen(aenderung)" );
+
+                db.execSQL( "CREATE TABLE geloeschte_bedeutungen ( "   +
+                            "    bedeutung_id INTEGER PRIMARY KEY, "   +
+                            "    abkuerzung   TEXT, "                  +
+                            "    bedeutung    TEXT    NOT NULL, "      +
+                            "    aenderung    INTEGER NOT NULL )" );
+                db.execSQL( "CREATE INDEX geloeschte_bedeutungen_index_aenderung " +
+                            "    ON geloeschte_bedeutungen(aenderung)" );
+
+                // Volltext-Index nur bei Änderung des Texts aktualisieren, nicht beim
+                // Setzen von "aenderung" durch die Trigger unten
+                db.execSQL( "DROP TRIGGER bedeutungen_fts_vor_update"  );
+                db.execSQL( "DROP TRIGGER bedeutungen_fts_nach_update" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_vor_update "                       +
+                            "    BEFORE UPDATE OF bedeutung ON bedeutungen BEGIN "               +
+                            "    DELETE FROM bedeutungen_fts WHERE docid = old.bedeutung_id; "   +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_fts_nach_update "                      +
+                            "    AFTER UPDATE OF bedeutung ON bedeutungen BEGIN "                +
+                            "    INSERT INTO bedeutungen_fts (docid, bedeutung) "                +
+                            "        VALUES ( new.bedeutung_id, new.bedeutung ); "               +
+                            "END" );
+
+                String zaehlerErhoehen =
+                        "UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung'; ";
+                String zaehlerStand =
+                        "( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )";
+
+                db.execSQL( "CREATE TRIGGER abkuerzungen_aenderung_nach_insert "                +
+                            "    AFTER INSERT ON abkuerzungen BEGIN "                             +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE abkuerzungen SET aenderung = " + zaehlerStand             +
+                            "        WHERE abk_id = new.abk_id; "                                 +
+                            "END" );
+                // Umbenannte Abkürzung: alle Bedeutungen müssen neu exportiert werden
+                db.execSQL( "CREATE TRIGGER abkuerzungen_aenderung_nach_update "                +
+                            "    AFTER UPDATE OF abkuerzung ON abkuerzungen BEGIN "               +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE abkuerzungen SET aenderung = " + zaehlerStand             +
+                            "        WHERE abk_id = new.abk_id; "                                 +
+                            "    UPDATE bedeutungen SET aenderung = " + zaehlerStand              +
+                            "        WHERE abkuerzung = new.abk_id; "                             +
+                            "END" );
+                // Wieder vergebene ID: alter Lösch-Eintrag gilt nicht mehr
+                db.execSQL( "CREATE TRIGGER bedeutungen_aenderung_nach_insert "                 +
+                            "    AFTER INSERT ON bedeutungen BEGIN "                              +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE bedeutungen SET aenderung = " + zaehlerStand              +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                     +
+                            "    DELETE FROM geloeschte_bedeutungen "                             +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                     +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_aenderung_nach_update "                 +
+                            "    AFTER UPDATE OF abkuerzung, bedeutung ON bedeutungen BEGIN "     +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE bedeutungen SET aenderung = " + zaehlerStand              +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                     +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_aenderung_nach_delete "                 +
+                            "    AFTER DELETE ON bedeutungen BEGIN "                              +
+                            zaehlerErhoehen                                                   +
+                            "    INSERT OR REPLACE INTO geloeschte_bedeutungen "                  +
+                            "        (bedeutung_id, abkuerzung, bedeutung, aenderung) "           +
+                            "        VALUES ( old.bedeutung_id, "                                 +
+                            "                 ( SELECT abkuerzung FROM abkuerzungen "             +
+                            "                    WHERE abk_id = old.abkuerzung ), "               +
+                            "                 old.bedeutung, " + zaehlerStand + " ); "            +
+                            "END" );
+            }
+        },
+
+        new DatenbankMigration( 5, "Normalisierte Schlüssel für Abkürzungen" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // NOT NULL, damit SQLite den Index unten als eindeutig für die Sortierung nutzt
+                db.execSQL( "ALTER TABLE abkuerzungen ADD COLUMN abk_schluessel TEXT NOT NULL DEFAULT ''" );
+
+                // Schlüssel in Java berechnen, SQLite kennt keine Unicode-Normalisierung;
+                // erst alle lesen, dann schreiben (Cursor liest evtl. in mehreren Fenstern)
+                List<Long>   ids           = new ArrayList<>();
+                List<String> abkuerzungen  = new ArrayList<>();
+                Cursor cursor = db.rawQuery( "SELECT abk_id, abkuerzung FROM abkuerzungen", null );
+                try {
+
+                    while ( cursor.moveToNext() ) {
+
+                        ids.add( cursor.getLong( 0 ) );
+                        abkuerzungen.add( cursor.getString( 1 ) );
+                    }
+                }
+                finally {
+
+                    cursor.close();
+                }
+
+                SQLiteStatement update =
+                        db.compileStatement( "UPDATE abkuerzungen SET abk_schluessel = ? WHERE abk_id = ?" );
+                try {
+
+                    for ( int i = 0; i < ids.size(); i++ ) {
+
+                        // Ohne Buchstaben und Ziffern ist die Schreibweise der Schlüssel,
+                        // damit solche Abkürzungen nicht alle zusammengeführt werden
+                        String schluessel = AbkNormalisierer.schluessel( abkuerzungen.get( i ) );
+                        update.bindString( 1, schluessel.isEmpty() ? abkuerzungen.get( i ) : schluessel );
+                        update.bindLong  ( 2, ids.get( i ) );
+                        update.executeUpdateDelete();
+                    }
+                }
+                finally {
+
+                    update.close();
+                }
+
+                // Abkürzungen mit gleichem Schlüssel (z.B. "K.S.C." und "KSC") zusammenführen:
+                // Bedeutungen auf die Abkürzung mit kleinster ID umhängen; die Trigger aus
+                // Version 4 vermerken das für den inkrementellen Export
+                db.execSQL( "CREATE TEMP TABLE abk_zusammenfuehren ( "          +
+                            "    alt INTEGER PRIMARY KEY, "                      +
+                            "    neu INTEGER NOT NULL )" );
+                db.execSQL( "INSERT INTO abk_zusammenfuehren (alt, neu) "        +
+                            "    SELECT abkuerzungen.abk_id, gruppen.neu "        +
+                            "      FROM abkuerzungen, "                            +
+                            "           ( SELECT abk_schluessel, MIN(abk_id) AS neu " +
+                            "               FROM abkuerzungen "                    +
+                            "              GROUP BY abk_schluessel "               +
+                            "             HAVING COUNT(*) > 1 ) AS gruppen "        +
+                            "     WHERE abkuerzungen.abk_schluessel = gruppen.abk_schluessel " +
+                            "       AND abkuerzungen.abk_id <> gruppen.neu" );
+
+                db.execSQL( "UPDATE bedeutungen SET abkuerzung = "                 +
+                            "    ( SELECT neu FROM abk_zusammenfuehren "            +
+                            "       WHERE alt = bedeutungen.abkuerzung ) "          +
+                            " WHERE abkuerzung IN ( SELECT alt FROM abk_zusammenfuehren )" );
+
+                // Dadurch entstandene doppelte Bedeutungen entfernen
+                db.execSQL( "DELETE FROM bedeutungen "                              +
+                            " WHERE abkuerzung IN ( SELECT neu FROM abk_zusammenfuehren ) " +
+                            "   AND EXISTS ( SELECT 1 FROM bedeutungen AS b2 "      +
+                            "                 WHERE b2.abkuerzung   = bedeutungen.abkuerzung " +
+                            "                   AND b2.bedeutung    = bedeutungen.bedeutung "  +
+                            "                   AND b2.bedeutung_id < bedeutungen.bedeutung_id )" );
+
+                db.execSQL( "DELETE FROM abkuerzungen WHERE abk_id IN ( SELECT alt FROM abk_zusammenfuehren )" );
+                db.execSQL( "DROP TABLE abk_zusammenfuehren" );
+
+                // Gesucht wird nur noch über den Schlüssel; aus gleicher Schreibweise folgt
+                // gleicher Schlüssel, der alte Index ist also überflüssig
+                db.execSQL( "DROP INDEX abkuerzung_index_unique" );
+                db.execSQL( "CREATE UNIQUE INDEX abkuerzung_index_schluessel " +
+                            "    ON abkuerzungen(abk_schluessel)" );
+            }
+        },
+
+        new DatenbankMigration( 6, "Zähler für ausgewählte Bedeutungen" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // Wird nur von DatenbankManager.schreibeTreffer() geändert; die Trigger aus
+                // Version 4 reagieren nur auf Änderungen von Abkürzung und Bedeutung
+                db.execSQL( "ALTER TABLE bedeutungen ADD COLUMN treffer INTEGER NOT NULL DEFAULT 0" );
+
+                // Liefert die Bedeutungen einer Abkürzung schon in der Reihenfolge der
+                // Anzeige (häufigste zuerst, dann nach Text), ohne zusätzliche Sortierung
+                db.execSQL( "CREATE INDEX bedeutungen_index_abk_treffer " +
+                            "    ON bedeutungen(abkuerzung, treffer DESC, bedeutung)" );
+            }
+        },
+
+        new DatenbankMigration( 7, "Protokoll der Datenbank-Wartung, inkrementelles Auto-Vacuum" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                db.execSQL( "CREATE TABLE wartung_protokoll ( "            +
+                            "    wartung_id         INTEGER PRIMARY KEY, " +
+                            "    beginn             INTEGER NOT NULL, "    +
+                            "    dauer_ms           INTEGER NOT NULL, "    +
+                            "    groesse_vorher     INTEGER NOT NULL, "    +
+                            "    groesse_nachher    INTEGER NOT NULL, "    +
+                            "    seiten_freigegeben INTEGER NOT NULL, "    +
+                            "    ergebnis           TEXT    NOT NULL )" );
+
+                // "PRAGMA auto_vacuum = INCREMENTAL" wirkt erst nach einem VACUUM, und das geht
+                // nicht innerhalb der Transaktion der Migration; DatenbankWartung stellt die
+                // Datei deshalb bei ihrem ersten Lauf um (neue Dateien stellt schon
+                // DatenbankManager.onConfigure() um, solange sie noch leer sind)
+            }
+        },
+
+        new DatenbankMigration( 8, "Kategorien für Bedeutungen" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                db.execSQL( "CREATE TABLE kategorien ( "           +
+                            "    kategorie_id INTEGER PRIMARY KEY, " +
+                            "    name         TEXT    NOT NULL UNIQUE )" );
+
+                db.execSQL( "INSERT INTO kategorien (kategorie_id, name) VALUES " +
+                            "    ( 0, 'Allgemein' ), ( 1, 'IT' ), ( 2, 'Sport' ), " +
+                            "    ( 3, 'Raumfahrt' ), ( 4, 'Team-Jargon' )" );
+
+                // Ohne REFERENCES, weil ALTER TABLE mit Fremdschlüssel keinen Default außer
+                // NULL erlaubt; alle vorhandenen Bedeutungen kommen nach "Allgemein"
+                db.execSQL( "ALTER TABLE bedeutungen ADD COLUMN kategorie INTEGER NOT NULL DEFAULT 0" );
+
+                // Beispiel-Daten aus DatenbankManager.onCreate() einordnen
+                db.execSQL( "UPDATE bedeutungen SET kategorie = 1 WHERE bedeutung IN " +
+                            "    ( 'Android Debug Bridge', 'Human-Computer Interaction', 'Hash Collision Index' )" );
+                db.execSQL( "UPDATE bedeutungen SET kategorie = 2 WHERE bedeutung = 'Karlsruher Sport-Club'" );
+                db.execSQL( "UPDATE bedeutungen SET kategorie = 3 WHERE bedeutung = 'Kennedy Space Center'" );
+
+                // Suche mit Kategorie-Filter: Abkürzung und Kategorie als Gleichheits-Bedingung,
+                // danach schon in der Reihenfolge der Anzeige und mit dem Text (Index-only-Zugriff)
+                db.execSQL( "CREATE INDEX bedeutungen_index_abk_kategorie " +
+                            "    ON bedeutungen(abkuerzung, kategorie, treffer DESC, bedeutung)" );
+            }
+        },
+
+        new DatenbankMigration( 9, "Geänderte Kategorien für inkrementellen Export und Abgleich" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // Wie in Version 4, zusätzlich für "kategorie"; "treffer" bleibt außen vor
+                db.execSQL( "DROP TRIGGER bedeutungen_aenderung_nach_update" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_aenderung_nach_update "                     +
+                            "    AFTER UPDATE OF abkuerzung, bedeutung, kategorie ON bedeutungen BEGIN " +
+                            "    UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung'; "  +
+                            "    UPDATE bedeutungen SET aenderung = "                                     +
+                            "        ( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' ) "      +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                             +
+                            "END" );
+            }
+        },
+
+        new DatenbankMigration( 10, "Änderungs-Stand beim Massen-Einfügen einmal pro Transaktion" ) {
+
+            @Override
+            public void ausfuehren( SQLiteDatabase db ) throws SQLException {
+
+                // Import und Zusammenführen binden den Stand selbst (DatenbankManager.naechsteAenderung),
+                // die Trigger springen nur noch für Zeilen ohne Stand ein
+                String zaehlerErhoehen =
+                        "UPDATE metadaten SET wert = wert + 1 WHERE schluessel = 'aenderung'; ";
+                String zaehlerStand =
+                        "( SELECT wert FROM metadaten WHERE schluessel = 'aenderung' )";
+
+                db.execSQL( "DROP TRIGGER abkuerzungen_aenderung_nach_insert" );
+                db.execSQL( "DROP TRIGGER bedeutungen_aenderung_nach_insert"  );
+
+                db.execSQL( "CREATE TRIGGER abkuerzungen_aenderung_nach_insert "                +
+                            "    AFTER INSERT ON abkuerzungen WHEN new.aenderung = 0 BEGIN "      +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE abkuerzungen SET aenderung = " + zaehlerStand             +
+                            "        WHERE abk_id = new.abk_id; "                                 +
+                            "END" );
+                db.execSQL( "CREATE TRIGGER bedeutungen_aenderung_nach_insert "                 +
+                            "    AFTER INSERT ON bedeutungen WHEN new.aenderung = 0 BEGIN "       +
+                            zaehlerErhoehen                                                   +
+                            "    UPDATE bedeutungen SET aenderung = " + zaehlerStand              +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                     +
+                            "END" );
+                // Wieder vergebene ID: alter Lösch-Eintrag gilt nicht mehr (nur eine Index-Suche)
+                db.execSQL( "CREATE TRIGGER bedeutungen_geloescht_nach_insert "                 +
+                            "    AFTER INSERT ON bedeutungen BEGIN "                              +
+                            "    DELETE FROM geloeschte_bedeutungen "                             +
+                            "        WHERE bedeutung_id = new.bedeutung_id; "                     +
+                            "END" );
+            }
+        }
+    };
+
+
+    /**
+     * Führt alle Migrations-Schritte mit {@code alteVersion < Ziel-Version <= neueVersion}
+     * in aufsteigender Reihenfolge aus, jeden Schritt in einer eigenen (ggf. geschachtelten)
+     * Transaktion. Schlägt ein Schritt fehl, dann wird die Exception weitergeworfen;
+     * {@link android.database.sqlite.SQLiteOpenHelper} rollt dann das komplette Upgrade
+     * zurück und die Datenbank behält ihre alte Version.
+     *
+     * @param db  Zu migrierende Datenbank.
+     *
+     * @param alteVersion  Aktuelle Schema-Version der Datenbank.
+     *
+     * @param neueVersion  Schema-Version, die hergestellt werden soll.
+     */
+    public static void migriere( SQLiteDatabase db, int alteVersion, int neueVersion )
+            throws SQLException {
+
+        for ( DatenbankMigration migration: ALLE_MIGRATIONEN ) {
+
+            int zielVersion = migration.getZielVersion();
+            if ( zielVersion <= alteVersion || zielVersion > neueVersion ) {
+
+                continue;
+            }
+
+            Log.i( TAG4LOGGING, "Migration auf Schema-Version " + zielVersion + ": " +
+                    migration.getBeschreibung() );
+
+            Trace.beginSection( "Migration auf Version " + zielVersion );
+            db.beginTransaction();
+            try {
+
+                migration.ausfuehren( db );
+                db.setTransactionSuccessful();
+            }
+            finally {
+
+                db.endTransaction();
+                Trace.endSection();
+            }
+        }
+    }
+
+};
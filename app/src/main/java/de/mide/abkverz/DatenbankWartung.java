@@ -0,0 +1,459 @@
+package de.mide.abkverz;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Wartung der Datenbank, wird von {@link DatenbankWartungJob} ausgeführt, wenn das Gerät
+ * nicht benutzt wird. Ein Lauf besteht aus diesen Schritten:
+ * <ol>
+ *   <li>eine vor Schema-Version 7 angelegte Datei wird beim ersten Lauf mit {@code VACUUM}
+ *       auf inkrementelles Auto-Vacuum umgestellt (neue Dateien sind es schon, siehe
+ *       {@link DatenbankManager#onConfigure(SQLiteDatabase)}), danach werden mit
+ *       {@code PRAGMA incremental_vacuum} die freien Seiten an das Dateisystem zurückgegeben;</li>
+ *   <li>{@code ANALYZE} aktualisiert die Statistiken, mit denen SQLite z.B. für den Join in
+ *       {@link DatenbankManager#sucheNachAbk(String)} den Index auswählt;</li>
+ *   <li>{@code PRAGMA quick_check} prüft die Integrität der Datei;</li>
+ *   <li>{@code PRAGMA wal_checkpoint(PASSIVE)} überträgt das Write-Ahead-Log in die DB-Datei.</li>
+ * </ol>
+ * Dauer, Größe der Dateien vorher und nachher und das Ergebnis werden in der Tabelle
+ * {@code wartung_protokoll} gespeichert; es werden nur die letzten {@link #MAX_PROTOKOLL_EINTRAEGE}
+ * Läufe aufgehoben.
+ * <br><br>
+ *
+ * Suchen werden durch die Wartung nicht blockiert (Write-Ahead-Logging, der Checkpoint
+ * wartet nicht auf Leser). Die Schreib-Sperre des {@link DatenbankManager} wird nur für
+ * einzelne kurze Schritte gehalten und zwischen den Schritten freigegeben, solange ein
+ * anderer Thread auf sie wartet; nur das einmalige {@code VACUUM} hält sie bis zum Ende.
+ * Mit {@link #abbrechen()} wird der Lauf nach dem aktuellen Schritt beendet, ein laufendes
+ * {@code VACUUM} und eine laufende Integritäts-Prüfung sofort.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class DatenbankWartung implements IGlobalConstants {
+
+    /** Wert von {@code PRAGMA auto_vacuum} für inkrementelles Auto-Vacuum. */
+    protected static final int AUTO_VACUUM_INKREMENTELL = 2;
+
+    /** Anzahl der Seiten, die pro Schritt mit {@code PRAGMA incremental_vacuum} freigegeben werden. */
+    protected static final int SEITEN_PRO_SCHRITT = 256;
+
+    /** Wartezeit, wenn ein anderer Thread auf die Schreib-Sperre wartet. */
+    protected static final long PAUSE_MILLIS = 50;
+
+    /** Anzahl der Läufe, die in {@code wartung_protokoll} aufgehoben werden. */
+    protected static final int MAX_PROTOKOLL_EINTRAEGE = 100;
+
+    /** Statement für einen Eintrag im Protokoll. */
+    protected static final String SQL_PROTOKOLL_INSERT =
+            "INSERT INTO wartung_protokoll " +
+            "    (beginn, dauer_ms, groesse_vorher, groesse_nachher, seiten_freigegeben, ergebnis) " +
+            "  VALUES (?, ?, ?, ?, ?, ?)";
+
+    /** Statement zum Löschen aller Einträge bis auf die letzten {@code ?}. */
+    protected static final String SQL_PROTOKOLL_KUERZEN =
+            "DELETE FROM wartung_protokoll " +
+            " WHERE wartung_id <= ( SELECT MAX(wartung_id) FROM wartung_protokoll ) - ?";
+
+
+    /** Zu wartende Datenbank. */
+    protected final DatenbankManager _dbManager;
+
+    /** Wird von {@link #abbrechen()} gesetzt. */
+    protected volatile boolean _abgebrochen = false;
+
+    /** Bricht eine laufende Integritäts-Prüfung ab. */
+    protected final CancellationSignal _abbruchSignal = new CancellationSignal();
+
+
+    /**
+     * Konstruktor für einen Wartungs-Lauf.
+     *
+     * @param dbManager  Zu wartende Datenbank.
+     */
+    public DatenbankWartung( DatenbankManager dbManager ) {
+
+        _dbManager = dbManager;
+    }
+
+
+    /**
+     * Führt die Wartung aus; darf nicht auf dem UI-Thread aufgerufen werden. Fehler werden
+     * nicht geworfen, sondern im Ergebnis (und im Protokoll, falls möglich) vermerkt.
+     *
+     * @return  Ergebnis des Laufs.
+     */
+    public WartungsErgebnis ausfuehren() {
+
+        long beginn      = System.currentTimeMillis();
+        long start       = _dbManager.getMetriken().start();
+        long freigegeben = 0;
+        long groesseVorher;
+        String ergebnis;
+
+        SQLiteDatabase db = _dbManager.getWritableDatabase();
+        String pfad       = db.getPath();
+        groesseVorher     = dateiGroesse( pfad );
+
+        try {
+
+            long seitenVorher = pragma( db, "page_count" );
+
+            if ( !_abgebrochen ) {
+
+                vacuum( db );
+            }
+            if ( !_abgebrochen ) {
+
+                ausfuehrenMitSperre( db, "ANALYZE" );
+            }
+
+            ergebnis = _abgebrochen ? WartungsErgebnis.ERGEBNIS_ABGEBROCHEN : integritaetPruefen( db );
+
+            if ( !_abgebrochen ) {
+
+                checkpoint( db );
+            }
+
+            freigegeben = seitenVorher - pragma( db, "page_count" );
+        }
+        catch ( OperationCanceledException ex ) {
+
+            ergebnis = WartungsErgebnis.ERGEBNIS_ABGEBROCHEN;
+        }
+        catch ( SQLException ex ) {
+
+            Log.e( TAG4LOGGING, "Exception bei Wartung der Datenbank: " + ex );
+            _dbManager.getMetriken().fehler( DbMetriken.Operation.WARTUNG );
+            ergebnis = "Fehler: " + ex.getMessage();
+        }
+
+        WartungsErgebnis wartungsErgebnis =
+                new WartungsErgebnis( beginn, System.currentTimeMillis() - beginn,
+                                      groesseVorher, dateiGroesse( pfad ), freigegeben, ergebnis );
+
+        _dbManager.getMetriken().ende( DbMetriken.Operation.WARTUNG, start, freigegeben, ergebnis );
+        protokollieren( db, wartungsErgebnis );
+
+        Log.i( TAG4LOGGING, "Wartung der Datenbank: " + wartungsErgebnis );
+
+        return wartungsErgebnis;
+    }
+
+
+    /**
+     * Bricht den Lauf ab, z.B. wenn das Gerät wieder benutzt wird; kann von jedem Thread
+     * aus aufgerufen werden. Der gerade laufende Schritt wird noch beendet, außer es ist
+     * das einmalige {@code VACUUM} oder die Integritäts-Prüfung.
+     */
+    public void abbrechen() {
+
+        _abgebrochen = true;
+        _abbruchSignal.cancel();
+    }
+
+
+    /**
+     * Gibt die freien Seiten der DB-Datei an das Dateisystem zurück. Ist die Datei noch nicht
+     * auf inkrementelles Auto-Vacuum umgestellt (nur vor Schema-Version 7 angelegte Dateien),
+     * dann passiert das hier einmalig mit {@code VACUUM} (das die Datei ohnehin komplett neu
+     * schreibt); sonst werden die Seiten in kleinen Schritten freigegeben, zwischen denen
+     * andere Schreiber zum Zug kommen.
+     * <br><br>
+     *
+     * {@code VACUUM} läuft unter der Schreib-Sperre, damit kein anderer Schreiber während
+     * des Umschreibens mit {@code SQLITE_BUSY} scheitert; andere Schreiber warten also bis
+     * zum Ende. Mit {@link #abbrechen()} (z.B. wenn das Gerät wieder benutzt wird) wird es
+     * sofort unterbrochen und zurückgerollt; der nächste Lauf versucht es dann erneut.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @throws OperationCanceledException  Abgebrochen mit {@link #abbrechen()}.
+     */
+    protected void vacuum( SQLiteDatabase db ) throws SQLException {
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        sperre.lock();
+        try {
+
+            if ( autoVacuum( db ) != AUTO_VACUUM_INKREMENTELL ) {
+
+                if ( _abgebrochen ) {
+
+                    return;
+                }
+
+                umstellenAufInkrementell( db );
+                return;
+            }
+        }
+        finally {
+
+            sperre.unlock();
+        }
+
+        long frei = pragma( db, "freelist_count" );
+        while ( frei > 0 && !_abgebrochen ) {
+
+            // Liefert pro freigegebener Seite eine (leere) Zeile; execSQL() würde nur
+            // den ersten Schritt ausführen und dann eine Exception werfen
+            ausfuehrenMitSperre( db, "PRAGMA incremental_vacuum(" + SEITEN_PRO_SCHRITT + ")" );
+
+            long freiNachher = pragma( db, "freelist_count" );
+            if ( freiNachher >= frei ) {
+
+                break;
+            }
+            frei = freiNachher;
+        }
+    }
+
+
+    /**
+     * Stellt die Datei mit {@code VACUUM} auf inkrementelles Auto-Vacuum um; wird von
+     * {@link #vacuum(SQLiteDatabase)} unter der Schreib-Sperre aufgerufen.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @throws OperationCanceledException  Abgebrochen mit {@link #abbrechen()}.
+     */
+    protected void umstellenAufInkrementell( SQLiteDatabase db ) throws SQLException {
+
+        Log.i( TAG4LOGGING, "Datenbank wird auf inkrementelles Auto-Vacuum umgestellt." );
+
+        // Die Einstellung gilt nur für die Verbindung, auf der danach VACUUM läuft;
+        // in der Transaktion läuft sie sicher auf der Haupt-Verbindung und nicht
+        // auf einer Lese-Verbindung, VACUUM selbst geht nur außerhalb
+        db.beginTransaction();
+        try {
+
+            db.execSQL( "PRAGMA auto_vacuum = INCREMENTAL" );
+            db.setTransactionSuccessful();
+        }
+        finally {
+
+            db.endTransaction();
+        }
+
+        // Als Query, damit das Abbruch-Signal VACUUM unterbrechen kann
+        Cursor cursor = db.rawQuery( "VACUUM", null, _abbruchSignal );
+        try {
+
+            cursor.getCount(); // führt das Statement vollständig aus
+        }
+        finally {
+
+            cursor.close();
+        }
+    }
+
+
+    /**
+     * Führt ein Statement unter der Schreib-Sperre aus und wartet danach kurz, falls ein
+     * anderer Thread auf die Sperre wartet (die Sperre ist nicht fair, ohne Pause würde
+     * der nächste Schritt der Wartung sie sofort wieder bekommen).
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @param sql  Statement, wird mit {@link SQLiteDatabase#rawQuery(String, String[])}
+     *             ausgeführt, weil es Zeilen liefern kann.
+     */
+    protected void ausfuehrenMitSperre( SQLiteDatabase db, String sql ) throws SQLException {
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        sperre.lock();
+        try {
+
+            Cursor cursor = db.rawQuery( sql, null );
+            try {
+
+                cursor.getCount(); // führt das Statement vollständig aus
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        finally {
+
+            sperre.unlock();
+        }
+
+        while ( sperre.hasQueuedThreads() && !_abgebrochen ) {
+
+            SystemClock.sleep( PAUSE_MILLIS );
+        }
+    }
+
+
+    /**
+     * Prüft die Integrität der DB-Datei; läuft ohne Schreib-Sperre auf einer Lese-Verbindung.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @return  {@link WartungsErgebnis#ERGEBNIS_OK} oder die Meldungen von SQLite, durch
+     *          Zeilenumbruch getrennt.
+     *
+     * @throws OperationCanceledException  Abgebrochen mit {@link #abbrechen()}.
+     */
+    protected String integritaetPruefen( SQLiteDatabase db ) throws SQLException {
+
+        StringBuilder meldungen = new StringBuilder();
+
+        Cursor cursor = db.rawQuery( "PRAGMA quick_check", null, _abbruchSignal );
+        try {
+
+            while ( cursor.moveToNext() ) {
+
+                if ( meldungen.length() > 0 ) {
+
+                    meldungen.append( '\n' );
+                }
+                meldungen.append( cursor.getString( 0 ) );
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+
+        String ergebnis = meldungen.toString();
+        if ( !WartungsErgebnis.ERGEBNIS_OK.equals( ergebnis ) ) {
+
+            Log.e( TAG4LOGGING, "Integritäts-Prüfung der Datenbank fehlgeschlagen: " + ergebnis );
+        }
+        return ergebnis;
+    }
+
+
+    /**
+     * Überträgt das Write-Ahead-Log in die DB-Datei, soweit das möglich ist, ohne auf
+     * Leser oder Schreiber zu warten.
+     *
+     * @param db  Zu wartende Datenbank.
+     */
+    protected static void checkpoint( SQLiteDatabase db ) throws SQLException {
+
+        Cursor cursor = db.rawQuery( "PRAGMA wal_checkpoint(PASSIVE)", null );
+        try {
+
+            if ( cursor.moveToFirst() && cursor.getLong( 2 ) < cursor.getLong( 1 ) ) {
+
+                Log.i( TAG4LOGGING, "Checkpoint unvollständig: " + cursor.getLong( 2 ) +
+                        " von " + cursor.getLong( 1 ) + " Seiten übertragen." );
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+    }
+
+
+    /**
+     * Speichert das Ergebnis in der Tabelle {@code wartung_protokoll} und löscht alte
+     * Einträge; ein Fehler wird nur geloggt.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @param ergebnis  Ergebnis des Laufs.
+     */
+    protected void protokollieren( SQLiteDatabase db, WartungsErgebnis ergebnis ) {
+
+        StatementCache statementCache = _dbManager.getStatementCache();
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        sperre.lock();
+        try {
+
+            statementCache.insert( db, SQL_PROTOKOLL_INSERT,
+                                   ergebnis.getBeginn(), ergebnis.getMillis(),
+                                   ergebnis.getGroesseVorher(), ergebnis.getGroesseNachher(),
+                                   ergebnis.getSeitenFreigegeben(), ergebnis.getErgebnis() );
+
+            statementCache.updateDelete( db, SQL_PROTOKOLL_KUERZEN, MAX_PROTOKOLL_EINTRAEGE );
+        }
+        catch ( SQLException ex ) {
+
+            Log.e( TAG4LOGGING, "Exception beim Schreiben des Wartungs-Protokolls: " + ex );
+        }
+        finally {
+
+            sperre.unlock();
+        }
+    }
+
+
+    /**
+     * Liest den Wert eines Pragmas, das genau eine Zahl liefert.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @param name  Name des Pragmas, z.B. {@code page_count}.
+     *
+     * @return  Wert des Pragmas.
+     */
+    protected static long pragma( SQLiteDatabase db, String name ) throws SQLException {
+
+        SQLiteStatement statement = db.compileStatement( "PRAGMA " + name );
+        try {
+
+            return statement.simpleQueryForLong();
+        }
+        finally {
+
+            statement.close();
+        }
+    }
+
+
+    /**
+     * Liest den Modus von {@code PRAGMA auto_vacuum}. SQLite liefert dafür den Wert, den die
+     * Verbindung beim letzten Lesen des Datei-Kopfs gesehen hat; eine Lese-Verbindung, die
+     * vor dem Anlegen der Tabellen geöffnet wurde, meldet also noch 0. Deshalb wird der Wert
+     * in einer Transaktion und damit auf der Haupt-Verbindung gelesen.
+     *
+     * @param db  Zu wartende Datenbank.
+     *
+     * @return  0 (aus), 1 (voll) oder {@link #AUTO_VACUUM_INKREMENTELL}.
+     */
+    protected static long autoVacuum( SQLiteDatabase db ) throws SQLException {
+
+        db.beginTransactionNonExclusive();
+        try {
+
+            long modus = pragma( db, "auto_vacuum" );
+            db.setTransactionSuccessful();
+            return modus;
+        }
+        finally {
+
+            db.endTransaction();
+        }
+    }
+
+
+    /**
+     * Größe der DB-Datei inkl. Write-Ahead-Log.
+     *
+     * @param pfad  Pfad der DB-Datei.
+     *
+     * @return  Summe der Größen in Bytes; 0 für eine In-Memory-Datenbank.
+     */
+    protected static long dateiGroesse( String pfad ) {
+
+        return new File( pfad ).length() + new File( pfad + "-wal" ).length();
+    }
+
+};
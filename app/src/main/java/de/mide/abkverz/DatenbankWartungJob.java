@@ -0,0 +1,122 @@
+package de.mide.abkverz;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Job für {@link DatenbankWartung}: läuft höchstens einmal am Tag, und nur wenn das Gerät
+ * lädt und nicht benutzt wird. Wird das Gerät währenddessen wieder benutzt, dann beendet
+ * das System den Job mit {@link #onStopJob(JobParameters)} und die Wartung wird abgebrochen;
+ * der nächste Lauf holt die fehlenden Schritte nach.
+ * <br><br>
+ *
+ * Die Wartung läuft auf einem eigenen Thread mit Hintergrund-Priorität, nicht in
+ * {@link DatenbankAuftraege}, damit sie keinen Thread für Suchen belegt.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class DatenbankWartungJob extends JobService implements IGlobalConstants {
+
+    /** ID des Jobs beim {@link JobScheduler}, muss in der App eindeutig sein. */
+    protected static final int JOB_ID = 1;
+
+    /** Abstand zwischen zwei Läufen. */
+    protected static final long INTERVALL_MILLIS = TimeUnit.DAYS.toMillis( 1 );
+
+
+    /** Gerade laufende Wartung, oder {@code null}. */
+    protected volatile DatenbankWartung _wartung = null;
+
+
+    /**
+     * Meldet den Job beim {@link JobScheduler} an, falls das noch nicht geschehen ist; kann
+     * bei jedem Start der App aufgerufen werden.
+     *
+     * @param context  Beliebiger Context.
+     */
+    public static void planen( Context context ) {
+
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService( Context.JOB_SCHEDULER_SERVICE );
+        if ( jobScheduler == null || jobScheduler.getPendingJob( JOB_ID ) != null ) {
+
+            return;
+        }
+
+        JobInfo jobInfo =
+                new JobInfo.Builder( JOB_ID, new ComponentName( context, DatenbankWartungJob.class ) )
+                        .setRequiresDeviceIdle( true )
+                        .setRequiresCharging( true )
+                        .setPeriodic( INTERVALL_MILLIS )
+                        .build();
+
+        if ( jobScheduler.schedule( jobInfo ) != JobScheduler.RESULT_SUCCESS ) {
+
+            Log.w( TAG4LOGGING, "Wartung der Datenbank konnte nicht geplant werden." );
+        }
+    }
+
+
+    /**
+     * Wird vom System auf dem UI-Thread aufgerufen, wenn die Bedingungen für den Job erfüllt
+     * sind; startet die Wartung auf einem Hintergrund-Thread.
+     *
+     * @param parameter  Parameter des Jobs, für {@link #jobFinished(JobParameters, boolean)}.
+     *
+     * @return  Immer {@code true}, weil die Wartung im Hintergrund weiterläuft.
+     */
+    @Override
+    public boolean onStartJob( JobParameters parameter ) {
+
+        DatenbankWartung wartung = new DatenbankWartung( DatenbankManager.getInstanz( this ) );
+        _wartung = wartung;
+
+        Runnable lauf = () -> {
+
+            Process.setThreadPriority( Process.THREAD_PRIORITY_BACKGROUND );
+            try {
+
+                wartung.ausfuehren();
+            }
+            finally {
+
+                _wartung = null;
+                jobFinished( parameter, false );
+            }
+        };
+        new Thread( lauf, "abkverz-wartung" ).start();
+
+        return true;
+    }
+
+
+    /**
+     * Wird vom System aufgerufen, wenn die Bedingungen nicht mehr erfüllt sind (z.B. das
+     * Gerät wieder benutzt wird); bricht die Wartung ab.
+     *
+     * @param parameter  Parameter des Jobs.
+     *
+     * @return  Immer {@code false}, der Job wird ohnehin periodisch wiederholt.
+     */
+    @Override
+    public boolean onStopJob( JobParameters parameter ) {
+
+        DatenbankWartung wartung = _wartung;
+        if ( wartung != null ) {
+
+            wartung.abbrechen();
+        }
+
+        return false;
+    }
+
+};
@@ -0,0 +1,450 @@
+package de.mide.abkverz;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Messwerte für alle Operationen von {@link DatenbankManager}: Anzahl, Dauer (als
+ * Histogramm mit Zweierpotenzen als Klassengrenzen), Anzahl gelesener oder geschriebener
+ * Zeilen und Anzahl der {@link SQLException}s. Langsame Operationen werden mit Parameter
+ * in einem Ringpuffer gespeichert; für sie wird im Bericht der Query-Plan angezeigt.
+ * <br><br>
+ *
+ * Das Messen erzeugt keine Objekte und kostet nur zwei Aufrufe von {@link System#nanoTime()}
+ * und ein paar Additionen auf {@link AtomicLongArray}s; mit {@link #setAktiv(boolean)} kann
+ * es ganz abgeschaltet werden. Nur für langsame Operationen wird ein Eintrag im Ringpuffer
+ * angelegt; den Query-Plan ermittelt erst {@link #bericht(PrintWriter, SQLiteDatabase)}.
+ * <br><br>
+ *
+ * Verwendung:
+ * <pre>
+ *     long start = metriken.start();
+ *     ... Datenbank-Zugriff ...
+ *     metriken.ende( DbMetriken.Operation.SUCHE_ABK_DB, start, anzahlZeilen, abk );
+ * </pre>
+ * Bei einer {@link SQLException} wird stattdessen {@link #fehler(Operation)} aufgerufen.
+ * <br><br>
+ *
+ * Alle Methoden sind thread-safe.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class DbMetriken {
+
+    /** Gemessene Operationen, mit SQL-Text für den Query-Plan (sofern es genau einen gibt). */
+    public enum Operation {
+
+        /** {@link DatenbankManager#sucheNachAbk(String)} inkl. Cache und Index. */
+        SUCHE_ABK( null ),
+
+        /** {@link DatenbankManager#sucheNachAbkInDb(String)}. */
+        SUCHE_ABK_DB( DatenbankManager.SQL_BEDEUTUNGEN_ZU_ABK ),
+
+        /** {@link DatenbankManager#sucheNachAbk(String, java.util.Set)} mit Kategorie-Filter. */
+        SUCHE_ABK_KATEGORIEN( null ),
+
+        /** {@link DatenbankManager#sucheNachAbkInSnapshot(AbkSnapshot, String)} inkl. Nachträgen aus der DB. */
+        SUCHE_SNAPSHOT( DatenbankManager.SQL_NACHTRAEGE_ZU_ABK ),
+
+        /** {@link DatenbankManager#sucheNachAbks(java.util.Collection)}, Zeilen = Anzahl Abkürzungen. */
+        SUCHE_ABKS( null ),
+
+        /** {@link DatenbankManager#sucheTreffer(String, int, boolean)}. */
+        SUCHE_TREFFER( null ),
+
+        /** {@link DatenbankManager#sucheNachBedeutung(String, int)}. */
+        SUCHE_BEDEUTUNG( DatenbankManager.SQL_SUCHE_BEDEUTUNGEN_VOLLTEXT ),
+
+        /** {@link DatenbankManager#sucheBedeutungenSeite(String, BedeutungenSeite, int)}. */
+        SEITE( DatenbankManager.SQL_BEDEUTUNGEN_SEITE ),
+
+        /** {@link DatenbankManager#ladeAbkIndex()}. */
+        INDEX_LADEN( DatenbankManager.SQL_INDEX_LADEN ),
+
+        /** {@link DatenbankManager#insertGanzNeueAbk(String, String)}. */
+        INSERT_ABK( DatenbankManager.SQL_INSERT_NEU_ABK ),
+
+        /** {@link DatenbankManager#insertBedeutung(String, String)}. */
+        INSERT_BEDEUTUNG( DatenbankManager.SQL_INSERT_BEDEUTUNG ),
+
+        /** {@link DatenbankManager#fuegeBedeutungHinzu(String, String, boolean)}. */
+        UPSERT( null ),
+
+        /** {@link DatenbankManager#schreibeTreffer()}, Zeilen = Anzahl geänderter Bedeutungen. */
+        TREFFER_SCHREIBEN( DatenbankManager.SQL_TREFFER_ERHOEHEN ),
+
+        /** {@link AbkImporter#importiere(java.io.InputStream, IImportFortschritt)}. */
+        IMPORT( null ),
+
+        /** {@link AbkExporter#exportiere(java.io.OutputStream, long)}. */
+        EXPORT( AbkExporter.SQL_GEAENDERTE_BEDEUTUNGEN ),
+
+        /** {@link DatenbankManager#zusammenfuehren(java.io.File)}, Zeilen = eingefügte Bedeutungen. */
+        ZUSAMMENFUEHREN( null ),
+
+        /** {@link DatenbankWartung#ausfuehren()}, Zeilen = freigegebene Seiten. */
+        WARTUNG( null ),
+
+        /** {@link SyncAbgleich#ausfuehren()}, Zeilen = angewendete Änderungen des Servers. */
+        SYNC( null );
+
+        /** SQL-Text für {@code EXPLAIN QUERY PLAN}, oder {@code null}. */
+        final String _sql;
+
+        Operation( String sql ) {
+
+            _sql = sql;
+        }
+    }
+
+
+    /** Anzahl der Klassen im Histogramm; Klasse {@code k} enthält Dauern unter 2^k ns. */
+    protected static final int ANZAHL_KLASSEN = 40;
+
+    /** Index der Werte pro Operation in {@link #_zaehler}. */
+    protected static final int ANZAHL = 0, SUMME_NANOS = 1, MAX_NANOS = 2, ZEILEN = 3, FEHLER = 4;
+
+    /** Anzahl der Werte pro Operation in {@link #_zaehler}. */
+    protected static final int ANZAHL_ZAEHLER = 5;
+
+    /** Default-Schwelle, ab der eine Operation als langsam gilt. */
+    public static final long DEFAULT_SCHWELLE_LANGSAM_NANOS = 20_000_000L; // 20 ms
+
+    /** Anzahl der gespeicherten langsamen Operationen, muss eine Zweierpotenz sein. */
+    protected static final int ANZAHL_LANGSAME = 16;
+
+    /** Alle Operationen; {@code values()} würde bei jedem Aufruf ein neues Array erzeugen. */
+    protected static final Operation[] OPERATIONEN = Operation.values();
+
+    /** Anzahl der Operationen. */
+    protected static final int ANZAHL_OPERATIONEN = OPERATIONEN.length;
+
+
+    /** Zähler pro Operation, {@link #ANZAHL_ZAEHLER} Werte hintereinander. */
+    protected final AtomicLongArray _zaehler = new AtomicLongArray( ANZAHL_OPERATIONEN * ANZAHL_ZAEHLER );
+
+    /** Histogramm pro Operation, {@link #ANZAHL_KLASSEN} Klassen hintereinander. */
+    protected final AtomicLongArray _histogramm = new AtomicLongArray( ANZAHL_OPERATIONEN * ANZAHL_KLASSEN );
+
+    /** Ringpuffer mit den letzten langsamen Operationen. */
+    protected final AtomicReferenceArray<LangsameOperation> _langsame =
+            new AtomicReferenceArray<>( ANZAHL_LANGSAME );
+
+    /** Anzahl aller bisher gespeicherten langsamen Operationen (Schreibposition im Ringpuffer). */
+    protected final AtomicInteger _anzahlLangsame = new AtomicInteger();
+
+    /** {@code false}, wenn nicht gemessen werden soll. */
+    protected volatile boolean _aktiv = true;
+
+    /** Schwelle, ab der eine Operation als langsam gilt. */
+    protected volatile long _schwelleLangsamNanos = DEFAULT_SCHWELLE_LANGSAM_NANOS;
+
+
+    /**
+     * Startet eine Messung.
+     *
+     * @return  Startzeitpunkt für {@link #ende(Operation, long, long, String)}; 0, wenn
+     *          die Messung abgeschaltet ist.
+     */
+    public long start() {
+
+        return _aktiv ? System.nanoTime() : 0;
+    }
+
+
+    /**
+     * Beendet eine Messung.
+     *
+     * @param operation  Gemessene Operation.
+     *
+     * @param start  Rückgabewert von {@link #start()}.
+     *
+     * @param zeilen  Anzahl der gelesenen oder geschriebenen Zeilen.
+     *
+     * @param parameter  Parameter der Operation (z.B. die Abkürzung), wird nur für langsame
+     *                   Operationen gespeichert; darf {@code null} sein.
+     *
+     * @return  Dauer in Nanosekunden, 0 wenn die Messung abgeschaltet ist.
+     */
+    public long ende( Operation operation, long start, long zeilen, String parameter ) {
+
+        if ( start == 0 ) {
+
+            return 0;
+        }
+
+        long dauer = System.nanoTime() - start;
+        int  basis = operation.ordinal() * ANZAHL_ZAEHLER;
+
+        _zaehler.incrementAndGet( basis + ANZAHL );
+        _zaehler.addAndGet( basis + SUMME_NANOS, dauer );
+        _zaehler.addAndGet( basis + ZEILEN, zeilen );
+
+        long max = _zaehler.get( basis + MAX_NANOS );
+        while ( dauer > max && !_zaehler.compareAndSet( basis + MAX_NANOS, max, dauer ) ) {
+
+            max = _zaehler.get( basis + MAX_NANOS );
+        }
+
+        _histogramm.incrementAndGet( operation.ordinal() * ANZAHL_KLASSEN + klasse( dauer ) );
+
+        if ( dauer >= _schwelleLangsamNanos ) {
+
+            int position = _anzahlLangsame.getAndIncrement() & ( ANZAHL_LANGSAME - 1 );
+            _langsame.set( position, new LangsameOperation( operation, System.currentTimeMillis(),
+                                                            dauer, zeilen, parameter ) );
+        }
+
+        return dauer;
+    }
+
+
+    /**
+     * Zählt eine {@link SQLException} bei einer Operation.
+     *
+     * @param operation  Fehlgeschlagene Operation.
+     */
+    public void fehler( Operation operation ) {
+
+        _zaehler.incrementAndGet( operation.ordinal() * ANZAHL_ZAEHLER + FEHLER );
+    }
+
+
+    /**
+     * Klasse im Histogramm für eine Dauer.
+     *
+     * @param nanos  Dauer in Nanosekunden.
+     *
+     * @return  Kleinstes {@code k} mit {@code nanos < 2^k}, höchstens {@code ANZAHL_KLASSEN - 1}.
+     */
+    protected static int klasse( long nanos ) {
+
+        return Math.min( 64 - Long.numberOfLeadingZeros( Math.max( 0, nanos ) ), ANZAHL_KLASSEN - 1 );
+    }
+
+
+    /**
+     * Schaltet das Messen ein oder aus; die bisherigen Werte bleiben erhalten.
+     *
+     * @param aktiv  {@code false}, um nicht mehr zu messen.
+     */
+    public void setAktiv( boolean aktiv ) {
+
+        _aktiv = aktiv;
+    }
+
+
+    /**
+     * Setzt die Schwelle, ab der eine Operation als langsam gespeichert wird.
+     *
+     * @param schwelleNanos  Schwelle in Nanosekunden.
+     */
+    public void setSchwelleLangsamNanos( long schwelleNanos ) {
+
+        _schwelleLangsamNanos = schwelleNanos;
+    }
+
+
+    /**
+     * Getter für Anzahl der gemessenen Aufrufe einer Operation.
+     *
+     * @param operation  Operation.
+     *
+     * @return  Anzahl der erfolgreichen, gemessenen Aufrufe.
+     */
+    public long getAnzahl( Operation operation ) {
+
+        return _zaehler.get( operation.ordinal() * ANZAHL_ZAEHLER + ANZAHL );
+    }
+
+
+    /**
+     * Getter für Anzahl der Fehler einer Operation.
+     *
+     * @param operation  Operation.
+     *
+     * @return  Anzahl der Aufrufe mit {@link SQLException}.
+     */
+    public long getAnzahlFehler( Operation operation ) {
+
+        return _zaehler.get( operation.ordinal() * ANZAHL_ZAEHLER + FEHLER );
+    }
+
+
+    /**
+     * Getter für Anzahl der Zeilen einer Operation.
+     *
+     * @param operation  Operation.
+     *
+     * @return  Summe der gelesenen oder geschriebenen Zeilen aller Aufrufe.
+     */
+    public long getAnzahlZeilen( Operation operation ) {
+
+        return _zaehler.get( operation.ordinal() * ANZAHL_ZAEHLER + ZEILEN );
+    }
+
+
+    /**
+     * Schätzt ein Perzentil der Dauer aus dem Histogramm.
+     *
+     * @param operation  Operation.
+     *
+     * @param anteil  Anteil, z.B. 0.9 für das 90. Perzentil.
+     *
+     * @return  Obergrenze der Histogramm-Klasse, in die das Perzentil fällt, in Nanosekunden;
+     *          0, wenn es noch keine Messung gibt.
+     */
+    public long getPerzentilNanos( Operation operation, double anteil ) {
+
+        int  basis  = operation.ordinal() * ANZAHL_KLASSEN;
+        long gesamt = 0;
+        for ( int k = 0; k < ANZAHL_KLASSEN; k++ ) {
+
+            gesamt += _histogramm.get( basis + k );
+        }
+        if ( gesamt == 0 ) {
+
+            return 0;
+        }
+
+        long ziel  = (long) Math.ceil( anteil * gesamt );
+        long summe  = 0;
+        for ( int k = 0; k < ANZAHL_KLASSEN; k++ ) {
+
+            summe += _histogramm.get( basis + k );
+            if ( summe >= ziel ) {
+
+                return 1L << k;
+            }
+        }
+        return 1L << ( ANZAHL_KLASSEN - 1 );
+    }
+
+
+    /**
+     * Schreibt einen Text-Bericht mit allen Messwerten, z.B. für {@code dumpsys activity}.
+     *
+     * @param writer  Ziel für den Bericht.
+     *
+     * @param db  Datenbank für {@code EXPLAIN QUERY PLAN} der langsamen Operationen;
+     *            bei {@code null} werden keine Query-Pläne ausgegeben.
+     */
+    public void bericht( PrintWriter writer, SQLiteDatabase db ) {
+
+        writer.println( "DatenbankManager-Metriken (aktiv=" + _aktiv + ", langsam ab " +
+                        ( _schwelleLangsamNanos / 1_000_000 ) + " ms)" );
+        writer.println( String.format( Locale.ROOT, "  %-17s %8s %6s %10s %10s %10s %10s %10s %10s",
+                        "Operation", "Anzahl", "Fehler", "Zeilen",
+                        "Mittel[us]", "p50[us]", "p90[us]", "p99[us]", "Max[us]" ) );
+
+        for ( Operation operation: OPERATIONEN ) {
+
+            int  basis  = operation.ordinal() * ANZAHL_ZAEHLER;
+            long anzahl = _zaehler.get( basis + ANZAHL );
+            long fehler = _zaehler.get( basis + FEHLER );
+            if ( anzahl == 0 && fehler == 0 ) {
+
+                continue;
+            }
+
+            writer.println( String.format( Locale.ROOT, "  %-17s %8d %6d %10d %10.1f %10.1f %10.1f %10.1f %10.1f",
+                    operation, anzahl, fehler, _zaehler.get( basis + ZEILEN ),
+                    anzahl == 0 ? 0.0 : _zaehler.get( basis + SUMME_NANOS ) / 1000.0 / anzahl,
+                    getPerzentilNanos( operation, 0.50 ) / 1000.0,
+                    getPerzentilNanos( operation, 0.90 ) / 1000.0,
+                    getPerzentilNanos( operation, 0.99 ) / 1000.0,
+                    _zaehler.get( basis + MAX_NANOS ) / 1000.0 ) );
+        }
+
+        writer.println( "  Langsame Operationen (neueste zuerst):" );
+        SimpleDateFormat zeitFormat = new SimpleDateFormat( "HH:mm:ss.SSS", Locale.ROOT );
+
+        int letzte = _anzahlLangsame.get();
+        for ( int i = 1; i <= Math.min( letzte, ANZAHL_LANGSAME ); i++ ) {
+
+            LangsameOperation langsam = _langsame.get( ( letzte - i ) & ( ANZAHL_LANGSAME - 1 ) );
+            if ( langsam == null ) {
+
+                continue;
+            }
+
+            writer.println( String.format( Locale.ROOT, "    %s %s %.1f ms, %d Zeilen, Parameter '%s'",
+                    zeitFormat.format( new Date( langsam._zeitpunkt ) ), langsam._operation,
+                    langsam._nanos / 1_000_000.0, langsam._zeilen, langsam._parameter ) );
+
+            if ( db != null && langsam._operation._sql != null ) {
+
+                schreibeQueryPlan( writer, db, langsam._operation._sql );
+            }
+        }
+    }
+
+
+    /**
+     * Schreibt den Query-Plan für einen SQL-Text. Die Platzhalter bleiben ungebunden,
+     * der Plan hängt bei SQLite nicht von ihren Werten ab.
+     *
+     * @param writer  Ziel für den Plan.
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  SQL-Text mit Platzhaltern.
+     */
+    protected static void schreibeQueryPlan( PrintWriter writer, SQLiteDatabase db, String sql ) {
+
+        try {
+
+            Cursor cursor = db.rawQuery( "EXPLAIN QUERY PLAN " + sql, null );
+            try {
+
+                int spalteDetail = cursor.getColumnIndexOrThrow( "detail" );
+                while ( cursor.moveToNext() ) {
+
+                    writer.println( "      Plan: " + cursor.getString( spalteDetail ) );
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+        }
+        catch ( SQLException ex ) {
+
+            writer.println( "      Plan nicht verfügbar: " + ex.getMessage() );
+        }
+    }
+
+
+    /**
+     * Eine gespeicherte langsame Operation.
+     */
+    protected static class LangsameOperation {
+
+        final Operation _operation;
+        final long      _zeitpunkt;
+        final long      _nanos;
+        final long      _zeilen;
+        final String    _parameter;
+
+        LangsameOperation( Operation operation, long zeitpunkt, long nanos, long zeilen, String parameter ) {
+
+            _operation = operation;
+            _zeitpunkt = zeitpunkt;
+            _nanos     = nanos;
+            _zeilen    = zeilen;
+            _parameter = parameter;
+        }
+    }
+
+};
@@ -0,0 +1,26 @@
+package de.mide.abkverz;
+
+import android.os.CancellationSignal;
+
+
+/**
+ * Abbrechbarer Datenbank-Zugriff für {@link DatenbankAuftraege}: Die Aufgabe bekommt das
+ * {@link CancellationSignal} ihres Auftrags und reicht es an {@code rawQuery()} weiter,
+ * damit ein abgebrochener Auftrag auch eine gerade laufende Query beendet.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public interface IDatenbankAufgabe<T> {
+
+    /**
+     * Führt den Datenbank-Zugriff auf einem Hintergrund-Thread aus.
+     *
+     * @param abbruch  Wird beim Abbrechen des Auftrags ausgelöst; eine laufende Query
+     *                 endet dann mit {@link android.os.OperationCanceledException}.
+     *
+     * @return  Ergebnis für {@link IDatenbankRueckruf#onErgebnis(Object)}.
+     */
+    public T ausfuehren( CancellationSignal abbruch ) throws Exception;
+
+};
@@ -0,0 +1,28 @@
+package de.mide.abkverz;
+
+
+/**
+ * Rückruf für einen Datenbank-Auftrag, der mit {@link DatenbankAuftraege} im
+ * Hintergrund ausgeführt wurde. Beide Methoden werden immer auf dem UI-Thread
+ * (Main-Looper) aufgerufen, aber nicht mehr, wenn der Auftrag abgebrochen wurde.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public interface IDatenbankRueckruf<T> {
+
+    /**
+     * Auftrag wurde erfolgreich ausgeführt.
+     *
+     * @param ergebnis  Rückgabewert des Auftrags.
+     */
+    public void onErgebnis( T ergebnis );
+
+    /**
+     * Bei der Ausführung des Auftrags ist eine Exception aufgetreten.
+     *
+     * @param ex  Aufgetretene Exception, z.B. {@link android.database.SQLException}.
+     */
+    public void onFehler( Exception ex );
+
+};
@@ -0,0 +1,25 @@
+package de.mide.abkverz;
+
+
+/**
+ * Rückruf für den Fortschritt eines Imports mit {@link AbkImporter}; wird nach jedem
+ * abgeschlossenen Batch (Transaktion) auf dem Thread des Imports aufgerufen.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public interface IImportFortschritt {
+
+    /**
+     * Meldet den bisherigen Fortschritt des Imports.
+     *
+     * @param zeilenGelesen  Anzahl der bisher gelesenen Zeilen (inkl. Leer- und Kommentarzeilen).
+     *
+     * @param bedeutungenEingefuegt  Anzahl der bisher dauerhaft gespeicherten Bedeutungen.
+     *
+     * @param bytesGelesen  Anzahl der bisher gelesenen Bytes, z.B. für eine Fortschrittsanzeige
+     *                      in Prozent.
+     */
+    public void onFortschritt( long zeilenGelesen, long bedeutungenEingefuegt, long bytesGelesen );
+
+};
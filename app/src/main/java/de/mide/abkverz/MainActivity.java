@@ -1,18 +1,41 @@
 package de.mide.abkverz;
 
 import android.app.Activity;
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.view.ViewTreeObserver;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.TextView;
+import android.widget.ListView;
+import android.widget.RadioGroup;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+
 
 /**
  * Beispiel-App zur Nutzung der in Android eingebauten SQLite-Datenbank.
@@ -20,10 +43,79 @@ import androidx.appcompat.app.AppCompatActivity;
  * wobei eine Abkürzung auch mehrere Bedeutungen haben kann.
  * <br><br>
  *
+ * Schon während der Eingabe einer Abkürzung werden die passenden Abkürzungen
+ * (Präfix-Treffer und Treffer mit einem Tippfehler) angezeigt; die Suche wird erst
+ * gestartet, wenn der Nutzer kurz nicht mehr tippt.
+ * <br><br>
+ *
+ * Über die Radio-Buttons kann auf die Rückwärts-Suche umgeschaltet werden: Dann wird die
+ * Eingabe als Wörter in den Bedeutungen gesucht und die passenden Abkürzungen angezeigt.
+ * Im Modus "Text" werden alle Abkürzungen in einem eingefügten Text mit einer einzigen
+ * Datenbank-Abfrage aufgelöst, siehe {@link DatenbankManager#sucheNachAbks(java.util.Collection)}.
+ * <br><br>
+ *
+ * Die Bedeutungen einer Abkürzung werden seitenweise geladen: Erst wenn der Nutzer an
+ * das Ende der Liste scrollt, wird die nächste Seite geholt. Tippt der Nutzer auf eine
+ * Bedeutung, dann wird das gezählt; häufig gewählte Bedeutungen stehen weiter vorne.
+ * <br><br>
+ *
+ * Mit dem Button "Kategorien" kann die Suche nach einer Abkürzung (Button "Abk. suchen")
+ * auf einige Kategorien beschränkt werden; die Auswahl wird in den {@link SharedPreferences}
+ * gespeichert. Auch mit Filter wird seitenweise geladen, siehe
+ * {@link DatenbankManager#sucheBedeutungenSeite(String, Set, BedeutungenSeite, int)}. Die inkrementelle Suche, die
+ * Rückwärts-Suche und der Modus "Text" zeigen immer alle Kategorien.
+ * <br><br>
+ *
+ * Mit dem Button "Sync" wird die URL des Sync-Servers eingestellt, mit dem der
+ * {@link SyncJob} die Datenbank regelmäßig abgleicht.
+ * <br><br>
+ *
+ * Alle Datenbank-Zugriffe laufen über {@link DatenbankAuftraege} auf einem
+ * Hintergrund-Thread; eine neue Suche verwirft das Ergebnis einer noch laufenden Suche.
+ * <br><br>
+ *
+ * In {@link #onCreate(Bundle)} wird die Datenbank nicht geöffnet; das passiert erst nach
+ * dem ersten Frame im Hintergrund ({@link DatenbankManager#vorwaermen()}). Die Zeiten bis
+ * zum ersten Frame und bis zum ersten Suchergebnis misst {@link StartupMessung}.
+ * <br><br>
+ *
  * This project is licensed under the terms of the BSD 3-Clause License.
  */
 public class MainActivity extends AppCompatActivity
-        implements IGlobalConstants, OnClickListener {
+        implements IGlobalConstants, OnClickListener, TextWatcher,
+                   RadioGroup.OnCheckedChangeListener, AbsListView.OnScrollListener,
+                   AdapterView.OnItemClickListener {
+
+    /** Maximale Anzahl der Treffer, die bei der inkrementellen Suche angezeigt werden. */
+    protected static final int INKREMENTELLE_SUCHE_MAX_TREFFER = 10;
+
+    /**
+     * Wartezeit nach dem letzten Tastendruck, bevor die inkrementelle Suche gestartet wird;
+     * Tastendrücke innerhalb dieser Zeit verwerfen die noch nicht gestartete Suche.
+     */
+    protected static final long INKREMENTELLE_SUCHE_VERZOEGERUNG_MS = 150;
+
+    /** Maximale Anzahl der Treffer, die bei Rückwärts-Suche mit Button angezeigt werden. */
+    protected static final int BEDEUTUNG_SUCHE_MAX_TREFFER = 50;
+
+    /** Anzahl der Bedeutungen, die bei der Suche nach einer Abkürzung auf einmal geladen werden. */
+    protected static final int SEITEN_GROESSE = 50;
+
+    /** Nächste Seite laden, wenn nur noch so viele Zeilen unterhalb der sichtbaren Zeilen sind. */
+    protected static final int NACHLADEN_VORLAUF = 10;
+
+    /** Name der {@link SharedPreferences}-Datei mit den Einstellungen der App. */
+    protected static final String EINSTELLUNGEN_DATEI = "abkverz_einstellungen";
+
+    /** Schlüssel für die IDs der aktiven Kategorien (als Strings) in den Einstellungen. */
+    protected static final String EINSTELLUNG_KATEGORIEN = "aktive_kategorien";
+
+    /**
+     * Schlüssel für die Basis-URL des Sync-Servers in den Einstellungen, wird mit dem Button
+     * "Sync" gesetzt; nur wenn sie gesetzt ist, wird der {@link SyncJob} geplant.
+     */
+    protected static final String EINSTELLUNG_SYNC_URL = "sync_url";
+
 
     /** Hilfs-Objekt für Zugriffe auf Datenbank. */
     protected DatenbankManager _datenbankManager = null;
@@ -31,14 +123,72 @@ public class MainActivity extends AppCompatActivity
     /** Eingabefeld mit Abkürzung, nach der gesucht werden soll. */
     protected EditText _textEditAbkZumSuchen = null;
 
+    /** Auswahl, ob nach Abkürzung oder (rückwärts) nach Bedeutung gesucht wird. */
+    protected RadioGroup _radioGroupSuchModus = null;
+
     /** Button, mit dem die Suche nach einer Abkürzung gestartet wird. */
     protected Button _buttonAbkSuche = null;
 
     /** Button, mit dem Activity zum Anlegen eines neuen Eintrags aufgerufen wird. */
     protected Button _buttonNeuerEintrag = null;
 
-    /** TextView-Element, mit dem die für eine Abkürzung gefundene Bedeutungen angezeigt werden. */
-    protected TextView _textViewBedeutungen = null;
+    /** Button, mit dem die Kategorien für die Suche nach einer Abkürzung gewählt werden. */
+    protected Button _buttonKategorien = null;
+
+    /** Button, mit dem die URL des Sync-Servers eingestellt wird. */
+    protected Button _buttonSync = null;
+
+    /**
+     * Einstellungen der App; {@link #getSharedPreferences(String, int)} liest die Datei im
+     * Hintergrund, erst der erste Zugriff auf einen Wert wartet darauf.
+     */
+    protected SharedPreferences _einstellungen = null;
+
+    /**
+     * IDs der Kategorien, auf die die Suche nach einer Abkürzung beschränkt ist, leer für
+     * alle Kategorien; {@code null}, solange sie noch nicht aus {@link #_einstellungen}
+     * gelesen wurden, siehe {@link #aktiveKategorien()}.
+     */
+    protected Set<Integer> _aktiveKategorien = null;
+
+    /** Liste, in der die für eine Abkürzung gefundenen Bedeutungen angezeigt werden. */
+    protected ListView _listViewTreffer = null;
+
+    /** Adapter mit den Zeilen für {@link #_listViewTreffer}. */
+    protected TrefferListeAdapter _trefferAdapter = null;
+
+    /**
+     * Zuletzt geladene Seite der Suche nach einer Abkürzung; {@code null}, wenn gerade
+     * kein seitenweise geladenes Ergebnis angezeigt wird.
+     */
+    protected BedeutungenSeite _aktuelleSeite = null;
+
+    /**
+     * Angezeigtes Ergebnis der Rückwärts-Suche, eine Zeile pro Treffer; {@code null}, wenn
+     * gerade etwas anderes angezeigt wird.
+     */
+    protected List<BedeutungTreffer> _bedeutungTreffer = null;
+
+    /** {@code true}, solange eine Seite geladen wird (nicht doppelt nachladen). */
+    protected boolean _seiteWirdGeladen = false;
+
+    /** Handler für den UI-Thread, um die inkrementelle Suche verzögert zu starten. */
+    protected final Handler _handler = new Handler( Looper.getMainLooper() );
+
+    /** Inkrementelle Suche, die nach dem letzten Tastendruck verzögert ausgeführt wird. */
+    protected final Runnable _inkrementelleSuche = this::sucheInkrementell;
+
+    /** Führt die Datenbank-Zugriffe dieser Activity im Hintergrund aus. */
+    protected final DatenbankAuftraege _auftraege = new DatenbankAuftraege();
+
+    /** Zuletzt gestartete Suche, wird beim Start einer neuen Suche abgebrochen. */
+    protected Future<?> _laufendeSuche = null;
+
+    /** Wird beim Zeichnen des ersten Frames aufgerufen, danach wieder entfernt. */
+    protected final ViewTreeObserver.OnDrawListener _ersterFrameListener = this::onErsterFrame;
+
+    /** {@code true}, sobald der erste Frame gezeichnet wurde. */
+    protected boolean _ersterFrameGezeichnet = false;
 
 
     /**
@@ -47,28 +197,126 @@ public class MainActivity extends AppCompatActivity
     @Override
     protected void onCreate( Bundle savedInstanceState ) {
 
+        Trace.beginSection( "MainActivity.onCreate" );
+
         super.onCreate(savedInstanceState);
         setContentView( R.layout.activity_main );
 
-        // *** DB-Helper-Objekt erzeugen ***
-        _datenbankManager = new DatenbankManager(this);
+        // *** DB-Helper-Objekt erzeugen (öffnet die Datenbank noch nicht) ***
+        _datenbankManager = DatenbankManager.getInstanz( this );
 
 
         // *** Referenzen auf UI-Elemente abfragen ***
         _textEditAbkZumSuchen = findViewById( R.id.textEditFuerAbkZumSuchen       );
+        _radioGroupSuchModus  = findViewById( R.id.radioGroupSuchModus            );
         _buttonAbkSuche       = findViewById( R.id.buttonStartAbkSuche            );
         _buttonNeuerEintrag   = findViewById( R.id.buttonNeueAbkEintragen         );
-        _textViewBedeutungen  = findViewById( R.id.textViewFuerAnzeigeBedeutungen );
+        _buttonKategorien     = findViewById( R.id.buttonKategorien               );
+        _buttonSync           = findViewById( R.id.buttonSync                     );
+        _listViewTreffer      = findViewById( R.id.listViewTreffer                );
+
+        _trefferAdapter = new TrefferListeAdapter( this );
+        _listViewTreffer.setAdapter( _trefferAdapter );
+        _listViewTreffer.setOnScrollListener( this );
+        _listViewTreffer.setOnItemClickListener( this );
 
 
         // *** Event-Handler für Buttons setzen ***
         _buttonAbkSuche.setOnClickListener( this );
         _buttonNeuerEintrag.setOnClickListener( this );
+        _buttonKategorien.setOnClickListener( this );
+        _buttonSync.setOnClickListener( this );
+
+        // *** Einstellungen im Hintergrund laden, gelesen werden sie erst nach dem ersten Frame ***
+        _einstellungen = getSharedPreferences( EINSTELLUNGEN_DATEI, MODE_PRIVATE );
+
+        // *** Inkrementelle Suche bei jeder Änderung im Eingabefeld ***
+        _textEditAbkZumSuchen.addTextChangedListener( this );
+
+        // *** Nach Umschalten des Such-Modus neu suchen ***
+        _radioGroupSuchModus.setOnCheckedChangeListener( this );
+
+        // *** Datenbank erst nach dem ersten Frame öffnen ***
+        getWindow().getDecorView().getViewTreeObserver().addOnDrawListener( _ersterFrameListener );
+
+        Trace.endSection();
+    }
+
+
+    /**
+     * Wird beim Zeichnen eines Frames aufgerufen, solange {@link #_ersterFrameListener}
+     * registriert ist. Der Listener darf nicht während des Zeichnens entfernt werden; das
+     * und das Vorwärmen der Datenbank passiert deshalb erst danach in {@link #nachErstemFrame()}.
+     */
+    protected void onErsterFrame() {
+
+        if ( _ersterFrameGezeichnet ) {
+
+            return;
+        }
+        _ersterFrameGezeichnet = true;
+
+        _handler.post( this::nachErstemFrame );
     }
 
 
     /**
-     * Event-Handler-Methode für die beiden Buttons.
+     * Vermerkt den ersten Frame in der {@link StartupMessung} und wärmt die Datenbank im
+     * Hintergrund vor, damit die erste Suche nicht auf das Öffnen warten muss. Außerdem
+     * werden die {@link DatenbankWartung} und (falls ein Sync-Server eingestellt ist) der
+     * {@link SyncJob} geplant, falls das noch nicht geschehen ist, und die Anzahl der aktiven
+     * Kategorien angezeigt.
+     */
+    protected void nachErstemFrame() {
+
+        getWindow().getDecorView().getViewTreeObserver().removeOnDrawListener( _ersterFrameListener );
+
+        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.ERSTER_FRAME );
+
+        zeigeAnzahlKategorien();
+
+        _auftraege.starteWartung(
+                () -> {
+
+                    _datenbankManager.vorwaermen();
+                    DatenbankWartungJob.planen( getApplicationContext() );
+
+                    String syncUrl = _einstellungen.getString( EINSTELLUNG_SYNC_URL, "" );
+                    if ( !syncUrl.isEmpty() ) {
+
+                        SyncJob.planen( getApplicationContext(), syncUrl );
+                    }
+                    return null;
+                },
+                new IDatenbankRueckruf<Void>() {
+
+                    @Override
+                    public void onErgebnis( Void nichts ) {}
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception beim Vorwärmen der Datenbank aufgetreten: " + ex );
+                    }
+                } );
+    }
+
+
+    /**
+     * Lifecycle-Methode, noch nicht ausgeführte oder noch laufende Suchen werden verworfen.
+     */
+    @Override
+    protected void onDestroy() {
+
+        _handler.removeCallbacks( _inkrementelleSuche );
+        _auftraege.alleAbbrechen();
+
+        super.onDestroy();
+    }
+
+
+    /**
+     * Event-Handler-Methode für die Buttons.
      *
      * @param view  UI-Element, das Event erzeugt hat, sollte ein Button sein
      */
@@ -77,13 +325,32 @@ public class MainActivity extends AppCompatActivity
 
         if ( view == _buttonAbkSuche ) {
 
-            sucheNachAbk();
+            if ( istBedeutungsSuche() ) {
+
+                sucheNachBedeutung( BEDEUTUNG_SUCHE_MAX_TREFFER );
+
+            } else if ( istTextAufloesung() ) {
+
+                loeseTextAuf();
+
+            } else {
+
+                sucheNachAbk();
+            }
 
         } else if ( view == _buttonNeuerEintrag ) {
 
             Intent intent = new Intent(this, NeuerEintragActivity.class );
             startActivity( intent );
 
+        } else if ( view == _buttonKategorien ) {
+
+            waehleKategorien();
+
+        } else if ( view == _buttonSync ) {
+
+            zeigeSyncDialog();
+
         } else {
 
             String errorMsg = "Unerwartetes View-Element hat onClick-Event ausgelöst: " + view;
@@ -94,47 +361,630 @@ public class MainActivity extends AppCompatActivity
 
 
     /**
-     * Suche nach Bedeutungen von eine eingegebene Abkürzung.
+     * Suche nach Bedeutungen von eine eingegebene Abkürzung; lädt die erste Seite, ggf.
+     * nur mit den Bedeutungen der aktiven Kategorien.
      */
     protected void sucheNachAbk() {
 
-        String   errorMsg    = null;
-        String[] bedeutungen = null;
+        _handler.removeCallbacks( _inkrementelleSuche );
 
-        String suchString = _textEditAbkZumSuchen.getText().toString().trim();
+        final String suchString = _textEditAbkZumSuchen.getText().toString().trim();
         if ( suchString.length() == 0 ) {
 
             showToast( "Bitte zulässige Abkürzung zum Suchen eingeben!" );
             return;
         }
 
-        // *** Eigentliche DB-Query ausführen ***
-        try {
-            bedeutungen = _datenbankManager.sucheNachAbk( suchString );
+        // Kopie, wird im Hintergrund gelesen
+        ladeSeite( suchString, new TreeSet<>( aktiveKategorien() ), null );
+    }
+
+
+    /**
+     * Liefert die IDs der aktiven Kategorien; beim ersten Aufruf werden sie aus den
+     * Einstellungen gelesen.
+     *
+     * @return  IDs der aktiven Kategorien, leer für alle Kategorien.
+     */
+    protected Set<Integer> aktiveKategorien() {
+
+        if ( _aktiveKategorien == null ) {
+
+            _aktiveKategorien = new TreeSet<>();
+            for ( String id: _einstellungen.getStringSet( EINSTELLUNG_KATEGORIEN, new HashSet<>() ) ) {
+
+                try {
+
+                    _aktiveKategorien.add( Integer.valueOf( id ) );
+                }
+                catch ( NumberFormatException ex ) {
+
+                    Log.w( TAG4LOGGING, "Ungültige Kategorie in Einstellungen ignoriert: " + id );
+                }
+            }
         }
-        catch (Exception ex) {
 
-            errorMsg = "Exception bei suchNachAbk() aufgetreten: " + ex;
-            showToast( errorMsg );
-            Log.e( TAG4LOGGING, errorMsg );
+        return _aktiveKategorien;
+    }
+
+
+    /**
+     * Lädt die Kategorien im Hintergrund und lässt den Nutzer dann die aktiven auswählen.
+     */
+    protected void waehleKategorien() {
+
+        _auftraege.starte(
+                _datenbankManager::holeKategorien,
+                new IDatenbankRueckruf<Map<Integer,String>>() {
+
+                    @Override
+                    public void onErgebnis( Map<Integer,String> kategorien ) {
+
+                        zeigeKategorienDialog( kategorien );
+                    }
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception bei holeKategorien() aufgetreten: " + ex );
+                    }
+                } );
+    }
+
+
+    /**
+     * Zeigt einen Dialog mit allen Kategorien zum An- und Abwählen; die Auswahl wird erst
+     * mit "OK" übernommen und gespeichert.
+     *
+     * @param kategorien  Alle Kategorien, ID auf Name.
+     */
+    protected void zeigeKategorienDialog( Map<Integer,String> kategorien ) {
+
+        final List<Integer> ids      = new ArrayList<>( kategorien.keySet() );
+        final String[]      namen    = kategorien.values().toArray( new String[ 0 ] );
+        final boolean[]     gewaehlt = new boolean[ ids.size() ];
+
+        Set<Integer> aktive = aktiveKategorien();
+        for ( int i = 0; i < ids.size(); i++ ) {
+
+            gewaehlt[ i ] = aktive.contains( ids.get( i ) );
+        }
+
+        new AlertDialog.Builder( this )
+                .setTitle( R.string.dialog_titel_kategorien )
+                .setMultiChoiceItems( namen, gewaehlt,
+                                      ( dialog, position, an ) -> gewaehlt[ position ] = an )
+                .setPositiveButton( android.R.string.ok, ( dialog, button ) -> {
+
+                    Set<Integer> neu = new TreeSet<>();
+                    for ( int i = 0; i < ids.size(); i++ ) {
+
+                        if ( gewaehlt[ i ] ) {
+
+                            neu.add( ids.get( i ) );
+                        }
+                    }
+                    speichereKategorien( neu );
+                } )
+                .setNeutralButton( R.string.button_label_alle,
+                                   ( dialog, button ) -> speichereKategorien( new TreeSet<>() ) )
+                .setNegativeButton( android.R.string.cancel, null )
+                .show();
+    }
+
+
+    /**
+     * Übernimmt die aktiven Kategorien, speichert sie in den Einstellungen (asynchron) und
+     * wiederholt eine angezeigte Suche nach einer Abkürzung mit dem neuen Filter.
+     *
+     * @param kategorien  IDs der neuen aktiven Kategorien, leer für alle.
+     */
+    protected void speichereKategorien( Set<Integer> kategorien ) {
+
+        _aktiveKategorien = kategorien;
+
+        Set<String> ids = new HashSet<>();
+        for ( Integer id: kategorien ) {
+
+            ids.add( id.toString() );
+        }
+        _einstellungen.edit().putStringSet( EINSTELLUNG_KATEGORIEN, ids ).apply();
+
+        zeigeAnzahlKategorien();
+
+        if ( _aktuelleSeite != null ) {
+
+            sucheNachAbk();
+        }
+    }
+
+
+    /**
+     * Zeigt einen Dialog zum Eingeben der Basis-URL des Sync-Servers; mit "OK" wird sie
+     * übernommen, siehe {@link #speichereSyncUrl(String)}.
+     */
+    protected void zeigeSyncDialog() {
+
+        final EditText editTextUrl = new EditText( this );
+        editTextUrl.setSingleLine( true );
+        editTextUrl.setInputType( InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_URI );
+        editTextUrl.setHint( R.string.textedit_hint_sync_url );
+        editTextUrl.setText( _einstellungen.getString( EINSTELLUNG_SYNC_URL, "" ) );
+
+        new AlertDialog.Builder( this )
+                .setTitle( R.string.dialog_titel_sync )
+                .setView( editTextUrl )
+                .setPositiveButton( android.R.string.ok,
+                                    ( dialog, button ) -> speichereSyncUrl( editTextUrl.getText().toString().trim() ) )
+                .setNegativeButton( android.R.string.cancel, null )
+                .show();
+    }
+
+
+    /**
+     * Speichert die Basis-URL des Sync-Servers in den Einstellungen (asynchron) und meldet den
+     * {@link SyncJob} im Hintergrund mit der neuen URL an, bzw. bei leerer URL ab.
+     *
+     * @param url  Neue Basis-URL, leer für keinen Abgleich.
+     */
+    protected void speichereSyncUrl( final String url ) {
+
+        if ( !url.isEmpty() && !url.startsWith( "http://" ) && !url.startsWith( "https://" ) ) {
+
+            showToast( getString( R.string.toast_sync_url_ungueltig ) );
             return;
         }
 
+        _einstellungen.edit().putString( EINSTELLUNG_SYNC_URL, url ).apply();
+
+        final Context context = getApplicationContext();
+        _auftraege.starteWartung(
+                () -> {
+
+                    if ( url.isEmpty() ) {
+
+                        SyncJob.abmelden( context );
+
+                    } else {
+
+                        SyncJob.planen( context, url );
+                    }
+                    return null;
+                },
+                new IDatenbankRueckruf<Void>() {
+
+                    @Override
+                    public void onErgebnis( Void nichts ) {}
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception beim Planen des Abgleichs aufgetreten: " + ex );
+                    }
+                } );
+    }
+
+
+    /**
+     * Zeigt auf {@link #_buttonKategorien}, ob und wie viele Kategorien aktiv sind.
+     */
+    protected void zeigeAnzahlKategorien() {
+
+        int anzahl = aktiveKategorien().size();
+        _buttonKategorien.setText( anzahl == 0 ? getString( R.string.button_label_kategorien )
+                                               : getString( R.string.button_label_kategorien_aktiv, anzahl ) );
+    }
+
+
+    /**
+     * Lädt eine Seite mit Bedeutungen im Hintergrund und zeigt sie an.
+     *
+     * @param suchString  Abkürzung, nach der gesucht wird.
+     *
+     * @param kategorien  IDs der Kategorien für die erste Seite, leer für alle; Folgeseiten
+     *                    übernehmen den Filter von {@code vorherigeSeite}.
+     *
+     * @param vorherigeSeite  Zuletzt angezeigte Seite, oder {@code null} für die erste Seite.
+     */
+    protected void ladeSeite( final String suchString, final Set<Integer> kategorien,
+                              final BedeutungenSeite vorherigeSeite ) {
+
+        // *** Eigentliche DB-Query im Hintergrund ausführen ***
+        neueSucheStarten( _auftraege.starte(
+                abbruch -> _datenbankManager.sucheBedeutungenSeite( suchString, kategorien,
+                                                                    vorherigeSeite, SEITEN_GROESSE,
+                                                                    abbruch ),
+                new IDatenbankRueckruf<BedeutungenSeite>() {
+
+                    @Override
+                    public void onErgebnis( BedeutungenSeite seite ) {
+
+                        zeigeSeite( suchString, vorherigeSeite, seite );
+                        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.ERSTE_SUCHE );
+                    }
 
-        if ( bedeutungen == null || bedeutungen.length == 0 ) {
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        _seiteWirdGeladen = false;
+
+                        String errorMsg = "Exception bei suchNachAbk() aufgetreten: " + ex;
+                        showToast( errorMsg );
+                        Log.e( TAG4LOGGING, errorMsg );
+                    }
+                } ) );
+
+        _aktuelleSeite    = vorherigeSeite;
+        _seiteWirdGeladen = true;
+    }
+
+
+    /**
+     * Zeigt eine mit {@link #ladeSeite(String, Set, BedeutungenSeite)} geladene Seite an.
+     *
+     * @param suchString  Abkürzung, nach der gesucht wurde.
+     *
+     * @param vorherigeSeite  Bisher letzte angezeigte Seite, oder {@code null} bei erster Seite.
+     *
+     * @param seite  Neu geladene Seite.
+     */
+    protected void zeigeSeite( String suchString, BedeutungenSeite vorherigeSeite,
+                               BedeutungenSeite seite ) {
+
+        _seiteWirdGeladen = false;
+        _aktuelleSeite    = seite;
+
+        if ( vorherigeSeite != null ) {
+
+            _trefferAdapter.anhaengen( seite.getBedeutungen() );
+            return;
+        }
+
+        _trefferAdapter.setZeilen( seite.getBedeutungen() );
+        _listViewTreffer.setSelection( 0 );
+
+        if ( seite.getBedeutungen().isEmpty() ) {
 
-            _textViewBedeutungen.setText( "" );
             showToast( "Abkürzung '" + suchString + "' nicht gefunden." );
+        }
+    }
+
+
+    /**
+     * Methode aus Interface {@link AbsListView.OnScrollListener}, wird nicht benötigt.
+     */
+    @Override
+    public void onScrollStateChanged( AbsListView view, int scrollState ) {}
+
+
+    /**
+     * Methode aus Interface {@link AbsListView.OnScrollListener}: Lädt die nächste Seite,
+     * wenn der Nutzer in die Nähe des Listen-Endes gescrollt hat.
+     *
+     * @param view  Liste mit den Treffern.
+     *
+     * @param ersteSichtbare  Index der ersten sichtbaren Zeile.
+     *
+     * @param anzahlSichtbare  Anzahl der sichtbaren Zeilen.
+     *
+     * @param anzahlGesamt  Anzahl aller Zeilen im Adapter.
+     */
+    @Override
+    public void onScroll( AbsListView view, int ersteSichtbare, int anzahlSichtbare, int anzahlGesamt ) {
+
+        if ( _aktuelleSeite == null || !_aktuelleSeite.hatWeitere() || _seiteWirdGeladen ) {
+
+            return;
+        }
+
+        if ( ersteSichtbare + anzahlSichtbare >= anzahlGesamt - NACHLADEN_VORLAUF ) {
+
+            ladeSeite( _aktuelleSeite.getAbkuerzung(), _aktuelleSeite.getKategorien(), _aktuelleSeite );
+        }
+    }
+
+
+    /**
+     * Methode aus Interface {@link AdapterView.OnItemClickListener}: Zählt die Auswahl
+     * einer Bedeutung, damit sie bei späteren Suchen weiter vorne angezeigt wird, siehe
+     * {@link DatenbankManager#bedeutungGewaehlt(String, String)}. Gezählt wird nur bei
+     * Zeilen mit genau einer Bedeutung, also bei der Suche nach einer Abkürzung und bei der
+     * Rückwärts-Suche.
+     *
+     * @param parent  Liste mit den Treffern.
+     *
+     * @param view  Angetippte Zeile.
+     *
+     * @param position  Index der angetippten Zeile.
+     *
+     * @param id  ID der angetippten Zeile.
+     */
+    @Override
+    public void onItemClick( AdapterView<?> parent, View view, int position, long id ) {
+
+        if ( _aktuelleSeite != null ) {
+
+            _datenbankManager.bedeutungGewaehlt( _aktuelleSeite.getAbkuerzung(),
+                                                 _trefferAdapter.getItem( position ) );
+
+        } else if ( _bedeutungTreffer != null && position < _bedeutungTreffer.size() ) {
+
+            BedeutungTreffer treffer = _bedeutungTreffer.get( position );
+            _datenbankManager.bedeutungGewaehlt( treffer.getAbkuerzung(), treffer.getBedeutung() );
+        }
+    }
+
+
+    /**
+     * Rückwärts-Suche: Sucht Abkürzungen, in deren Bedeutungen die eingegebenen Wörter
+     * vorkommen.
+     *
+     * @param maxTreffer  Maximale Anzahl der angezeigten Treffer.
+     */
+    protected void sucheNachBedeutung( int maxTreffer ) {
+
+        _handler.removeCallbacks( _inkrementelleSuche );
+
+        final String suchString = _textEditAbkZumSuchen.getText().toString().trim();
+        if ( suchString.length() == 0 ) {
+
+            neueSucheStarten( null );
+            _trefferAdapter.leeren();
+            return;
+        }
+
+        neueSucheStarten( _auftraege.starte(
+                abbruch -> _datenbankManager.sucheNachBedeutung( suchString, maxTreffer, abbruch ),
+                new IDatenbankRueckruf<List<BedeutungTreffer>>() {
+
+                    @Override
+                    public void onErgebnis( List<BedeutungTreffer> trefferListe ) {
+
+                        zeigeBedeutungTreffer( trefferListe );
+                        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.ERSTE_SUCHE );
+                    }
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception bei sucheNachBedeutung() aufgetreten: " + ex );
+                    }
+                } ) );
+    }
+
+
+    /**
+     * Zeigt das Ergebnis von {@link #sucheNachBedeutung(int)} an.
+     *
+     * @param trefferListe  Gefundene Bedeutungen mit Abkürzung, bester Treffer zuerst.
+     */
+    protected void zeigeBedeutungTreffer( List<BedeutungTreffer> trefferListe ) {
+
+        List<String> zeilen = new ArrayList<>( trefferListe.size() );
+        for ( BedeutungTreffer treffer: trefferListe ) {
+
+            zeilen.add( treffer.getAbkuerzung() + ": " + treffer.getBedeutung() );
+        }
+        _trefferAdapter.setZeilen( zeilen );
+        _bedeutungTreffer = trefferListe;
+    }
+
+
+    /**
+     * Sucht die Bedeutungen aller Wörter der Eingabe mit einer einzigen Abfrage und zeigt
+     * eine Zeile pro gefundener Abkürzung an.
+     */
+    protected void loeseTextAuf() {
+
+        _handler.removeCallbacks( _inkrementelleSuche );
+
+        final List<String> woerter = TextAufloeser.zerlegeInWoerter( _textEditAbkZumSuchen.getText().toString() );
+        if ( woerter.isEmpty() ) {
+
+            neueSucheStarten( null );
+            _trefferAdapter.leeren();
+            return;
+        }
+
+        neueSucheStarten( _auftraege.starte(
+                abbruch -> _datenbankManager.sucheNachAbks( woerter, abbruch ),
+                new IDatenbankRueckruf<Map<String,String[]>>() {
+
+                    @Override
+                    public void onErgebnis( Map<String,String[]> bedeutungen ) {
+
+                        _trefferAdapter.setZeilen( TextAufloeser.erzeugeZeilen( woerter, bedeutungen ) );
+                        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.ERSTE_SUCHE );
+                    }
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception bei sucheNachAbks() aufgetreten: " + ex );
+                    }
+                } ) );
+    }
+
+
+    /**
+     * Prüft, welcher Such-Modus ausgewählt ist.
+     *
+     * @return  {@code true}, wenn rückwärts nach Bedeutungen gesucht werden soll.
+     */
+    protected boolean istBedeutungsSuche() {
+
+        return _radioGroupSuchModus.getCheckedRadioButtonId() == R.id.radioButtonSucheBedeutung;
+    }
+
+
+    /**
+     * Prüft, welcher Such-Modus ausgewählt ist.
+     *
+     * @return  {@code true}, wenn alle Abkürzungen in einem Text aufgelöst werden sollen.
+     */
+    protected boolean istTextAufloesung() {
+
+        return _radioGroupSuchModus.getCheckedRadioButtonId() == R.id.radioButtonTextAufloesen;
+    }
+
+
+    /**
+     * Methode aus Interface {@link RadioGroup.OnCheckedChangeListener}, wird nach Umschalten
+     * des Such-Modus aufgerufen und startet die inkrementelle Suche im neuen Modus.
+     *
+     * @param group  Radio-Group für Such-Modus.
+     *
+     * @param checkedId  ID des ausgewählten Radio-Buttons.
+     */
+    @Override
+    public void onCheckedChanged( RadioGroup group, int checkedId ) {
+
+        _handler.removeCallbacks( _inkrementelleSuche );
+        sucheInkrementell();
+    }
+
+
+    /**
+     * Merkt sich eine neu gestartete Suche und verwirft die vorherige, falls diese noch
+     * läuft oder ihr Ergebnis noch nicht angezeigt wurde.
+     *
+     * @param suche  Future der neuen Suche.
+     */
+    protected void neueSucheStarten( Future<?> suche ) {
+
+        if ( _laufendeSuche != null ) {
+
+            _laufendeSuche.cancel( false );
+        }
+        _laufendeSuche = suche;
+
+        // Seitenweises Laden endet, ggf. setzt ladeSeite() es fort
+        _aktuelleSeite    = null;
+        _seiteWirdGeladen = false;
+        _bedeutungTreffer = null;
+    }
+
+
+    /**
+     * Methode aus Interface {@link TextWatcher}, wird nicht benötigt.
+     */
+    @Override
+    public void beforeTextChanged( CharSequence s, int start, int count, int after ) {}
+
+
+    /**
+     * Methode aus Interface {@link TextWatcher}, wird nicht benötigt.
+     */
+    @Override
+    public void onTextChanged( CharSequence s, int start, int before, int count ) {}
+
+
+    /**
+     * Methode aus Interface {@link TextWatcher}, wird nach jeder Änderung im Eingabefeld
+     * aufgerufen. Eine noch nicht gestartete inkrementelle Suche für eine ältere Eingabe
+     * wird verworfen ("Debouncing").
+     *
+     * @param editable  Neuer Inhalt des Eingabefelds.
+     */
+    @Override
+    public void afterTextChanged( Editable editable ) {
+
+        _handler.removeCallbacks( _inkrementelleSuche );
+        _handler.postDelayed( _inkrementelleSuche, INKREMENTELLE_SUCHE_VERZOEGERUNG_MS );
+    }
+
+
+    /**
+     * Inkrementelle Suche für den aktuellen Inhalt des Eingabefelds: zeigt die
+     * Präfix-Treffer und Treffer mit einem Tippfehler samt Bedeutungen an, bzw. bei
+     * Rückwärts-Suche die am besten passenden Bedeutungen.
+     */
+    protected void sucheInkrementell() {
+
+        if ( istBedeutungsSuche() ) {
+
+            sucheNachBedeutung( INKREMENTELLE_SUCHE_MAX_TREFFER );
+            return;
+        }
+        if ( istTextAufloesung() ) {
+
+            loeseTextAuf();
+            return;
+        }
+
+        final String suchString = _textEditAbkZumSuchen.getText().toString().trim();
+        if ( suchString.length() == 0 ) {
+
+            neueSucheStarten( null );
+            _trefferAdapter.leeren();
             return;
         }
 
-        // *** Ergebnis-Treffer darstellen ***
-        StringBuffer sb = new StringBuffer();
-        for( String bedeutung: bedeutungen ) {
+        neueSucheStarten( _auftraege.starte(
+                abbruch -> _datenbankManager.sucheTreffer( suchString,
+                                                           INKREMENTELLE_SUCHE_MAX_TREFFER,
+                                                           true, abbruch ),
+                new IDatenbankRueckruf<List<AbkTreffer>>() {
 
-            sb.append( bedeutung ).append( "\n" );
+                    @Override
+                    public void onErgebnis( List<AbkTreffer> trefferListe ) {
+
+                        zeigeTreffer( trefferListe );
+                        StartupMessung.getInstanz().markiere( StartupMessung.Meilenstein.ERSTE_SUCHE );
+                    }
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception bei sucheTreffer() aufgetreten: " + ex );
+                    }
+                } ) );
+    }
+
+
+    /**
+     * Zeigt das Ergebnis von {@link #sucheInkrementell()} an.
+     *
+     * @param trefferListe  Gefundene Abkürzungen mit Bedeutungen.
+     */
+    protected void zeigeTreffer( List<AbkTreffer> trefferListe ) {
+
+        List<String> zeilen = new ArrayList<>( trefferListe.size() );
+        for ( AbkTreffer treffer: trefferListe ) {
+
+            StringBuilder sb = new StringBuilder( treffer.getAbkuerzung() );
+            if ( treffer.getArt() == AbkTreffer.Art.AEHNLICH ) {
+
+                sb.append( " (?)" );
+            }
+            sb.append( ": " ).append( String.join( "; ", treffer.getBedeutungen() ) );
+            zeilen.add( sb.toString() );
         }
-        _textViewBedeutungen.setText( sb.toString() );
+        _trefferAdapter.setZeilen( zeilen );
+    }
+
+
+    /**
+     * Ergänzt die Ausgabe von
+     * {@code adb shell dumpsys activity de.mide.abkverz/.MainActivity} um die Messwerte
+     * der Datenbank-Zugriffe, siehe {@link DatenbankManager#schreibeBericht(PrintWriter)},
+     * und die Zeiten aus {@link StartupMessung}.
+     */
+    @Override
+    public void dump( String prefix, FileDescriptor fd, PrintWriter writer, String[] args ) {
+
+        super.dump( prefix, fd, writer, args );
+
+        if ( _datenbankManager != null ) {
+
+            writer.println();
+            writer.println( prefix + "Datenbank:" );
+            _datenbankManager.schreibeBericht( writer );
+        }
+
+        writer.println();
+        writer.println( prefix + "Start (ms seit Prozess-Start):" );
+        StartupMessung.getInstanz().bericht( writer );
     }
 
 
@@ -5,13 +5,22 @@ import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.Toast;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 
 /**
- * Activity, um eine neue Abkürzung in die DB einzutragen.
+ * Activity, um eine neue Abkürzung in die DB einzutragen; die Kategorie der Bedeutung
+ * wird mit einem Spinner gewählt (Default "Allgemein").
+ * Das Laden der Kategorien und das Einfügen laufen über {@link DatenbankAuftraege} auf
+ * einem Hintergrund-Thread.
  * <br><br>
  *
  * This project is licensed under the terms of the BSD 3-Clause License.
@@ -34,6 +43,15 @@ public class NeuerEintragActivity extends Activity
     /** UI-Element für die Eingabe der neuen Bedeutung. */
     protected EditText _editTextBedeutung = null;
 
+    /** UI-Element für die Auswahl der Kategorie der neuen Bedeutung. */
+    protected Spinner _spinnerKategorie = null;
+
+    /** IDs der Kategorien in der Reihenfolge von {@link #_spinnerKategorie}; leer bis geladen. */
+    protected final List<Integer> _kategorieIds = new ArrayList<>();
+
+    /** Führt die Datenbank-Zugriffe dieser Activity im Hintergrund aus. */
+    protected final DatenbankAuftraege _auftraege = new DatenbankAuftraege();
+
 
     /**
      * Lifecycle-Methode zur Initialisierung des Activity-Objekts.
@@ -45,7 +63,7 @@ public class NeuerEintragActivity extends Activity
         setContentView(R.layout.activity_neuer_eintrag);
 
         // *** Datenbank-Manager-Objekt erzeugen ***
-        _datenbankManager = new DatenbankManager(this);
+        _datenbankManager = DatenbankManager.getInstanz( this );
 
 
         // *** Referenzen von UI-Element in Member-Variablen speichern ***
@@ -53,11 +71,75 @@ public class NeuerEintragActivity extends Activity
         _buttonZurueck     = findViewById( R.id.buttonZurueck          );
         _editTextAbk       = findViewById( R.id.editTextNeueAbk        );
         _editTextBedeutung = findViewById( R.id.editTextNeueBedeutung  );
+        _spinnerKategorie  = findViewById( R.id.spinnerKategorie       );
 
 
         // *** Event-Handler für Buttons festlegen ***
         _buttonEinfuegen.setOnClickListener(this);
         _buttonZurueck.setOnClickListener  (this);
+
+        ladeKategorien();
+    }
+
+
+    /**
+     * Lädt die Kategorien im Hintergrund und füllt damit {@link #_spinnerKategorie}.
+     */
+    protected void ladeKategorien() {
+
+        _auftraege.starte(
+                _datenbankManager::holeKategorien,
+                new IDatenbankRueckruf<Map<Integer,String>>() {
+
+                    @Override
+                    public void onErgebnis( Map<Integer,String> kategorien ) {
+
+                        _kategorieIds.clear();
+                        _kategorieIds.addAll( kategorien.keySet() );
+
+                        ArrayAdapter<String> adapter =
+                                new ArrayAdapter<>( NeuerEintragActivity.this,
+                                                    android.R.layout.simple_spinner_item,
+                                                    new ArrayList<>( kategorien.values() ) );
+                        adapter.setDropDownViewResource( android.R.layout.simple_spinner_dropdown_item );
+                        _spinnerKategorie.setAdapter( adapter );
+                    }
+
+                    @Override
+                    public void onFehler( Exception ex ) {
+
+                        Log.e( TAG4LOGGING, "Exception beim Laden der Kategorien aufgetreten: " + ex );
+                    }
+                } );
+    }
+
+
+    /**
+     * Liefert die im Spinner gewählte Kategorie.
+     *
+     * @return  ID der Kategorie, {@link DatenbankManager#KATEGORIE_ALLGEMEIN} falls die
+     *          Kategorien noch nicht geladen sind.
+     */
+    protected int gewaehlteKategorie() {
+
+        int position = _spinnerKategorie.getSelectedItemPosition();
+        if ( position < 0 || position >= _kategorieIds.size() ) {
+
+            return DatenbankManager.KATEGORIE_ALLGEMEIN;
+        }
+        return _kategorieIds.get( position );
+    }
+
+
+    /**
+     * Lifecycle-Methode, noch laufendes Einfügen wird nicht mehr an die Activity gemeldet.
+     */
+    @Override
+    protected void onDestroy() {
+
+        _auftraege.alleAbbrechen();
+
+        super.onDestroy();
     }
 
 
@@ -93,49 +175,61 @@ public class NeuerEintragActivity extends Activity
      */
     protected void neuenEintragEinfuegen () {
 
-        String   errorMsg   = null;
-        String[] resultStrs = null;
-
-        String abkString    = _editTextAbk.getText().toString().trim();
-        if (abkString.length() == 0) {
+        final String abkString    = _editTextAbk.getText().toString().trim();
+        if (AbkNormalisierer.schluessel(abkString).isEmpty()) {
 
             showToast("Bitte Abkürzung eingeben!");
             return;
         }
 
-        String bedeutString = _editTextBedeutung.getText().toString().trim();
+        final String bedeutString = _editTextBedeutung.getText().toString().trim();
         if (bedeutString.length() == 0) {
 
             showToast("Bitte auch Bedeutung für die Abkürzung eingeben!");
             return;
         }
 
-        try {
+        final int kategorie = gewaehlteKategorie();
 
-            // Zuerst schauen, ob es diese Abk. in der DB schon gibt
-            resultStrs = _datenbankManager.sucheNachAbk(abkString);
-            if (resultStrs.length > 0) {
+        _buttonEinfuegen.setEnabled(false);
 
-                _datenbankManager.insertBedeutung(abkString, bedeutString);
-                showToast("Neue Bedeutung in Datenbank eingefügt.");
+        _auftraege.starte(
+                () -> {
 
-            } else { // Die Abk. ist noch nicht in der Datenbank
+                    // Abk. wird angelegt, falls es sie noch nicht gibt
+                    switch ( _datenbankManager.fuegeBedeutungHinzu(abkString, bedeutString, true, kategorie) ) {
 
-                _datenbankManager.insertGanzNeueAbk(abkString, bedeutString);
-                showToast("Neue Abkürzung in Datenbank eingefügt.");
-            }
+                        case NEUE_ABKUERZUNG:
+                            return "Neue Abkürzung in Datenbank eingefügt.";
 
+                        case NEUE_BEDEUTUNG:
+                            return "Neue Bedeutung in Datenbank eingefügt.";
 
-            // *** Nach erfolgreicher Einfüge-Operation ***
-            _editTextAbk.setText      ("");
-            _editTextBedeutung.setText("");
+                        default:
+                            return "Diese Bedeutung ist schon in der Datenbank.";
+                    }
+                },
+                new IDatenbankRueckruf<String>() {
 
-        }
-        catch (Exception ex) {
+                    @Override
+                    public void onErgebnis(String meldung) {
 
-            errorMsg = "Exception beim Einfügen neuer Abk+Bedeutung aufgetreten: " + ex;
-            Log.e(TAG4LOGGING, errorMsg );
-        }
+                        showToast(meldung);
+
+                        // *** Nach erfolgreicher Einfüge-Operation ***
+                        _editTextAbk.setText      ("");
+                        _editTextBedeutung.setText("");
+                        _buttonEinfuegen.setEnabled(true);
+                    }
+
+                    @Override
+                    public void onFehler(Exception ex) {
+
+                        String errorMsg = "Exception beim Einfügen neuer Abk+Bedeutung aufgetreten: " + ex;
+                        Log.e(TAG4LOGGING, errorMsg );
+                        _buttonEinfuegen.setEnabled(true);
+                    }
+                });
     }
 
 
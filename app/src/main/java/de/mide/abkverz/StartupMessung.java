@@ -0,0 +1,138 @@
+package de.mide.abkverz;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Misst beim Start der App, wann bestimmte Meilensteine zum ersten Mal erreicht werden,
+ * jeweils in Millisekunden seit dem Start des App-Prozesses. Damit lassen sich die Zeit
+ * bis zum ersten Frame und die Zeit bis zum ersten Suchergebnis getrennt messen; die
+ * Werte werden geloggt und stehen im Bericht von {@code dumpsys}, siehe
+ * {@link MainActivity#dump(String, java.io.FileDescriptor, PrintWriter, String[])}.
+ * <br><br>
+ *
+ * Für Details mit Perfetto oder systrace sind die wichtigsten Abschnitte zusätzlich mit
+ * {@link android.os.Trace} markiert (z.B. {@code MainActivity.onCreate} und
+ * {@code DatenbankManager.vorwaermen}).
+ * <br><br>
+ *
+ * Alle Methoden sind thread-safe.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class StartupMessung implements IGlobalConstants {
+
+    /** Gemessene Meilensteine, in der Reihenfolge, in der sie normalerweise erreicht werden. */
+    public enum Meilenstein {
+
+        /** Erster Frame von {@link MainActivity} ist gezeichnet. */
+        ERSTER_FRAME,
+
+        /** Datenbank ist geöffnet (ggf. angelegt) und vorgewärmt, siehe {@link DatenbankManager#vorwaermen()}. */
+        DB_BEREIT,
+
+        /** Erstes Ergebnis einer Suche wird angezeigt. */
+        ERSTE_SUCHE
+    }
+
+    /** Messung für den App-Prozess. */
+    protected static final StartupMessung sInstanz = new StartupMessung();
+
+
+    /** Pro Meilenstein die Millisekunden seit Prozess-Start, -1 solange nicht erreicht. */
+    protected final AtomicLongArray _millis = new AtomicLongArray( Meilenstein.values().length );
+
+
+    /**
+     * Liefert die Messung für den App-Prozess.
+     *
+     * @return  Einziges Objekt für die App.
+     */
+    public static StartupMessung getInstanz() {
+
+        return sInstanz;
+    }
+
+
+    /**
+     * Konstruktor, noch kein Meilenstein ist erreicht.
+     */
+    protected StartupMessung() {
+
+        for ( int i = 0; i < _millis.length(); i++ ) {
+
+            _millis.set( i, -1 );
+        }
+    }
+
+
+    /**
+     * Vermerkt, dass ein Meilenstein erreicht ist; nur der erste Aufruf pro Meilenstein
+     * zählt, alle weiteren kosten fast nichts.
+     *
+     * @param meilenstein  Erreichter Meilenstein.
+     */
+    public void markiere( Meilenstein meilenstein ) {
+
+        if ( _millis.get( meilenstein.ordinal() ) >= 0 ) {
+
+            return;
+        }
+
+        long millis = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        if ( setze( meilenstein, millis ) ) {
+
+            Log.i( TAG4LOGGING, "Start: " + meilenstein + " nach " + millis + " ms." );
+        }
+    }
+
+
+    /**
+     * Setzt den Zeitpunkt eines Meilensteins, falls er noch nicht gesetzt ist.
+     *
+     * @param meilenstein  Erreichter Meilenstein.
+     *
+     * @param millis  Millisekunden seit Prozess-Start.
+     *
+     * @return  {@code true}, wenn der Zeitpunkt gesetzt wurde.
+     */
+    protected boolean setze( Meilenstein meilenstein, long millis ) {
+
+        return _millis.compareAndSet( meilenstein.ordinal(), -1, Math.max( millis, 0 ) );
+    }
+
+
+    /**
+     * Getter für den Zeitpunkt eines Meilensteins.
+     *
+     * @param meilenstein  Meilenstein.
+     *
+     * @return  Millisekunden seit Prozess-Start, oder -1 wenn (noch) nicht erreicht.
+     */
+    public long getMillis( Meilenstein meilenstein ) {
+
+        return _millis.get( meilenstein.ordinal() );
+    }
+
+
+    /**
+     * Schreibt eine Zeile pro Meilenstein.
+     *
+     * @param writer  Ziel für den Bericht.
+     */
+    public void bericht( PrintWriter writer ) {
+
+        for ( Meilenstein meilenstein: Meilenstein.values() ) {
+
+            long millis = getMillis( meilenstein );
+            writer.println( meilenstein + ": " + ( millis < 0 ? "noch nicht erreicht" : millis + " ms" ) );
+        }
+    }
+
+};
@@ -0,0 +1,315 @@
+package de.mide.abkverz;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Cache für Prepared Statements ({@link SQLiteStatement}), Schlüssel ist der SQL-Text.
+ * <br><br>
+ *
+ * Alle SQL-Texte sind Konstanten mit Platzhaltern ("?"), die Werte werden nur gebunden
+ * und nie in den SQL-Text hineinkopiert (keine SQL-Injection möglich). Jedes Statement
+ * wird deshalb nur einmal von SQLite geparst und geplant; danach werden bei jedem Aufruf
+ * nur noch die Werte gebunden. Die Zähler {@link #getAnzahlTreffer()} und
+ * {@link #getAnzahlFehlschlaege()} zeigen, wie oft das gelungen ist.
+ * <br><br>
+ *
+ * Ein {@link SQLiteStatement} darf nicht von zwei Threads gleichzeitig gebunden und
+ * ausgeführt werden. Statt alle Aufrufe mit demselben SQL-Text zu serialisieren (was im
+ * WAL-Modus parallele Leser ausbremsen würde), leiht sich jeder Aufruf ein freies
+ * Statement für den SQL-Text aus und gibt es danach zurück; nur wenn gerade alle
+ * ausgeliehen sind, wird ein weiteres kompiliert. Es gibt also pro SQL-Text höchstens so
+ * viele Statements, wie Threads gleichzeitig damit arbeiten.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class StatementCache {
+
+    /** Kompilierte Statements, die gerade nicht verwendet werden; Schlüssel ist der SQL-Text. */
+    protected final Map<String,ArrayDeque<SQLiteStatement>> _freieStatements = new HashMap<>();
+
+    /**
+     * Gerade ausgeliehene Statements; fehlt ein Statement bei der Rückgabe hier, dann wurde
+     * der Cache inzwischen mit {@link #schliessen()} geleert und das Statement wird geschlossen.
+     */
+    protected final Set<SQLiteStatement> _ausgelieheneStatements = new HashSet<>();
+
+    /** Anzahl der Aufrufe, bei denen das Statement schon kompiliert war. */
+    protected final AtomicLong _anzahlTreffer = new AtomicLong();
+
+    /** Anzahl der Aufrufe, bei denen das Statement erst kompiliert werden musste. */
+    protected final AtomicLong _anzahlFehlschlaege = new AtomicLong();
+
+
+    /**
+     * Kompiliert ein Statement für den SQL-Text vorab, falls es noch keines gibt; z.B. beim
+     * Vorwärmen der Datenbank.
+     *
+     * @param db  Datenbank, für die das Statement kompiliert wird.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     */
+    public void vorbereiten( SQLiteDatabase db, String sql ) throws SQLException {
+
+        zurueckgeben( sql, ausleihen( db, sql ) );
+    }
+
+
+    /**
+     * Leiht ein freies kompiliertes Statement für den SQL-Text aus; ist keines frei, dann
+     * wird ein neues kompiliert (außerhalb der Sperre des Caches). Das Statement muss mit
+     * {@link #zurueckgeben(String, SQLiteStatement)} zurückgegeben werden.
+     *
+     * @param db  Datenbank, für die das Statement kompiliert wird.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @return  Statement, das bis zur Rückgabe nur vom aufrufenden Thread verwendet wird.
+     */
+    protected SQLiteStatement ausleihen( SQLiteDatabase db, String sql ) throws SQLException {
+
+        synchronized ( this ) {
+
+            ArrayDeque<SQLiteStatement> freie = _freieStatements.get( sql );
+            SQLiteStatement statement = freie == null ? null : freie.pollFirst();
+            if ( statement != null ) {
+
+                _anzahlTreffer.incrementAndGet();
+                _ausgelieheneStatements.add( statement );
+                return statement;
+            }
+        }
+
+        _anzahlFehlschlaege.incrementAndGet();
+        SQLiteStatement statement = db.compileStatement( sql );
+
+        synchronized ( this ) {
+
+            _ausgelieheneStatements.add( statement );
+        }
+        return statement;
+    }
+
+
+    /**
+     * Gibt ein mit {@link #ausleihen(SQLiteDatabase, String)} ausgeliehenes Statement zurück.
+     *
+     * @param sql  SQL-Text, für den das Statement ausgeliehen wurde.
+     *
+     * @param statement  Ausgeliehenes Statement.
+     */
+    protected synchronized void zurueckgeben( String sql, SQLiteStatement statement ) {
+
+        if ( !_ausgelieheneStatements.remove( statement ) ) {
+
+            statement.close(); // Cache wurde inzwischen geschlossen
+            return;
+        }
+
+        ArrayDeque<SQLiteStatement> freie = _freieStatements.get( sql );
+        if ( freie == null ) {
+
+            freie = new ArrayDeque<>();
+            _freieStatements.put( sql, freie );
+        }
+        freie.addFirst( statement );
+    }
+
+
+    /**
+     * Führt ein {@code INSERT} aus.
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @param werte  Werte für die Platzhalter ({@code String} oder {@code Long}/{@code Integer}).
+     *
+     * @return  Row-ID der neuen Zeile, oder -1 wenn nichts eingefügt wurde.
+     */
+    public long insert( SQLiteDatabase db, String sql, Object... werte ) throws SQLException {
+
+        SQLiteStatement statement = ausleihen( db, sql );
+        try {
+
+            binde( statement, werte );
+            return statement.executeInsert();
+        }
+        finally {
+
+            zurueckgeben( sql, statement );
+        }
+    }
+
+
+    /**
+     * Führt ein {@code UPDATE} oder {@code DELETE} aus.
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @param werte  Werte für die Platzhalter ({@code String} oder {@code Long}/{@code Integer}).
+     *
+     * @return  Anzahl der geänderten Zeilen.
+     */
+    public int updateDelete( SQLiteDatabase db, String sql, Object... werte ) throws SQLException {
+
+        SQLiteStatement statement = ausleihen( db, sql );
+        try {
+
+            binde( statement, werte );
+            return statement.executeUpdateDelete();
+        }
+        finally {
+
+            zurueckgeben( sql, statement );
+        }
+    }
+
+
+    /**
+     * Führt eine Abfrage aus, die genau einen Zahlenwert liefert (erste Spalte der
+     * ersten Zeile).
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @param standardWert  Rückgabewert, wenn die Abfrage keine Zeile liefert.
+     *
+     * @param werte  Werte für die Platzhalter ({@code String} oder {@code Long}/{@code Integer}).
+     *
+     * @return  Ergebnis der Abfrage oder {@code standardWert}.
+     */
+    public long abfrageLong( SQLiteDatabase db, String sql, long standardWert, Object... werte )
+            throws SQLException {
+
+        SQLiteStatement statement = ausleihen( db, sql );
+        try {
+
+            binde( statement, werte );
+            return statement.simpleQueryForLong();
+        }
+        catch ( SQLiteDoneException ex ) { // keine Ergebniszeile
+
+            return standardWert;
+        }
+        finally {
+
+            zurueckgeben( sql, statement );
+        }
+    }
+
+
+    /**
+     * Führt eine Abfrage aus, die genau einen String liefert (erste Spalte der ersten Zeile).
+     *
+     * @param db  Datenbank.
+     *
+     * @param sql  Konstanter SQL-Text mit Platzhaltern.
+     *
+     * @param werte  Werte für die Platzhalter ({@code String} oder {@code Long}/{@code Integer}).
+     *
+     * @return  Ergebnis der Abfrage; {@code null}, wenn keine Zeile oder SQL-NULL.
+     */
+    public String abfrageString( SQLiteDatabase db, String sql, Object... werte ) throws SQLException {
+
+        SQLiteStatement statement = ausleihen( db, sql );
+        try {
+
+            binde( statement, werte );
+            return statement.simpleQueryForString();
+        }
+        catch ( SQLiteDoneException ex ) { // keine Ergebniszeile
+
+            return null;
+        }
+        finally {
+
+            zurueckgeben( sql, statement );
+        }
+    }
+
+
+    /**
+     * Bindet die Werte an die Platzhalter des Statements.
+     *
+     * @param statement  Kompiliertes Statement.
+     *
+     * @param werte  Werte für die Platzhalter in der Reihenfolge der Platzhalter.
+     */
+    protected static void binde( SQLiteStatement statement, Object... werte ) {
+
+        statement.clearBindings();
+
+        for ( int i = 0; i < werte.length; i++ ) {
+
+            Object wert = werte[ i ];
+            if ( wert == null ) {
+
+                statement.bindNull( i + 1 );
+
+            } else if ( wert instanceof Number ) {
+
+                statement.bindLong( i + 1, ( (Number) wert ).longValue() );
+
+            } else {
+
+                statement.bindString( i + 1, wert.toString() );
+            }
+        }
+    }
+
+
+    /**
+     * Schließt alle freien Statements, z.B. bevor die Datenbank geschlossen wird; gerade
+     * ausgeliehene werden bei ihrer Rückgabe geschlossen.
+     */
+    public synchronized void schliessen() {
+
+        for ( ArrayDeque<SQLiteStatement> freie: _freieStatements.values() ) {
+
+            for ( SQLiteStatement statement: freie ) {
+
+                statement.close();
+            }
+        }
+        _freieStatements.clear();
+        _ausgelieheneStatements.clear();
+    }
+
+
+    /**
+     * Getter für Anzahl der Cache-Treffer.
+     *
+     * @return  Anzahl der Aufrufe, bei denen das Statement nicht neu kompiliert werden musste.
+     */
+    public long getAnzahlTreffer() {
+
+        return _anzahlTreffer.get();
+    }
+
+
+    /**
+     * Getter für Anzahl der Cache-Fehlschläge.
+     *
+     * @return  Anzahl der Aufrufe, bei denen das Statement kompiliert werden musste.
+     */
+    public long getAnzahlFehlschlaege() {
+
+        return _anzahlFehlschlaege.get();
+    }
+
+};
@@ -0,0 +1,664 @@
+package de.mide.abkverz;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Abgleich der Datenbank des {@link DatenbankManager} mit einem zentralen Sync-Server
+ * ({@link SyncVerbindung}); statt die ganze Datei {@code abkverz.db} zu kopieren, werden
+ * nur die Änderungen seit dem letzten Abgleich übertragen:
+ * <ol>
+ *   <li><b>Senden:</b> Die lokalen Änderungen mit höherem Stand (Spalte {@code aenderung},
+ *       siehe {@link AbkExporter}) als beim letzten Senden werden seitenweise an den Server
+ *       geschickt, erst die Löschungen, dann die eingefügten Bedeutungen;</li>
+ *   <li><b>Abholen:</b> Die Änderungen des Servers seit dem gespeicherten Sync-Token werden
+ *       seitenweise ({@link #setSeitenGroesse(int)}) abgeholt und in Transaktionen mit je
+ *       höchstens {@link #setChunkGroesse(int)} Änderungen übernommen.</li>
+ * </ol>
+ * Das Token und der Stand des letzten Sendens stehen in Tabelle {@code metadaten} und werden
+ * in derselben Transaktion wie die übernommenen Änderungen geschrieben; ein abgebrochener
+ * Abgleich macht beim nächsten Mal an dieser Stelle weiter. Eine Änderung doppelt zu
+ * übernehmen oder zu senden ändert nichts.
+ * <br><br>
+ *
+ * Suchen werden nicht blockiert (Write-Ahead-Logging); die Schreib-Sperre wird nur für eine
+ * Transaktion gehalten und danach freigegeben, solange ein anderer Thread auf sie wartet.
+ * Nach jeder Transaktion werden {@link AbkIndex} und {@link AbkCache} für die geänderten
+ * Abkürzungen aktualisiert; wurden Bedeutungen gelöscht, dann wird außerdem der
+ * {@link AbkSnapshot} verworfen, denn er würde sie weiter liefern.
+ * <br><br>
+ *
+ * Wurde eine Bedeutung lokal geändert und noch nicht gesendet, dann wird die Änderung des
+ * Servers mit {@link SyncAenderung#loeseKonflikt(SyncAenderung, SyncAenderung, long)}
+ * aufgelöst, derselben Regel, die der Server beim Senden der lokalen Änderung anwendet.
+ * Ab Schema-Version 9 erfassen die Trigger auch geänderte Kategorien, sie werden also
+ * ebenfalls gesendet.
+ * <br><br>
+ *
+ * Der Abgleich greift auf Netzwerk und Datenbank zu und darf nicht auf dem UI-Thread
+ * ausgeführt werden, siehe {@link SyncJob}.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class SyncAbgleich implements IGlobalConstants {
+
+    /** Default-Wert für Anzahl der Änderungen pro Seite (in beide Richtungen). */
+    public static final int DEFAULT_SEITEN_GROESSE = 500;
+
+    /** Default-Wert für Anzahl der Änderungen pro Transaktion beim Übernehmen. */
+    public static final int DEFAULT_CHUNK_GROESSE = 100;
+
+    /**
+     * Werden in einer Transaktion mehr Abkürzungen geändert, dann wird der {@link AbkIndex}
+     * verworfen statt jede Abkürzung einzeln neu zu lesen.
+     */
+    protected static final int MAX_EINZELN_AKTUALISIEREN = 64;
+
+    /** Wartezeit, wenn ein anderer Thread auf die Schreib-Sperre wartet. */
+    protected static final long PAUSE_MILLIS = 50;
+
+    /** Schlüssel in {@code metadaten} für das Token des letzten abgeholten Stands des Servers. */
+    protected static final String SCHLUESSEL_SYNC_TOKEN = "sync_token";
+
+    /** Schlüssel in {@code metadaten} für den lokalen Stand, bis zu dem alle Änderungen gesendet sind. */
+    protected static final String SCHLUESSEL_SYNC_GESENDET = "sync_gesendet";
+
+    /**
+     * Wie {@link AbkExporter#SQL_GEAENDERTE_BEDEUTUNGEN} (gleiche Platzhalter, gleiche erste
+     * vier Spalten), zusätzlich mit Schlüssel der Abkürzung und Kategorie.
+     */
+    protected static final String SQL_LOKAL_GEAENDERT =
+            "SELECT bedeutungen.bedeutung_id, abkuerzungen.abkuerzung, " +
+            "       bedeutungen.bedeutung, bedeutungen.aenderung, " +
+            "       abkuerzungen.abk_schluessel, bedeutungen.kategorie " +
+            "  FROM bedeutungen, abkuerzungen " +
+            "  WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+            "    AND bedeutungen.aenderung >= CAST(?1 AS INTEGER) " +
+            "    AND ( bedeutungen.aenderung > CAST(?1 AS INTEGER) " +
+            "          OR bedeutungen.bedeutung_id > CAST(?2 AS INTEGER) ) " +
+            "    AND bedeutungen.aenderung <= CAST(?3 AS INTEGER) " +
+            "  ORDER BY bedeutungen.aenderung ASC, bedeutungen.bedeutung_id ASC " +
+            "  LIMIT CAST(?4 AS INTEGER)";
+
+    /**
+     * Query für Kategorie einer Bedeutung (Platzhalter: Schlüssel der Abkürzung, Bedeutung);
+     * liest über {@code abkuerzung_index_schluessel} nur den Bereich der Abkürzung in einem
+     * Index von {@code bedeutungen} (nach {@code ANALYZE} direkt {@code bedeutungen_index_abk_bedeutung}).
+     */
+    protected static final String SQL_LOKALE_KATEGORIE =
+            "SELECT kategorie FROM bedeutungen " +
+            "  WHERE abkuerzung = ( SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ? ) " +
+            "    AND bedeutung = ? " +
+            "  LIMIT 1";
+
+    /** Wie {@link #SQL_LOKALE_KATEGORIE}, aber nur für eine nach Stand {@code ?3} geänderte Bedeutung. */
+    protected static final String SQL_LOKALE_KATEGORIE_SEIT =
+            "SELECT kategorie FROM bedeutungen " +
+            "  WHERE abkuerzung = ( SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ? ) " +
+            "    AND bedeutung = ? AND aenderung > ? " +
+            "  LIMIT 1";
+
+    /** Query für die nach Stand {@code ?} gelöschten Bedeutungen. */
+    protected static final String SQL_LOKAL_GELOESCHT_SEIT =
+            "SELECT abkuerzung, bedeutung FROM geloeschte_bedeutungen WHERE aenderung > ?";
+
+    /** Statement zum Löschen einer Bedeutung (Platzhalter: Schlüssel der Abkürzung, Bedeutung). */
+    protected static final String SQL_BEDEUTUNG_LOESCHEN =
+            "DELETE FROM bedeutungen " +
+            "  WHERE abkuerzung = ( SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ? ) " +
+            "    AND bedeutung = ?";
+
+    /** Statement zum Setzen der Kategorie einer Bedeutung (Platzhalter: Kategorie, Schlüssel, Bedeutung). */
+    protected static final String SQL_KATEGORIE_SETZEN =
+            "UPDATE bedeutungen SET kategorie = ? " +
+            "  WHERE abkuerzung = ( SELECT abk_id FROM abkuerzungen WHERE abk_schluessel = ? ) " +
+            "    AND bedeutung = ?";
+
+
+    /** Abzugleichende Datenbank. */
+    protected final DatenbankManager _dbManager;
+
+    /** Verbindung zum Sync-Server. */
+    protected final SyncVerbindung _verbindung;
+
+    /** Anzahl der Änderungen pro Seite. */
+    protected int _seitenGroesse = DEFAULT_SEITEN_GROESSE;
+
+    /** Anzahl der Änderungen pro Transaktion. */
+    protected int _chunkGroesse = DEFAULT_CHUNK_GROESSE;
+
+    /** Wird von {@link #abbrechen()} gesetzt. */
+    protected volatile boolean _abgebrochen = false;
+
+    /** Zuletzt gespeichertes Sync-Token. */
+    protected long _token = 0;
+
+    /** Zuletzt gespeicherter lokaler Stand, bis zu dem alle Änderungen gesendet sind. */
+    protected long _gesendetStand = AbkExporter.ALLES;
+
+    /** Anzahl der im laufenden Abgleich gesendeten Änderungen. */
+    protected long _anzahlGesendet = 0;
+
+    /** Anzahl der im laufenden Abgleich empfangenen Änderungen. */
+    protected long _anzahlEmpfangen = 0;
+
+    /** Anzahl der im laufenden Abgleich angewendeten Änderungen. */
+    protected long _anzahlAngewendet = 0;
+
+    /** Anzahl der im laufenden Abgleich aufgelösten Konflikte. */
+    protected long _anzahlKonflikte = 0;
+
+
+    /**
+     * Konstruktor für einen Abgleich.
+     *
+     * @param dbManager  Abzugleichende Datenbank.
+     *
+     * @param verbindung  Verbindung zum Sync-Server.
+     */
+    public SyncAbgleich( DatenbankManager dbManager, SyncVerbindung verbindung ) {
+
+        _dbManager  = dbManager;
+        _verbindung = verbindung;
+    }
+
+
+    /**
+     * Setter für Anzahl der Änderungen pro Seite.
+     *
+     * @param seitenGroesse  Anzahl, muss mindestens 1 sein.
+     */
+    public void setSeitenGroesse( int seitenGroesse ) {
+
+        if ( seitenGroesse < 1 ) {
+
+            throw new IllegalArgumentException( "Seitengröße muss mindestens 1 sein: " + seitenGroesse );
+        }
+        _seitenGroesse = seitenGroesse;
+    }
+
+
+    /**
+     * Setter für Anzahl der Änderungen pro Transaktion beim Übernehmen; kleinere Werte
+     * geben die Schreib-Sperre öfter frei.
+     *
+     * @param chunkGroesse  Anzahl, muss mindestens 1 sein.
+     */
+    public void setChunkGroesse( int chunkGroesse ) {
+
+        if ( chunkGroesse < 1 ) {
+
+            throw new IllegalArgumentException( "Chunk-Größe muss mindestens 1 sein: " + chunkGroesse );
+        }
+        _chunkGroesse = chunkGroesse;
+    }
+
+
+    /**
+     * Bricht den Abgleich nach der aktuellen Seite bzw. Transaktion ab; kann von jedem
+     * Thread aus aufgerufen werden.
+     */
+    public void abbrechen() {
+
+        _abgebrochen = true;
+    }
+
+
+    /**
+     * Führt den Abgleich aus: erst senden, dann abholen.
+     *
+     * @return  Statistik des Abgleichs.
+     *
+     * @throws IOException  Fehler bei der Übertragung; was bis dahin übernommen wurde, bleibt
+     *                      erhalten.
+     *
+     * @throws SQLException  Fehler beim Lesen oder Schreiben der Datenbank.
+     */
+    public SyncErgebnis ausfuehren() throws IOException, SQLException {
+
+        DbMetriken     metriken = _dbManager.getMetriken();
+        long           start    = metriken.start();
+        long           beginn   = SystemClock.elapsedRealtime();
+        SQLiteDatabase db       = _dbManager.getWritableDatabase();
+
+        _anzahlGesendet   = 0;
+        _anzahlEmpfangen  = 0;
+        _anzahlAngewendet = 0;
+        _anzahlKonflikte  = 0;
+
+        try {
+
+            StatementCache statementCache = _dbManager.getStatementCache();
+            _token         = statementCache.abfrageLong( db, AbkExporter.SQL_METADATEN, 0,
+                                                         SCHLUESSEL_SYNC_TOKEN );
+            _gesendetStand = statementCache.abfrageLong( db, AbkExporter.SQL_METADATEN, AbkExporter.ALLES,
+                                                         SCHLUESSEL_SYNC_GESENDET );
+
+            senden( db );
+            abholen( db );
+        }
+        catch ( IOException ex ) {
+
+            metriken.fehler( DbMetriken.Operation.SYNC );
+            throw ex;
+        }
+        catch ( SQLException ex ) {
+
+            metriken.fehler( DbMetriken.Operation.SYNC );
+            throw ex;
+        }
+
+        SyncErgebnis ergebnis = new SyncErgebnis( _anzahlGesendet, _anzahlEmpfangen, _anzahlAngewendet,
+                                                  _anzahlKonflikte, _token,
+                                                  SystemClock.elapsedRealtime() - beginn, _abgebrochen );
+
+        metriken.ende( DbMetriken.Operation.SYNC, start, _anzahlAngewendet, null );
+
+        Log.i( TAG4LOGGING, "Abgleich mit Sync-Server: " + ergebnis );
+
+        return ergebnis;
+    }
+
+
+    /**
+     * Sendet alle lokalen Änderungen nach {@link #_gesendetStand} bis zum aktuellen Stand und
+     * speichert danach diesen Stand.
+     *
+     * @param db  Abzugleichende Datenbank.
+     */
+    protected void senden( SQLiteDatabase db ) throws IOException, SQLException {
+
+        long bis = _dbManager.getStatementCache().abfrageLong( db, AbkExporter.SQL_METADATEN, 0,
+                                                               AbkExporter.SCHLUESSEL_AENDERUNG );
+        if ( bis <= _gesendetStand ) {
+
+            return;
+        }
+
+        sendeSeitenweise( db, AbkExporter.SQL_GELOESCHTE_BEDEUTUNGEN, bis, true );
+        sendeSeitenweise( db, SQL_LOKAL_GEAENDERT, bis, false );
+        if ( _abgebrochen ) {
+
+            return; // beim nächsten Mal wird alles noch einmal gesendet
+        }
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        sperre.lock();
+        try {
+
+            _dbManager.getStatementCache().insert( db, AbkExporter.SQL_METADATEN_SETZEN,
+                                                   SCHLUESSEL_SYNC_GESENDET, bis );
+            _gesendetStand = bis;
+        }
+        finally {
+
+            sperre.unlock();
+        }
+    }
+
+
+    /**
+     * Liest die Zeilen einer Query seitenweise (Keyset-Paginierung wie in
+     * {@link AbkExporter#exportiereSeitenweise}) und sendet jede Seite.
+     *
+     * @param db  Abzugleichende Datenbank.
+     *
+     * @param sql  {@link AbkExporter#SQL_GELOESCHTE_BEDEUTUNGEN} oder {@link #SQL_LOKAL_GEAENDERT}.
+     *
+     * @param bis  Nur Zeilen mit höchstens diesem Stand.
+     *
+     * @param geloescht  {@code true}, wenn die Zeilen gelöschte Bedeutungen sind.
+     */
+    protected void sendeSeitenweise( SQLiteDatabase db, String sql, long bis, boolean geloescht )
+            throws IOException, SQLException {
+
+        long                letzterStand = _gesendetStand;
+        long                letzteId     = Long.MAX_VALUE; // beim ersten Mal nur "aenderung > seit"
+        int                 gelesen      = 0;
+        List<SyncAenderung> seite        = new ArrayList<>( _seitenGroesse );
+
+        do {
+
+            gelesen = 0;
+            seite.clear();
+
+            Cursor cursor = db.rawQuery( sql,
+                    new String[]{ Long.toString( letzterStand ), Long.toString( letzteId ),
+                                  Long.toString( bis ), Integer.toString( _seitenGroesse ) } );
+            try {
+
+                while ( cursor.moveToNext() ) {
+
+                    letzteId     = cursor.getLong( 0 );
+                    letzterStand = cursor.getLong( 3 );
+                    gelesen++;
+
+                    String abk       = cursor.getString( 1 );
+                    String bedeutung = cursor.getString( 2 );
+                    if ( abk == null ) {
+
+                        continue; // Abkürzung war schon vor der Bedeutung gelöscht
+                    }
+
+                    if ( geloescht ) {
+
+                        String schluessel = AbkNormalisierer.schluessel( abk );
+                        if ( _dbManager.getStatementCache().abfrageLong( db, SQL_LOKALE_KATEGORIE, -1,
+                                                                          schluessel, bedeutung ) == -1 ) {
+
+                            seite.add( new SyncAenderung( schluessel, abk, bedeutung,
+                                                          DatenbankManager.KATEGORIE_ALLGEMEIN, true, 0 ) );
+                        }
+                        // sonst wieder eingefügt, das Einfügen wird mit den geänderten Bedeutungen gesendet
+
+                    } else {
+
+                        seite.add( new SyncAenderung( cursor.getString( 4 ), abk, bedeutung,
+                                                      cursor.getInt( 5 ), false, 0 ) );
+                    }
+                }
+            }
+            finally {
+
+                cursor.close();
+            }
+
+            if ( !seite.isEmpty() ) {
+
+                _verbindung.sende( seite, _token );
+                _anzahlGesendet += seite.size();
+            }
+
+        } while ( gelesen == _seitenGroesse && !_abgebrochen );
+    }
+
+
+    /**
+     * Holt die Änderungen des Servers seitenweise ab und übernimmt sie.
+     *
+     * @param db  Abzugleichende Datenbank.
+     */
+    protected void abholen( SQLiteDatabase db ) throws IOException, SQLException {
+
+        boolean weitere = true;
+        while ( weitere && !_abgebrochen ) {
+
+            SyncVerbindung.Seite seite       = _verbindung.holeSeite( _token, _seitenGroesse );
+            List<SyncAenderung>  aenderungen = seite.getAenderungen();
+            int                  anzahl      = aenderungen.size();
+
+            _anzahlEmpfangen += anzahl;
+
+            if ( anzahl == 0 ) {
+
+                if ( seite.getToken() != _token ) {
+
+                    uebernehmeChunk( db, aenderungen, seite.getToken() );
+                }
+                break;
+            }
+
+            int von = 0;
+            do {
+
+                int  bis   = Math.min( von + _chunkGroesse, anzahl );
+                long token = bis == anzahl ? seite.getToken() : aenderungen.get( bis - 1 ).getStand();
+
+                uebernehmeChunk( db, aenderungen.subList( von, bis ), token );
+                von = bis;
+
+                pausieren();
+
+            } while ( von < anzahl && !_abgebrochen );
+
+            weitere = seite.isWeitere();
+        }
+    }
+
+
+    /**
+     * Übernimmt einige Änderungen des Servers in einer Transaktion unter der Schreib-Sperre
+     * und speichert das neue Token; aktualisiert danach die geänderten Abkürzungen im
+     * {@link AbkIndex}.
+     *
+     * @param db  Abzugleichende Datenbank.
+     *
+     * @param aenderungen  Änderungen des Servers.
+     *
+     * @param token  Token nach diesen Änderungen.
+     */
+    protected void uebernehmeChunk( SQLiteDatabase db, List<SyncAenderung> aenderungen, long token )
+            throws SQLException {
+
+        StatementCache statementCache = _dbManager.getStatementCache();
+        Set<String>    geaendert      = new HashSet<>();
+        boolean        geloescht      = false;
+        long           gesendetStand  = _gesendetStand;
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        sperre.lock();
+        try {
+
+            db.beginTransactionNonExclusive();
+            try {
+
+                long    vorher         = statementCache.abfrageLong( db, AbkExporter.SQL_METADATEN, 0,
+                                                                     AbkExporter.SCHLUESSEL_AENDERUNG );
+                boolean lokalGeaendert = vorher > _gesendetStand;
+
+                Set<String> lokalGeloescht = lokalGeaendert ? ladeLokalGeloeschte( db )
+                                                            : Collections.<String>emptySet();
+
+                for ( SyncAenderung aenderung: aenderungen ) {
+
+                    SyncAenderung ziel = aenderung;
+                    if ( lokalGeaendert ) {
+
+                        SyncAenderung lokal = lokaleAenderung( db, aenderung, lokalGeloescht );
+                        if ( lokal != null ) {
+
+                            // Die lokale Änderung wird danach mit diesem Token als Basis gesendet
+                            ziel = SyncAenderung.loeseKonflikt( aenderung, lokal, token );
+                            _anzahlKonflikte++;
+                        }
+                    }
+
+                    if ( uebernehmen( db, ziel ) ) {
+
+                        geaendert.add( ziel.getSchluessel() );
+                        geloescht |= ziel.isGeloescht();
+                        _anzahlAngewendet++;
+                    }
+                }
+
+                // Ohne ungesendete lokale Änderungen müssen auch die eben übernommenen
+                // nicht zurück an den Server
+                if ( !lokalGeaendert ) {
+
+                    gesendetStand = statementCache.abfrageLong( db, AbkExporter.SQL_METADATEN, 0,
+                                                                AbkExporter.SCHLUESSEL_AENDERUNG );
+                    statementCache.insert( db, AbkExporter.SQL_METADATEN_SETZEN,
+                                           SCHLUESSEL_SYNC_GESENDET, gesendetStand );
+                }
+                statementCache.insert( db, AbkExporter.SQL_METADATEN_SETZEN, SCHLUESSEL_SYNC_TOKEN, token );
+
+                db.setTransactionSuccessful();
+            }
+            finally {
+
+                db.endTransaction();
+            }
+
+            _token         = token;
+            _gesendetStand = gesendetStand;
+
+            // Erst nach erfolgreichem Commit, noch unter der Schreib-Sperre
+            if ( geloescht ) {
+
+                _dbManager.snapshotVerwerfen();
+            }
+            if ( geaendert.size() > MAX_EINZELN_AKTUALISIEREN ) {
+
+                _dbManager.abkIndexVerwerfen();
+
+            } else {
+
+                for ( String schluessel: geaendert ) {
+
+                    _dbManager.abkAktualisieren( schluessel );
+                }
+            }
+        }
+        finally {
+
+            sperre.unlock();
+        }
+    }
+
+
+    /**
+     * Liest die Bedeutungen, die nach dem letzten Senden gelöscht wurden.
+     *
+     * @param db  Abzugleichende Datenbank.
+     *
+     * @return  Menge der {@link SyncAenderung#getSyncSchluessel()}.
+     */
+    protected Set<String> ladeLokalGeloeschte( SQLiteDatabase db ) throws SQLException {
+
+        Set<String> geloescht = new HashSet<>();
+
+        Cursor cursor = db.rawQuery( SQL_LOKAL_GELOESCHT_SEIT,
+                                     new String[]{ Long.toString( _gesendetStand ) } );
+        try {
+
+            while ( cursor.moveToNext() ) {
+
+                String abk = cursor.getString( 0 );
+                if ( abk != null ) {
+
+                    geloescht.add( AbkNormalisierer.schluessel( abk ) + SyncAenderung.TRENNER +
+                                   cursor.getString( 1 ) );
+                }
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+
+        return geloescht;
+    }
+
+
+    /**
+     * Liefert die noch nicht gesendete lokale Änderung zur selben Bedeutung wie eine Änderung
+     * des Servers.
+     *
+     * @param db  Abzugleichende Datenbank.
+     *
+     * @param aenderung  Änderung des Servers.
+     *
+     * @param lokalGeloescht  Ergebnis von {@link #ladeLokalGeloeschte(SQLiteDatabase)}.
+     *
+     * @return  Lokale Änderung mit Stand 0, oder {@code null}, wenn die Bedeutung lokal nicht
+     *          geändert wurde.
+     */
+    protected SyncAenderung lokaleAenderung( SQLiteDatabase db, SyncAenderung aenderung,
+                                             Set<String> lokalGeloescht ) throws SQLException {
+
+        StatementCache statementCache = _dbManager.getStatementCache();
+        String         schluessel     = aenderung.getSchluessel();
+        String         bedeutung      = aenderung.getBedeutung();
+
+        long kategorie = statementCache.abfrageLong( db, SQL_LOKALE_KATEGORIE_SEIT, -1,
+                                                     schluessel, bedeutung, _gesendetStand );
+        if ( kategorie != -1 ) {
+
+            return new SyncAenderung( schluessel, aenderung.getAbk(), bedeutung, (int) kategorie, false, 0 );
+        }
+
+        if ( lokalGeloescht.contains( aenderung.getSyncSchluessel() ) &&
+             statementCache.abfrageLong( db, SQL_LOKALE_KATEGORIE, -1, schluessel, bedeutung ) == -1 ) {
+
+            return new SyncAenderung( schluessel, aenderung.getAbk(), bedeutung,
+                                      DatenbankManager.KATEGORIE_ALLGEMEIN, true, 0 );
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Bringt eine Bedeutung in der Datenbank auf den Zustand einer Änderung.
+     *
+     * @param db  Abzugleichende Datenbank, in einer Transaktion.
+     *
+     * @param ziel  Zustand, den die Bedeutung haben soll.
+     *
+     * @return  {@code true}, wenn die Datenbank geändert wurde.
+     */
+    protected boolean uebernehmen( SQLiteDatabase db, SyncAenderung ziel ) throws SQLException {
+
+        StatementCache statementCache = _dbManager.getStatementCache();
+        String         schluessel     = ziel.getSchluessel();
+        String         bedeutung      = ziel.getBedeutung();
+
+        if ( schluessel.isEmpty() || bedeutung.isEmpty() ) {
+
+            Log.w( TAG4LOGGING, "Ungültige Änderung vom Sync-Server ignoriert: " + ziel );
+            return false;
+        }
+
+        if ( ziel.isGeloescht() ) {
+
+            return statementCache.updateDelete( db, SQL_BEDEUTUNG_LOESCHEN, schluessel, bedeutung ) > 0;
+        }
+
+        long kategorie = statementCache.abfrageLong( db, SQL_LOKALE_KATEGORIE, -1, schluessel, bedeutung );
+        if ( kategorie == ziel.getKategorie() ) {
+
+            return false;
+        }
+
+        if ( kategorie == -1 ) {
+
+            statementCache.insert( db, DatenbankManager.SQL_INSERT_ABK_FALLS_NEU,
+                                   AbkNormalisierer.anzeige( ziel.getAbk() ), schluessel );
+            statementCache.insert( db, DatenbankManager.SQL_INSERT_BEDEUTUNG,
+                                   bedeutung, ziel.getKategorie(), schluessel );
+
+        } else {
+
+            statementCache.updateDelete( db, SQL_KATEGORIE_SETZEN, ziel.getKategorie(), schluessel, bedeutung );
+        }
+        return true;
+    }
+
+
+    /**
+     * Wartet, solange ein anderer Thread auf die Schreib-Sperre wartet (die Sperre ist nicht
+     * fair, ohne Pause würde die nächste Transaktion sie sofort wieder bekommen).
+     */
+    protected void pausieren() {
+
+        ReentrantLock sperre = _dbManager.getSchreibSperre();
+        while ( sperre.hasQueuedThreads() && !_abgebrochen ) {
+
+            SystemClock.sleep( PAUSE_MILLIS );
+        }
+    }
+
+};
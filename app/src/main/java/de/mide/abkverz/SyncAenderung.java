@@ -0,0 +1,283 @@
+package de.mide.abkverz;
+
+
+/**
+ * Eine Änderung an einer Bedeutung, wie sie bei {@link SyncAbgleich} mit dem Sync-Server
+ * ausgetauscht wird: der aktuelle Zustand (vorhanden mit Kategorie, oder gelöscht) einer
+ * Bedeutung, identifiziert durch den Schlüssel der Abkürzung ({@link AbkNormalisierer#schluessel(String)})
+ * und den Text der Bedeutung; die IDs der Zeilen sind auf jedem Gerät andere.
+ * <br><br>
+ *
+ * Konflikte (dieselbe Bedeutung lokal und auf dem Server geändert) werden mit
+ * {@link #loeseKonflikt(SyncAenderung, SyncAenderung, long)} aufgelöst; Server und Gerät
+ * wenden dieselbe Regel an und kommen so unabhängig von der Reihenfolge zum selben Ergebnis.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class SyncAenderung {
+
+    /** Trennzeichen in {@link #getSyncSchluessel()} (Unit Separator). */
+    protected static final String TRENNER = "\u001F";
+
+    /** Schlüssel der Abkürzung. */
+    protected final String _schluessel;
+
+    /** Abkürzung in Anzeige-Schreibweise, für das Einfügen einer neuen Abkürzung. */
+    protected final String _abk;
+
+    /** Text der Bedeutung. */
+    protected final String _bedeutung;
+
+    /** ID der Kategorie, bei gelöschten Bedeutungen ohne Bedeutung. */
+    protected final int _kategorie;
+
+    /** {@code true}, wenn die Bedeutung gelöscht wurde. */
+    protected final boolean _geloescht;
+
+    /** Stand der Änderung auf dem Server, 0 für noch nicht gesendete lokale Änderungen. */
+    protected final long _stand;
+
+
+    /**
+     * Konstruktor für eine Änderung.
+     *
+     * @param abk  Abkürzung in beliebiger Schreibweise, der Schlüssel wird daraus berechnet.
+     *
+     * @param bedeutung  Text der Bedeutung.
+     *
+     * @param kategorie  ID der Kategorie, z.B. {@link DatenbankManager#KATEGORIE_ALLGEMEIN}.
+     *
+     * @param geloescht  {@code true}, wenn die Bedeutung gelöscht wurde.
+     *
+     * @param stand  Stand auf dem Server, oder 0.
+     */
+    public SyncAenderung( String abk, String bedeutung, int kategorie, boolean geloescht, long stand ) {
+
+        this( AbkNormalisierer.schluessel( abk ), abk, bedeutung, kategorie, geloescht, stand );
+    }
+
+
+    /**
+     * Konstruktor für eine Änderung mit bereits berechnetem Schlüssel.
+     *
+     * @param schluessel  Schlüssel der Abkürzung.
+     *
+     * @param abk  Abkürzung in Anzeige-Schreibweise.
+     *
+     * @param bedeutung  Text der Bedeutung.
+     *
+     * @param kategorie  ID der Kategorie.
+     *
+     * @param geloescht  {@code true}, wenn die Bedeutung gelöscht wurde.
+     *
+     * @param stand  Stand auf dem Server, oder 0.
+     */
+    public SyncAenderung( String schluessel, String abk, String bedeutung, int kategorie,
+                          boolean geloescht, long stand ) {
+
+        _schluessel = schluessel;
+        _abk        = abk;
+        _bedeutung  = bedeutung;
+        _kategorie  = kategorie;
+        _geloescht  = geloescht;
+        _stand      = stand;
+    }
+
+
+    /**
+     * Getter für Schlüssel der Abkürzung.
+     *
+     * @return  Normalisierter Schlüssel.
+     */
+    public String getSchluessel() {
+
+        return _schluessel;
+    }
+
+
+    /**
+     * Getter für Abkürzung.
+     *
+     * @return  Abkürzung in Anzeige-Schreibweise.
+     */
+    public String getAbk() {
+
+        return _abk;
+    }
+
+
+    /**
+     * Getter für Bedeutung.
+     *
+     * @return  Text der Bedeutung.
+     */
+    public String getBedeutung() {
+
+        return _bedeutung;
+    }
+
+
+    /**
+     * Getter für Kategorie.
+     *
+     * @return  ID der Kategorie.
+     */
+    public int getKategorie() {
+
+        return _kategorie;
+    }
+
+
+    /**
+     * Getter, ob die Bedeutung gelöscht wurde.
+     *
+     * @return  {@code true} für eine gelöschte Bedeutung.
+     */
+    public boolean isGeloescht() {
+
+        return _geloescht;
+    }
+
+
+    /**
+     * Getter für Stand auf dem Server.
+     *
+     * @return  Stand, oder 0 für eine lokale Änderung.
+     */
+    public long getStand() {
+
+        return _stand;
+    }
+
+
+    /**
+     * Schlüssel, unter dem Server und Gerät die Bedeutung führen.
+     *
+     * @return  Schlüssel der Abkürzung und Text der Bedeutung.
+     */
+    public String getSyncSchluessel() {
+
+        return _schluessel + TRENNER + _bedeutung;
+    }
+
+
+    /**
+     * Dieselbe Änderung mit anderem Stand, z.B. wenn der Server sie speichert.
+     *
+     * @param stand  Neuer Stand.
+     *
+     * @return  Neues Objekt.
+     */
+    public SyncAenderung mitStand( long stand ) {
+
+        return new SyncAenderung( _schluessel, _abk, _bedeutung, _kategorie, _geloescht, stand );
+    }
+
+
+    /**
+     * Prüft, ob zwei Änderungen denselben Zustand beschreiben (der Stand zählt nicht).
+     *
+     * @param andere  Andere Änderung, darf {@code null} sein.
+     *
+     * @return  {@code true}, wenn beide gelöscht sind oder beide vorhanden mit gleicher Kategorie.
+     */
+    public boolean gleicherZustand( SyncAenderung andere ) {
+
+        if ( andere == null || _geloescht != andere._geloescht ) {
+
+            return false;
+        }
+        return _geloescht || _kategorie == andere._kategorie;
+    }
+
+
+    /**
+     * Kategorie, wenn eine Bedeutung auf zwei Geräten in verschiedenen Kategorien eingetragen
+     * wurde: eine bestimmte Kategorie gewinnt gegen {@link DatenbankManager#KATEGORIE_ALLGEMEIN},
+     * sonst die kleinere ID. Die Regel ist kommutativ und ändert eine schon zusammengeführte
+     * Kategorie nicht mehr.
+     *
+     * @param a  Eine Kategorie.
+     *
+     * @param b  Andere Kategorie.
+     *
+     * @return  Gewinnende Kategorie.
+     */
+    public static int gewinnendeKategorie( int a, int b ) {
+
+        if ( a == DatenbankManager.KATEGORIE_ALLGEMEIN ) {
+
+            return b;
+        }
+        if ( b == DatenbankManager.KATEGORIE_ALLGEMEIN ) {
+
+            return a;
+        }
+        return Math.min( a, b );
+    }
+
+
+    /**
+     * Löst einen Konflikt zwischen dem bisherigen Zustand einer Bedeutung und einer neuen
+     * Änderung auf:
+     * <ul>
+     *   <li>zwei vorhandene Versionen werden mit {@link #gewinnendeKategorie(int, int)} zusammengeführt;</li>
+     *   <li>Einfügen gewinnt gegen Löschen, außer ...</li>
+     *   <li>... das Löschen kennt die bisherige Version schon (ihr Stand ist höchstens {@code basis}),
+     *       dann gilt das Löschen.</li>
+     * </ul>
+     *
+     * @param bisher  Bisheriger Zustand, oder {@code null}, wenn die Bedeutung unbekannt ist.
+     *
+     * @param neu  Neue Änderung.
+     *
+     * @param basis  Stand des Servers, den der Absender von {@code neu} zuletzt abgeholt hatte.
+     *
+     * @return  {@code bisher} oder {@code neu}, oder bei zwei verschiedenen Kategorien eine
+     *          neue Änderung mit dem Stand von {@code bisher}.
+     */
+    public static SyncAenderung loeseKonflikt( SyncAenderung bisher, SyncAenderung neu, long basis ) {
+
+        if ( bisher == null ) {
+
+            return neu;
+        }
+
+        if ( neu._geloescht ) {
+
+            if ( bisher._geloescht || bisher._stand > basis ) {
+
+                return bisher; // schon gelöscht, oder Einfügen ohne Kenntnis des Löschens
+            }
+            return neu;
+        }
+
+        if ( bisher._geloescht ) {
+
+            return neu;
+        }
+
+        int kategorie = gewinnendeKategorie( bisher._kategorie, neu._kategorie );
+        if ( kategorie == bisher._kategorie ) {
+
+            return bisher;
+        }
+        return new SyncAenderung( bisher._schluessel, bisher._abk, bisher._bedeutung,
+                                  kategorie, false, bisher._stand );
+    }
+
+
+    /**
+     * Änderung als Text, z.B. für das Log.
+     *
+     * @return  Abkürzung, Bedeutung, Kategorie bzw. "gelöscht" und Stand.
+     */
+    @Override
+    public String toString() {
+
+        return _abk + ": " + _bedeutung + ( _geloescht ? " (gelöscht" : " (Kategorie " + _kategorie ) +
+               ", Stand " + _stand + ")";
+    }
+
+};
@@ -0,0 +1,156 @@
+package de.mide.abkverz;
+
+
+/**
+ * Statistik eines Abgleichs mit dem Sync-Server, siehe {@link SyncAbgleich#ausfuehren()}.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class SyncErgebnis {
+
+    /** Anzahl der an den Server gesendeten lokalen Änderungen. */
+    protected final long _gesendet;
+
+    /** Anzahl der vom Server empfangenen Änderungen. */
+    protected final long _empfangen;
+
+    /** Anzahl der empfangenen Änderungen, die die lokale Datenbank geändert haben. */
+    protected final long _angewendet;
+
+    /** Anzahl der empfangenen Änderungen, zu denen es noch nicht gesendete lokale Änderungen gab. */
+    protected final long _konflikte;
+
+    /** Sync-Token nach dem Abgleich. */
+    protected final long _token;
+
+    /** Dauer des Abgleichs in Millisekunden. */
+    protected final long _millis;
+
+    /** {@code true}, wenn der Abgleich mit {@link SyncAbgleich#abbrechen()} abgebrochen wurde. */
+    protected final boolean _abgebrochen;
+
+
+    /**
+     * Konstruktor für das Ergebnis eines Abgleichs.
+     *
+     * @param gesendet  Anzahl der gesendeten Änderungen.
+     *
+     * @param empfangen  Anzahl der empfangenen Änderungen.
+     *
+     * @param angewendet  Anzahl der angewendeten Änderungen.
+     *
+     * @param konflikte  Anzahl der aufgelösten Konflikte.
+     *
+     * @param token  Sync-Token nach dem Abgleich.
+     *
+     * @param millis  Dauer in Millisekunden.
+     *
+     * @param abgebrochen  {@code true}, wenn abgebrochen.
+     */
+    public SyncErgebnis( long gesendet, long empfangen, long angewendet, long konflikte,
+                         long token, long millis, boolean abgebrochen ) {
+
+        _gesendet    = gesendet;
+        _empfangen   = empfangen;
+        _angewendet  = angewendet;
+        _konflikte   = konflikte;
+        _token       = token;
+        _millis      = millis;
+        _abgebrochen = abgebrochen;
+    }
+
+
+    /**
+     * Getter für Anzahl der gesendeten Änderungen.
+     *
+     * @return  Anzahl der lokalen Änderungen (inkl. Löschungen), die an den Server gingen.
+     */
+    public long getGesendet() {
+
+        return _gesendet;
+    }
+
+
+    /**
+     * Getter für Anzahl der empfangenen Änderungen.
+     *
+     * @return  Anzahl der Änderungen in allen abgeholten Seiten.
+     */
+    public long getEmpfangen() {
+
+        return _empfangen;
+    }
+
+
+    /**
+     * Getter für Anzahl der angewendeten Änderungen.
+     *
+     * @return  Anzahl der empfangenen Änderungen, die nicht schon so in der Datenbank standen.
+     */
+    public long getAngewendet() {
+
+        return _angewendet;
+    }
+
+
+    /**
+     * Getter für Anzahl der Konflikte.
+     *
+     * @return  Anzahl der empfangenen Änderungen, die mit
+     *          {@link SyncAenderung#loeseKonflikt(SyncAenderung, SyncAenderung, long)} aufgelöst wurden.
+     */
+    public long getKonflikte() {
+
+        return _konflikte;
+    }
+
+
+    /**
+     * Getter für Sync-Token.
+     *
+     * @return  Stand des Servers, bis zu dem alle Änderungen übernommen sind.
+     */
+    public long getToken() {
+
+        return _token;
+    }
+
+
+    /**
+     * Getter für Dauer des Abgleichs.
+     *
+     * @return  Dauer in Millisekunden, inkl. Übertragung.
+     */
+    public long getMillis() {
+
+        return _millis;
+    }
+
+
+    /**
+     * Getter, ob der Abgleich abgebrochen wurde.
+     *
+     * @return  {@code true}, wenn nicht alle Seiten abgeholt wurden; der nächste Abgleich
+     *          macht beim gespeicherten Token weiter.
+     */
+    public boolean isAbgebrochen() {
+
+        return _abgebrochen;
+    }
+
+
+    /**
+     * Statistik als Text, z.B. für das Log.
+     *
+     * @return  Alle Zahlen in einer Zeile.
+     */
+    @Override
+    public String toString() {
+
+        return _gesendet + " Änderungen gesendet, " + _empfangen + " empfangen (" +
+               _angewendet + " angewendet, " + _konflikte + " Konflikte), Token " + _token +
+               ", " + _millis + " ms" + ( _abgebrochen ? ", abgebrochen" : "" );
+    }
+
+};
@@ -0,0 +1,168 @@
+package de.mide.abkverz;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.database.SQLException;
+import android.os.PersistableBundle;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Job für {@link SyncAbgleich}: gleicht die Datenbank regelmäßig mit dem Sync-Server ab,
+ * sobald das Gerät eine Netzwerk-Verbindung hat. Beendet das System den Job mit
+ * {@link #onStopJob(JobParameters)} (z.B. weil die Verbindung weg ist), dann wird der
+ * Abgleich abgebrochen und beim nächsten Lauf beim gespeicherten Token fortgesetzt.
+ * <br><br>
+ *
+ * Wie bei {@link DatenbankWartungJob} läuft der Abgleich auf einem eigenen Thread mit
+ * Hintergrund-Priorität.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class SyncJob extends JobService implements IGlobalConstants {
+
+    /** ID des Jobs beim {@link JobScheduler}, muss in der App eindeutig sein. */
+    protected static final int JOB_ID = 2;
+
+    /** Abstand zwischen zwei Läufen. */
+    protected static final long INTERVALL_MILLIS = TimeUnit.HOURS.toMillis( 6 );
+
+    /** Schlüssel für die Basis-URL des Sync-Servers in den Extras des Jobs. */
+    protected static final String EXTRA_URL = "url";
+
+
+    /** Gerade laufender Abgleich, oder {@code null}. */
+    protected volatile SyncAbgleich _abgleich = null;
+
+
+    /**
+     * Meldet den Job beim {@link JobScheduler} an, falls er noch nicht mit derselben URL
+     * angemeldet ist; kann bei jedem Start der App aufgerufen werden.
+     *
+     * @param context  Beliebiger Context.
+     *
+     * @param url  Basis-URL des Sync-Servers, siehe {@link SyncVerbindung}.
+     */
+    public static void planen( Context context, String url ) {
+
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService( Context.JOB_SCHEDULER_SERVICE );
+        if ( jobScheduler == null ) {
+
+            return;
+        }
+
+        JobInfo geplant = jobScheduler.getPendingJob( JOB_ID );
+        if ( geplant != null && url.equals( geplant.getExtras().getString( EXTRA_URL ) ) ) {
+
+            return;
+        }
+
+        PersistableBundle extras = new PersistableBundle();
+        extras.putString( EXTRA_URL, url );
+
+        JobInfo jobInfo =
+                new JobInfo.Builder( JOB_ID, new ComponentName( context, SyncJob.class ) )
+                        .setRequiredNetworkType( JobInfo.NETWORK_TYPE_ANY )
+                        .setPeriodic( INTERVALL_MILLIS )
+                        .setExtras( extras )
+                        .build();
+
+        if ( jobScheduler.schedule( jobInfo ) != JobScheduler.RESULT_SUCCESS ) {
+
+            Log.w( TAG4LOGGING, "Abgleich mit Sync-Server konnte nicht geplant werden." );
+        }
+    }
+
+
+    /**
+     * Meldet den Job beim {@link JobScheduler} ab, z.B. wenn der Nutzer die URL des
+     * Sync-Servers gelöscht hat; ein gerade laufender Abgleich wird abgebrochen.
+     *
+     * @param context  Beliebiger Context.
+     */
+    public static void abmelden( Context context ) {
+
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService( Context.JOB_SCHEDULER_SERVICE );
+        if ( jobScheduler != null ) {
+
+            jobScheduler.cancel( JOB_ID );
+        }
+    }
+
+
+    /**
+     * Wird vom System auf dem UI-Thread aufgerufen, wenn das Netzwerk verfügbar ist;
+     * startet den Abgleich auf einem Hintergrund-Thread.
+     *
+     * @param parameter  Parameter des Jobs mit der URL in den Extras.
+     *
+     * @return  {@code true}, wenn der Abgleich im Hintergrund weiterläuft.
+     */
+    @Override
+    public boolean onStartJob( JobParameters parameter ) {
+
+        String url = parameter.getExtras().getString( EXTRA_URL );
+        if ( url == null ) {
+
+            return false;
+        }
+
+        SyncAbgleich abgleich = new SyncAbgleich( DatenbankManager.getInstanz( this ),
+                                                  new SyncVerbindung( url ) );
+        _abgleich = abgleich;
+
+        Runnable lauf = () -> {
+
+            Process.setThreadPriority( Process.THREAD_PRIORITY_BACKGROUND );
+            boolean wiederholen = false;
+            try {
+
+                abgleich.ausfuehren();
+            }
+            catch ( IOException | SQLException ex ) {
+
+                Log.w( TAG4LOGGING, "Abgleich mit Sync-Server fehlgeschlagen: " + ex );
+                wiederholen = true;
+            }
+            finally {
+
+                _abgleich = null;
+                jobFinished( parameter, wiederholen );
+            }
+        };
+        new Thread( lauf, "abkverz-sync" ).start();
+
+        return true;
+    }
+
+
+    /**
+     * Wird vom System aufgerufen, wenn die Bedingungen nicht mehr erfüllt sind; bricht den
+     * Abgleich ab.
+     *
+     * @param parameter  Parameter des Jobs.
+     *
+     * @return  Immer {@code false}, der Job wird ohnehin periodisch wiederholt.
+     */
+    @Override
+    public boolean onStopJob( JobParameters parameter ) {
+
+        SyncAbgleich abgleich = _abgleich;
+        if ( abgleich != null ) {
+
+            abgleich.abbrechen();
+        }
+
+        return false;
+    }
+
+};
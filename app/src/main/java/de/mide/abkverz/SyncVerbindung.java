@@ -0,0 +1,478 @@
+package de.mide.abkverz;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * HTTP-Verbindung zum Sync-Server für {@link SyncAbgleich}. Der Server hat eine einzige
+ * Ressource {@link #PFAD_AENDERUNGEN} unter der Basis-URL:
+ * <ul>
+ *   <li>{@code GET aenderungen?seit=T&limit=N} liefert eine Seite mit höchstens {@code N}
+ *       Änderungen mit höherem Stand als {@code T}, aufsteigend nach Stand:
+ * <pre>
+ *   {"token":41,"weitere":true,"aenderungen":[
+ *     {"schluessel":"ksc","abk":"KSC","bedeutung":"Karlsruher Sport-Club","kategorie":2,"stand":40},
+ *     {"schluessel":"ksc","abk":"KSC","bedeutung":"Kennedy Space Center","geloescht":true,"stand":41}]}
+ * </pre>
+ *       {@code token} ist der Stand der letzten Änderung der Seite (bzw. bei einer leeren
+ *       Seite der aktuelle Stand des Servers) und wird beim nächsten Abruf als {@code seit}
+ *       übergeben;</li>
+ *   <li>{@code POST aenderungen} nimmt lokale Änderungen im selben Format (ohne {@code stand})
+ *       an, mit dem zuletzt abgeholten Token als {@code basis} für die Auflösung von Konflikten:
+ *       {@code {"basis":41,"aenderungen":[...]}}; Antwort {@code {"angenommen":N}}.</li>
+ * </ul>
+ * Beide Richtungen werden mit gzip komprimiert; Seiten werden beim Lesen geparst, nicht
+ * vollständig in den Speicher geladen.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class SyncVerbindung {
+
+    /** Pfad der Ressource unter der Basis-URL. */
+    public static final String PFAD_AENDERUNGEN = "aenderungen";
+
+    /** Timeout für den Verbindungsaufbau. */
+    protected static final int CONNECT_TIMEOUT_MILLIS = 15_000;
+
+    /** Timeout für das Lesen der Antwort. */
+    protected static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    /** Wert der Header {@code Accept-Encoding} und {@code Content-Encoding}. */
+    protected static final String GZIP = "gzip";
+
+
+    /**
+     * Eine vom Server abgeholte Seite mit Änderungen.
+     */
+    public static class Seite {
+
+        /** Token für den nächsten Abruf. */
+        protected final long _token;
+
+        /** {@code true}, wenn es nach dieser Seite weitere Änderungen gibt. */
+        protected final boolean _weitere;
+
+        /** Änderungen, aufsteigend nach Stand. */
+        protected final List<SyncAenderung> _aenderungen;
+
+
+        /**
+         * Konstruktor für eine Seite.
+         *
+         * @param token  Token für den nächsten Abruf.
+         *
+         * @param weitere  {@code true}, wenn weitere Seiten folgen.
+         *
+         * @param aenderungen  Änderungen der Seite.
+         */
+        public Seite( long token, boolean weitere, List<SyncAenderung> aenderungen ) {
+
+            _token       = token;
+            _weitere     = weitere;
+            _aenderungen = aenderungen;
+        }
+
+
+        /**
+         * Getter für Token.
+         *
+         * @return  Token, das beim nächsten Abruf als {@code seit} übergeben wird.
+         */
+        public long getToken() {
+
+            return _token;
+        }
+
+
+        /**
+         * Getter, ob weitere Seiten folgen.
+         *
+         * @return  {@code true}, wenn es nach dieser Seite weitere Änderungen gibt.
+         */
+        public boolean isWeitere() {
+
+            return _weitere;
+        }
+
+
+        /**
+         * Getter für Änderungen.
+         *
+         * @return  Änderungen, aufsteigend nach Stand.
+         */
+        public List<SyncAenderung> getAenderungen() {
+
+            return _aenderungen;
+        }
+    }
+
+
+    /** Basis-URL des Servers, endet mit {@code /}. */
+    protected final String _basisUrl;
+
+
+    /**
+     * Konstruktor.
+     *
+     * @param basisUrl  Basis-URL des Servers, z.B. {@code https://example.org/abkverz/}.
+     */
+    public SyncVerbindung( String basisUrl ) {
+
+        _basisUrl = basisUrl.endsWith( "/" ) ? basisUrl : basisUrl + "/";
+    }
+
+
+    /**
+     * Holt eine Seite mit Änderungen vom Server.
+     *
+     * @param seit  Token des letzten Abrufs, 0 beim ersten Abgleich.
+     *
+     * @param limit  Maximale Anzahl der Änderungen.
+     *
+     * @return  Abgeholte Seite.
+     *
+     * @throws IOException  Netzwerk-Fehler, HTTP-Status ungleich 200 oder ungültige Antwort.
+     */
+    public Seite holeSeite( long seit, int limit ) throws IOException {
+
+        URL url = new URL( _basisUrl + PFAD_AENDERUNGEN + "?seit=" + seit + "&limit=" + limit );
+
+        HttpURLConnection verbindung = oeffnen( url );
+        try {
+
+            verbindung.setRequestProperty( "Accept-Encoding", GZIP );
+            pruefeStatus( verbindung );
+
+            JsonReader reader = new JsonReader( new InputStreamReader( antwort( verbindung ),
+                                                                        StandardCharsets.UTF_8 ) );
+            try {
+
+                return leseSeite( reader );
+            }
+            finally {
+
+                reader.close();
+            }
+        }
+        finally {
+
+            verbindung.disconnect();
+        }
+    }
+
+
+    /**
+     * Sendet lokale Änderungen an den Server.
+     *
+     * @param aenderungen  Änderungen, nicht leer.
+     *
+     * @param basis  Zuletzt abgeholtes Token.
+     *
+     * @return  Anzahl der Änderungen, die den Stand auf dem Server geändert haben.
+     *
+     * @throws IOException  Netzwerk-Fehler, HTTP-Status ungleich 200 oder ungültige Antwort.
+     */
+    public int sende( List<SyncAenderung> aenderungen, long basis ) throws IOException {
+
+        HttpURLConnection verbindung = oeffnen( new URL( _basisUrl + PFAD_AENDERUNGEN ) );
+        try {
+
+            verbindung.setRequestMethod( "POST" );
+            verbindung.setDoOutput( true );
+            verbindung.setChunkedStreamingMode( 0 ); // Länge der komprimierten Daten ist vorher nicht bekannt
+            verbindung.setRequestProperty( "Content-Type", "application/json; charset=utf-8" );
+            verbindung.setRequestProperty( "Content-Encoding", GZIP );
+            verbindung.setRequestProperty( "Accept-Encoding", GZIP );
+
+            OutputStream outputStream = new GZIPOutputStream( verbindung.getOutputStream(), 8 * 1024 );
+            Writer writer = new OutputStreamWriter( outputStream, StandardCharsets.UTF_8 );
+            try {
+
+                schreibeAenderungen( writer, aenderungen, basis );
+            }
+            finally {
+
+                writer.close();
+            }
+
+            pruefeStatus( verbindung );
+
+            int angenommen = 0;
+            JsonReader reader = new JsonReader( new InputStreamReader( antwort( verbindung ),
+                                                                        StandardCharsets.UTF_8 ) );
+            try {
+
+                reader.beginObject();
+                while ( reader.hasNext() ) {
+
+                    if ( "angenommen".equals( reader.nextName() ) ) {
+
+                        angenommen = reader.nextInt();
+
+                    } else {
+
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            finally {
+
+                reader.close();
+            }
+            return angenommen;
+        }
+        finally {
+
+            verbindung.disconnect();
+        }
+    }
+
+
+    /**
+     * Öffnet eine Verbindung mit den Timeouts.
+     *
+     * @param url  Adresse.
+     *
+     * @return  Noch nicht verbundene Verbindung.
+     */
+    protected static HttpURLConnection oeffnen( URL url ) throws IOException {
+
+        HttpURLConnection verbindung = (HttpURLConnection) url.openConnection();
+        verbindung.setConnectTimeout( CONNECT_TIMEOUT_MILLIS );
+        verbindung.setReadTimeout( READ_TIMEOUT_MILLIS );
+        verbindung.setUseCaches( false );
+        return verbindung;
+    }
+
+
+    /**
+     * Wirft eine Exception, wenn der Server nicht mit HTTP 200 geantwortet hat.
+     *
+     * @param verbindung  Verbindung, deren Anfrage gesendet ist.
+     */
+    protected static void pruefeStatus( HttpURLConnection verbindung ) throws IOException {
+
+        int status = verbindung.getResponseCode();
+        if ( status != HttpURLConnection.HTTP_OK ) {
+
+            throw new IOException( "Sync-Server antwortet mit HTTP " + status );
+        }
+    }
+
+
+    /**
+     * Stream mit der Antwort, dekomprimiert; wenn wir {@code Accept-Encoding} selbst setzen,
+     * entpackt {@link HttpURLConnection} die Antwort nicht.
+     *
+     * @param verbindung  Verbindung mit Status 200.
+     *
+     * @return  Stream mit dem JSON-Text.
+     */
+    protected static InputStream antwort( HttpURLConnection verbindung ) throws IOException {
+
+        InputStream inputStream = new BufferedInputStream( verbindung.getInputStream(), 8 * 1024 );
+        if ( GZIP.equalsIgnoreCase( verbindung.getContentEncoding() ) ) {
+
+            inputStream = new GZIPInputStream( inputStream, 8 * 1024 );
+        }
+        return inputStream;
+    }
+
+
+    /**
+     * Liest eine Seite, siehe Format in der Klassen-Beschreibung; unbekannte Felder werden
+     * übersprungen.
+     *
+     * @param reader  Reader, der vor dem Objekt der Seite steht.
+     *
+     * @return  Gelesene Seite.
+     */
+    protected static Seite leseSeite( JsonReader reader ) throws IOException {
+
+        long                token       = -1;
+        boolean             weitere     = false;
+        List<SyncAenderung> aenderungen = new ArrayList<>();
+
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+
+            switch ( reader.nextName() ) {
+
+                case "token":
+                    token = reader.nextLong();
+                    break;
+
+                case "weitere":
+                    weitere = reader.nextBoolean();
+                    break;
+
+                case "aenderungen":
+                    reader.beginArray();
+                    while ( reader.hasNext() ) {
+
+                        aenderungen.add( leseAenderung( reader ) );
+                    }
+                    reader.endArray();
+                    break;
+
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if ( token < 0 ) {
+
+            throw new IOException( "Antwort des Sync-Servers enthält kein Token." );
+        }
+        return new Seite( token, weitere, aenderungen );
+    }
+
+
+    /**
+     * Liest eine Änderung.
+     *
+     * @param reader  Reader, der vor dem Objekt der Änderung steht.
+     *
+     * @return  Gelesene Änderung.
+     */
+    protected static SyncAenderung leseAenderung( JsonReader reader ) throws IOException {
+
+        String  schluessel = null;
+        String  abk        = null;
+        String  bedeutung  = null;
+        int     kategorie  = DatenbankManager.KATEGORIE_ALLGEMEIN;
+        boolean geloescht  = false;
+        long    stand      = 0;
+
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+
+            String name = reader.nextName();
+            if ( reader.peek() == JsonToken.NULL ) {
+
+                reader.nextNull();
+                continue;
+            }
+            switch ( name ) {
+
+                case "schluessel":
+                    schluessel = reader.nextString();
+                    break;
+
+                case "abk":
+                    abk = reader.nextString();
+                    break;
+
+                case "bedeutung":
+                    bedeutung = reader.nextString();
+                    break;
+
+                case "kategorie":
+                    kategorie = reader.nextInt();
+                    break;
+
+                case "geloescht":
+                    geloescht = reader.nextBoolean();
+                    break;
+
+                case "stand":
+                    stand = reader.nextLong();
+                    break;
+
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if ( abk == null || bedeutung == null ) {
+
+            throw new IOException( "Änderung ohne Abkürzung oder Bedeutung vom Sync-Server." );
+        }
+        if ( schluessel == null ) {
+
+            schluessel = AbkNormalisierer.schluessel( abk );
+        }
+        return new SyncAenderung( schluessel, abk, bedeutung, kategorie, geloescht, stand );
+    }
+
+
+    /**
+     * Schreibt den Body für {@link #sende(List, long)}.
+     *
+     * @param writer  Ziel.
+     *
+     * @param aenderungen  Zu sendende Änderungen.
+     *
+     * @param basis  Zuletzt abgeholtes Token.
+     */
+    protected static void schreibeAenderungen( Writer writer, List<SyncAenderung> aenderungen, long basis )
+            throws IOException {
+
+        StringBuilder sb = new StringBuilder( 256 );
+        sb.append( "{\"basis\":" ).append( basis ).append( ",\"aenderungen\":[" );
+        for ( int i = 0; i < aenderungen.size(); i++ ) {
+
+            if ( i > 0 ) {
+
+                sb.append( ',' );
+            }
+            jsonAenderung( sb, aenderungen.get( i ) );
+            writer.append( sb );
+            sb.setLength( 0 );
+        }
+        sb.append( "]}" );
+        writer.append( sb );
+    }
+
+
+    /**
+     * Hängt eine Änderung als JSON-Objekt an, im Format der Klassen-Beschreibung.
+     *
+     * @param sb  Ziel.
+     *
+     * @param aenderung  Änderung; der Stand wird nur geschrieben, wenn er größer 0 ist.
+     */
+    public static void jsonAenderung( StringBuilder sb, SyncAenderung aenderung ) {
+
+        sb.append( "{\"schluessel\":" );
+        AbkExporter.jsonString( sb, aenderung.getSchluessel() );
+        sb.append( ",\"abk\":" );
+        AbkExporter.jsonString( sb, aenderung.getAbk() );
+        sb.append( ",\"bedeutung\":" );
+        AbkExporter.jsonString( sb, aenderung.getBedeutung() );
+        if ( aenderung.isGeloescht() ) {
+
+            sb.append( ",\"geloescht\":true" );
+
+        } else {
+
+            sb.append( ",\"kategorie\":" ).append( aenderung.getKategorie() );
+        }
+        if ( aenderung.getStand() > 0 ) {
+
+            sb.append( ",\"stand\":" ).append( aenderung.getStand() );
+        }
+        sb.append( '}' );
+    }
+
+};
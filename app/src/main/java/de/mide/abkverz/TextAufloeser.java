@@ -0,0 +1,85 @@
+package de.mide.abkverz;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Zerlegt einen Text in Wörter, damit alle darin vorkommenden Abkürzungen mit
+ * {@link DatenbankManager#sucheNachAbks(java.util.Collection)} auf einmal gesucht werden
+ * können, und erzeugt aus dem Ergebnis die anzuzeigenden Zeilen.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class TextAufloeser {
+
+    /**
+     * Zerlegt einen Text an Leerzeichen in Wörter; Satzzeichen am Anfang und Ende eines Worts
+     * werden entfernt. Ein Punkt am Ende bleibt, wenn das Wort schon einen Punkt enthält
+     * (z.B. "z.B."), denn dann gehört er zur Abkürzung.
+     *
+     * @param text  Beliebiger Text.
+     *
+     * @return  Wörter in der Reihenfolge im Text, jedes nur einmal.
+     */
+    public static List<String> zerlegeInWoerter( String text ) {
+
+        LinkedHashSet<String> woerter = new LinkedHashSet<>();
+
+        for ( String wort: text.trim().split( "\\s+" ) ) {
+
+            int anfang = 0;
+            int ende   = wort.length();
+            while ( anfang < ende && !Character.isLetterOrDigit( wort.charAt( anfang ) ) ) {
+
+                anfang++;
+            }
+            while ( ende > anfang && !Character.isLetterOrDigit( wort.charAt( ende - 1 ) ) ) {
+
+                ende--;
+            }
+            if ( anfang == ende ) {
+
+                continue;
+            }
+
+            if ( ende < wort.length() && wort.charAt( ende ) == '.' &&
+                 wort.substring( anfang, ende ).indexOf( '.' ) >= 0 ) {
+
+                ende++;
+            }
+            woerter.add( wort.substring( anfang, ende ) );
+        }
+
+        return new ArrayList<>( woerter );
+    }
+
+
+    /**
+     * Erzeugt eine Zeile pro Wort, für das Bedeutungen gefunden wurden.
+     *
+     * @param woerter  Ergebnis von {@link #zerlegeInWoerter(String)}.
+     *
+     * @param bedeutungen  Ergebnis von {@link DatenbankManager#sucheNachAbks(java.util.Collection)}
+     *                     (Schlüssel aus {@link AbkNormalisierer#schluessel(String)}).
+     *
+     * @return  Zeilen der Form "Wort: Bedeutung 1; Bedeutung 2" in der Reihenfolge im Text.
+     */
+    public static List<String> erzeugeZeilen( List<String> woerter, Map<String,String[]> bedeutungen ) {
+
+        List<String> zeilen = new ArrayList<>();
+        for ( String wort: woerter ) {
+
+            String[] gefunden = bedeutungen.get( AbkNormalisierer.schluessel( wort ) );
+            if ( gefunden != null && gefunden.length > 0 ) {
+
+                zeilen.add( wort + ": " + String.join( "; ", gefunden ) );
+            }
+        }
+        return zeilen;
+    }
+
+};
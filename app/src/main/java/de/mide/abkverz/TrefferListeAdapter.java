@@ -0,0 +1,152 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Adapter für die Ergebnis-Liste in {@link MainActivity}: eine Textzeile pro Treffer.
+ * <br><br>
+ *
+ * Die {@link android.widget.ListView} erzeugt nur Views für die sichtbaren Zeilen und
+ * verwendet sie beim Scrollen wieder; Speicherbedarf und Zeit für das Anzeigen hängen
+ * also nicht von der Anzahl der Treffer ab. Weitere Seiten werden mit
+ * {@link #anhaengen(List)} hinten angefügt.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class TrefferListeAdapter extends BaseAdapter {
+
+    /** Zum Erzeugen der Views für die Zeilen. */
+    protected final LayoutInflater _layoutInflater;
+
+    /** Alle bisher geladenen Zeilen. */
+    protected final ArrayList<String> _zeilen = new ArrayList<>();
+
+
+    /**
+     * Konstruktor für einen leeren Adapter.
+     *
+     * @param context  Activity, in der die Liste angezeigt wird.
+     */
+    public TrefferListeAdapter( Context context ) {
+
+        _layoutInflater = LayoutInflater.from( context );
+    }
+
+
+    /**
+     * Ersetzt alle Zeilen, z.B. für das Ergebnis einer neuen Suche.
+     *
+     * @param zeilen  Neue Zeilen, darf leer sein.
+     */
+    public void setZeilen( List<String> zeilen ) {
+
+        _zeilen.clear();
+        _zeilen.addAll( zeilen );
+        notifyDataSetChanged();
+    }
+
+
+    /**
+     * Hängt Zeilen hinten an, z.B. die nächste Seite eines Ergebnisses.
+     *
+     * @param zeilen  Weitere Zeilen.
+     */
+    public void anhaengen( List<String> zeilen ) {
+
+        if ( zeilen.isEmpty() ) {
+
+            return;
+        }
+
+        _zeilen.addAll( zeilen );
+        notifyDataSetChanged();
+    }
+
+
+    /**
+     * Entfernt alle Zeilen.
+     */
+    public void leeren() {
+
+        setZeilen( new ArrayList<>() );
+    }
+
+
+    /**
+     * Methode aus Interface {@link android.widget.Adapter}.
+     *
+     * @return  Anzahl der Zeilen.
+     */
+    @Override
+    public int getCount() {
+
+        return _zeilen.size();
+    }
+
+
+    /**
+     * Methode aus Interface {@link android.widget.Adapter}.
+     *
+     * @param position  Index der Zeile.
+     *
+     * @return  Text der Zeile.
+     */
+    @Override
+    public String getItem( int position ) {
+
+        return _zeilen.get( position );
+    }
+
+
+    /**
+     * Methode aus Interface {@link android.widget.Adapter}.
+     *
+     * @param position  Index der Zeile.
+     *
+     * @return  Index der Zeile als ID.
+     */
+    @Override
+    public long getItemId( int position ) {
+
+        return position;
+    }
+
+
+    /**
+     * Methode aus Interface {@link android.widget.Adapter}: Liefert die View für eine
+     * Zeile; eine nicht mehr sichtbare View wird dabei wiederverwendet.
+     *
+     * @param position  Index der Zeile.
+     *
+     * @param convertView  Wiederverwendbare View oder {@code null}.
+     *
+     * @param parent  Liste, in der die View angezeigt wird.
+     *
+     * @return  View mit Text der Zeile.
+     */
+    @Override
+    public View getView( int position, View convertView, ViewGroup parent ) {
+
+        TextView textView = (TextView) convertView;
+        if ( textView == null ) {
+
+            textView = (TextView) _layoutInflater.inflate( android.R.layout.simple_list_item_1,
+                                                           parent, false );
+        }
+
+        textView.setText( _zeilen.get( position ) );
+
+        return textView;
+    }
+
+};
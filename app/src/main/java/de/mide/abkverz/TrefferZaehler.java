@@ -0,0 +1,108 @@
+package de.mide.abkverz;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Puffer für die Zähler, wie oft eine Bedeutung ausgewählt wurde (Spalte
+ * {@code bedeutungen.treffer}). Eine Auswahl wird nur im Speicher gezählt, damit sie
+ * keinen Schreibzugriff auf die Datenbank kostet; {@link DatenbankManager#schreibeTreffer()}
+ * schreibt den Inhalt des Puffers später auf einem Hintergrund-Thread in einer einzigen
+ * Transaktion.
+ * <br><br>
+ *
+ * Geht das Schreiben schief, dann werden die entnommenen Zähler mit
+ * {@link #zurueckgeben(Map)} wieder in den Puffer gelegt und beim nächsten Mal geschrieben.
+ * Wird der App-Prozess vorher beendet, dann sind die noch nicht geschriebenen Zähler
+ * verloren; für eine Reihenfolge nach Häufigkeit ist das ohne Bedeutung.
+ * <br><br>
+ *
+ * Alle Methoden sind thread-safe.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class TrefferZaehler {
+
+    /** Noch nicht geschriebene Zähler: Schlüssel der Abkürzung auf (Bedeutung auf Anzahl). */
+    protected Map<String,Map<String,Integer>> _puffer = new HashMap<>();
+
+    /** Summe aller Zähler in {@link #_puffer}. */
+    protected int _anzahl = 0;
+
+
+    /**
+     * Zählt eine Auswahl einer Bedeutung.
+     *
+     * @param abk  Schlüssel der Abkürzung, siehe {@link AbkNormalisierer}.
+     *
+     * @param bedeutung  Ausgewählte Bedeutung.
+     *
+     * @return  Anzahl der noch nicht geschriebenen Auswahlen, inkl. dieser; bei 1 war der
+     *          Puffer vorher leer.
+     */
+    public synchronized int zaehle( String abk, String bedeutung ) {
+
+        Map<String,Integer> zuAbk = _puffer.get( abk );
+        if ( zuAbk == null ) {
+
+            zuAbk = new HashMap<>();
+            _puffer.put( abk, zuAbk );
+        }
+        zuAbk.merge( bedeutung, 1, Integer::sum );
+
+        return ++_anzahl;
+    }
+
+
+    /**
+     * Entnimmt alle noch nicht geschriebenen Zähler, der Puffer ist danach leer.
+     *
+     * @return  Zähler pro Abkürzung und Bedeutung; leere Map, wenn nichts gezählt wurde.
+     */
+    public synchronized Map<String,Map<String,Integer>> entnehmen() {
+
+        Map<String,Map<String,Integer>> entnommen = _puffer;
+        _puffer = new HashMap<>();
+        _anzahl = 0;
+        return entnommen;
+    }
+
+
+    /**
+     * Legt mit {@link #entnehmen()} entnommene Zähler zurück in den Puffer, wenn sie nicht
+     * geschrieben werden konnten; inzwischen neu gezählte Auswahlen werden addiert.
+     *
+     * @param zaehler  Entnommene Zähler.
+     */
+    public synchronized void zurueckgeben( Map<String,Map<String,Integer>> zaehler ) {
+
+        for ( Map.Entry<String,Map<String,Integer>> zuAbk: zaehler.entrySet() ) {
+
+            for ( Map.Entry<String,Integer> eintrag: zuAbk.getValue().entrySet() ) {
+
+                Map<String,Integer> ziel = _puffer.get( zuAbk.getKey() );
+                if ( ziel == null ) {
+
+                    ziel = new HashMap<>();
+                    _puffer.put( zuAbk.getKey(), ziel );
+                }
+                ziel.merge( eintrag.getKey(), eintrag.getValue(), Integer::sum );
+                _anzahl += eintrag.getValue();
+            }
+        }
+    }
+
+
+    /**
+     * Getter für die Anzahl der noch nicht geschriebenen Auswahlen.
+     *
+     * @return  Summe aller Zähler im Puffer.
+     */
+    public synchronized int getAnzahl() {
+
+        return _anzahl;
+    }
+
+};
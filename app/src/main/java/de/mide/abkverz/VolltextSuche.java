@@ -0,0 +1,218 @@
+package de.mide.abkverz;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+
+/**
+ * Hilfsklasse für die Rückwärts-Suche über die FTS-Tabelle {@code bedeutungen_fts}
+ * (siehe {@link DatenbankMigrationen}, Schema-Version 3).
+ * <br><br>
+ *
+ * SQLite liefert bei FTS4 keinen fertigen Rang, sondern mit {@code matchinfo()} nur
+ * Statistiken über die Treffer; daraus berechnet {@link #berechneRang(byte[])} einen
+ * Rang nach BM25. Ein Objekt dieser Klasse sammelt die Treffer einer Suche und behält
+ * dabei nur die besten {@code maxTreffer} Treffer in einem Heap; auch bei sehr vielen
+ * passenden Bedeutungen wird also weder sortiert noch alles im Speicher gehalten.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class VolltextSuche {
+
+    /**
+     * Format-String für {@code matchinfo()}, passend zu {@link #berechneRang(byte[])}:
+     * Anzahl Phrasen, Anzahl Spalten, Anzahl Zeilen, durchschnittliche und aktuelle
+     * Länge in Tokens sowie Treffer-Statistik je Phrase und Spalte.
+     */
+    public static final String MATCHINFO_FORMAT = "pcnalx";
+
+    /** Maximale Anzahl der Wörter aus der Eingabe, die gesucht werden. */
+    public static final int MAX_SUCHWOERTER = 8;
+
+    /** BM25-Parameter für Sättigung der Term-Häufigkeit. */
+    protected static final double BM25_K1 = 1.2;
+
+    /** BM25-Parameter für Normierung auf die Länge der Bedeutung. */
+    protected static final double BM25_B = 0.75;
+
+    /** Kleinster Wert für die inverse Dokument-Häufigkeit, damit häufige Wörter nicht negativ zählen. */
+    protected static final double MIN_IDF = 1e-6;
+
+    /** Rangfolge der Treffer: höherer Rang zuerst, bei Gleichstand alphabetisch. */
+    protected static final Comparator<BedeutungTreffer> RANGFOLGE =
+            Comparator.comparingDouble( BedeutungTreffer::getRang ).reversed()
+                      .thenComparing( BedeutungTreffer::getAbkuerzung )
+                      .thenComparing( BedeutungTreffer::getBedeutung );
+
+
+    /** Maximale Anzahl der Treffer im Ergebnis. */
+    protected final int _maxTreffer;
+
+    /** Die bisher besten Treffer; der schlechteste steht oben und wird zuerst verdrängt. */
+    protected final PriorityQueue<BedeutungTreffer> _besteTreffer;
+
+
+    /**
+     * Konstruktor für das Sammeln der Treffer einer Suche.
+     *
+     * @param maxTreffer  Maximale Anzahl der Treffer im Ergebnis, mindestens 1.
+     */
+    public VolltextSuche( int maxTreffer ) {
+
+        if ( maxTreffer < 1 ) {
+
+            throw new IllegalArgumentException( "Maximale Anzahl der Treffer muss mindestens 1 sein." );
+        }
+
+        _maxTreffer   = maxTreffer;
+        _besteTreffer = new PriorityQueue<>( maxTreffer + 1, RANGFOLGE.reversed() );
+    }
+
+
+    /**
+     * Erzeugt aus einer Nutzer-Eingabe einen Ausdruck für {@code MATCH}: Jedes Wort wird
+     * als Präfix gesucht, alle Wörter müssen vorkommen. Alle Zeichen außer Buchstaben und
+     * Ziffern trennen Wörter, die Eingabe kann also keine FTS-Operatoren enthalten.
+     *
+     * @param eingabe  Eingabe des Nutzers, z.B. {@code "Space Cent"}.
+     *
+     * @return  Ausdruck für {@code MATCH}, z.B. {@code "space* cent*"}; {@code null}, wenn
+     *          die Eingabe kein Wort enthält.
+     */
+    public static String erzeugeMatchAusdruck( String eingabe ) {
+
+        if ( eingabe == null ) {
+
+            return null;
+        }
+
+        String[] woerter = eingabe.toLowerCase( Locale.ROOT ).split( "[^\\p{L}\\p{N}]+" );
+
+        StringBuilder sb     = new StringBuilder();
+        int           anzahl = 0;
+        for ( String wort: woerter ) {
+
+            if ( wort.isEmpty() ) {
+
+                continue;
+            }
+            if ( anzahl > 0 ) {
+
+                sb.append( ' ' );
+            }
+            sb.append( wort ).append( '*' );
+
+            if ( ++anzahl == MAX_SUCHWOERTER ) {
+
+                break;
+            }
+        }
+
+        return anzahl == 0 ? null : sb.toString();
+    }
+
+
+    /**
+     * Berechnet den Rang eines Treffers nach BM25 aus dem Ergebnis von
+     * {@code matchinfo(bedeutungen_fts, 'pcnalx')}.
+     *
+     * @param matchinfo  Blob von {@code matchinfo()}, 32-Bit-Zahlen in Byte-Reihenfolge
+     *                   der Plattform.
+     *
+     * @return  Rang des Treffers, größer ist besser.
+     */
+    public static double berechneRang( byte[] matchinfo ) {
+
+        IntBuffer werte = ByteBuffer.wrap( matchinfo ).order( ByteOrder.nativeOrder() ).asIntBuffer();
+
+        int anzahlPhrasen = werte.get( 0 );
+        int anzahlSpalten = werte.get( 1 );
+        int anzahlZeilen  = werte.get( 2 );
+        int offsetX       = 3 + 2 * anzahlSpalten;
+
+        double rang = 0.0;
+        for ( int spalte = 0; spalte < anzahlSpalten; spalte++ ) {
+
+            double durchschnittLaenge = Math.max( 1, werte.get( 3 + spalte ) );
+            double laenge             = werte.get( 3 + anzahlSpalten + spalte );
+            double normierung         = BM25_K1 * ( 1 - BM25_B + BM25_B * laenge / durchschnittLaenge );
+
+            for ( int phrase = 0; phrase < anzahlPhrasen; phrase++ ) {
+
+                int    x                 = offsetX + 3 * ( phrase * anzahlSpalten + spalte );
+                double haeufigkeit       = werte.get( x     ); // Treffer in dieser Zeile
+                double zeilenMitTreffern = werte.get( x + 2 );
+
+                if ( haeufigkeit == 0 ) {
+
+                    continue;
+                }
+
+                double idf = Math.log( ( anzahlZeilen - zeilenMitTreffern + 0.5 ) /
+                                       ( zeilenMitTreffern + 0.5 ) );
+
+                rang += Math.max( idf, MIN_IDF ) * haeufigkeit * ( BM25_K1 + 1 ) /
+                        ( haeufigkeit + normierung );
+            }
+        }
+
+        return rang;
+    }
+
+
+    /**
+     * Nimmt einen Treffer auf, falls er zu den besten {@code maxTreffer} Treffern gehört.
+     *
+     * @param abkuerzung  Abkürzung, zu der die Bedeutung gehört.
+     *
+     * @param bedeutung  Gefundene Bedeutung.
+     *
+     * @param matchinfo  Blob von {@code matchinfo()} für diese Bedeutung.
+     */
+    public void hinzufuegen( String abkuerzung, String bedeutung, byte[] matchinfo ) {
+
+        hinzufuegen( new BedeutungTreffer( abkuerzung, bedeutung, berechneRang( matchinfo ) ) );
+    }
+
+
+    /**
+     * Nimmt einen Treffer auf, falls er zu den besten {@code maxTreffer} Treffern gehört.
+     *
+     * @param treffer  Treffer mit schon berechnetem Rang.
+     */
+    public void hinzufuegen( BedeutungTreffer treffer ) {
+
+        if ( _besteTreffer.size() < _maxTreffer ) {
+
+            _besteTreffer.add( treffer );
+
+        } else if ( RANGFOLGE.compare( treffer, _besteTreffer.peek() ) < 0 ) {
+
+            _besteTreffer.poll();
+            _besteTreffer.add( treffer );
+        }
+    }
+
+
+    /**
+     * Liefert die besten Treffer.
+     *
+     * @return  Höchstens {@code maxTreffer} Treffer, bester Treffer zuerst.
+     */
+    public List<BedeutungTreffer> getErgebnis() {
+
+        List<BedeutungTreffer> ergebnis = new ArrayList<>( _besteTreffer );
+        Collections.sort( ergebnis, RANGFOLGE );
+
+        return ergebnis;
+    }
+
+};
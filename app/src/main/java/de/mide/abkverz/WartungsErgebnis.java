@@ -0,0 +1,155 @@
+package de.mide.abkverz;
+
+
+/**
+ * Ergebnis eines Laufs von {@link DatenbankWartung}; wird auch in der Tabelle
+ * {@code wartung_protokoll} gespeichert.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class WartungsErgebnis {
+
+    /** Wert von {@link #getErgebnis()}, wenn alle Schritte ausgeführt wurden und die Integritäts-Prüfung ok war. */
+    public static final String ERGEBNIS_OK = "ok";
+
+    /** Wert von {@link #getErgebnis()}, wenn der Lauf mit {@link DatenbankWartung#abbrechen()} abgebrochen wurde. */
+    public static final String ERGEBNIS_ABGEBROCHEN = "abgebrochen";
+
+    /** Zeitpunkt des Beginns in Millisekunden seit 1970. */
+    protected final long _beginn;
+
+    /** Dauer des Laufs in Millisekunden. */
+    protected final long _millis;
+
+    /** Größe von DB-Datei und WAL-Datei in Bytes vor dem Lauf. */
+    protected final long _groesseVorher;
+
+    /** Größe von DB-Datei und WAL-Datei in Bytes nach dem Lauf. */
+    protected final long _groesseNachher;
+
+    /** Anzahl der Seiten, die an das Dateisystem zurückgegeben wurden. */
+    protected final long _seitenFreigegeben;
+
+    /** {@link #ERGEBNIS_OK}, {@link #ERGEBNIS_ABGEBROCHEN} oder Meldung von Integritäts-Prüfung bzw. Fehler. */
+    protected final String _ergebnis;
+
+
+    /**
+     * Konstruktor für das Ergebnis eines Wartungs-Laufs.
+     *
+     * @param beginn  Zeitpunkt des Beginns in Millisekunden seit 1970.
+     *
+     * @param millis  Dauer in Millisekunden.
+     *
+     * @param groesseVorher  Größe der Dateien in Bytes vor dem Lauf.
+     *
+     * @param groesseNachher  Größe der Dateien in Bytes nach dem Lauf.
+     *
+     * @param seitenFreigegeben  Anzahl der freigegebenen Seiten.
+     *
+     * @param ergebnis  {@link #ERGEBNIS_OK}, {@link #ERGEBNIS_ABGEBROCHEN} oder Meldung.
+     */
+    public WartungsErgebnis( long beginn, long millis, long groesseVorher, long groesseNachher,
+                             long seitenFreigegeben, String ergebnis ) {
+
+        _beginn            = beginn;
+        _millis            = millis;
+        _groesseVorher     = groesseVorher;
+        _groesseNachher    = groesseNachher;
+        _seitenFreigegeben = seitenFreigegeben;
+        _ergebnis          = ergebnis;
+    }
+
+
+    /**
+     * Getter für den Zeitpunkt des Beginns.
+     *
+     * @return  Millisekunden seit 1970.
+     */
+    public long getBeginn() {
+
+        return _beginn;
+    }
+
+
+    /**
+     * Getter für die Dauer des Laufs.
+     *
+     * @return  Dauer in Millisekunden.
+     */
+    public long getMillis() {
+
+        return _millis;
+    }
+
+
+    /**
+     * Getter für die Größe vor dem Lauf.
+     *
+     * @return  Größe von DB-Datei und WAL-Datei in Bytes.
+     */
+    public long getGroesseVorher() {
+
+        return _groesseVorher;
+    }
+
+
+    /**
+     * Getter für die Größe nach dem Lauf.
+     *
+     * @return  Größe von DB-Datei und WAL-Datei in Bytes.
+     */
+    public long getGroesseNachher() {
+
+        return _groesseNachher;
+    }
+
+
+    /**
+     * Getter für die Anzahl der freigegebenen Seiten.
+     *
+     * @return  Anzahl der Seiten, um die die DB-Datei verkleinert wurde.
+     */
+    public long getSeitenFreigegeben() {
+
+        return _seitenFreigegeben;
+    }
+
+
+    /**
+     * Getter für das Ergebnis.
+     *
+     * @return  {@link #ERGEBNIS_OK}, {@link #ERGEBNIS_ABGEBROCHEN} oder Meldung von
+     *          Integritäts-Prüfung bzw. Fehler.
+     */
+    public String getErgebnis() {
+
+        return _ergebnis;
+    }
+
+
+    /**
+     * Prüft, ob der Lauf vollständig und ohne Befund war.
+     *
+     * @return  {@code true} bei {@link #ERGEBNIS_OK}.
+     */
+    public boolean isOk() {
+
+        return ERGEBNIS_OK.equals( _ergebnis );
+    }
+
+
+    /**
+     * Ergebnis als Text, z.B. für das Log.
+     *
+     * @return  Alle Werte in einer Zeile.
+     */
+    @Override
+    public String toString() {
+
+        return _ergebnis + " in " + _millis + " ms, " + _groesseVorher + " -> " + _groesseNachher +
+               " Bytes, " + _seitenFreigegeben + " Seiten freigegeben";
+    }
+
+};
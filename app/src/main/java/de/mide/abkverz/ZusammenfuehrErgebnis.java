@@ -0,0 +1,133 @@
+package de.mide.abkverz;
+
+
+/**
+ * Statistik einer Zusammenführung mit einer anderen Abkürzungs-Datenbank, siehe
+ * {@link DatenbankManager#zusammenfuehren(java.io.File)}.
+ * <br><br>
+ *
+ * This project is licensed under the terms of the BSD 3-Clause License.
+ */
+public class ZusammenfuehrErgebnis {
+
+    /** Anzahl der Abkürzungen in der anderen Datenbank. */
+    protected final long _abkuerzungenGelesen;
+
+    /** Anzahl der Abkürzungen, die es noch nicht gab und die eingefügt wurden. */
+    protected final long _abkuerzungenNeu;
+
+    /** Anzahl der Bedeutungen in der anderen Datenbank. */
+    protected final long _bedeutungenGelesen;
+
+    /** Anzahl der Bedeutungen, die es noch nicht gab und die eingefügt wurden. */
+    protected final long _bedeutungenNeu;
+
+    /** Dauer der Zusammenführung in Millisekunden. */
+    protected final long _millis;
+
+
+    /**
+     * Konstruktor für das Ergebnis einer Zusammenführung.
+     *
+     * @param abkuerzungenGelesen  Anzahl der Abkürzungen in der anderen Datenbank.
+     *
+     * @param abkuerzungenNeu  Anzahl der eingefügten Abkürzungen.
+     *
+     * @param bedeutungenGelesen  Anzahl der Bedeutungen in der anderen Datenbank.
+     *
+     * @param bedeutungenNeu  Anzahl der eingefügten Bedeutungen.
+     *
+     * @param millis  Dauer in Millisekunden.
+     */
+    public ZusammenfuehrErgebnis( long abkuerzungenGelesen, long abkuerzungenNeu,
+                                  long bedeutungenGelesen, long bedeutungenNeu, long millis ) {
+
+        _abkuerzungenGelesen = abkuerzungenGelesen;
+        _abkuerzungenNeu     = abkuerzungenNeu;
+        _bedeutungenGelesen  = bedeutungenGelesen;
+        _bedeutungenNeu      = bedeutungenNeu;
+        _millis              = millis;
+    }
+
+
+    /**
+     * Getter für Anzahl der Abkürzungen in der anderen Datenbank.
+     *
+     * @return  Anzahl der gelesenen Abkürzungen.
+     */
+    public long getAbkuerzungenGelesen() {
+
+        return _abkuerzungenGelesen;
+    }
+
+
+    /**
+     * Getter für Anzahl der eingefügten Abkürzungen.
+     *
+     * @return  Anzahl der Abkürzungen, deren Schlüssel es vorher noch nicht gab.
+     */
+    public long getAbkuerzungenNeu() {
+
+        return _abkuerzungenNeu;
+    }
+
+
+    /**
+     * Getter für Anzahl der Bedeutungen in der anderen Datenbank.
+     *
+     * @return  Anzahl der gelesenen Bedeutungen.
+     */
+    public long getBedeutungenGelesen() {
+
+        return _bedeutungenGelesen;
+    }
+
+
+    /**
+     * Getter für Anzahl der eingefügten Bedeutungen.
+     *
+     * @return  Anzahl der Bedeutungen, die es zu ihrer Abkürzung noch nicht gab.
+     */
+    public long getBedeutungenNeu() {
+
+        return _bedeutungenNeu;
+    }
+
+
+    /**
+     * Anzahl der übersprungenen Bedeutungen, weil es sie schon gab (oder weil sie in der
+     * anderen Datenbank doppelt oder ohne Abkürzung waren).
+     *
+     * @return  Gelesene minus eingefügte Bedeutungen.
+     */
+    public long getBedeutungenUebersprungen() {
+
+        return _bedeutungenGelesen - _bedeutungenNeu;
+    }
+
+
+    /**
+     * Getter für Dauer der Zusammenführung.
+     *
+     * @return  Dauer in Millisekunden, inkl. Kopieren und ggf. Migrieren der anderen Datenbank.
+     */
+    public long getMillis() {
+
+        return _millis;
+    }
+
+
+    /**
+     * Statistik als Text, z.B. für das Log.
+     *
+     * @return  Alle Zahlen in einer Zeile.
+     */
+    @Override
+    public String toString() {
+
+        return _abkuerzungenNeu + " von " + _abkuerzungenGelesen + " Abkürzungen und " +
+               _bedeutungenNeu  + " von " + _bedeutungenGelesen  + " Bedeutungen eingefügt (" +
+               getBedeutungenUebersprungen() + " übersprungen) in " + _millis + " ms";
+    }
+
+};
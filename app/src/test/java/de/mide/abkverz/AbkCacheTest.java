@@ -0,0 +1,76 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link AbkCache}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class AbkCacheTest {
+
+    @Test
+    public void trefferUndNegativeErgebnisse() {
+
+        AbkCache cache = new AbkCache();
+
+        assertNull( cache.hole( "KSC" ) );
+        cache.ablegen( "KSC", new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                       cache.getStand() );
+        cache.ablegen( "XYZ", new String[ 0 ], cache.getStand() );
+
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           cache.hole( "KSC" ) );
+        assertEquals( 0, cache.hole( "XYZ" ).length );
+        assertEquals( 2, cache.getAnzahlTreffer() );
+        assertEquals( 1, cache.getAnzahlFehlschlaege() );
+    }
+
+    @Test
+    public void geliefertesArray_veraendertCacheNicht() {
+
+        AbkCache cache = new AbkCache();
+        cache.ablegen( "ADB", new String[]{ "Android Debug Bridge" }, cache.getStand() );
+
+        cache.hole( "ADB" )[ 0 ] = "geändert";
+
+        assertArrayEquals( new String[]{ "Android Debug Bridge" }, cache.hole( "ADB" ) );
+    }
+
+    @Test
+    public void entfernen_verwirftAuchGleichzeitigGelesenesErgebnis() {
+
+        AbkCache cache = new AbkCache();
+        cache.ablegen( "KSC", new String[]{ "Karlsruher Sport-Club" }, cache.getStand() );
+
+        long standVorLesen = cache.getStand();
+        cache.entfernen( "KSC" ); // Schreiber fügt Bedeutung ein, während Leser noch liest
+        cache.ablegen( "KSC", new String[]{ "Karlsruher Sport-Club" }, standVorLesen );
+
+        assertNull( cache.hole( "KSC" ) );
+        assertEquals( 0, cache.getBytes() );
+    }
+
+    @Test
+    public void obergrenze_verdraengtAeltesteEintraege() {
+
+        AbkCache cache = new AbkCache();
+        cache.ablegen( "A1", new String[]{ "Eins" }, cache.getStand() );
+        long bytesProEintrag = cache.getBytes();
+        cache.setMaxBytes( 3 * bytesProEintrag );
+
+        cache.ablegen( "A2", new String[]{ "Zwei" }, cache.getStand() );
+        cache.ablegen( "A3", new String[]{ "Drei" }, cache.getStand() );
+        cache.hole( "A1" ); // A1 wird dadurch zuletzt verwendet, A2 ist der älteste Eintrag
+        cache.ablegen( "A4", new String[]{ "Vier" }, cache.getStand() );
+
+        assertEquals( 3, cache.getAnzahlEintraege() );
+        assertEquals( 1, cache.getAnzahlVerdraengungen() );
+        assertNull( cache.hole( "A2" ) );
+        assertNotNull( cache.hole( "A1" ) );
+        assertTrue( cache.getBytes() <= 3 * bytesProEintrag );
+
+        cache.setMaxBytes( 0 );
+        assertEquals( 0, cache.getAnzahlEintraege() );
+    }
+}
@@ -0,0 +1,66 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für {@link AbkExporter#exportiereInkrementell(java.io.OutputStream)} auf einer
+ * echten Datenbank; laufen mit Robolectric (echte SQLite-Bibliothek) ohne Android-Gerät
+ * auf dem Entwicklungsrechner. Die Zeilen-Formate prüft {@link AbkExporterTest}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class AbkExporterInkrementellTest {
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    @Test
+    public void exportiereInkrementell_liefertNurAenderungenSeitLetztemExport() throws IOException {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        dbManager.insertGanzNeueAbk( "XYZ", "Erste Bedeutung" );
+
+        AbkExporter exporter = new AbkExporter( dbManager );
+        exporter.setSeitenGroesse( 2 );
+
+        ByteArrayOutputStream erster = new ByteArrayOutputStream();
+        long stand = exporter.exportiereInkrementell( erster );
+        long anzahlVollstaendig = exporter.getAnzahlZeilen();
+        assertTrue( anzahlVollstaendig >= 1 ); // Beispiel-Daten aus onCreate plus XYZ
+        assertTrue( erster.toString( "UTF-8" ).contains( "\"Erste Bedeutung\"" ) );
+
+        // *** Änderungen: neue Bedeutung, geänderte Bedeutung, gelöschte Bedeutung ***
+        dbManager.insertBedeutung( "XYZ", "Zweite Bedeutung" );
+        SQLiteDatabase db = dbManager.getWritableDatabase();
+        db.execSQL( "UPDATE bedeutungen SET bedeutung = 'Erste Bedeutung, geändert' " +
+                    " WHERE bedeutung = 'Erste Bedeutung'" );
+        db.execSQL( "DELETE FROM bedeutungen WHERE bedeutung = 'Zweite Bedeutung'" );
+
+        ByteArrayOutputStream zweiter = new ByteArrayOutputStream();
+        assertTrue( exporter.exportiereInkrementell( zweiter ) > stand );
+
+        String[] zeilen = zweiter.toString( "UTF-8" ).split( "\n" );
+        assertEquals( 2, zeilen.length );
+        assertTrue( zeilen[ 0 ], zeilen[ 0 ].contains( "\"bedeutung\":\"Erste Bedeutung, geändert\"" ) );
+        assertTrue( zeilen[ 1 ], zeilen[ 1 ].contains( "\"Zweite Bedeutung\"" ) );
+        assertTrue( zeilen[ 1 ], zeilen[ 1 ].endsWith( "\"geloescht\":true}" ) );
+
+        // *** Ohne Änderung ist der nächste Export leer ***
+        ByteArrayOutputStream dritter = new ByteArrayOutputStream();
+        exporter.exportiereInkrementell( dritter );
+        assertEquals( 0, dritter.size() );
+
+        dbManager.close();
+    }
+}
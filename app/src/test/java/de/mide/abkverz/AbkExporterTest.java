@@ -0,0 +1,47 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für die Zeilen-Formate von {@link AbkExporter}, laufen ohne Android-Gerät
+ * auf dem Entwicklungsrechner.
+ */
+public class AbkExporterTest {
+
+    @Test
+    public void jsonZeile_maskiertSonderzeichen() {
+
+        StringBuilder sb = new StringBuilder();
+        AbkExporter.jsonZeile( sb, "KSC", "Karlsruher \"Sport\"-Club\n\\", 2, 12, 34, false );
+
+        assertEquals( "{\"id\":12,\"abk\":\"KSC\",\"bedeutung\":\"Karlsruher \\\"Sport\\\"-Club\\n\\\\\"," +
+                      "\"kategorie\":2,\"aenderung\":34}", sb.toString() );
+    }
+
+    @Test
+    public void jsonZeile_geloeschteBedeutungOhneAbkuerzung() {
+
+        StringBuilder sb = new StringBuilder();
+        AbkExporter.jsonZeile( sb, null, "Tab\there", 0, 7, 40, true );
+
+        assertEquals( "{\"id\":7,\"abk\":null,\"bedeutung\":\"Tab\\u0009here\",\"aenderung\":40," +
+                      "\"geloescht\":true}", sb.toString() );
+    }
+
+    @Test
+    public void csvZeile_kannWiederImportiertWerden() {
+
+        StringBuilder sb = new StringBuilder();
+        AbkExporter.csvZeile( sb, "KSC", "Karlsruher \"Sport\"-Club, e.V.", 2, 12, 34, false );
+
+        assertEquals( "\"KSC\",\"Karlsruher \"\"Sport\"\"-Club, e.V.\",2,12,34,0", sb.toString() );
+
+        AbkImporter importer = new AbkImporter( null );
+        importer.setTrennzeichen( AbkImporter.TRENNZEICHEN_CSV );
+        assertArrayEquals( new String[]{ "KSC", "Karlsruher \"Sport\"-Club, e.V.", "2" },
+                           importer.zerlegeZeile( sb.toString() ) );
+        assertNull( importer.zerlegeZeile( AbkExporter.CSV_KOPFZEILE ) );
+    }
+}
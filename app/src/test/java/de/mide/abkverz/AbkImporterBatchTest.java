@@ -0,0 +1,263 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für die Batch-Schleife von {@link AbkImporter#importiere(InputStream, IImportFortschritt)}:
+ * Transaktionen, Schreib-Sperre und Fortschritt; laufen mit Robolectric (echte
+ * SQLite-Bibliothek) ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class AbkImporterBatchTest {
+
+    private static final String DATEINAME = "abkverz_import_test.db";
+
+    private static final String DATEI = "# Kommentar\n" +
+                                        "IMP1\tErste\n" +
+                                        "IMP1\tZweite\n" +
+                                        "\n" +
+                                        "\tOhne Abkürzung\n" +
+                                        "IMP2\tDritte\n" +
+                                        "IMP3\tVierte\n" +
+                                        "IMP3\n" +
+                                        "IMP4\tFünfte\n";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    private DatenbankManager _dbManager = null;
+
+
+    @Before
+    public void oeffnen() {
+
+        _context.deleteDatabase( DATEINAME );
+        _dbManager = new DatenbankManager( _context, DATEINAME );
+    }
+
+    @After
+    public void aufraeumen() {
+
+        _dbManager.close();
+        _context.deleteDatabase( DATEINAME );
+    }
+
+    private static InputStream stream( String inhalt ) {
+
+        return new ByteArrayInputStream( inhalt.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private void assertNichtsGehalten() {
+
+        assertFalse( _dbManager.getSchreibSperre().isHeldByCurrentThread() );
+        assertFalse( _dbManager.getWritableDatabase().inTransaction() );
+    }
+
+
+    @Test
+    public void importiere_fortschrittNachJedemBatch() throws IOException {
+
+        final List<long[]> meldungen = new ArrayList<>();
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setBatchGroesse( 2 );
+        long anzahl = importer.importiere( stream( DATEI ), ( zeilen, bedeutungen, bytes ) -> {
+
+            assertFalse( _dbManager.getSchreibSperre().isHeldByCurrentThread() );
+            meldungen.add( new long[]{ zeilen, bedeutungen, bytes } );
+        } );
+
+        assertEquals( 5, anzahl );
+        assertNichtsGehalten();
+
+        // Zwei volle Batches, dann die Schlussmeldung mit dem Rest
+        assertEquals( 3, meldungen.size() );
+        assertEquals( 3, meldungen.get( 0 )[ 0 ] );
+        assertEquals( 2, meldungen.get( 0 )[ 1 ] );
+        assertEquals( 7, meldungen.get( 1 )[ 0 ] );
+        assertEquals( 4, meldungen.get( 1 )[ 1 ] );
+        assertEquals( 9, meldungen.get( 2 )[ 0 ] );
+        assertEquals( 5, meldungen.get( 2 )[ 1 ] );
+        assertEquals( DATEI.getBytes( StandardCharsets.UTF_8 ).length, meldungen.get( 2 )[ 2 ] );
+
+        assertEquals( 2, _dbManager.sucheNachAbk( "imp1" ).length );
+        assertArrayEquals( new String[]{ "Fünfte" }, _dbManager.sucheNachAbk( "IMP4" ) );
+    }
+
+    @Test
+    public void importiere_liestOhneSperreUndTransaktion() throws IOException {
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setBatchGroesse( 2 );
+
+        // Prüft bei jedem Lesen aus der Datei, dass kein Batch gerade offen ist
+        InputStream pruefend = new InputStream() {
+
+            private final InputStream _inhalt = stream( DATEI );
+
+            @Override
+            public int read() throws IOException {
+
+                assertNichtsGehalten();
+                return _inhalt.read();
+            }
+
+            @Override
+            public int read( byte[] puffer, int offset, int laenge ) throws IOException {
+
+                assertNichtsGehalten();
+                return _inhalt.read( puffer, offset, Math.min( laenge, 16 ) );
+            }
+        };
+
+        assertEquals( 5, importer.importiere( pruefend, null ) );
+        assertArrayEquals( new String[]{ "Fünfte" }, _dbManager.sucheNachAbk( "IMP4" ) );
+    }
+
+    @Test
+    public void importiere_fehlerImFortschrittZwischenBatches() throws IOException {
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setBatchGroesse( 2 );
+        try {
+
+            importer.importiere( stream( DATEI ), ( zeilen, bedeutungen, bytes ) -> {
+
+                throw new IllegalStateException( "Abbruch durch Nutzer" );
+            } );
+            fail( "Exception aus dem Fortschritts-Rückruf erwartet" );
+        }
+        catch ( IllegalStateException ex ) {
+
+            // Die eigentliche Exception, nicht eine aus endTransaction() oder unlock()
+            assertEquals( "Abbruch durch Nutzer", ex.getMessage() );
+        }
+
+        assertNichtsGehalten();
+
+        // Der erste Batch ist committet, der Rest nicht importiert
+        assertEquals( 2, _dbManager.sucheNachAbk( "IMP1" ).length );
+        assertEquals( 0, _dbManager.sucheNachAbk( "IMP2" ).length );
+
+        // Die Datenbank ist weiter beschreibbar
+        _dbManager.insertGanzNeueAbk( "IMP5", "Danach" );
+        assertArrayEquals( new String[]{ "Danach" }, _dbManager.sucheNachAbk( "IMP5" ) );
+    }
+
+    @Test
+    public void importiere_fehlerImLetztenBatchRolltNurDiesenZurueck() {
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setBatchGroesse( 2 );
+
+        // Liefert den ersten Batch und bricht dann beim Lesen ab
+        InputStream abbrechend = new InputStream() {
+
+            private final InputStream _inhalt = stream( "IMP1\tErste\nIMP1\tZweite\nIMP2\tDritte\n" );
+
+            @Override
+            public int read() throws IOException {
+
+                int b = _inhalt.read();
+                if ( b < 0 ) {
+
+                    throw new IOException( "Datei abgeschnitten" );
+                }
+                return b;
+            }
+        };
+
+        try {
+
+            importer.importiere( abbrechend, null );
+            fail( "IOException erwartet" );
+        }
+        catch ( IOException ex ) {
+
+            assertEquals( "Datei abgeschnitten", ex.getMessage() );
+        }
+
+        assertNichtsGehalten();
+        assertEquals( 2, _dbManager.sucheNachAbk( "IMP1" ).length );
+        assertEquals( 0, _dbManager.sucheNachAbk( "IMP2" ).length );
+    }
+
+    @Test
+    public void importiere_csvExportBehaeltKategorie() throws IOException {
+
+        _dbManager.insertGanzNeueAbk( "KAT", "Mit Kategorie", 2 );
+
+        AbkExporter exporter = new AbkExporter( _dbManager );
+        exporter.setFormat( AbkExporter.Format.CSV );
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        long stand = exporter.exportiereInkrementell( export );
+
+        // Eine geänderte Kategorie landet im nächsten inkrementellen Export
+        _dbManager.getWritableDatabase().execSQL( "UPDATE bedeutungen SET kategorie = 3 WHERE bedeutung = 'Mit Kategorie'" );
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        assertTrue( exporter.exportiereInkrementell( delta ) > stand );
+        assertTrue( delta.toString( "UTF-8" ), delta.toString( "UTF-8" ).contains( "\"Mit Kategorie\",3," ) );
+
+        _dbManager.getWritableDatabase().execSQL( "DELETE FROM bedeutungen" );
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setTrennzeichen( AbkImporter.TRENNZEICHEN_CSV );
+        importer.importiere( new ByteArrayInputStream( export.toByteArray() ), null );
+
+        assertArrayEquals( new String[]{ "Mit Kategorie" }, _dbManager.sucheNachAbk( "KAT", Collections.singleton( 2 ) ) );
+        assertEquals( 0, _dbManager.sucheNachAbk( "KAT", Collections.singleton( 0 ) ).length );
+    }
+
+    @Test
+    public void importiere_unbekannteKategorieWirdAllgemein() throws IOException {
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.importiere( stream( "UNB\tUnbekannt\t999\nUNB\tKeine Zahl\tx\n" ), null );
+
+        assertEquals( 2, _dbManager.sucheNachAbk( "UNB", Collections.singleton( DatenbankManager.KATEGORIE_ALLGEMEIN ) ).length );
+    }
+
+    @Test
+    public void importiere_einAenderungsStandProBatch() throws IOException {
+
+        SQLiteDatabase db     = _dbManager.getWritableDatabase();
+        long           vorher = DatabaseUtils.longForQuery( db, AbkExporter.SQL_METADATEN,
+                                                            new String[]{ AbkExporter.SCHLUESSEL_AENDERUNG } );
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setBatchGroesse( 2 );
+        importer.importiere( stream( DATEI ), null );
+
+        // Drei Batches, also drei Stände statt einem pro Abkürzung und Bedeutung
+        long nachher = DatabaseUtils.longForQuery( db, AbkExporter.SQL_METADATEN,
+                                                   new String[]{ AbkExporter.SCHLUESSEL_AENDERUNG } );
+        assertEquals( vorher + 3, nachher );
+        assertEquals( 3, DatabaseUtils.longForQuery( db,
+                "SELECT COUNT(DISTINCT aenderung) FROM bedeutungen WHERE aenderung > ?",
+                new String[]{ Long.toString( vorher ) } ) );
+        assertEquals( 5, DatabaseUtils.longForQuery( db,
+                "SELECT COUNT(*) FROM bedeutungen WHERE aenderung > ?",
+                new String[]{ Long.toString( vorher ) } ) );
+    }
+}
@@ -0,0 +1,78 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für das Zerlegen der Zeilen einer Import-Datei in {@link AbkImporter}, laufen
+ * ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class AbkImporterTest {
+
+    private static AbkImporter importer( char trennzeichen ) {
+
+        AbkImporter importer = new AbkImporter( null );
+        importer.setTrennzeichen( trennzeichen );
+        return importer;
+    }
+
+
+    @Test
+    public void zerlegeZeile_leerUndKommentar() {
+
+        AbkImporter importer = importer( AbkImporter.TRENNZEICHEN_TSV );
+
+        assertNull( importer.zerlegeZeile( "" ) );
+        assertNull( importer.zerlegeZeile( " \t " ) );
+        assertNull( importer.zerlegeZeile( "# KSC\tKarlsruher Sport-Club" ) );
+    }
+
+    @Test
+    public void zerlegeZeile_tsvMitLeerzeichen() {
+
+        AbkImporter importer = importer( AbkImporter.TRENNZEICHEN_TSV );
+
+        assertArrayEquals( new String[]{ "KSC", "Karlsruher Sport-Club", "" },
+                           importer.zerlegeZeile( " KSC \t Karlsruher Sport-Club " ) );
+        assertArrayEquals( new String[]{ "KSC", "A", "B" },
+                           importer.zerlegeZeile( "KSC\tA\tB" ) );
+        assertArrayEquals( new String[]{ "KSC", "", "" },
+                           importer.zerlegeZeile( "KSC" ) );
+    }
+
+    @Test
+    public void zerlegeZeile_csvMitAnfuehrungszeichen() {
+
+        AbkImporter importer = importer( AbkImporter.TRENNZEICHEN_CSV );
+
+        assertArrayEquals( new String[]{ "KSC", "Karlsruher Sport-Club", "" },
+                           importer.zerlegeZeile( "KSC, Karlsruher Sport-Club" ) );
+        assertArrayEquals( new String[]{ "e.V.", "eingetragener Verein, gemeinnützig", "" },
+                           importer.zerlegeZeile( " \"e.V.\" ,\"eingetragener Verein, gemeinnützig\"" ) );
+        assertArrayEquals( new String[]{ "Zitat", "Das \"Zitat\"", "" },
+                           importer.zerlegeZeile( "Zitat,\"Das \"\"Zitat\"\"\"" ) );
+        assertArrayEquals( new String[]{ "KSC", "Karlsruher Sport-Club", "12" },
+                           importer.zerlegeZeile( "KSC,Karlsruher Sport-Club,12,34,0" ) );
+        assertArrayEquals( new String[]{ "KSC", "", "" },
+                           importer.zerlegeZeile( "KSC" ) );
+    }
+
+    @Test
+    public void zerlegeZeile_anfuehrungszeichenMittenImFeldBleibt() {
+
+        AbkImporter importer = importer( AbkImporter.TRENNZEICHEN_CSV );
+
+        assertArrayEquals( new String[]{ "5\"", "Fünf Zoll", "" },
+                           importer.zerlegeZeile( "5\",Fünf Zoll" ) );
+    }
+
+    @Test
+    public void zerlegeZeile_semikolonAlsTrennzeichen() {
+
+        AbkImporter importer = importer( ';' );
+
+        assertArrayEquals( new String[]{ "GmbH", "Gesellschaft mit beschränkter Haftung, kurz GmbH", "" },
+                           importer.zerlegeZeile( "GmbH;Gesellschaft mit beschränkter Haftung, kurz GmbH" ) );
+    }
+}
@@ -0,0 +1,121 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link AbkIndex}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class AbkIndexTest {
+
+    /**
+     * Erzeugt einen Index mit den Beispiel-Datensätzen aus {@link DatenbankManager#onCreate}.
+     */
+    private AbkIndex erzeugeBeispielIndex() {
+
+        AbkIndex index = new AbkIndex();
+        index.anhaengen( "ADB", "Android Debug Bridge"       );
+        index.anhaengen( "HCI", "Hash Collision Index"       );
+        index.anhaengen( "HCI", "Human-Computer Interaction" );
+        index.anhaengen( "KSC", "Karlsruher Sport-Club"      );
+        index.anhaengen( "KSC", "Kennedy Space Center"       );
+        index.ladenAbschliessen();
+        return index;
+    }
+
+    @Test
+    public void exakteSuche_findetAlleBedeutungen() {
+
+        AbkIndex index = erzeugeBeispielIndex();
+
+        assertEquals( 3, index.getAnzahlAbkuerzungen() );
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           index.suche( "KSC" ) );
+        assertEquals( 0, index.suche( "XYZ" ).length );
+    }
+
+    @Test
+    public void ersetzen_uebernimmtReihenfolge() {
+
+        AbkIndex index = erzeugeBeispielIndex();
+        index.ersetzen( "KSC", new String[]{ "Kennedy Space Center", "Karlsruher Sport-Club" } );
+        index.ersetzen( "ARM", new String[]{ "Advanced RISC Machines" } );
+        index.ersetzen( "XYZ", new String[]{} );
+
+        assertEquals( 4, index.getAnzahlAbkuerzungen() );
+        assertArrayEquals( new String[]{ "Kennedy Space Center", "Karlsruher Sport-Club" },
+                           index.suche( "KSC" ) );
+        assertArrayEquals( new String[]{ "Advanced RISC Machines" }, index.suche( "ARM" ) );
+        assertEquals( 0, index.suche( "XYZ" ).length );
+    }
+
+    @Test
+    public void unsortiertesLaden_wirdNachsortiert() {
+
+        AbkIndex index = new AbkIndex();
+        index.anhaengen( "KSC", "Kennedy Space Center"  );
+        index.anhaengen( "ADB", "Android Debug Bridge"  );
+        index.anhaengen( "KSC", "Karlsruher Sport-Club" );
+        index.ladenAbschliessen();
+
+        assertEquals( 2, index.getAnzahlAbkuerzungen() );
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           index.suche( "KSC" ) );
+        assertArrayEquals( new String[]{ "Android Debug Bridge" }, index.suche( "ADB" ) );
+    }
+
+    @Test
+    public void vieleEintraege_kapazitaetWaechst() {
+
+        AbkIndex index = new AbkIndex();
+        for ( int i = 0; i < 1000; i++ ) {
+
+            index.anhaengen( String.format( "A%04d", i ), "Bedeutung " + i );
+        }
+        index.ladenAbschliessen();
+
+        assertEquals( 1000, index.getAnzahlAbkuerzungen() );
+        assertArrayEquals( new String[]{ "Bedeutung 999" }, index.suche( "A0999" ) );
+    }
+
+    @Test
+    public void inkrementelleSuche_exaktVorPraefixVorAehnlich() {
+
+        AbkIndex index = erzeugeBeispielIndex();
+        index.ersetzen( "KSCA", new String[]{ "Beispiel mit Präfix KSC"   } );
+        index.ersetzen( "KCS" , new String[]{ "Beispiel mit Vertauschung" } );
+        index.ersetzen( "KSD" , new String[]{ "Beispiel mit Ersetzung"    } );
+
+        List<AbkTreffer> treffer = index.sucheTreffer( "KSC", 10, true, 1_000_000_000L );
+
+        assertEquals( 4, treffer.size() );
+        assertEquals( "KSC" , treffer.get( 0 ).getAbkuerzung() );
+        assertEquals( AbkTreffer.Art.EXAKT, treffer.get( 0 ).getArt() );
+        assertEquals( "KSCA", treffer.get( 1 ).getAbkuerzung() );
+        assertEquals( AbkTreffer.Art.PRAEFIX, treffer.get( 1 ).getArt() );
+        assertEquals( "KCS" , treffer.get( 2 ).getAbkuerzung() );
+        assertEquals( "KSD" , treffer.get( 3 ).getAbkuerzung() );
+        assertEquals( AbkTreffer.Art.AEHNLICH, treffer.get( 3 ).getArt() );
+    }
+
+    @Test
+    public void inkrementelleSuche_begrenztAnzahlTreffer() {
+
+        AbkIndex index = new AbkIndex();
+        for ( int i = 0; i < 1000; i++ ) {
+
+            index.anhaengen( String.format( "A%04d", i ), "Bedeutung " + i );
+        }
+        index.ladenAbschliessen();
+
+        List<AbkTreffer> treffer = index.sucheTreffer( "A0", 5, true, 1_000_000_000L );
+
+        assertEquals( 5, treffer.size() );
+        assertEquals( "A0000", treffer.get( 0 ).getAbkuerzung() );
+        assertEquals( "A0004", treffer.get( 4 ).getAbkuerzung() );
+        assertEquals( 0, index.sucheTreffer( "B", 5, false, 1_000_000_000L ).size() );
+    }
+}
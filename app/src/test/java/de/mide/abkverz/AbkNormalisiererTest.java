@@ -0,0 +1,58 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link AbkNormalisierer}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class AbkNormalisiererTest {
+
+    @Test
+    public void schluessel_ohneSatzzeichenUndLeerzeichen() {
+
+        assertEquals( "KSC", AbkNormalisierer.schluessel( "KSC"      ) );
+        assertEquals( "KSC", AbkNormalisierer.schluessel( "K.S.C."   ) );
+        assertEquals( "KSC", AbkNormalisierer.schluessel( " k-s c "  ) );
+        assertEquals( "ZB" , AbkNormalisierer.schluessel( "z.B."     ) );
+        assertEquals( "B2B", AbkNormalisierer.schluessel( "B2B"      ) );
+        assertEquals( ""   , AbkNormalisierer.schluessel( "..."      ) );
+    }
+
+    @Test
+    public void schluessel_ohneDiakritischeZeichen() {
+
+        assertEquals( "AOU"   , AbkNormalisierer.schluessel( "ÄÖÜ"    ) );
+        assertEquals( "AOU"   , AbkNormalisierer.schluessel( "äöü"    ) );
+        assertEquals( "CAFE"  , AbkNormalisierer.schluessel( "Café"   ) );
+        assertEquals( "FIFA"  , AbkNormalisierer.schluessel( "ＦＩＦＡ" ) ); // Vollbreite
+        assertEquals( "FI"    , AbkNormalisierer.schluessel( "ﬁ" ) ); // Ligatur "fi"
+        assertEquals( "STRASSE", AbkNormalisierer.schluessel( "Straße" ) );
+    }
+
+    @Test
+    public void schluessel_unabhaengigVonSpracheinstellung() {
+
+        Locale vorher = Locale.getDefault();
+        try {
+
+            Locale.setDefault( new Locale( "tr", "TR" ) );
+            assertEquals( "HCI", AbkNormalisierer.schluessel( "hci" ) );
+            assertEquals( "HCI", AbkNormalisierer.schluessel( "HCI" ) );
+        }
+        finally {
+
+            Locale.setDefault( vorher );
+        }
+    }
+
+    @Test
+    public void anzeige_behaeltSatzzeichen() {
+
+        assertEquals( "K.S.C.", AbkNormalisierer.anzeige( " k.s.c. " ) );
+        assertEquals( "ÄÖÜ"   , AbkNormalisierer.anzeige( "äöü"      ) );
+    }
+}
@@ -0,0 +1,210 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MergeCursor;
+import android.net.Uri;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für {@link AbkProvider#query(Uri, String[], String, String[], String)} mit den URIs
+ * aus {@link AbkKontrakt}; laufen mit Robolectric (echte SQLite-Bibliothek) ohne
+ * Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class AbkProviderAbfrageTest {
+
+    private static final String DATEINAME = "abkverz_provider_test.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    private DatenbankManager _dbManager = null;
+
+    private AbkProvider _provider = null;
+
+
+    /** Fragt statt der Datenbank von {@link DatenbankManager#getInstanz(Context)} die des Tests ab. */
+    private static class AbkProviderMitDb extends AbkProvider {
+
+        private final DatenbankManager _dbManager;
+
+        AbkProviderMitDb( DatenbankManager dbManager ) {
+
+            _dbManager = dbManager;
+        }
+
+        @Override
+        protected Cursor abfrage( String sql, String... parameter ) {
+
+            return _dbManager.getReadableDatabase().rawQuery( sql, parameter );
+        }
+    }
+
+
+    @Before
+    public void oeffnen() {
+
+        _context.deleteDatabase( DATEINAME );
+        _dbManager = new DatenbankManager( _context, DATEINAME );
+
+        _provider = new AbkProviderMitDb( _dbManager );
+        _provider.onCreate();
+    }
+
+    @After
+    public void aufraeumen() {
+
+        _dbManager.close();
+        _context.deleteDatabase( DATEINAME );
+    }
+
+    private Cursor abfrage( Uri uri, String... projektion ) {
+
+        return _provider.query( uri, projektion.length == 0 ? null : projektion, null, null, null );
+    }
+
+    private static Uri uri( String pfad, String abk ) {
+
+        return AbkKontrakt.BASIS_URI.buildUpon().appendPath( pfad ).appendPath( abk ).build();
+    }
+
+    /** Liest eine Spalte aller Zeilen und schließt den Cursor. */
+    private static List<String> spalte( Cursor cursor, String name ) {
+
+        List<String> werte = new ArrayList<>();
+        try {
+
+            int index = cursor.getColumnIndexOrThrow( name );
+            while ( cursor.moveToNext() ) {
+
+                werte.add( cursor.getString( index ) );
+            }
+        }
+        finally {
+
+            cursor.close();
+        }
+        return werte;
+    }
+
+
+    @Test
+    public void abk_exaktNachSchluesselSortiertNachTreffern() {
+
+        // Beispiel-Daten: "Karlsruher Sport-Club" und "Kennedy Space Center"
+        _dbManager.getWritableDatabase().execSQL(
+                "UPDATE bedeutungen SET treffer = 5 WHERE bedeutung = 'Kennedy Space Center'" );
+        _dbManager.insertGanzNeueAbk( "KSCX", "Länger" );
+
+        List<String> bedeutungen = spalte( abfrage( uri( AbkKontrakt.PFAD_ABK, "k.s.c." ) ),
+                                           AbkKontrakt.SPALTE_BEDEUTUNG );
+
+        assertEquals( 2, bedeutungen.size() );
+        assertEquals( "Kennedy Space Center",  bedeutungen.get( 0 ) );
+        assertEquals( "Karlsruher Sport-Club", bedeutungen.get( 1 ) );
+    }
+
+    @Test
+    public void abk_nurSpaltenDerProjektion() {
+
+        Cursor cursor = abfrage( uri( AbkKontrakt.PFAD_ABK, "ADB" ),
+                                 AbkKontrakt.SPALTE_BEDEUTUNG, AbkKontrakt.SPALTE_SCHLUESSEL );
+        try {
+
+            assertArrayEquals( new String[]{ AbkKontrakt.SPALTE_BEDEUTUNG, AbkKontrakt.SPALTE_SCHLUESSEL },
+                               cursor.getColumnNames() );
+            assertTrue( cursor.moveToFirst() );
+            assertEquals( "Android Debug Bridge", cursor.getString( 0 ) );
+            assertEquals( "ADB", cursor.getString( 1 ) );
+        }
+        finally {
+
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void praefix_nurAbkuerzungenMitPraefixMitLimit() {
+
+        _dbManager.insertGanzNeueAbk( "KA", "Erste" );
+        _dbManager.insertGanzNeueAbk( "KB", "Zweite" );
+        _dbManager.insertGanzNeueAbk( "KC", "Dritte" );
+        _dbManager.insertGanzNeueAbk( "L",  "Nicht dabei" );
+
+        List<String> schluessel = spalte( abfrage( uri( AbkKontrakt.PFAD_PRAEFIX, "k" ) ),
+                                          AbkKontrakt.SPALTE_SCHLUESSEL );
+        assertEquals( "KA", schluessel.get( 0 ) );
+        assertFalse( schluessel.contains( "L" ) );
+        assertTrue( schluessel.contains( "KSC" ) );
+
+        Uri mitLimit = uri( AbkKontrakt.PFAD_PRAEFIX, "k" ).buildUpon()
+                               .appendQueryParameter( AbkKontrakt.PARAMETER_LIMIT, "2" ).build();
+        assertEquals( 2, spalte( abfrage( mitLimit ), AbkKontrakt.SPALTE_SCHLUESSEL ).size() );
+    }
+
+    @Test
+    public void praefix_nurIndexZugriffeOhneSortierung() {
+
+        String plan = DatenbankSchemaTest.queryPlan( _dbManager.getReadableDatabase(),
+                "SELECT " + AbkProvider.spalten( null ) + AbkProvider.SQL_VON + AbkProvider.SQL_PRAEFIX,
+                "KS", AbkProvider.praefixEnde( "KS" ), "100" );
+
+        assertTrue( plan, plan.contains( "INDEX abkuerzung_index_schluessel" ) );
+        assertTrue( plan, plan.contains( "INDEX bedeutungen_index_abk_treffer" ) );
+        assertFalse( plan, plan.contains( "SCAN" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+    }
+
+    @Test
+    public void abks_ueberMehrereAbfragenZusammengefasst() {
+
+        int anzahl = DatenbankManager.MAX_IN_PARAMETER + 3;
+
+        Uri.Builder builder = AbkKontrakt.BASIS_URI.buildUpon().appendPath( AbkKontrakt.PFAD_ABKS );
+        for ( int i = 0; i < anzahl; i++ ) {
+
+            _dbManager.insertGanzNeueAbk( "M" + i, "Bedeutung " + i );
+            builder.appendQueryParameter( AbkKontrakt.PARAMETER_ABK, "m" + i );
+        }
+        builder.appendQueryParameter( AbkKontrakt.PARAMETER_ABK, "M0" ); // doppelt
+        builder.appendQueryParameter( AbkKontrakt.PARAMETER_ABK, "..." ); // ohne Buchstaben
+
+        Cursor cursor = abfrage( builder.build(), AbkKontrakt.SPALTE_BEDEUTUNG );
+        assertTrue( cursor instanceof MergeCursor );
+
+        List<String> bedeutungen = spalte( cursor, AbkKontrakt.SPALTE_BEDEUTUNG );
+        assertEquals( anzahl, bedeutungen.size() );
+        assertTrue( bedeutungen.contains( "Bedeutung " + ( anzahl - 1 ) ) );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void auswahlWirdAbgelehnt() {
+
+        _provider.query( uri( AbkKontrakt.PFAD_ABK, "KSC" ), null, "1=1) --", null, null );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sortierungWirdAbgelehnt() {
+
+        _provider.query( uri( AbkKontrakt.PFAD_ABK, "KSC" ), null, null, null, "bedeutung" );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unbekannteUriWirdAbgelehnt() {
+
+        abfrage( AbkKontrakt.BASIS_URI.buildUpon().appendPath( "bedeutungen" ).build() );
+    }
+}
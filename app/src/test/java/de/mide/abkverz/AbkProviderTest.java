@@ -0,0 +1,74 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für die Hilfsmethoden von {@link AbkProvider}, laufen ohne Android-Gerät auf
+ * dem Entwicklungsrechner.
+ */
+public class AbkProviderTest {
+
+    @Test
+    public void spalten_nurProjektionInGleicherReihenfolge() {
+
+        assertEquals( "bedeutungen.bedeutung AS bedeutung, abkuerzungen.abkuerzung AS abkuerzung",
+                      AbkProvider.spalten( new String[]{ AbkKontrakt.SPALTE_BEDEUTUNG,
+                                                         AbkKontrakt.SPALTE_ABKUERZUNG } ) );
+    }
+
+    @Test
+    public void spalten_ohneProjektionAlle() {
+
+        String spalten = AbkProvider.spalten( null );
+
+        assertTrue( spalten, spalten.startsWith( "bedeutungen.bedeutung_id AS _id, " ) );
+        assertEquals( AbkProvider.SPALTEN.size(), spalten.split( ", " ).length );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void spalten_unbekannteSpalteWirdAbgelehnt() {
+
+        AbkProvider.spalten( new String[]{ "bedeutung FROM bedeutungen --" } );
+    }
+
+    @Test
+    public void praefixEnde_erhoehtLetztesZeichen() {
+
+        assertEquals( "KT", AbkProvider.praefixEnde( "KS" ) );
+        assertEquals( "A:", AbkProvider.praefixEnde( "A9" ) );
+        assertTrue( "KS".compareTo( AbkProvider.praefixEnde( "KS" ) ) < 0 );
+        assertTrue( "KSZZZ".compareTo( AbkProvider.praefixEnde( "KS" ) ) < 0 );
+    }
+
+    @Test
+    public void praefixEnde_erhoehtCodePointStattChar() {
+
+        String praefix = "A" + new String( Character.toChars( 0x10400 ) ); // DESERET CAPITAL LONG I
+
+        assertEquals( "A" + new String( Character.toChars( 0x10401 ) ), AbkProvider.praefixEnde( praefix ) );
+    }
+
+    @Test
+    public void praefixEnde_ueberspringtSurrogates() {
+
+        assertEquals( "A\uE000", AbkProvider.praefixEnde( "A\uD7FF" ) );
+    }
+
+    @Test
+    public void praefixEnde_hoechsterCodePointErhoehtZeichenDavor() {
+
+        String hoechster = new String( Character.toChars( Character.MAX_CODE_POINT ) );
+
+        assertEquals( "B", AbkProvider.praefixEnde( "A" + hoechster ) );
+        assertEquals( "B", AbkProvider.praefixEnde( "A" + hoechster + hoechster ) );
+        assertNull( AbkProvider.praefixEnde( hoechster ) );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void schluessel_ohneBuchstabenWirdAbgelehnt() {
+
+        AbkProvider.schluessel( "..." );
+    }
+}
@@ -0,0 +1,130 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link AbkSnapshot} und {@link AbkSnapshotSchreiber}, laufen ohne
+ * Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class AbkSnapshotTest {
+
+    private static File neueDatei() throws IOException {
+
+        File datei = File.createTempFile( "abkverz", ".snapshot" );
+        datei.deleteOnExit();
+        return datei;
+    }
+
+    private static AbkSnapshot schreibeUndOeffne( AbkSnapshotSchreiber schreiber, long hoechsteId )
+            throws IOException {
+
+        File datei = neueDatei();
+        schreiber.schreiben( datei, hoechsteId );
+        return AbkSnapshot.oeffnen( datei );
+    }
+
+    @Test
+    public void suche_findetAlleBedeutungen() throws IOException {
+
+        AbkSnapshotSchreiber schreiber = new AbkSnapshotSchreiber();
+        schreiber.anhaengen( "ADB", "Android Debug Bridge" );
+        schreiber.anhaengen( "KSC", "Karlsruher Sport-Club" );
+        schreiber.anhaengen( "KSC", "Kennedy Space Center" );
+        schreiber.anhaengen( "ZDF", "Zweites Deutsches Fernsehen" );
+        schreiber.anhaengen( "ÄÖÜ", "Umlaute" ); // UTF-8 mit zwei Bytes pro Zeichen, nach "Z"
+
+        AbkSnapshot snapshot = schreibeUndOeffne( schreiber, 42 );
+
+        assertEquals( 4, snapshot.getAnzahlAbkuerzungen() );
+        assertEquals( 5, snapshot.getAnzahlBedeutungen() );
+        assertEquals( 42, snapshot.getHoechsteBedeutungId() );
+
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           snapshot.suche( "KSC" ) );
+        assertArrayEquals( new String[]{ "Android Debug Bridge" }, snapshot.suche( "ADB" ) );
+        assertArrayEquals( new String[]{ "Umlaute" }, snapshot.suche( "ÄÖÜ" ) );
+        assertArrayEquals( new String[]{ "Zweites Deutsches Fernsehen" }, snapshot.suche( "ZDF" ) );
+        assertEquals( 0, snapshot.suche( "KS" ).length );
+        assertEquals( 0, snapshot.suche( "AAA" ).length );
+        assertEquals( 0, snapshot.suche( "ZZZ" ).length );
+    }
+
+    @Test
+    public void gleicheBedeutungen_werdenNurEinmalGespeichert() throws IOException {
+
+        AbkSnapshotSchreiber ohneDuplikat = new AbkSnapshotSchreiber();
+        ohneDuplikat.anhaengen( "AG", "Aktiengesellschaft" );
+
+        AbkSnapshotSchreiber mitDuplikat = new AbkSnapshotSchreiber();
+        mitDuplikat.anhaengen( "AG" , "Aktiengesellschaft" );
+        mitDuplikat.anhaengen( "AKG", "Aktiengesellschaft" );
+
+        File datei1 = neueDatei();
+        File datei2 = neueDatei();
+        ohneDuplikat.schreiben( datei1, 1 );
+        mitDuplikat.schreiben( datei2, 2 );
+
+        // Nur ein Tabellen-Eintrag pro Tabelle und die Abkürzung kommen dazu
+        assertEquals( datei1.length() + 8 + 4 + 2 + 3, datei2.length() );
+        assertArrayEquals( new String[]{ "Aktiengesellschaft" }, AbkSnapshot.oeffnen( datei2 ).suche( "AKG" ) );
+    }
+
+    @Test
+    public void leererSnapshot() throws IOException {
+
+        AbkSnapshot snapshot = schreibeUndOeffne( new AbkSnapshotSchreiber(), 0 );
+
+        assertEquals( 0, snapshot.getAnzahlAbkuerzungen() );
+        assertEquals( 0, snapshot.suche( "ADB" ).length );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void unsortierteAbkuerzungen_werdenAbgelehnt() {
+
+        AbkSnapshotSchreiber schreiber = new AbkSnapshotSchreiber();
+        schreiber.anhaengen( "KSC", "Karlsruher Sport-Club" );
+        schreiber.anhaengen( "ADB", "Android Debug Bridge" );
+    }
+
+    @Test( expected = IOException.class )
+    public void falschesFormat_wirdAbgelehnt() throws IOException {
+
+        File datei = neueDatei();
+        try ( FileOutputStream out = new FileOutputStream( datei ) ) {
+
+            out.write( new byte[ 64 ] );
+        }
+
+        AbkSnapshot.oeffnen( datei );
+    }
+
+    @Test
+    public void vergleicheCodePoints_wieUtf8() {
+
+        String[] strings = { "", "A", "AB", "Z", "Ä", "\uD7FF", "\uE000", "\uFFFD",
+                             new String( Character.toChars( 0x10400 ) ),
+                             "A" + new String( Character.toChars( 0x1F600 ) ), "A\uFF21" };
+
+        for ( String a: strings ) {
+
+            for ( String b: strings ) {
+
+                int erwartet = AbkSnapshotSchreiber.vergleicheUtf8( a.getBytes( StandardCharsets.UTF_8 ),
+                                                                    b.getBytes( StandardCharsets.UTF_8 ) );
+                int ergebnis = AbkSnapshotSchreiber.vergleicheCodePoints( a, b );
+
+                assertEquals( a + " / " + b, Integer.signum( erwartet ), Integer.signum( ergebnis ) );
+            }
+        }
+
+        // Hier weicht String.compareTo() ab
+        assertTrue( "\uE000".compareTo( new String( Character.toChars( 0x10400 ) ) ) > 0 );
+    }
+}
@@ -0,0 +1,176 @@
+package de.mide.abkverz;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sammelt die Messwerte von {@link DatenbankBenchmark} und schreibt sie als JSON-Datei,
+ * damit die Ergebnisse verschiedener Commits maschinell verglichen werden können.
+ */
+public class BenchmarkProtokoll {
+
+    /** Ein Eintrag pro Messung, Reihenfolge wie gemessen. */
+    private final List<Map<String,Object>> _ergebnisse = new ArrayList<>();
+
+
+    /**
+     * Speichert eine Messreihe mit einer Dauer pro Operation.
+     *
+     * @param name  Name der Messung, z.B. {@code "lookup_warm_cache"}.
+     *
+     * @param zeilen  Anzahl der Bedeutungen im Datensatz.
+     *
+     * @param nanos  Dauer jeder einzelnen Operation in Nanosekunden (wird sortiert).
+     *
+     * @return  Eintrag, dem mit {@link Map#put(Object, Object)} weitere Werte hinzugefügt
+     *          werden können (z.B. Cache-Zähler).
+     */
+    public Map<String,Object> messreihe( String name, int zeilen, long[] nanos ) {
+
+        Arrays.sort( nanos );
+
+        long summe = 0;
+        for ( long n: nanos ) {
+
+            summe += n;
+        }
+
+        Map<String,Object> eintrag = neuerEintrag( name, zeilen );
+        eintrag.put( "anzahl"   , nanos.length );
+        eintrag.put( "mittel_ns", nanos.length == 0 ? 0 : summe / nanos.length );
+        eintrag.put( "median_ns", perzentil( nanos, 0.50 ) );
+        eintrag.put( "p90_ns"   , perzentil( nanos, 0.90 ) );
+        eintrag.put( "p99_ns"   , perzentil( nanos, 0.99 ) );
+        eintrag.put( "max_ns"   , nanos.length == 0 ? 0 : nanos[ nanos.length - 1 ] );
+        return eintrag;
+    }
+
+
+    /**
+     * Speichert eine Messung, bei der nur die Gesamtdauer für viele Operationen bekannt ist
+     * (z.B. Import in einer Transaktion).
+     *
+     * @param name  Name der Messung.
+     *
+     * @param zeilen  Anzahl der Bedeutungen im Datensatz.
+     *
+     * @param anzahlOperationen  Anzahl der Operationen in der Gesamtdauer.
+     *
+     * @param nanosGesamt  Gesamtdauer in Nanosekunden.
+     *
+     * @return  Eintrag für weitere Werte.
+     */
+    public Map<String,Object> gesamt( String name, int zeilen, long anzahlOperationen, long nanosGesamt ) {
+
+        Map<String,Object> eintrag = neuerEintrag( name, zeilen );
+        eintrag.put( "anzahl"    , anzahlOperationen );
+        eintrag.put( "gesamt_ns" , nanosGesamt );
+        eintrag.put( "mittel_ns" , anzahlOperationen == 0 ? 0 : nanosGesamt / anzahlOperationen );
+        return eintrag;
+    }
+
+
+    private Map<String,Object> neuerEintrag( String name, int zeilen ) {
+
+        Map<String,Object> eintrag = new LinkedHashMap<>();
+        eintrag.put( "name"  , name   );
+        eintrag.put( "zeilen", zeilen );
+        _ergebnisse.add( eintrag );
+
+        System.out.println( "Benchmark " + name + " (" + zeilen + " Zeilen)" );
+        return eintrag;
+    }
+
+
+    private static long perzentil( long[] sortiert, double anteil ) {
+
+        if ( sortiert.length == 0 ) {
+
+            return 0;
+        }
+        int index = (int) Math.ceil( anteil * sortiert.length ) - 1;
+        return sortiert[ Math.max( 0, Math.min( index, sortiert.length - 1 ) ) ];
+    }
+
+
+    /**
+     * Schreibt alle Ergebnisse als JSON-Datei.
+     *
+     * @param datei  Zieldatei, das Verzeichnis wird bei Bedarf angelegt.
+     */
+    public void schreibeJson( File datei ) throws IOException {
+
+        datei.getParentFile().mkdirs();
+
+        try ( Writer writer = new OutputStreamWriter( Files.newOutputStream( datei.toPath() ),
+                                                      StandardCharsets.UTF_8 ) ) {
+
+            writer.write( "{\n" );
+            writer.write( "  \"zeitstempel\": " + jsonString( Instant.now().toString() ) + ",\n" );
+            writer.write( "  \"java\": " + jsonString( System.getProperty( "java.version" ) ) + ",\n" );
+            writer.write( "  \"ergebnisse\": [\n" );
+
+            for ( int i = 0; i < _ergebnisse.size(); i++ ) {
+
+                writer.write( "    {" );
+                boolean erstes = true;
+                for ( Map.Entry<String,Object> feld: _ergebnisse.get( i ).entrySet() ) {
+
+                    writer.write( erstes ? " " : ", " );
+                    writer.write( jsonString( feld.getKey() ) + ": " + jsonWert( feld.getValue() ) );
+                    erstes = false;
+                }
+                writer.write( i < _ergebnisse.size() - 1 ? " },\n" : " }\n" );
+            }
+
+            writer.write( "  ]\n}\n" );
+        }
+    }
+
+
+    private static String jsonWert( Object wert ) {
+
+        if ( wert instanceof Double || wert instanceof Float ) {
+
+            return String.format( Locale.ROOT, "%.4f", ( (Number) wert ).doubleValue() );
+        }
+        if ( wert instanceof Number || wert instanceof Boolean ) {
+
+            return wert.toString();
+        }
+        return jsonString( String.valueOf( wert ) );
+    }
+
+
+    private static String jsonString( String text ) {
+
+        StringBuilder sb = new StringBuilder( "\"" );
+        for ( char c: text.toCharArray() ) {
+
+            if ( c == '"' || c == '\\' ) {
+
+                sb.append( '\\' ).append( c );
+
+            } else if ( c < 0x20 ) {
+
+                sb.append( String.format( "\\u%04x", (int) c ) );
+
+            } else {
+
+                sb.append( c );
+            }
+        }
+        return sb.append( '"' ).toString();
+    }
+}
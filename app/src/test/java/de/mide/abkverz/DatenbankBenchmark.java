@@ -0,0 +1,333 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmarks für die Such- und Einfüge-Methoden von {@link DatenbankManager}; laufen mit
+ * Robolectric (echte SQLite-Bibliothek) ohne Android-Gerät auf dem Entwicklungsrechner.
+ * <br><br>
+ *
+ * Die Benchmarks laufen nur auf Anforderung, weil der Datensatz mit 1 Mio. Zeilen einige
+ * Minuten braucht:
+ * <pre>
+ *     ./gradlew testDebugUnitTest --tests '*DatenbankBenchmark' -Pabkverz.benchmark=true
+ * </pre>
+ * Mit {@code -Pabkverz.benchmark.groessen=1000,100000} können die Datensatz-Größen gewählt
+ * werden. Die Ergebnisse stehen danach in {@code app/build/benchmark/datenbank-benchmark.json}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatenbankBenchmark {
+
+    /** Name der DB-Datei für die Benchmarks. */
+    private static final String DATEINAME = "abkverz_benchmark.db";
+
+    /** Default für Anzahl der Bedeutungen in den Datensätzen. */
+    private static final String DEFAULT_GROESSEN = "1000,100000,1000000";
+
+    /** Anzahl der Bedeutungen pro Abkürzung im Datensatz. */
+    private static final int BEDEUTUNGEN_PRO_ABK = 2;
+
+    /** Anzahl der Operationen pro Messreihe. */
+    private static final int MESSUNGEN = 1000;
+
+    /** Anzahl der Operationen vor einer Messreihe, die nicht gemessen werden. */
+    private static final int AUFWAERMEN = 200;
+
+    /** Anzahl der verschiedenen Abkürzungen, die bei der warmen Suche wiederholt gesucht werden. */
+    private static final int HEISSE_ABKUERZUNGEN = 300;
+
+    /** Anzahl der Bedeutungen für die Einfüge-Benchmarks. */
+    private static final int ANZAHL_INSERTS = 500;
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    private final BenchmarkProtokoll _protokoll = new BenchmarkProtokoll();
+
+    /** Zufallszahlen mit festem Startwert, damit alle Läufe dieselben Operationen messen. */
+    private final Random _zufall = new Random( 4711 );
+
+    private DatenbankManager _dbManager = null;
+
+
+    @Before
+    public void nurAufAnforderung() {
+
+        Assume.assumeTrue( "Benchmarks nur mit -Pabkverz.benchmark=true",
+                           Boolean.getBoolean( "abkverz.benchmark" ) );
+    }
+
+    @After
+    public void aufraeumen() {
+
+        if ( _dbManager != null ) {
+
+            _dbManager.close();
+            _dbManager = null;
+        }
+        _context.deleteDatabase( DATEINAME );
+        new File( _context.getFilesDir(), DATEINAME + DatenbankManager.SNAPSHOT_ENDUNG ).delete();
+    }
+
+    @Test
+    public void alleBenchmarks() throws IOException {
+
+        String groessen = System.getProperty( "abkverz.benchmark.groessen", DEFAULT_GROESSEN );
+        for ( String groesse: groessen.split( "," ) ) {
+
+            benchmarksFuerDatensatz( Integer.parseInt( groesse.trim() ) );
+        }
+
+        String ausgabe = System.getProperty( "abkverz.benchmark.ausgabe", "build/benchmark" );
+        _protokoll.schreibeJson( new File( ausgabe, "datenbank-benchmark.json" ) );
+    }
+
+
+    /**
+     * Führt alle Messungen für einen neu erzeugten Datensatz aus.
+     *
+     * @param zeilen  Anzahl der Bedeutungen im Datensatz.
+     */
+    private void benchmarksFuerDatensatz( int zeilen ) throws IOException {
+
+        aufraeumen();
+
+        int anzahlAbks = Math.max( 1, zeilen / BEDEUTUNGEN_PRO_ABK );
+
+        // *** Datensatz erzeugen und importieren (Batch-Insert mit großen Transaktionen) ***
+        File tsvDatei = erzeugeDatensatz( zeilen );
+        _dbManager = new DatenbankManager( _context, DATEINAME );
+        _dbManager.getWritableDatabase();
+
+        AbkImporter importer = new AbkImporter( _dbManager );
+        importer.setTrennzeichen( AbkImporter.TRENNZEICHEN_TSV );
+
+        long start = System.nanoTime();
+        long eingefuegt;
+        try ( InputStream inputStream = new FileInputStream( tsvDatei ) ) {
+
+            eingefuegt = importer.importiere( inputStream, null );
+        }
+        _protokoll.gesamt( "import_batch", zeilen, eingefuegt, System.nanoTime() - start );
+        tsvDatei.delete();
+
+        // *** Kalt: DB frisch geöffnet, weder Index noch Ergebnis-Cache geladen ***
+        _dbManager.close();
+        _dbManager = new DatenbankManager( _context, DATEINAME );
+
+        start = System.nanoTime();
+        _dbManager.sucheNachAbkInDb( abk( 0 ) );
+        _protokoll.gesamt( "lookup_erste_nach_oeffnen", zeilen, 1, System.nanoTime() - start );
+
+        long[] nanos = new long[ MESSUNGEN ];
+        for ( int i = 0; i < MESSUNGEN; i++ ) {
+
+            String abk = abk( _zufall.nextInt( anzahlAbks ) );
+            start = System.nanoTime();
+            String[] bedeutungen = _dbManager.sucheNachAbkInDb( abk );
+            nanos[ i ] = System.nanoTime() - start;
+            assertEquals( abk, BEDEUTUNGEN_PRO_ABK, bedeutungen.length );
+        }
+        _protokoll.messreihe( "lookup_kalt_sql", zeilen, nanos );
+
+        // *** Trefferquote: Anteil der gesuchten Abkürzungen, die es gibt ***
+        for ( int prozent: new int[]{ 100, 90, 50, 0 } ) {
+
+            nanos = new long[ MESSUNGEN ];
+            for ( int i = 0; i < MESSUNGEN; i++ ) {
+
+                String abk = _zufall.nextInt( 100 ) < prozent ? abk( _zufall.nextInt( anzahlAbks ) )
+                                                              : fehlendeAbk( _zufall.nextInt( anzahlAbks ) );
+                start = System.nanoTime();
+                _dbManager.sucheNachAbkInDb( abk );
+                nanos[ i ] = System.nanoTime() - start;
+            }
+            _protokoll.messreihe( "lookup_sql_trefferquote_" + prozent, zeilen, nanos );
+        }
+
+        // *** Schnappschuss schreiben, dann kalt: DB frisch geöffnet, Suche aus Schnappschuss ***
+        start = System.nanoTime();
+        _dbManager.exportiereSnapshot();
+        _protokoll.gesamt( "snapshot_export", zeilen, zeilen, System.nanoTime() - start );
+
+        _dbManager.close();
+        _dbManager = new DatenbankManager( _context, DATEINAME );
+
+        start = System.nanoTime();
+        AbkSnapshot snapshot = _dbManager.holeSnapshot();
+        _dbManager.sucheNachAbkInSnapshot( snapshot, abk( 0 ) );
+        _protokoll.gesamt( "lookup_erste_snapshot", zeilen, 1, System.nanoTime() - start );
+
+        nanos = new long[ MESSUNGEN ];
+        for ( int i = 0; i < MESSUNGEN; i++ ) {
+
+            String abk = abk( _zufall.nextInt( anzahlAbks ) );
+            start = System.nanoTime();
+            String[] bedeutungen = _dbManager.sucheNachAbkInSnapshot( snapshot, abk );
+            nanos[ i ] = System.nanoTime() - start;
+            assertEquals( abk, BEDEUTUNGEN_PRO_ABK, bedeutungen.length );
+        }
+        _protokoll.messreihe( "lookup_kalt_snapshot", zeilen, nanos );
+
+        // *** Index laden, danach warme Suche über den Index (Ergebnis-Cache abgeschaltet) ***
+        start = System.nanoTime();
+        _dbManager.ladeAbkIndex();
+        _protokoll.gesamt( "index_laden", zeilen, zeilen, System.nanoTime() - start );
+
+        _dbManager.getAbkCache().setMaxBytes( 0 );
+        nanos = messeSuchen( anzahlAbks, anzahlAbks );
+        _protokoll.messreihe( "lookup_warm_index", zeilen, nanos );
+
+        // *** Warme Suche über Ergebnis-Cache: wenige Abkürzungen werden immer wieder gesucht ***
+        AbkCache cache = _dbManager.getAbkCache();
+        cache.setMaxBytes( AbkCache.DEFAULT_MAX_BYTES );
+        long trefferVorher      = cache.getAnzahlTreffer();
+        long fehlschlaegeVorher = cache.getAnzahlFehlschlaege();
+
+        nanos = messeSuchen( anzahlAbks, Math.min( anzahlAbks, HEISSE_ABKUERZUNGEN ) );
+        Map<String,Object> eintrag = _protokoll.messreihe( "lookup_warm_cache", zeilen, nanos );
+        long treffer      = cache.getAnzahlTreffer()      - trefferVorher;
+        long fehlschlaege = cache.getAnzahlFehlschlaege() - fehlschlaegeVorher;
+        eintrag.put( "cache_treffer"       , treffer );
+        eintrag.put( "cache_fehlschlaege"  , fehlschlaege );
+        eintrag.put( "cache_trefferquote"  , (double) treffer / ( treffer + fehlschlaege ) );
+        eintrag.put( "cache_verdraengungen", cache.getAnzahlVerdraengungen() );
+
+        // *** Einzelne Inserts, jeder in eigener Transaktion ***
+        nanos = new long[ ANZAHL_INSERTS ];
+        for ( int i = 0; i < ANZAHL_INSERTS; i++ ) {
+
+            start = System.nanoTime();
+            _dbManager.insertGanzNeueAbk( "NEU" + i, "Neue Bedeutung " + i );
+            nanos[ i ] = System.nanoTime() - start;
+        }
+        _protokoll.messreihe( "insert_einzeln_neue_abk", zeilen, nanos );
+
+        nanos = new long[ ANZAHL_INSERTS ];
+        for ( int i = 0; i < ANZAHL_INSERTS; i++ ) {
+
+            String abk = abk( _zufall.nextInt( anzahlAbks ) );
+            start = System.nanoTime();
+            _dbManager.insertBedeutung( abk, "Weitere Bedeutung " + i );
+            nanos[ i ] = System.nanoTime() - start;
+        }
+        _protokoll.messreihe( "insert_einzeln_bedeutung", zeilen, nanos );
+
+        nanos = new long[ ANZAHL_INSERTS ];
+        for ( int i = 0; i < ANZAHL_INSERTS; i++ ) {
+
+            String abk = i % 2 == 0 ? "UPS" + i : abk( _zufall.nextInt( anzahlAbks ) );
+            start = System.nanoTime();
+            _dbManager.fuegeBedeutungHinzu( abk, "Upsert-Bedeutung " + i, true );
+            nanos[ i ] = System.nanoTime() - start;
+        }
+        _protokoll.messreihe( "insert_einzeln_upsert", zeilen, nanos );
+
+        // *** Gleiche Anzahl Inserts als ein Batch ***
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < ANZAHL_INSERTS; i++ ) {
+
+            sb.append( "BATCH" ).append( i ).append( '\t' ).append( "Batch-Bedeutung " ).append( i ).append( '\n' );
+        }
+        importer.setBatchGroesse( ANZAHL_INSERTS );
+
+        start = System.nanoTime();
+        try ( InputStream inputStream =
+                      new ByteArrayInputStream( sb.toString().getBytes( StandardCharsets.UTF_8 ) ) ) {
+
+            eingefuegt = importer.importiere( inputStream, null );
+        }
+        _protokoll.gesamt( "insert_batch", zeilen, eingefuegt, System.nanoTime() - start );
+    }
+
+
+    /**
+     * Misst {@link DatenbankManager#sucheNachAbk(String)} für zufällig gewählte Abkürzungen.
+     *
+     * @param anzahlAbks  Anzahl der Abkürzungen im Datensatz.
+     *
+     * @param auswahl  Es wird nur unter den ersten {@code auswahl} Abkürzungen gewählt.
+     *
+     * @return  Dauer jeder gemessenen Suche in Nanosekunden.
+     */
+    private long[] messeSuchen( int anzahlAbks, int auswahl ) {
+
+        for ( int i = 0; i < AUFWAERMEN; i++ ) {
+
+            _dbManager.sucheNachAbk( abk( _zufall.nextInt( auswahl ) ) );
+        }
+
+        long[] nanos = new long[ MESSUNGEN ];
+        for ( int i = 0; i < MESSUNGEN; i++ ) {
+
+            String abk   = abk( _zufall.nextInt( auswahl ) );
+            long   start = System.nanoTime();
+            String[] bedeutungen = _dbManager.sucheNachAbk( abk );
+            nanos[ i ] = System.nanoTime() - start;
+            assertEquals( abk, BEDEUTUNGEN_PRO_ABK, bedeutungen.length );
+        }
+        return nanos;
+    }
+
+
+    /**
+     * Schreibt einen Datensatz als TSV-Datei für {@link AbkImporter}.
+     *
+     * @param zeilen  Anzahl der Bedeutungen.
+     *
+     * @return  Temporäre Datei.
+     */
+    private File erzeugeDatensatz( int zeilen ) throws IOException {
+
+        File datei = File.createTempFile( "abkverz_benchmark", ".tsv" );
+        datei.deleteOnExit();
+
+        try ( BufferedWriter writer = Files.newBufferedWriter( datei.toPath(), StandardCharsets.UTF_8 ) ) {
+
+            for ( int i = 0; i < zeilen; i++ ) {
+
+                writer.write( abk( i / BEDEUTUNGEN_PRO_ABK ) );
+                writer.write( '\t' );
+                writer.write( "Bedeutung " + i + " mit Wort" + ( i % 997 ) );
+                writer.write( '\n' );
+            }
+        }
+        return datei;
+    }
+
+
+    /** Abkürzung Nr. {@code nummer} im Datensatz. */
+    private static String abk( int nummer ) {
+
+        return "B" + Integer.toString( nummer, 36 ).toUpperCase();
+    }
+
+
+    /** Abkürzung, die es im Datensatz nicht gibt. */
+    private static String fehlendeAbk( int nummer ) {
+
+        return "M" + Integer.toString( nummer, 36 ).toUpperCase();
+    }
+}
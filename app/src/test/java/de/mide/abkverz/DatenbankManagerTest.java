@@ -0,0 +1,214 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für das Zusammenspiel von {@link DatenbankManager}, {@link AbkIndex} und
+ * {@link AbkCache}; laufen mit Robolectric (echte SQLite-Bibliothek) ohne Android-Gerät
+ * auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatenbankManagerTest {
+
+    private static final String DATEINAME = "abkverz_manager_test.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    private DatenbankManager _dbManager = null;
+
+
+    /**
+     * Führt in {@link DatenbankManager#abkAktualisieren(String)} zwischen dem Lesen der neuen
+     * Bedeutungen und dem Ersetzen im Index eine Suche aus, wie sie ein anderer Thread
+     * genau dann ausführen könnte. Fügt außerdem in {@link DatenbankManager#ladeAbkIndex()}
+     * nach dem Lesen der Datenbank eine Bedeutung ein, wie es ein anderer Thread während
+     * des Ladens könnte.
+     */
+    private static class DatenbankManagerMitSuche extends DatenbankManager {
+
+        private String _sucheDazwischen = null;
+
+        private String[] _ergebnisDazwischen = null;
+
+        private String _einfuegenBeimLaden = null;
+
+        DatenbankManagerMitSuche( Context context, String dateiName ) {
+
+            super( context, dateiName );
+        }
+
+        @Override
+        public String[] sucheNachAbkInDb( String abk ) {
+
+            String[] bedeutungen = super.sucheNachAbkInDb( abk );
+            if ( abk.equals( _sucheDazwischen ) ) {
+
+                _sucheDazwischen    = null;
+                _ergebnisDazwischen = sucheNachAbk( abk );
+            }
+            return bedeutungen;
+        }
+
+        @Override
+        protected long abkIndexBefuellen( AbkIndex abkIndex ) {
+
+            long zeilen = super.abkIndexBefuellen( abkIndex );
+            if ( _einfuegenBeimLaden != null ) {
+
+                insertBedeutung( _einfuegenBeimLaden, "Beim Laden eingefügt" );
+                _einfuegenBeimLaden = null;
+            }
+            return zeilen;
+        }
+    }
+
+
+    @Before
+    public void oeffnen() {
+
+        _context.deleteDatabase( DATEINAME );
+        _dbManager = new DatenbankManagerMitSuche( _context, DATEINAME );
+    }
+
+    @After
+    public void aufraeumen() {
+
+        _dbManager.close();
+        _context.deleteDatabase( DATEINAME );
+    }
+
+
+    @Test
+    public void abkAktualisieren_sucheZwischenDbUndIndexHinterlaesstKeinVeraltetesErgebnis() {
+
+        DatenbankManagerMitSuche dbManager = (DatenbankManagerMitSuche) _dbManager;
+
+        dbManager.insertGanzNeueAbk( "RACE", "Erste Bedeutung" );
+        dbManager.ladeAbkIndex();
+        assertArrayEquals( new String[]{ "Erste Bedeutung" }, dbManager.sucheNachAbk( "RACE" ) );
+
+        dbManager._sucheDazwischen = "RACE";
+        dbManager.insertBedeutung( "RACE", "Zweite Bedeutung" );
+
+        // Die Suche dazwischen sieht noch den alten Stand des Index ...
+        assertArrayEquals( new String[]{ "Erste Bedeutung" }, dbManager._ergebnisDazwischen );
+
+        // ... darf ihn aber nicht im Cache hinterlassen
+        String[] bedeutungen = dbManager.sucheNachAbk( "RACE" );
+        assertEquals( 2, bedeutungen.length );
+        assertTrue( Arrays.asList( bedeutungen ).contains( "Zweite Bedeutung" ) );
+    }
+
+    @Test
+    public void ladeAbkIndex_aenderungWaehrendDesLadensKommtInDenIndex() {
+
+        DatenbankManagerMitSuche dbManager = (DatenbankManagerMitSuche) _dbManager;
+
+        dbManager.insertGanzNeueAbk( "LOAD", "Erste Bedeutung" );
+        dbManager._einfuegenBeimLaden = "LOAD";
+
+        AbkIndex abkIndex = dbManager.ladeAbkIndex();
+
+        assertSame( abkIndex, dbManager._abkIndex );
+        assertNull( dbManager._abkIndexGeaendert );
+        assertArrayEquals( new String[]{ "Beim Laden eingefügt", "Erste Bedeutung" },
+                           abkIndex.suche( "LOAD" ) );
+    }
+
+    @Test
+    public void sucheTreffer_ohneIndexNurPraefixAusDb() {
+
+        _dbManager.insertGanzNeueAbk( "PRE" , "Exakt" );
+        _dbManager.insertGanzNeueAbk( "PREA", "Präfix A" );
+        _dbManager.insertBedeutung  ( "PREA", "Präfix A, zweite Bedeutung" );
+        _dbManager.insertGanzNeueAbk( "PREB", "Präfix B" );
+        _dbManager.insertGanzNeueAbk( "PRF" , "Ähnlich" );
+        assertNull( _dbManager._abkIndex );
+
+        List<AbkTreffer> treffer = _dbManager.sucheTreffer( "pre", 2, true );
+
+        assertEquals( 2, treffer.size() );
+        assertEquals( "PRE" , treffer.get( 0 ).getAbkuerzung() );
+        assertEquals( AbkTreffer.Art.EXAKT, treffer.get( 0 ).getArt() );
+        assertEquals( "PREA", treffer.get( 1 ).getAbkuerzung() );
+        assertEquals( AbkTreffer.Art.PRAEFIX, treffer.get( 1 ).getArt() );
+        assertEquals( 2, treffer.get( 1 ).getBedeutungen().length );
+
+        // Das Laden des Index läuft im Hintergrund, die Suche hat nicht darauf gewartet
+        assertTrue( _dbManager._abkIndexLadenGestartet.get() );
+    }
+
+    @Test
+    public void sucheBedeutungenSeite_abgebrochenLiefertKeineSeite() {
+
+        _dbManager.insertGanzNeueAbk( "ABR", "Abgebrochen" );
+        CancellationSignal abbruch = new CancellationSignal();
+        abbruch.cancel();
+
+        try {
+
+            _dbManager.sucheBedeutungenSeite( "ABR", null, null, 10, abbruch );
+            fail( "Abgebrochene Suche hat eine Seite geliefert" );
+        }
+        catch ( OperationCanceledException ex ) {
+
+            // Die Query wurde nicht zu Ende ausgeführt
+        }
+        assertEquals( 1, _dbManager.sucheBedeutungenSeite( "ABR", null, 10 ).getBedeutungen().size() );
+    }
+
+    @Test
+    public void sucheNachAbkInDb_bedeutungMitSteuerzeichenBleibtGanz() {
+
+        _dbManager.insertGanzNeueAbk( "USEP", "Unit\u001FSeparator" );
+        _dbManager.insertBedeutung( "USEP", "United States" );
+
+        assertArrayEquals( new String[]{ "Unit\u001FSeparator", "United States" },
+                           _dbManager.sucheNachAbkInDb( "USEP" ) );
+    }
+
+    @Test
+    public void neueDatei_ohneVacuumInkrementell() {
+
+        // DatenbankWartung muss eine neue Datei nie mit einem vollständigen VACUUM umstellen
+        assertEquals( DatenbankWartung.AUTO_VACUUM_INKREMENTELL,
+                      DatenbankWartung.autoVacuum( _dbManager.getWritableDatabase() ) );
+    }
+
+    @Test
+    public void mischen_sortiertWieSqlite() {
+
+        String ausserhalbBmp = new String( Character.toChars( 0x10400 ) );
+
+        assertArrayEquals( new String[]{ "A", "B", "\uE000", ausserhalbBmp },
+                           DatenbankManager.mischen( new String[]{ "A", ausserhalbBmp },
+                                                     new String[]{ "B", "\uE000" } ) );
+    }
+
+    @Test
+    public void voranstellen_entferntNurSovieleDuplikate() {
+
+        assertArrayEquals( new String[]{ "C", "A", "A", "B" },
+                           DatenbankManager.voranstellen( new String[]{ "C" },
+                                                          new String[]{ "A", "A", "B", "C" } ) );
+        assertArrayEquals( new String[]{ "A", "A", "B" },
+                           DatenbankManager.voranstellen( new String[]{ "A" },
+                                                          new String[]{ "A", "A", "B" } ) );
+    }
+}
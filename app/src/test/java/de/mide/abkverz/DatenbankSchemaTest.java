@@ -0,0 +1,530 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für Schema und Migrationen von {@link DatenbankManager}; prüft mit
+ * {@code EXPLAIN QUERY PLAN}, dass Suchen nur über Indexe laufen. Laufen mit Robolectric
+ * (echte SQLite-Bibliothek) ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatenbankSchemaTest {
+
+    /** Name der DB-Datei für den Migrations-Test. */
+    private static final String DATEINAME_MIGRATION = "abkverz_migration_test.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    @After
+    public void aufraeumen() {
+
+        _context.deleteDatabase( DATEINAME_MIGRATION );
+    }
+
+    /**
+     * Liefert alle "detail"-Zeilen von {@code EXPLAIN QUERY PLAN} als einen String.
+     */
+    static String queryPlan( SQLiteDatabase db, String sql, String... args ) {
+
+        StringBuilder sb = new StringBuilder();
+        Cursor cursor = db.rawQuery( "EXPLAIN QUERY PLAN " + sql, args );
+        int spalteDetail = cursor.getColumnIndexOrThrow( "detail" );
+        while ( cursor.moveToNext() ) {
+
+            sb.append( cursor.getString( spalteDetail ) ).append( '\n' );
+        }
+        cursor.close();
+        return sb.toString();
+    }
+
+    @Test
+    public void sucheBedeutungen_nurIndexZugriffe() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db,
+                "SELECT bedeutung FROM abkuerzungen, bedeutungen " +
+                " WHERE abkuerzungen.abk_id = bedeutungen.abkuerzung " +
+                "   AND abkuerzungen.abk_schluessel = ? " +
+                " ORDER BY bedeutungen.treffer DESC, bedeutung ASC", "KSC" );
+
+        assertTrue( plan, plan.contains( "COVERING INDEX abkuerzung_index_schluessel" ) );
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_treffer" ) );
+        assertFalse( plan, plan.contains( "SCAN" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void reihenfolgeNachTreffern_ohneSortierung() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, DatenbankManager.SQL_INDEX_LADEN );
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_treffer" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        plan = queryPlan( db, DatenbankManager.SQL_GEWAEHLTE_ZU_ABK, "KSC" );
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_treffer (abkuerzung=? AND treffer>?)" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        plan = queryPlan( db, DatenbankManager.SQL_TREFFER_ERHOEHEN, "1", "KSC", "Kennedy Space Center" );
+        assertTrue( plan, plan.contains( "INDEX bedeutungen_index_abk_bedeutung (abkuerzung=? AND bedeutung=?)" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void praefixTrefferOhneIndex_nurBereichImIndex() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, DatenbankManager.SQL_PRAEFIX_TREFFER_ANFANG +
+                                     DatenbankManager.SQL_PRAEFIX_TREFFER_BIS +
+                                     DatenbankManager.SQL_PRAEFIX_TREFFER_ENDE, "KS", "10", "KT" );
+
+        // Sortiert werden nur die Bedeutungen der höchstens 10 Abkürzungen aus dem Bereich
+        assertTrue( plan, plan.contains( "COVERING INDEX abkuerzung_index_schluessel (abk_schluessel>? AND abk_schluessel<?)" ) );
+        assertFalse( plan, plan.contains( "SCAN abkuerzungen" ) );
+        assertFalse( plan, plan.contains( "SCAN bedeutungen" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void schreibeTreffer_haeufigsteBedeutungZuerst() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        dbManager.ladeAbkIndex();
+
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           dbManager.sucheNachAbk( "KSC" ) );
+
+        dbManager.bedeutungGewaehlt( "k.s.c.", "Kennedy Space Center" );
+        dbManager.bedeutungGewaehlt( "KSC", "Kennedy Space Center" );
+        dbManager.bedeutungGewaehlt( "KSC", "Gibt es nicht" );
+
+        // Erst nach dem Schreiben ändert sich die Reihenfolge
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           dbManager.sucheNachAbkInDb( "KSC" ) );
+
+        assertEquals( 1, dbManager.schreibeTreffer() );
+        assertEquals( 0, dbManager.schreibeTreffer() );
+
+        String[] erwartet = { "Kennedy Space Center", "Karlsruher Sport-Club" };
+        assertArrayEquals( erwartet, dbManager.sucheNachAbkInDb( "KSC" ) );
+        assertArrayEquals( erwartet, dbManager.sucheNachAbk( "KSC" ) );
+
+        BedeutungenSeite seite1 = dbManager.sucheBedeutungenSeite( "KSC", null, 1 );
+        BedeutungenSeite seite2 = dbManager.sucheBedeutungenSeite( "KSC", seite1, 1 );
+        assertEquals( "Kennedy Space Center", seite1.getBedeutungen().get( 0 ) );
+        assertEquals( 2, seite1.getLetzteTreffer() );
+        assertEquals( "Karlsruher Sport-Club", seite2.getBedeutungen().get( 0 ) );
+        assertFalse( seite2.hatWeitere() );
+
+        // Neue Bedeutung ohne Auswahl kommt nach den gewählten, alphabetisch einsortiert
+        dbManager.fuegeBedeutungHinzu( "KSC", "Kaiserslautern Sport-Club", true );
+        assertArrayEquals( new String[]{ "Kennedy Space Center", "Kaiserslautern Sport-Club",
+                                         "Karlsruher Sport-Club" },
+                           dbManager.sucheNachAbk( "KSC" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheAbkId_nurIndexZugriff() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, DatenbankManager.SQL_ABK_ID, "KSC" );
+
+        assertTrue( plan, plan.contains( "COVERING INDEX abkuerzung_index_schluessel" ) );
+        assertFalse( plan, plan.contains( "SCAN" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void pruefeBedeutungVorhanden_nurIndexZugriff() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, DatenbankManager.SQL_BEDEUTUNG_VORHANDEN,
+                                 "1", "Kennedy Space Center" );
+
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_bedeutung" ) );
+        assertFalse( plan, plan.contains( "SCAN bedeutungen" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void fuegeBedeutungHinzu_legtAbkuerzungNurEinmalAn() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+
+        assertEquals( DatenbankManager.EinfuegeErgebnis.NEUE_ABKUERZUNG,
+                      dbManager.fuegeBedeutungHinzu( "arm", "Advanced RISC Machines", true ) );
+        assertEquals( DatenbankManager.EinfuegeErgebnis.NEUE_BEDEUTUNG,
+                      dbManager.fuegeBedeutungHinzu( "ARM", "Acorn RISC Machine", true ) );
+        assertEquals( DatenbankManager.EinfuegeErgebnis.SCHON_VORHANDEN,
+                      dbManager.fuegeBedeutungHinzu( "ARM", "Acorn RISC Machine", true ) );
+
+        assertArrayEquals( new String[]{ "Acorn RISC Machine", "Advanced RISC Machines" },
+                           dbManager.sucheNachAbkInDb( "ARM" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void fuegeBedeutungHinzu_gleicherSchluesselIstGleicheAbkuerzung() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+
+        assertEquals( DatenbankManager.EinfuegeErgebnis.NEUE_BEDEUTUNG,
+                      dbManager.fuegeBedeutungHinzu( "k.s.c.", "Kieler Segel-Club", true ) );
+        assertEquals( DatenbankManager.EinfuegeErgebnis.SCHON_VORHANDEN,
+                      dbManager.fuegeBedeutungHinzu( "K-S-C", "Kieler Segel-Club", true ) );
+
+        assertEquals( 3, dbManager.sucheNachAbk( "KSC"    ).length );
+        assertEquals( 3, dbManager.sucheNachAbk( "K.S.C." ).length );
+        assertEquals( 3, dbManager.sucheNachAbk( " ksc "  ).length );
+
+        dbManager.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fuegeBedeutungHinzu_ohneBuchstabenWirdAbgelehnt() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        try {
+
+            dbManager.fuegeBedeutungHinzu( "...", "Auslassungspunkte", true );
+        }
+        finally {
+
+            dbManager.close();
+        }
+    }
+
+    @Test
+    public void sucheNachBedeutung_volltextIndexWirdVonTriggernAktuellGehalten() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+
+        List<BedeutungTreffer> treffer = dbManager.sucheNachBedeutung( "spa", 10 );
+        assertEquals( 1, treffer.size() );
+        assertEquals( "KSC", treffer.get( 0 ).getAbkuerzung() );
+        assertEquals( "Kennedy Space Center", treffer.get( 0 ).getBedeutung() );
+
+        dbManager.fuegeBedeutungHinzu( "ESA", "European Space Agency", true );
+        assertEquals( 2, dbManager.sucheNachBedeutung( "space", 10 ).size() );
+        assertEquals( 1, dbManager.sucheNachBedeutung( "space", 1 ).size() );
+
+        SQLiteDatabase db = dbManager.getWritableDatabase();
+        db.execSQL( "UPDATE bedeutungen SET bedeutung = 'Karlsruher Space-Club' " +
+                    " WHERE bedeutung = 'Karlsruher Sport-Club'" );
+        db.execSQL( "DELETE FROM bedeutungen WHERE bedeutung = 'Kennedy Space Center'" );
+
+        assertEquals( 0, dbManager.sucheNachBedeutung( "sport", 10 ).size() );
+        assertEquals( 2, dbManager.sucheNachBedeutung( "space", 10 ).size() );
+        assertEquals( 0, dbManager.sucheNachBedeutung( "kennedy", 10 ).size() );
+
+        String plan = queryPlan( db, DatenbankManager.SQL_SUCHE_BEDEUTUNGEN_VOLLTEXT, "space*", "10" );
+        assertTrue( plan, plan.contains( "VIRTUAL TABLE INDEX" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void bedeutungenSeite_nurIndexZugriffOhneSortierung() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, DatenbankManager.SQL_BEDEUTUNGEN_SEITE,
+                                 "KSC", "0", "Karlsruher Sport-Club", "1", "50" );
+
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_treffer" ) );
+        assertFalse( plan, plan.contains( "SCAN" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheInKategorie_nurIndexZugriffOhneSortierung() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db,
+                DatenbankManager.SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ANFANG + "?" +
+                DatenbankManager.SQL_BEDEUTUNGEN_ZU_ABK_KATEGORIEN_ENDE, "KSC", "2" );
+
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_kategorie (abkuerzung=? AND kategorie=?)" ) );
+        assertFalse( plan, plan.contains( "SCAN bedeutungen" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheNachAbk_filtertNachKategorien() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+
+        Map<Integer,String> kategorien = dbManager.holeKategorien();
+        assertEquals( "Allgemein", kategorien.get( DatenbankManager.KATEGORIE_ALLGEMEIN ) );
+        assertEquals( "Sport", kategorien.get( 2 ) );
+
+        dbManager.fuegeBedeutungHinzu( "K.S.C.", "Kieler Segel-Club", true, 2 );
+        dbManager.fuegeBedeutungHinzu( "KSC", "Kölner Schach-Club", true );
+
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kieler Segel-Club" },
+                           dbManager.sucheNachAbk( "ksc", Collections.singleton( 2 ) ) );
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center", "Kieler Segel-Club" },
+                           dbManager.sucheNachAbk( "KSC", new HashSet<>( Arrays.asList( 3, 2, 2 ) ) ) );
+        assertArrayEquals( new String[]{ "Kölner Schach-Club" },
+                           dbManager.sucheNachAbk( "KSC", Collections.singleton( DatenbankManager.KATEGORIE_ALLGEMEIN ) ) );
+        assertEquals( 0, dbManager.sucheNachAbk( "KSC", Collections.singleton( 4 ) ).length );
+        assertEquals( 4, dbManager.sucheNachAbk( "KSC", null ).length );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheBedeutungenSeite_liefertAlleBedeutungenGenauEinmal() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        for ( int i = 0; i < 120; i++ ) {
+
+            dbManager.fuegeBedeutungHinzu( "XYZ", String.format( "Bedeutung %03d", i / 2 ), false );
+        }
+
+        List<String> alle  = new ArrayList<>();
+        BedeutungenSeite seite = null;
+        int anzahlSeiten = 0;
+        do {
+
+            seite = dbManager.sucheBedeutungenSeite( "xyz", seite, 50 );
+            alle.addAll( seite.getBedeutungen() );
+            anzahlSeiten++;
+        }
+        while ( seite.hatWeitere() );
+
+        assertEquals( 3, anzahlSeiten );
+        assertEquals( 120, alle.size() );
+        assertEquals( "Bedeutung 000", alle.get( 0 ) );
+        assertEquals( "Bedeutung 024", alle.get( 49 ) );
+        assertEquals( "Bedeutung 025", alle.get( 50 ) );
+        assertEquals( "Bedeutung 059", alle.get( 119 ) );
+
+        assertTrue( dbManager.sucheBedeutungenSeite( "ABC", null, 50 ).getBedeutungen().isEmpty() );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheBedeutungenSeite_mitKategorienSeitenweise() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        for ( int i = 0; i < 60; i++ ) {
+
+            dbManager.fuegeBedeutungHinzu( "XYZ", String.format( "Sport %02d"    , i ), false, 2 );
+            dbManager.fuegeBedeutungHinzu( "XYZ", String.format( "Raumfahrt %02d", i ), false, 3 );
+            dbManager.fuegeBedeutungHinzu( "XYZ", String.format( "Allgemein %02d", i ), false );
+        }
+
+        List<String> alle  = new ArrayList<>();
+        BedeutungenSeite seite = null;
+        int anzahlSeiten = 0;
+        do {
+
+            seite = dbManager.sucheBedeutungenSeite( "xyz", new HashSet<>( Arrays.asList( 3, 2 ) ), seite, 50, null );
+            alle.addAll( seite.getBedeutungen() );
+            anzahlSeiten++;
+        }
+        while ( seite.hatWeitere() );
+
+        assertEquals( 3, anzahlSeiten );
+        assertEquals( 120, alle.size() );
+        assertEquals( "Raumfahrt 00", alle.get( 0 ) );
+        assertEquals( "Raumfahrt 59", alle.get( 59 ) );
+        assertEquals( "Sport 00", alle.get( 60 ) );
+        assertEquals( "Sport 59", alle.get( 119 ) );
+
+        seite = dbManager.sucheBedeutungenSeite( "XYZ", Collections.singleton( 2 ), null, 50, null );
+        assertEquals( 50, seite.getBedeutungen().size() );
+        assertEquals( "Sport 00", seite.getBedeutungen().get( 0 ) );
+        seite = dbManager.sucheBedeutungenSeite( "XYZ", null, seite, 50, null ); // Filter bleibt
+        assertEquals( 10, seite.getBedeutungen().size() );
+        assertEquals( "Sport 59", seite.getBedeutungen().get( 9 ) );
+        assertFalse( seite.hatWeitere() );
+
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+        String plan = queryPlan( db, DatenbankManager.SQL_BEDEUTUNGEN_SEITE_KATEGORIE,
+                                 "XYZ", "0", "Sport 10", "0", "51", "2" );
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_kategorie (abkuerzung=? AND kategorie=? AND treffer=? AND bedeutung>?)" ) );
+        assertTrue( plan, plan.contains( "COVERING INDEX bedeutungen_index_abk_kategorie (abkuerzung=? AND kategorie=? AND treffer<?)" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void sucheNachAbks_liefertAlleAbkuerzungenUeberMehrereAbfragen() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        dbManager.fuegeBedeutungHinzu( "ARM", "Advanced RISC Machines", false );
+        dbManager.fuegeBedeutungHinzu( "ARM", "Acorn RISC Machine"    , false );
+
+        List<String> abks = new ArrayList<>();
+        abks.add( "arm" );
+        for ( int i = 0; i < DatenbankManager.MAX_IN_PARAMETER + 10; i++ ) {
+
+            abks.add( "FEHLT" + i );
+        }
+        abks.add( "ARM" ); // doppelt, wird nur einmal gesucht
+        abks.add( ""    ); // wird ignoriert
+
+        Map<String,String[]> ergebnis = dbManager.sucheNachAbks( abks );
+
+        assertEquals( DatenbankManager.MAX_IN_PARAMETER + 11, ergebnis.size() );
+        assertArrayEquals( new String[]{ "Acorn RISC Machine", "Advanced RISC Machines" },
+                           ergebnis.get( "ARM" ) );
+        assertEquals( 0, ergebnis.get( "FEHLT0" ).length );
+        assertEquals( 0, ergebnis.get( "FEHLT" + ( DatenbankManager.MAX_IN_PARAMETER + 9 ) ).length );
+
+        dbManager.close();
+    }
+
+    @Test(expected = SQLiteConstraintException.class)
+    public void abkuerzung_istEindeutig() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        try {
+
+            dbManager.insertGanzNeueAbk( "KSC", "Kennedy Space Center" );
+        }
+        finally {
+
+            dbManager.close();
+        }
+    }
+
+    @Test
+    public void geaenderteBedeutungen_nurIndexZugriff() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, null );
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+
+        String plan = queryPlan( db, AbkExporter.SQL_GEAENDERTE_BEDEUTUNGEN, "0", "0", "100", "1000" );
+
+        assertTrue( plan, plan.contains( "INDEX bedeutungen_index_aenderung" ) );
+        assertFalse( plan, plan.contains( "SCAN" ) );
+        assertFalse( plan, plan.contains( "TEMP B-TREE" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void onCreate_fehlerWirdWeitergeworfenOhneVersion() {
+
+        // *** Datei ohne Version, in der es die erste Tabelle schon gibt ***
+        File datei = _context.getDatabasePath( DATEINAME_MIGRATION );
+        datei.getParentFile().mkdirs();
+
+        SQLiteDatabase dbAlt = SQLiteDatabase.openOrCreateDatabase( datei, null );
+        dbAlt.execSQL( "CREATE TABLE abkuerzungen ( x INTEGER )" );
+        dbAlt.close();
+
+        DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_MIGRATION );
+        try {
+
+            dbManager.getWritableDatabase();
+            fail( "SQLException erwartet" );
+        }
+        catch ( SQLException ex ) {
+            // erwartet
+        }
+        dbManager.close();
+
+        // Die Version wurde nicht gesetzt, beim nächsten Öffnen wird onCreate() wiederholt
+        dbAlt = SQLiteDatabase.openDatabase( datei.getPath(), null, SQLiteDatabase.OPEN_READONLY );
+        assertEquals( 0, dbAlt.getVersion() );
+        dbAlt.close();
+    }
+
+    @Test
+    public void migrationVonVersion1_fuehrtDoppelteAbkuerzungenZusammen() {
+
+        // *** Datenbank mit Schema-Version 1 und doppelter Abkürzung anlegen ***
+        File datei = _context.getDatabasePath( DATEINAME_MIGRATION );
+        datei.getParentFile().mkdirs();
+
+        SQLiteDatabase dbAlt = SQLiteDatabase.openOrCreateDatabase( datei, null );
+        dbAlt.execSQL( "CREATE TABLE abkuerzungen ( " +
+                "abk_id INTEGER PRIMARY KEY AUTOINCREMENT, abkuerzung TEXT NOT NULL )" );
+        dbAlt.execSQL( "CREATE INDEX abkuerzung_index_1 ON abkuerzungen(abkuerzung)" );
+        dbAlt.execSQL( "CREATE TABLE bedeutungen ( bedeutung_id INTEGER PRIMARY KEY, " +
+                "bedeutung TEXT NOT NULL, abkuerzung INTEGER, " +
+                "FOREIGN KEY (abkuerzung) REFERENCES abkuerzungen(abk_id) )" );
+        dbAlt.execSQL( "CREATE INDEX bedeutungen_index_1 ON abkuerzungen(abkuerzung)" );
+        dbAlt.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES (1, 'KSC')" );
+        dbAlt.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES (2, 'KSC')" );
+        dbAlt.execSQL( "INSERT INTO abkuerzungen (abk_id, abkuerzung) VALUES (3, 'K.S.C.')" );
+        dbAlt.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES (1, 'Karlsruher Sport-Club')" );
+        dbAlt.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES (2, 'Kennedy Space Center')"  );
+        dbAlt.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES (2, 'Karlsruher Sport-Club')" );
+        dbAlt.execSQL( "INSERT INTO bedeutungen (abkuerzung, bedeutung) VALUES (3, 'Kennedy Space Center')"  );
+        dbAlt.setVersion( 1 );
+        dbAlt.close();
+
+        // *** Öffnen mit aktuellem DatenbankManager führt Migration aus ***
+        DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_MIGRATION );
+
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           dbManager.sucheNachAbk( "KSC" ) );
+        assertArrayEquals( new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" },
+                           dbManager.sucheNachAbk( "K.S.C." ) );
+
+        SQLiteDatabase db = dbManager.getReadableDatabase();
+        assertEquals( DatenbankManager.DB_VERSION, db.getVersion() );
+
+        Cursor cursor = db.rawQuery( "SELECT COUNT(*) FROM abkuerzungen WHERE abk_schluessel = 'KSC'", null );
+        cursor.moveToFirst();
+        assertEquals( 1, cursor.getInt( 0 ) );
+        cursor.close();
+
+        dbManager.close();
+    }
+}
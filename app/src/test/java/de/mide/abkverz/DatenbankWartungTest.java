@@ -0,0 +1,131 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für {@link DatenbankWartung}: Umstellen auf inkrementelles Auto-Vacuum, Freigeben
+ * der Seiten, Protokoll und Abbruch; laufen mit Robolectric (echte SQLite-Bibliothek) ohne
+ * Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DatenbankWartungTest {
+
+    /** Name der DB-Datei für die Wartung. */
+    private static final String DATEINAME_WARTUNG = "abkverz_wartung_test.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    @After
+    public void aufraeumen() {
+
+        _context.deleteDatabase( DATEINAME_WARTUNG );
+    }
+
+    /**
+     * Stellt die Datei wie eine vor Schema-Version 7 angelegte auf "kein Auto-Vacuum" zurück.
+     */
+    private static void ohneAutoVacuum( SQLiteDatabase db ) {
+
+        db.beginTransaction();
+        try {
+
+            db.execSQL( "PRAGMA auto_vacuum = NONE" );
+            db.setTransactionSuccessful();
+        }
+        finally {
+
+            db.endTransaction();
+        }
+        db.execSQL( "VACUUM" );
+        assertEquals( 0, DatenbankWartung.autoVacuum( db ) );
+    }
+
+    @Test
+    public void wartung_gibtFreieSeitenZurueckUndProtokolliert() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_WARTUNG );
+        SQLiteDatabase db = dbManager.getWritableDatabase();
+
+        // *** Datei wie vor Schema-Version 7 ohne Auto-Vacuum ***
+        ohneAutoVacuum( db );
+
+        // *** Erster Lauf stellt auf inkrementelles Auto-Vacuum um ***
+        WartungsErgebnis ergebnis = new DatenbankWartung( dbManager ).ausfuehren();
+
+        assertTrue( ergebnis.getErgebnis(), ergebnis.isOk() );
+        assertEquals( 2, DatenbankWartung.autoVacuum( db ) );
+        assertFalse( dbManager.getSchreibSperre().isLocked() );
+
+        // *** Viele Bedeutungen einfügen und wieder löschen, das hinterlässt freie Seiten ***
+        db.execSQL( "WITH RECURSIVE n(i) AS ( SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000 ) " +
+                    "INSERT INTO bedeutungen (abkuerzung, bedeutung) " +
+                    "  SELECT 1, 'Bedeutung Nummer ' || i || ' ' || hex(randomblob(200)) FROM n" );
+        db.execSQL( "DELETE FROM bedeutungen WHERE bedeutung LIKE 'Bedeutung Nummer %'" );
+        assertTrue( db.compileStatement( "PRAGMA freelist_count" ).simpleQueryForLong() > 0 );
+
+        ergebnis = new DatenbankWartung( dbManager ).ausfuehren();
+
+        assertTrue( ergebnis.getErgebnis(), ergebnis.isOk() );
+        assertTrue( ergebnis.getSeitenFreigegeben() > 0 );
+        assertEquals( 0, db.compileStatement( "PRAGMA freelist_count" ).simpleQueryForLong() );
+        assertEquals( 2, db.compileStatement( "SELECT COUNT(*) FROM wartung_protokoll" ).simpleQueryForLong() );
+        assertTrue( db.compileStatement( "SELECT COUNT(*) FROM sqlite_stat1" ).simpleQueryForLong() > 0 );
+
+        assertArrayEquals( new String[]{ "Android Debug Bridge" }, dbManager.sucheNachAbk( "ADB" ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void wartung_vacuumUnterSchreibSperre() {
+
+        final DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_WARTUNG );
+        SQLiteDatabase db = dbManager.getWritableDatabase();
+
+        ohneAutoVacuum( db );
+
+        final boolean[] mitSperre = { false };
+        DatenbankWartung wartung = new DatenbankWartung( dbManager ) {
+
+            @Override
+            protected void umstellenAufInkrementell( SQLiteDatabase db ) {
+
+                // Ein anderer Schreiber wartet, statt während VACUUM mit SQLITE_BUSY zu scheitern
+                mitSperre[ 0 ] = dbManager.getSchreibSperre().isHeldByCurrentThread();
+                super.umstellenAufInkrementell( db );
+            }
+        };
+        assertTrue( wartung.ausfuehren().isOk() );
+
+        assertTrue( mitSperre[ 0 ] );
+        assertEquals( 2, DatenbankWartung.autoVacuum( db ) );
+
+        dbManager.close();
+    }
+
+    @Test
+    public void wartung_abgebrochenAendertNichts() {
+
+        DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_WARTUNG );
+
+        DatenbankWartung wartung = new DatenbankWartung( dbManager );
+        wartung.abbrechen();
+        WartungsErgebnis ergebnis = wartung.ausfuehren();
+
+        assertEquals( WartungsErgebnis.ERGEBNIS_ABGEBROCHEN, ergebnis.getErgebnis() );
+        assertEquals( 0, ergebnis.getSeitenFreigegeben() );
+
+        dbManager.close();
+    }
+}
@@ -0,0 +1,74 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link DbMetriken}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class DbMetrikenTest {
+
+    @Test
+    public void klasse_istKleinsteZweierpotenzUeberDauer() {
+
+        assertEquals( 0, DbMetriken.klasse( 0 ) );
+        assertEquals( 1, DbMetriken.klasse( 1 ) );
+        assertEquals( 10, DbMetriken.klasse( 1023 ) );
+        assertEquals( 11, DbMetriken.klasse( 1024 ) );
+        assertEquals( 39, DbMetriken.klasse( Long.MAX_VALUE ) );
+    }
+
+    @Test
+    public void endeUndFehler_werdenProOperationGezaehlt() {
+
+        DbMetriken metriken = new DbMetriken();
+
+        metriken.ende( DbMetriken.Operation.SUCHE_ABK_DB, metriken.start(), 3, "KSC" );
+        metriken.ende( DbMetriken.Operation.SUCHE_ABK_DB, metriken.start(), 0, "XYZ" );
+        metriken.fehler( DbMetriken.Operation.INSERT_BEDEUTUNG );
+
+        assertEquals( 2, metriken.getAnzahl( DbMetriken.Operation.SUCHE_ABK_DB ) );
+        assertEquals( 3, metriken.getAnzahlZeilen( DbMetriken.Operation.SUCHE_ABK_DB ) );
+        assertEquals( 0, metriken.getAnzahl( DbMetriken.Operation.INSERT_BEDEUTUNG ) );
+        assertEquals( 1, metriken.getAnzahlFehler( DbMetriken.Operation.INSERT_BEDEUTUNG ) );
+        assertTrue( metriken.getPerzentilNanos( DbMetriken.Operation.SUCHE_ABK_DB, 0.99 ) > 0 );
+        assertEquals( 0, metriken.getPerzentilNanos( DbMetriken.Operation.SEITE, 0.5 ) );
+    }
+
+    @Test
+    public void abgeschaltet_wirdNichtsGemessen() {
+
+        DbMetriken metriken = new DbMetriken();
+        metriken.setAktiv( false );
+
+        long start = metriken.start();
+        assertEquals( 0, start );
+        assertEquals( 0, metriken.ende( DbMetriken.Operation.SUCHE_ABK, start, 1, "KSC" ) );
+        assertEquals( 0, metriken.getAnzahl( DbMetriken.Operation.SUCHE_ABK ) );
+    }
+
+    @Test
+    public void bericht_enthaeltLangsameOperationen() {
+
+        DbMetriken metriken = new DbMetriken();
+        metriken.setSchwelleLangsamNanos( 0 ); // jede Operation gilt als langsam
+
+        for ( int i = 0; i < 20; i++ ) { // mehr als in den Ringpuffer passen
+
+            metriken.ende( DbMetriken.Operation.SEITE, metriken.start(), 50, "ABK" + i );
+        }
+
+        StringWriter text = new StringWriter();
+        metriken.bericht( new PrintWriter( text ), null );
+
+        String bericht = text.toString();
+        assertTrue( bericht.contains( "SEITE" ) );
+        assertTrue( bericht.contains( "'ABK19'" ) );
+        assertFalse( bericht.contains( "'ABK3'" ) ); // schon überschrieben
+        assertFalse( bericht.contains( "SUCHE_ABK " ) ); // Operationen ohne Messung fehlen
+    }
+}
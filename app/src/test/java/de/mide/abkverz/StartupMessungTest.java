@@ -0,0 +1,44 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link StartupMessung}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class StartupMessungTest {
+
+    @Test
+    public void nurErsterZeitpunktZaehlt() {
+
+        StartupMessung messung = new StartupMessung();
+
+        assertEquals( -1, messung.getMillis( StartupMessung.Meilenstein.ERSTER_FRAME ) );
+
+        assertTrue ( messung.setze( StartupMessung.Meilenstein.ERSTER_FRAME, 420 ) );
+        assertFalse( messung.setze( StartupMessung.Meilenstein.ERSTER_FRAME, 900 ) );
+
+        assertEquals( 420, messung.getMillis( StartupMessung.Meilenstein.ERSTER_FRAME ) );
+        assertEquals(  -1, messung.getMillis( StartupMessung.Meilenstein.ERSTE_SUCHE  ) );
+    }
+
+    @Test
+    public void bericht_enthaeltAlleMeilensteine() {
+
+        StartupMessung messung = new StartupMessung();
+        messung.setze( StartupMessung.Meilenstein.ERSTER_FRAME, 420 );
+        messung.setze( StartupMessung.Meilenstein.DB_BEREIT   , 510 );
+
+        StringWriter text = new StringWriter();
+        messung.bericht( new PrintWriter( text ) );
+
+        String bericht = text.toString();
+        assertTrue( bericht, bericht.contains( "ERSTER_FRAME: 420 ms" ) );
+        assertTrue( bericht, bericht.contains( "DB_BEREIT: 510 ms" ) );
+        assertTrue( bericht, bericht.contains( "ERSTE_SUCHE: noch nicht erreicht" ) );
+    }
+}
@@ -0,0 +1,198 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für {@link SyncAbgleich}: zwei Geräte (zwei DB-Dateien) gleichen sich über den
+ * {@link SyncTestServer} ab; laufen mit Robolectric (echte SQLite-Bibliothek) ohne
+ * Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SyncAbgleichTest {
+
+    private static final String DATEINAME_A = "abkverz_sync_a.db";
+
+    private static final String DATEINAME_B = "abkverz_sync_b.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    private SyncTestServer _server = null;
+
+    private DatenbankManager _geraetA = null;
+
+    private DatenbankManager _geraetB = null;
+
+
+    @Before
+    public void starten() throws IOException {
+
+        _context.deleteDatabase( DATEINAME_A );
+        _context.deleteDatabase( DATEINAME_B );
+
+        _server  = new SyncTestServer();
+        _geraetA = new DatenbankManager( _context, DATEINAME_A );
+        _geraetB = new DatenbankManager( _context, DATEINAME_B );
+    }
+
+    @After
+    public void aufraeumen() {
+
+        _geraetA.close();
+        _geraetB.close();
+        _context.deleteDatabase( DATEINAME_A );
+        _context.deleteDatabase( DATEINAME_B );
+        new File( _context.getFilesDir(), DATEINAME_B + DatenbankManager.SNAPSHOT_ENDUNG ).delete();
+        _server.stoppen();
+    }
+
+    private SyncErgebnis abgleichen( DatenbankManager geraet ) throws IOException {
+
+        return new SyncAbgleich( geraet, new SyncVerbindung( _server.getUrl() ) ).ausfuehren();
+    }
+
+    private static boolean enthaelt( DatenbankManager geraet, String abk, String bedeutung, int kategorie ) {
+
+        return Arrays.asList( geraet.sucheNachAbk( abk, Collections.singleton( kategorie ) ) ).contains( bedeutung );
+    }
+
+
+    @Test
+    public void neueBedeutung_kommtMitKategorieAufAnderesGeraet() throws IOException {
+
+        _geraetA.insertGanzNeueAbk( "XYZ", "Beispiel für den Abgleich", 1 );
+
+        assertTrue( abgleichen( _geraetA ).getGesendet() > 0 );
+        abgleichen( _geraetB );
+
+        assertTrue ( enthaelt( _geraetB, "xyz", "Beispiel für den Abgleich", 1 ) );
+        assertFalse( enthaelt( _geraetB, "xyz", "Beispiel für den Abgleich", 2 ) );
+    }
+
+    @Test
+    public void abgleich_seitenweiseKomprimiertUndNurDelta() throws IOException {
+
+        for ( int i = 0; i < 250; i++ ) {
+
+            _geraetA.insertGanzNeueAbk( "S" + i, "Seite " + i );
+        }
+        abgleichen( _geraetA );
+
+        SyncAbgleich abgleich = new SyncAbgleich( _geraetB, new SyncVerbindung( _server.getUrl() ) );
+        abgleich.setSeitenGroesse( 7 );
+        abgleich.setChunkGroesse( 3 );
+        SyncErgebnis ergebnis = abgleich.ausfuehren();
+
+        assertEquals( _server.getStand(), ergebnis.getToken() );
+        assertTrue( ergebnis.getAngewendet() >= 250 );
+        assertTrue( _server.getAnzahlAbrufe() > 250 / 7 );
+        assertTrue( _server.isAlleKomprimiert() );
+        assertArrayEquals( new String[]{ "Seite 249" }, _geraetB.sucheNachAbk( "s249" ) );
+
+        // Zweiter Abgleich überträgt nichts, auch nicht die eben übernommenen Änderungen zurück
+        ergebnis = abgleichen( _geraetB );
+        assertEquals( 0, ergebnis.getGesendet() );
+        assertEquals( 0, ergebnis.getEmpfangen() );
+    }
+
+    @Test
+    public void konflikt_kategorieWirdAufBeidenGeraetenGleichAufgeloest() throws IOException {
+
+        _geraetA.insertGanzNeueAbk( "KON", "Konflikt", 2 );
+        _geraetB.insertGanzNeueAbk( "KON", "Konflikt", 3 );
+
+        abgleichen( _geraetA );
+        abgleichen( _geraetB );
+        abgleichen( _geraetA );
+
+        assertTrue( enthaelt( _geraetA, "KON", "Konflikt", 2 ) );
+        assertTrue( enthaelt( _geraetB, "KON", "Konflikt", 2 ) );
+        assertEquals( 2, _server.getZustand( "KON", "Konflikt" ).getKategorie() );
+    }
+
+    @Test
+    public void konflikt_lokaleAenderungWaehrendAbholen() throws IOException {
+
+        _geraetA.insertGanzNeueAbk( "KON", "Konflikt", 3 );
+        abgleichen( _geraetA );
+
+        // Nach dem Senden, vor dem Abholen trägt der Nutzer auf B dieselbe Bedeutung ein
+        SyncVerbindung verbindung = new SyncVerbindung( _server.getUrl() ) {
+
+            private boolean _eingetragen = false;
+
+            @Override
+            public Seite holeSeite( long seit, int limit ) throws IOException {
+
+                if ( !_eingetragen ) {
+
+                    _eingetragen = true;
+                    _geraetB.insertGanzNeueAbk( "KON", "Konflikt", 1 );
+                }
+                return super.holeSeite( seit, limit );
+            }
+        };
+        SyncErgebnis ergebnis = new SyncAbgleich( _geraetB, verbindung ).ausfuehren();
+
+        assertEquals( 1, ergebnis.getKonflikte() );
+        assertTrue( enthaelt( _geraetB, "KON", "Konflikt", 1 ) );
+
+        abgleichen( _geraetB );
+        abgleichen( _geraetA );
+
+        assertTrue( enthaelt( _geraetA, "KON", "Konflikt", 1 ) );
+        assertEquals( 1, _server.getZustand( "KON", "Konflikt" ).getKategorie() );
+    }
+
+    @Test
+    public void loeschen_wirdUebertragen() throws IOException {
+
+        _geraetA.insertGanzNeueAbk( "DEL", "Wird gelöscht" );
+        abgleichen( _geraetA );
+        abgleichen( _geraetB );
+        assertArrayEquals( new String[]{ "Wird gelöscht" }, _geraetB.sucheNachAbk( "DEL" ) );
+
+        _geraetA.getWritableDatabase().execSQL( "DELETE FROM bedeutungen WHERE bedeutung = 'Wird gelöscht'" );
+        assertEquals( 1, abgleichen( _geraetA ).getGesendet() );
+        abgleichen( _geraetB );
+
+        assertEquals( 0, _geraetB.sucheNachAbk( "DEL" ).length );
+        assertTrue( _server.getZustand( "DEL", "Wird gelöscht" ).isGeloescht() );
+    }
+
+    @Test
+    public void loeschen_verwirftSchnappschuss() throws IOException {
+
+        _geraetA.insertGanzNeueAbk( "DEL", "Wird gelöscht" );
+        abgleichen( _geraetA );
+        abgleichen( _geraetB );
+
+        // Ohne Index wird aus dem Schnappschuss gesucht, der die Bedeutung enthält
+        _geraetB.exportiereSnapshot();
+        _geraetB.abkIndexVerwerfen();
+        assertArrayEquals( new String[]{ "Wird gelöscht" }, _geraetB.sucheNachAbk( "DEL" ) );
+
+        _geraetA.getWritableDatabase().execSQL( "DELETE FROM bedeutungen WHERE bedeutung = 'Wird gelöscht'" );
+        abgleichen( _geraetA );
+        abgleichen( _geraetB );
+
+        assertNull( _geraetB.holeSnapshot() );
+        assertFalse( new File( _context.getFilesDir(), DATEINAME_B + DatenbankManager.SNAPSHOT_ENDUNG ).exists() );
+        assertEquals( 0, _geraetB.sucheNachAbk( "DEL" ).length );
+    }
+}
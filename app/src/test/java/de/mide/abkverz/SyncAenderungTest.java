@@ -0,0 +1,90 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für die Konflikt-Regeln von {@link SyncAenderung}, laufen ohne Android-Gerät
+ * auf dem Entwicklungsrechner.
+ */
+public class SyncAenderungTest {
+
+    private static SyncAenderung vorhanden( int kategorie, long stand ) {
+
+        return new SyncAenderung( "KSC", "Karlsruher Sport-Club", kategorie, false, stand );
+    }
+
+    private static SyncAenderung geloescht( long stand ) {
+
+        return new SyncAenderung( "KSC", "Karlsruher Sport-Club", 0, true, stand );
+    }
+
+
+    @Test
+    public void gewinnendeKategorie_bestimmteVorAllgemeinSonstKleinste() {
+
+        assertEquals( 2, SyncAenderung.gewinnendeKategorie( 0, 2 ) );
+        assertEquals( 2, SyncAenderung.gewinnendeKategorie( 2, 0 ) );
+        assertEquals( 1, SyncAenderung.gewinnendeKategorie( 3, 1 ) );
+        assertEquals( 1, SyncAenderung.gewinnendeKategorie( 1, 3 ) );
+        assertEquals( 0, SyncAenderung.gewinnendeKategorie( 0, 0 ) );
+    }
+
+    @Test
+    public void loeseKonflikt_kategorienUnabhaengigVonReihenfolge() {
+
+        SyncAenderung a = vorhanden( 3, 5 );
+        SyncAenderung b = vorhanden( 1, 6 );
+
+        assertEquals( 1, SyncAenderung.loeseKonflikt( a, b, 0 ).getKategorie() );
+        assertEquals( 1, SyncAenderung.loeseKonflikt( b, a, 0 ).getKategorie() );
+        assertSame( b, SyncAenderung.loeseKonflikt( b, a, 0 ) );
+        assertEquals( 5, SyncAenderung.loeseKonflikt( a, b, 0 ).getStand() );
+    }
+
+    @Test
+    public void loeseKonflikt_loeschenGiltNurMitKenntnisDerVersion() {
+
+        SyncAenderung bisher = vorhanden( 2, 10 );
+
+        assertTrue( SyncAenderung.loeseKonflikt( bisher, geloescht( 0 ), 10 ).isGeloescht() );
+        assertSame( bisher, SyncAenderung.loeseKonflikt( bisher, geloescht( 0 ), 9 ) );
+    }
+
+    @Test
+    public void loeseKonflikt_einfuegenGewinntGegenLoeschen() {
+
+        SyncAenderung neu = vorhanden( 2, 0 );
+
+        assertSame( neu, SyncAenderung.loeseKonflikt( geloescht( 10 ), neu, 0 ) );
+        assertSame( neu, SyncAenderung.loeseKonflikt( null, neu, 0 ) );
+
+        SyncAenderung schonGeloescht = geloescht( 10 );
+        assertSame( schonGeloescht, SyncAenderung.loeseKonflikt( schonGeloescht, geloescht( 0 ), 0 ) );
+    }
+
+    @Test
+    public void gleicherZustand_ohneStand() {
+
+        assertTrue ( vorhanden( 2, 1 ).gleicherZustand( vorhanden( 2, 7 ) ) );
+        assertFalse( vorhanden( 2, 1 ).gleicherZustand( vorhanden( 1, 1 ) ) );
+        assertFalse( vorhanden( 2, 1 ).gleicherZustand( geloescht( 1 ) ) );
+        assertFalse( vorhanden( 2, 1 ).gleicherZustand( null ) );
+        assertTrue ( geloescht( 3 ).gleicherZustand( geloescht( 4 ) ) );
+    }
+
+    @Test
+    public void jsonAenderung_mitSchluesselUndStand() {
+
+        StringBuilder sb = new StringBuilder();
+        SyncVerbindung.jsonAenderung( sb, new SyncAenderung( "ksc", "KSC", "Karlsruher \"Sport\"-Club", 2, false, 40 ) );
+        assertEquals( "{\"schluessel\":\"ksc\",\"abk\":\"KSC\",\"bedeutung\":\"Karlsruher \\\"Sport\\\"-Club\"," +
+                      "\"kategorie\":2,\"stand\":40}", sb.toString() );
+
+        sb.setLength( 0 );
+        SyncVerbindung.jsonAenderung( sb, new SyncAenderung( "ksc", "KSC", "Kennedy Space Center", 0, true, 0 ) );
+        assertEquals( "{\"schluessel\":\"ksc\",\"abk\":\"KSC\",\"bedeutung\":\"Kennedy Space Center\"," +
+                      "\"geloescht\":true}", sb.toString() );
+    }
+}
@@ -0,0 +1,276 @@
+package de.mide.abkverz;
+
+import android.util.JsonReader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lokaler Ersatz für den Sync-Server in den Tests von {@link SyncAbgleich}: implementiert das
+ * Protokoll aus {@link SyncVerbindung} mit dem {@code HttpServer} des JDK auf einem freien
+ * Port von {@code localhost}. Hält pro Bedeutung nur den letzten Zustand mit seinem Stand;
+ * gesendete Änderungen werden mit {@link SyncAenderung#loeseKonflikt(SyncAenderung, SyncAenderung, long)}
+ * eingearbeitet, Änderungen ohne Wirkung bekommen keinen neuen Stand.
+ */
+public class SyncTestServer {
+
+    private final HttpServer _server;
+
+    /** Letzter Zustand pro {@link SyncAenderung#getSyncSchluessel()}. */
+    private final Map<String,SyncAenderung> _zustaende = new HashMap<>();
+
+    /** Schlüssel der Zustände, sortiert nach Stand. */
+    private final TreeMap<Long,String> _nachStand = new TreeMap<>();
+
+    private long _stand = 0;
+
+    private int _anzahlAbrufe = 0;
+
+    private int _anzahlSendungen = 0;
+
+    private boolean _alleKomprimiert = true;
+
+
+    public SyncTestServer() throws IOException {
+
+        _server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+        _server.createContext( "/" + SyncVerbindung.PFAD_AENDERUNGEN, this::bearbeite );
+        _server.start();
+    }
+
+
+    /** Basis-URL für {@link SyncVerbindung}. */
+    public String getUrl() {
+
+        return "http://" + _server.getAddress().getHostString() + ":" + _server.getAddress().getPort() + "/";
+    }
+
+
+    public void stoppen() {
+
+        _server.stop( 0 );
+    }
+
+
+    /** Ändert eine Bedeutung direkt auf dem Server, wie es ein anderes Gerät tun würde. */
+    public synchronized boolean aendern( SyncAenderung neu, long basis ) {
+
+        SyncAenderung bisher = _zustaende.get( neu.getSyncSchluessel() );
+        SyncAenderung ziel   = SyncAenderung.loeseKonflikt( bisher, neu, basis );
+        if ( ziel.gleicherZustand( bisher ) ) {
+
+            return false;
+        }
+
+        if ( bisher != null ) {
+
+            _nachStand.remove( bisher.getStand() );
+        }
+        _stand++;
+        _zustaende.put( neu.getSyncSchluessel(), ziel.mitStand( _stand ) );
+        _nachStand.put( _stand, neu.getSyncSchluessel() );
+        return true;
+    }
+
+
+    public synchronized SyncAenderung getZustand( String abk, String bedeutung ) {
+
+        return _zustaende.get( AbkNormalisierer.schluessel( abk ) + SyncAenderung.TRENNER + bedeutung );
+    }
+
+
+    public synchronized long getStand() {
+
+        return _stand;
+    }
+
+
+    public synchronized int getAnzahlAbrufe() {
+
+        return _anzahlAbrufe;
+    }
+
+
+    public synchronized int getAnzahlSendungen() {
+
+        return _anzahlSendungen;
+    }
+
+
+    /** {@code true}, wenn alle Anfragen und Antworten mit gzip komprimiert waren. */
+    public synchronized boolean isAlleKomprimiert() {
+
+        return _alleKomprimiert;
+    }
+
+
+    private void bearbeite( HttpExchange exchange ) throws IOException {
+
+        try {
+
+            String antwort;
+            if ( "GET".equals( exchange.getRequestMethod() ) ) {
+
+                antwort = seite( exchange.getRequestURI().getQuery() );
+
+            } else {
+
+                antwort = annehmen( exchange );
+            }
+
+            boolean gzip = String.valueOf( exchange.getRequestHeaders().getFirst( "Accept-Encoding" ) )
+                                 .contains( "gzip" );
+            byte[] bytes = antwort.getBytes( StandardCharsets.UTF_8 );
+
+            exchange.getResponseHeaders().set( "Content-Type", "application/json; charset=utf-8" );
+            if ( gzip ) {
+
+                exchange.getResponseHeaders().set( "Content-Encoding", "gzip" );
+            }
+            exchange.sendResponseHeaders( 200, 0 );
+            OutputStream outputStream = exchange.getResponseBody();
+            if ( gzip ) {
+
+                outputStream = new GZIPOutputStream( outputStream );
+            }
+            outputStream.write( bytes );
+            outputStream.close();
+
+            synchronized ( this ) {
+
+                _alleKomprimiert &= gzip;
+            }
+        }
+        catch ( RuntimeException ex ) {
+
+            exchange.sendResponseHeaders( 500, -1 );
+        }
+        finally {
+
+            exchange.close();
+        }
+    }
+
+
+    private synchronized String seite( String query ) {
+
+        long seit  = 0;
+        int  limit = Integer.MAX_VALUE;
+        for ( String parameter: query.split( "&" ) ) {
+
+            String[] teile = parameter.split( "=" );
+            if ( teile[ 0 ].equals( "seit" ) ) {
+
+                seit = Long.parseLong( teile[ 1 ] );
+
+            } else if ( teile[ 0 ].equals( "limit" ) ) {
+
+                limit = Integer.parseInt( teile[ 1 ] );
+            }
+        }
+        _anzahlAbrufe++;
+
+        List<SyncAenderung> aenderungen = new ArrayList<>();
+        for ( String schluessel: _nachStand.tailMap( seit, false ).values() ) {
+
+            if ( aenderungen.size() == limit ) {
+
+                break;
+            }
+            aenderungen.add( _zustaende.get( schluessel ) );
+        }
+
+        long    token   = aenderungen.isEmpty() ? _stand : aenderungen.get( aenderungen.size() - 1 ).getStand();
+        boolean weitere = _nachStand.higherKey( token ) != null;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( "{\"token\":" ).append( token ).append( ",\"weitere\":" ).append( weitere )
+          .append( ",\"aenderungen\":[" );
+        for ( int i = 0; i < aenderungen.size(); i++ ) {
+
+            if ( i > 0 ) {
+
+                sb.append( ',' );
+            }
+            SyncVerbindung.jsonAenderung( sb, aenderungen.get( i ) );
+        }
+        sb.append( "]}" );
+        return sb.toString();
+    }
+
+
+    private String annehmen( HttpExchange exchange ) throws IOException {
+
+        InputStream inputStream = exchange.getRequestBody();
+        boolean     gzip        = "gzip".equals( exchange.getRequestHeaders().getFirst( "Content-Encoding" ) );
+        if ( gzip ) {
+
+            inputStream = new GZIPInputStream( inputStream );
+        }
+
+        long                basis       = 0;
+        List<SyncAenderung> aenderungen = new ArrayList<>();
+
+        JsonReader reader = new JsonReader( new InputStreamReader( inputStream, StandardCharsets.UTF_8 ) );
+        try {
+
+            reader.beginObject();
+            while ( reader.hasNext() ) {
+
+                String name = reader.nextName();
+                if ( name.equals( "basis" ) ) {
+
+                    basis = reader.nextLong();
+
+                } else if ( name.equals( "aenderungen" ) ) {
+
+                    reader.beginArray();
+                    while ( reader.hasNext() ) {
+
+                        aenderungen.add( SyncVerbindung.leseAenderung( reader ) );
+                    }
+                    reader.endArray();
+
+                } else {
+
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        finally {
+
+            reader.close();
+        }
+
+        int angenommen = 0;
+        synchronized ( this ) {
+
+            _anzahlSendungen++;
+            _alleKomprimiert &= gzip;
+            for ( SyncAenderung aenderung: aenderungen ) {
+
+                if ( aendern( aenderung, basis ) ) {
+
+                    angenommen++;
+                }
+            }
+        }
+        return "{\"angenommen\":" + angenommen + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link TextAufloeser}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class TextAufloeserTest {
+
+    @Test
+    public void zerlegeInWoerter_entferntSatzzeichen() {
+
+        List<String> woerter = TextAufloeser.zerlegeInWoerter( "  Die ADB (Android), z.B. per USB!  " );
+
+        assertEquals( Arrays.asList( "Die", "ADB", "Android", "z.B.", "per", "USB" ), woerter );
+    }
+
+    @Test
+    public void zerlegeInWoerter_ohneDuplikate() {
+
+        List<String> woerter = TextAufloeser.zerlegeInWoerter( "KSC gegen KSC. -- ?!" );
+
+        assertEquals( Arrays.asList( "KSC", "gegen" ), woerter );
+    }
+
+    @Test
+    public void zerlegeInWoerter_leererText() {
+
+        assertTrue( TextAufloeser.zerlegeInWoerter( ""    ).isEmpty() );
+        assertTrue( TextAufloeser.zerlegeInWoerter( " \n" ).isEmpty() );
+    }
+
+    @Test
+    public void erzeugeZeilen_nurGefundeneInTextReihenfolge() {
+
+        Map<String,String[]> bedeutungen = new HashMap<>();
+        bedeutungen.put( "KSC" , new String[]{ "Karlsruher Sport-Club", "Kennedy Space Center" } );
+        bedeutungen.put( "ADB" , new String[]{ "Android Debug Bridge" } );
+        bedeutungen.put( "DIE" , new String[]{} );
+
+        List<String> zeilen = TextAufloeser.erzeugeZeilen( Arrays.asList( "ksc", "Die", "ADB", "XYZ" ), bedeutungen );
+
+        assertEquals( Arrays.asList( "ksc: Karlsruher Sport-Club; Kennedy Space Center",
+                                     "ADB: Android Debug Bridge" ),
+                      zeilen );
+        assertTrue( TextAufloeser.erzeugeZeilen( Collections.singletonList( "ADB" ),
+                                                 Collections.emptyMap() ).isEmpty() );
+    }
+}
@@ -0,0 +1,62 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link TrefferZaehler}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class TrefferZaehlerTest {
+
+    @Test
+    public void zaehle_summiertProBedeutung() {
+
+        TrefferZaehler zaehler = new TrefferZaehler();
+
+        assertEquals( 1, zaehler.zaehle( "KSC", "Kennedy Space Center" ) );
+        assertEquals( 2, zaehler.zaehle( "KSC", "Kennedy Space Center" ) );
+        assertEquals( 3, zaehler.zaehle( "KSC", "Karlsruher Sport-Club" ) );
+        assertEquals( 4, zaehler.zaehle( "HCI", "Human-Computer Interaction" ) );
+
+        Map<String,Map<String,Integer>> entnommen = zaehler.entnehmen();
+
+        assertEquals( 2, entnommen.size() );
+        assertEquals( Integer.valueOf( 2 ), entnommen.get( "KSC" ).get( "Kennedy Space Center" ) );
+        assertEquals( Integer.valueOf( 1 ), entnommen.get( "KSC" ).get( "Karlsruher Sport-Club" ) );
+        assertEquals( Integer.valueOf( 1 ), entnommen.get( "HCI" ).get( "Human-Computer Interaction" ) );
+    }
+
+    @Test
+    public void entnehmen_leertPuffer() {
+
+        TrefferZaehler zaehler = new TrefferZaehler();
+        zaehler.zaehle( "ADB", "Android Debug Bridge" );
+        zaehler.entnehmen();
+
+        assertEquals( 0, zaehler.getAnzahl() );
+        assertTrue( zaehler.entnehmen().isEmpty() );
+        assertEquals( 1, zaehler.zaehle( "ADB", "Android Debug Bridge" ) );
+    }
+
+    @Test
+    public void zurueckgeben_addiertNeueAuswahlen() {
+
+        TrefferZaehler zaehler = new TrefferZaehler();
+        zaehler.zaehle( "KSC", "Kennedy Space Center" );
+        zaehler.zaehle( "KSC", "Kennedy Space Center" );
+
+        Map<String,Map<String,Integer>> entnommen = zaehler.entnehmen();
+        zaehler.zaehle( "KSC", "Kennedy Space Center" );
+        zaehler.zaehle( "ADB", "Android Debug Bridge" );
+        zaehler.zurueckgeben( entnommen );
+
+        assertEquals( 4, zaehler.getAnzahl() );
+
+        Map<String,Map<String,Integer>> alle = zaehler.entnehmen();
+        assertEquals( Integer.valueOf( 3 ), alle.get( "KSC" ).get( "Kennedy Space Center" ) );
+        assertEquals( Integer.valueOf( 1 ), alle.get( "ADB" ).get( "Android Debug Bridge" ) );
+    }
+}
@@ -0,0 +1,72 @@
+package de.mide.abkverz;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit-Tests für {@link VolltextSuche}, laufen ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+public class VolltextSucheTest {
+
+    /**
+     * Erzeugt einen Blob wie von {@code matchinfo(..., 'pcnalx')} für eine Spalte und
+     * eine Phrase.
+     */
+    private static byte[] matchinfo( int anzahlZeilen, int durchschnittLaenge, int laenge,
+                                     int trefferInZeile, int zeilenMitTreffern ) {
+
+        int[] werte = { 1, 1, anzahlZeilen, durchschnittLaenge, laenge,
+                        trefferInZeile, trefferInZeile, zeilenMitTreffern };
+
+        ByteBuffer buffer = ByteBuffer.allocate( 4 * werte.length ).order( ByteOrder.nativeOrder() );
+        for ( int wert: werte ) {
+
+            buffer.putInt( wert );
+        }
+        return buffer.array();
+    }
+
+    @Test
+    public void matchAusdruck_nurWoerterAlsPraefix() {
+
+        assertEquals( "space* cent*", VolltextSuche.erzeugeMatchAusdruck( "Space Cent" ) );
+        assertEquals( "sport* club*", VolltextSuche.erzeugeMatchAusdruck( "\"Sport-Club\"" ) );
+        assertEquals( "or* not*", VolltextSuche.erzeugeMatchAusdruck( "OR NOT" ) );
+        assertEquals( "größe*", VolltextSuche.erzeugeMatchAusdruck( "Größe*" ) );
+        assertNull( VolltextSuche.erzeugeMatchAusdruck( " -*\" " ) );
+        assertNull( VolltextSuche.erzeugeMatchAusdruck( null ) );
+    }
+
+    @Test
+    public void rang_seltenesWortUndKurzeBedeutungZaehlenMehr() {
+
+        double selten  = VolltextSuche.berechneRang( matchinfo( 100, 3, 3, 1,  2 ) );
+        double haeufig = VolltextSuche.berechneRang( matchinfo( 100, 3, 3, 1, 40 ) );
+        double lang    = VolltextSuche.berechneRang( matchinfo( 100, 3, 9, 1,  2 ) );
+
+        assertTrue( selten > haeufig );
+        assertTrue( selten > lang );
+        assertTrue( VolltextSuche.berechneRang( matchinfo( 100, 3, 3, 1, 90 ) ) > 0 );
+    }
+
+    @Test
+    public void besteTreffer_begrenztUndSortiert() {
+
+        VolltextSuche suche = new VolltextSuche( 2 );
+        suche.hinzufuegen( new BedeutungTreffer( "A", "eins", 1.0 ) );
+        suche.hinzufuegen( new BedeutungTreffer( "B", "drei", 3.0 ) );
+        suche.hinzufuegen( new BedeutungTreffer( "C", "zwei", 2.0 ) );
+        suche.hinzufuegen( new BedeutungTreffer( "D", "null", 0.5 ) );
+
+        List<BedeutungTreffer> ergebnis = suche.getErgebnis();
+
+        assertEquals( 2, ergebnis.size() );
+        assertEquals( "B", ergebnis.get( 0 ).getAbkuerzung() );
+        assertEquals( "C", ergebnis.get( 1 ).getAbkuerzung() );
+    }
+}
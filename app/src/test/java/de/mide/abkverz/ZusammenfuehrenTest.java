@@ -0,0 +1,79 @@
+package de.mide.abkverz;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests für {@link DatenbankManager#zusammenfuehren(java.io.File)}; laufen mit Robolectric
+ * (echte SQLite-Bibliothek) ohne Android-Gerät auf dem Entwicklungsrechner.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ZusammenfuehrenTest {
+
+    /** Namen der DB-Dateien, die zusammengeführt werden. */
+    private static final String DATEINAME_FREMD = "abkverz_fremd_test.db",
+                                DATEINAME_ZIEL  = "abkverz_ziel_test.db";
+
+    private final Context _context = RuntimeEnvironment.getApplication();
+
+    @After
+    public void aufraeumen() {
+
+        _context.deleteDatabase( DATEINAME_FREMD );
+        _context.deleteDatabase( DATEINAME_ZIEL );
+    }
+
+    @Test
+    public void zusammenfuehren_fuegtNurFehlendeEin() throws IOException {
+
+        DatenbankManager fremd = new DatenbankManager( _context, DATEINAME_FREMD );
+        fremd.fuegeBedeutungHinzu( "k.s.c.", "Kieler Segel-Club",  true );
+        fremd.fuegeBedeutungHinzu( "K.S.C.", "Kölner Schach-Club", true );
+        fremd.fuegeBedeutungHinzu( "XYZ",    "Erste Bedeutung",    true );
+        fremd.fuegeBedeutungHinzu( "xyz",    "Zweite Bedeutung",   true );
+        long abkuerzungenFremd = fremd.getReadableDatabase()
+                .compileStatement( "SELECT COUNT(*) FROM abkuerzungen" ).simpleQueryForLong();
+        long bedeutungenFremd  = fremd.getReadableDatabase()
+                .compileStatement( "SELECT COUNT(*) FROM bedeutungen" ).simpleQueryForLong();
+        fremd.close();
+
+        DatenbankManager dbManager = new DatenbankManager( _context, DATEINAME_ZIEL );
+        dbManager.fuegeBedeutungHinzu( "KSC", "Kieler Segel-Club", true );
+        assertEquals( 3, dbManager.sucheNachAbk( "KSC" ).length ); // Index und Cache laden
+
+        ZusammenfuehrErgebnis ergebnis =
+                dbManager.zusammenfuehren( _context.getDatabasePath( DATEINAME_FREMD ) );
+
+        assertEquals( abkuerzungenFremd, ergebnis.getAbkuerzungenGelesen() );
+        assertEquals( 1, ergebnis.getAbkuerzungenNeu() );
+        assertEquals( bedeutungenFremd, ergebnis.getBedeutungenGelesen() );
+        assertEquals( 3, ergebnis.getBedeutungenNeu() );
+        assertEquals( bedeutungenFremd - 3, ergebnis.getBedeutungenUebersprungen() );
+
+        assertEquals( 4, dbManager.sucheNachAbk( "KSC" ).length );
+        assertArrayEquals( new String[]{ "Erste Bedeutung", "Zweite Bedeutung" },
+                           dbManager.sucheNachAbk( "XYZ" ) );
+        assertEquals( 1, dbManager.sucheNachBedeutung( "Schach", 10 ).size() );
+
+        // *** Zweites Zusammenführen fügt nichts mehr ein ***
+        ergebnis = dbManager.zusammenfuehren( _context.getDatabasePath( DATEINAME_FREMD ) );
+
+        assertEquals( 0, ergebnis.getAbkuerzungenNeu() );
+        assertEquals( 0, ergebnis.getBedeutungenNeu() );
+
+        assertTrue( dbManager.getReadableDatabase().isWriteAheadLoggingEnabled() );
+
+        dbManager.close();
+    }
+}